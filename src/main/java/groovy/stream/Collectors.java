@@ -0,0 +1,567 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream ;
+
+import groovy.lang.Closure ;
+import groovy.stream.functions.Collector ;
+import groovy.stream.functions.Function ;
+import groovy.stream.functions.Function2 ;
+import groovy.stream.functions.Predicate ;
+import groovy.stream.stages.SummingStage ;
+
+import java.util.ArrayList ;
+import java.util.Comparator ;
+import java.util.LinkedHashMap ;
+import java.util.LinkedHashSet ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Set ;
+
+import org.codehaus.groovy.runtime.InvokerHelper ;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+/**
+ * Ready made {@link Collector}s for {@link Stream#collect(groovy.stream.functions.Collector)}.
+ *
+ * On a parallel {@link Stream}, each part of the source is gathered into its own container,
+ * and the containers are combined in a fixed order, so every result here (including the
+ * floating point total from {@link #summing()}) is the same on every run.
+ *
+ * <pre class="groovyTestCase">
+ *   import groovy.stream.*
+ *
+ *   def words = [ 'apple', 'avocado', 'banana', 'blueberry', 'cherry' ]
+ *
+ *   assert Stream.from( words ).collect( Collectors.groupingBy( { it[ 0 ] }, Collectors.counting() ) ) == [ a:2, b:2, c:1 ]
+ *   assert Stream.from( words ).collect( Collectors.joining( ', ' ) ) == 'apple, avocado, banana, blueberry, cherry'
+ * </pre>
+ */
+public class Collectors {
+    private Collectors() {}
+
+    /**
+     * A {@link Collector} made from {@link Closure}s, which returns its container as the result.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def evens = Collectors.of( { [] }, { list, v -&gt; v % 2 ? list : list &lt;&lt; v }, { a, b -&gt; a + b } )
+     *   assert Stream.from( 1..10 ).collect( evens ) == [ 2, 4, 6, 8, 10 ]
+     * </pre>
+     *
+     * @param <T> The type of the elements.
+     * @param <A> The type of the container.
+     * @param supplier A closure with no parameters, returning a new container.
+     * @param accumulator A closure called with the container and an element, returning the container.
+     * @param combiner A closure called with two containers in order, returning one holding both.
+     * @return A new {@link Collector}
+     */
+    public static <T,A> Collector<T,A,A> of( Closure<A> supplier, Closure<A> accumulator, Closure<A> combiner ) {
+        return of( supplier, accumulator, combiner, null ) ;
+    }
+
+    /**
+     * A {@link Collector} made from {@link Closure}s.
+     *
+     * @see #of(groovy.lang.Closure, groovy.lang.Closure, groovy.lang.Closure)
+     * @param <T> The type of the elements.
+     * @param <A> The type of the container.
+     * @param <R> The type of the result.
+     * @param supplier A closure with no parameters, returning a new container.
+     * @param accumulator A closure called with the container and an element, returning the container.
+     * @param combiner A closure called with two containers in order, returning one holding both.
+     * @param finisher A closure called with the last container, returning the result; or {@code null}
+     *                 to return the container itself.
+     * @return A new {@link Collector}
+     */
+    public static <T,A,R> Collector<T,A,R> of( final Closure<A> supplier, final Closure<A> accumulator, final Closure<A> combiner, final Closure<R> finisher ) {
+        return new Collector<T,A,R>() {
+            @Override public A supply() {
+                return supplier.call() ;
+            }
+            @Override public A accumulate( A container, T value ) {
+                return accumulator.call( container, value ) ;
+            }
+            @Override public A combine( A left, A right ) {
+                return combiner.call( left, right ) ;
+            }
+            @Override @SuppressWarnings("unchecked") public R finish( A container ) {
+                return finisher == null ? (R)container : finisher.call( container ) ;
+            }
+        } ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @return A {@link Collector} gathering the elements into an {@link ArrayList}, in order.
+     */
+    public static <T> Collector<T,List<T>,List<T>> toList() {
+        return new Collector<T,List<T>,List<T>>() {
+            @Override public List<T> supply() {
+                return new ArrayList<T>() ;
+            }
+            @Override public List<T> accumulate( List<T> container, T value ) {
+                container.add( value ) ;
+                return container ;
+            }
+            @Override public List<T> combine( List<T> left, List<T> right ) {
+                left.addAll( right ) ;
+                return left ;
+            }
+            @Override public List<T> finish( List<T> container ) {
+                return container ;
+            }
+        } ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @return A {@link Collector} gathering the elements into a {@link LinkedHashSet}, in order.
+     */
+    public static <T> Collector<T,Set<T>,Set<T>> toSet() {
+        return new Collector<T,Set<T>,Set<T>>() {
+            @Override public Set<T> supply() {
+                return new LinkedHashSet<T>() ;
+            }
+            @Override public Set<T> accumulate( Set<T> container, T value ) {
+                container.add( value ) ;
+                return container ;
+            }
+            @Override public Set<T> combine( Set<T> left, Set<T> right ) {
+                left.addAll( right ) ;
+                return left ;
+            }
+            @Override public Set<T> finish( Set<T> container ) {
+                return container ;
+            }
+        } ;
+    }
+
+    /**
+     * @return A {@link Collector} joining the elements into a {@link String}, as Groovy would write each one.
+     */
+    public static Collector<Object,StringBuilder,String> joining() {
+        return joining( "" ) ;
+    }
+
+    /**
+     * @param separator The text to put between each element.
+     * @return A {@link Collector} joining the elements into a {@link String}, as Groovy would write each one.
+     */
+    public static Collector<Object,StringBuilder,String> joining( final CharSequence separator ) {
+        return new Collector<Object,StringBuilder,String>() {
+            // Each container starts with a separator, which is dropped from the result
+            @Override public StringBuilder supply() {
+                return new StringBuilder() ;
+            }
+            @Override public StringBuilder accumulate( StringBuilder container, Object value ) {
+                return container.append( separator ).append( InvokerHelper.toString( value ) ) ;
+            }
+            @Override public StringBuilder combine( StringBuilder left, StringBuilder right ) {
+                return left.append( right ) ;
+            }
+            @Override public String finish( StringBuilder container ) {
+                return container.length() == 0 ? "" : container.substring( separator.length() ) ;
+            }
+        } ;
+    }
+
+    /**
+     * @return A {@link Collector} counting the elements.
+     */
+    public static Collector<Object,long[],Long> counting() {
+        return new Collector<Object,long[],Long>() {
+            @Override public long[] supply() {
+                return new long[ 1 ] ;
+            }
+            @Override public long[] accumulate( long[] container, Object value ) {
+                container[ 0 ]++ ;
+                return container ;
+            }
+            @Override public long[] combine( long[] left, long[] right ) {
+                left[ 0 ] += right[ 0 ] ;
+                return left ;
+            }
+            @Override public Long finish( long[] container ) {
+                return container[ 0 ] ;
+            }
+        } ;
+    }
+
+    /**
+     * @see Stream#sum()
+     * @return A {@link Collector} adding up elements, as {@link Stream#sum()} does.
+     */
+    public static Collector<Object,SummingStage<Object>,Object> summing() {
+        return new Summing<Object>() {
+            @Override public Object finish( SummingStage<Object> container ) {
+                return container.getSum() ;
+            }
+        } ;
+    }
+
+    /**
+     * @see Stream#average()
+     * @return A {@link Collector} for the mean of {@link Number} elements, as {@link Stream#average()} finds it.
+     */
+    public static Collector<Object,SummingStage<Object>,Number> averaging() {
+        return new Summing<Number>() {
+            @Override public Number finish( SummingStage<Object> container ) {
+                return container.getAverage() ;
+            }
+        } ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param comparator The {@link Comparator} to order the elements with, or {@code null} to compare them as Groovy
+     *                   does, ignoring {@code null} elements.
+     * @return A {@link Collector} for the first of the smallest elements, or {@code null} if there are none.
+     */
+    public static <T> Collector<T,Holder<T>,T> minBy( final Comparator<? super T> comparator ) {
+        return reducing( new Function2<T,T,T>() {
+            @Override
+            public T call( T best, T value ) {
+                if( comparator == null && ( best == null || value == null ) ) {
+                    return best == null ? value : best ;
+                }
+                return compare( comparator, value, best ) < 0 ? value : best ;
+            }
+        } ) ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param order A two parameter comparing closure, or a single parameter closure returning the value to compare by.
+     * @return A {@link Collector} for the first of the smallest elements, or {@code null} if there are none.
+     */
+    public static <T> Collector<T,Holder<T>,T> minBy( Closure<?> order ) {
+        return minBy( Stream.<T>comparator( order ) ) ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param comparator The {@link Comparator} to order the elements with, or {@code null} to compare them as Groovy
+     *                   does, ignoring {@code null} elements.
+     * @return A {@link Collector} for the first of the largest elements, or {@code null} if there are none.
+     */
+    public static <T> Collector<T,Holder<T>,T> maxBy( final Comparator<? super T> comparator ) {
+        return reducing( new Function2<T,T,T>() {
+            @Override
+            public T call( T best, T value ) {
+                if( comparator == null && ( best == null || value == null ) ) {
+                    return best == null ? value : best ;
+                }
+                return compare( comparator, value, best ) > 0 ? value : best ;
+            }
+        } ) ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param order A two parameter comparing closure, or a single parameter closure returning the value to compare by.
+     * @return A {@link Collector} for the first of the largest elements, or {@code null} if there are none.
+     */
+    public static <T> Collector<T,Holder<T>,T> maxBy( Closure<?> order ) {
+        return maxBy( Stream.<T>comparator( order ) ) ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param reduction An associative two parameter closure, combining two elements into one.
+     * @return A {@link Collector} combining the elements, or returning {@code null} if there are none.
+     */
+    public static <T> Collector<T,Holder<T>,T> reducing( Closure<T> reduction ) {
+        return reducing( Collectors.<T,T,T>function2( reduction ) ) ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param reduction An associative {@link Function2}, combining two elements into one.
+     * @return A {@link Collector} combining the elements, or returning {@code null} if there are none.
+     */
+    public static <T> Collector<T,Holder<T>,T> reducing( final Function2<T,T,T> reduction ) {
+        return new Collector<T,Holder<T>,T>() {
+            @Override public Holder<T> supply() {
+                return new Holder<T>() ;
+            }
+            @Override public Holder<T> accumulate( Holder<T> container, T value ) {
+                container.value = container.present ? reduction.call( container.value, value ) : value ;
+                container.present = true ;
+                return container ;
+            }
+            @Override public Holder<T> combine( Holder<T> left, Holder<T> right ) {
+                return right.present ? accumulate( left, right.value ) : left ;
+            }
+            @Override public T finish( Holder<T> container ) {
+                return container.value ;
+            }
+        } ;
+    }
+
+    /**
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 'a'..'c' ).collect( Collectors.mapping( { it * 2 }, Collectors.toList() ) ) == [ 'aa', 'bb', 'cc' ]
+     * </pre>
+     *
+     * @param <T> The type of the elements.
+     * @param <U> The type of the mapped elements.
+     * @param <A> The type of the container.
+     * @param <R> The type of the result.
+     * @param map A single parameter closure, called with each element.
+     * @param downstream The {@link Collector} to pass the results of {@code map} to.
+     * @return A {@link Collector} passing the result of {@code map} for each element to {@code downstream}.
+     */
+    public static <T,U,A,R> Collector<T,A,R> mapping( Closure<U> map, Collector<? super U,A,R> downstream ) {
+        return mapping( Collectors.<T,U>function( map ), downstream ) ;
+    }
+
+    /**
+     * @see #mapping(groovy.lang.Closure, groovy.stream.functions.Collector)
+     * @param <T> The type of the elements.
+     * @param <U> The type of the mapped elements.
+     * @param <A> The type of the container.
+     * @param <R> The type of the result.
+     * @param map A {@link Function}, called with each element.
+     * @param downstream The {@link Collector} to pass the results of {@code map} to.
+     * @return A {@link Collector} passing the result of {@code map} for each element to {@code downstream}.
+     */
+    public static <T,U,A,R> Collector<T,A,R> mapping( final Function<T,U> map, final Collector<? super U,A,R> downstream ) {
+        return new Collector<T,A,R>() {
+            @Override public A supply() {
+                return downstream.supply() ;
+            }
+            @Override public A accumulate( A container, T value ) {
+                return downstream.accumulate( container, map.call( value ) ) ;
+            }
+            @Override public A combine( A left, A right ) {
+                return downstream.combine( left, right ) ;
+            }
+            @Override public R finish( A container ) {
+                return downstream.finish( container ) ;
+            }
+        } ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param <K> The type of the keys.
+     * @param key A single parameter closure, returning the key for an element.
+     * @return A {@link Collector} gathering the elements with each key into a {@link List}, with the keys in the
+     *         order they were first seen.
+     */
+    public static <T,K> Collector<T,Map<K,List<T>>,Map<K,List<T>>> groupingBy( Closure<K> key ) {
+        return groupingBy( key, Collectors.<T>toList() ) ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param <K> The type of the keys.
+     * @param <A> The type of the container for each key.
+     * @param <R> The type of the result for each key.
+     * @param key A single parameter closure, returning the key for an element.
+     * @param downstream The {@link Collector} to gather the elements with each key.
+     * @return A {@link Collector} for a {@link Map} of each key to the result of {@code downstream}, with the
+     *         keys in the order they were first seen.
+     */
+    public static <T,K,A,R> Collector<T,Map<K,A>,Map<K,R>> groupingBy( Closure<K> key, Collector<? super T,A,R> downstream ) {
+        return groupingBy( Collectors.<T,K>function( key ), downstream ) ;
+    }
+
+    /**
+     * @see #groupingBy(groovy.lang.Closure)
+     * @param <T> The type of the elements.
+     * @param <K> The type of the keys.
+     * @param key A {@link Function} returning the key for an element.
+     * @return A {@link Collector} gathering the elements with each key into a {@link List}.
+     */
+    public static <T,K> Collector<T,Map<K,List<T>>,Map<K,List<T>>> groupingBy( Function<T,K> key ) {
+        return groupingBy( key, Collectors.<T>toList() ) ;
+    }
+
+    /**
+     * @see #groupingBy(groovy.lang.Closure, groovy.stream.functions.Collector)
+     * @param <T> The type of the elements.
+     * @param <K> The type of the keys.
+     * @param <A> The type of the container for each key.
+     * @param <R> The type of the result for each key.
+     * @param key A {@link Function} returning the key for an element.
+     * @param downstream The {@link Collector} to gather the elements with each key.
+     * @return A {@link Collector} for a {@link Map} of each key to the result of {@code downstream}.
+     */
+    public static <T,K,A,R> Collector<T,Map<K,A>,Map<K,R>> groupingBy( final Function<T,K> key, final Collector<? super T,A,R> downstream ) {
+        return new Collector<T,Map<K,A>,Map<K,R>>() {
+            @Override public Map<K,A> supply() {
+                return new LinkedHashMap<K,A>() ;
+            }
+            @Override public Map<K,A> accumulate( Map<K,A> container, T value ) {
+                K k = key.call( value ) ;
+                A group = container.get( k ) ;
+                if( group == null && !container.containsKey( k ) ) {
+                    group = downstream.supply() ;
+                }
+                container.put( k, downstream.accumulate( group, value ) ) ;
+                return container ;
+            }
+            @Override public Map<K,A> combine( Map<K,A> left, Map<K,A> right ) {
+                for( Map.Entry<K,A> entry : right.entrySet() ) {
+                    K k = entry.getKey() ;
+                    left.put( k, left.containsKey( k ) ? downstream.combine( left.get( k ), entry.getValue() ) : entry.getValue() ) ;
+                }
+                return left ;
+            }
+            @Override public Map<K,R> finish( Map<K,A> container ) {
+                Map<K,R> result = new LinkedHashMap<K,R>() ;
+                for( Map.Entry<K,A> entry : container.entrySet() ) {
+                    result.put( entry.getKey(), downstream.finish( entry.getValue() ) ) ;
+                }
+                return result ;
+            }
+        } ;
+    }
+
+    /**
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..5 ).collect( Collectors.partitioningBy { it % 2 } ) == [ (false):[ 2, 4 ], (true):[ 1, 3, 5 ] ]
+     * </pre>
+     *
+     * @param <T> The type of the elements.
+     * @param predicate A single parameter closure to check each element with.
+     * @return A {@link Collector} for a {@link Map} from {@code false} and {@code true} to a {@link List} of
+     *         the elements which did not and did match.
+     */
+    public static <T> Collector<T,Map<Boolean,List<T>>,Map<Boolean,List<T>>> partitioningBy( Closure<Boolean> predicate ) {
+        return partitioningBy( predicate, Collectors.<T>toList() ) ;
+    }
+
+    /**
+     * @param <T> The type of the elements.
+     * @param <A> The type of the container for each side.
+     * @param <R> The type of the result for each side.
+     * @param predicate A single parameter closure to check each element with.
+     * @param downstream The {@link Collector} to gather each side with.
+     * @return A {@link Collector} for a {@link Map} from {@code false} and {@code true} to the result of
+     *         {@code downstream} for the elements which did not and did match.
+     */
+    public static <T,A,R> Collector<T,Map<Boolean,A>,Map<Boolean,R>> partitioningBy( final Closure<Boolean> predicate, Collector<? super T,A,R> downstream ) {
+        return partitioningBy( new Predicate<T>() {
+            @Override
+            public boolean call( T value ) {
+                return DefaultTypeTransformation.castToBoolean( predicate.call( value ) ) ;
+            }
+        }, downstream ) ;
+    }
+
+    /**
+     * @see #partitioningBy(groovy.lang.Closure)
+     * @param <T> The type of the elements.
+     * @param predicate A {@link Predicate} to check each element with.
+     * @return A {@link Collector} for a {@link Map} from {@code false} and {@code true} to a {@link List} of
+     *         the elements which did not and did match.
+     */
+    public static <T> Collector<T,Map<Boolean,List<T>>,Map<Boolean,List<T>>> partitioningBy( Predicate<T> predicate ) {
+        return partitioningBy( predicate, Collectors.<T>toList() ) ;
+    }
+
+    /**
+     * @see #partitioningBy(groovy.lang.Closure, groovy.stream.functions.Collector)
+     * @param <T> The type of the elements.
+     * @param <A> The type of the container for each side.
+     * @param <R> The type of the result for each side.
+     * @param predicate A {@link Predicate} to check each element with.
+     * @param downstream The {@link Collector} to gather each side with.
+     * @return A {@link Collector} for a {@link Map} from {@code false} and {@code true} to the result of
+     *         {@code downstream} for the elements which did not and did match.
+     */
+    public static <T,A,R> Collector<T,Map<Boolean,A>,Map<Boolean,R>> partitioningBy( final Predicate<T> predicate, final Collector<? super T,A,R> downstream ) {
+        final Collector<T,Map<Boolean,A>,Map<Boolean,R>> grouping = groupingBy( new Function<T,Boolean>() {
+            @Override
+            public Boolean call( T value ) {
+                return predicate.call( value ) ;
+            }
+        }, downstream ) ;
+        return new Collector<T,Map<Boolean,A>,Map<Boolean,R>>() {
+            @Override public Map<Boolean,A> supply() {
+                Map<Boolean,A> container = grouping.supply() ;
+                container.put( Boolean.FALSE, downstream.supply() ) ;
+                container.put( Boolean.TRUE, downstream.supply() ) ;
+                return container ;
+            }
+            @Override public Map<Boolean,A> accumulate( Map<Boolean,A> container, T value ) {
+                return grouping.accumulate( container, value ) ;
+            }
+            @Override public Map<Boolean,A> combine( Map<Boolean,A> left, Map<Boolean,A> right ) {
+                return grouping.combine( left, right ) ;
+            }
+            @Override public Map<Boolean,R> finish( Map<Boolean,A> container ) {
+                return grouping.finish( container ) ;
+            }
+        } ;
+    }
+
+    /**
+     * The container for {@link #reducing(groovy.stream.functions.Function2)}, {@link #minBy(java.util.Comparator)}
+     * and {@link #maxBy(java.util.Comparator)}.
+     *
+     * @param <T> The type of the value.
+     */
+    public static class Holder<T> {
+        private boolean present ;
+        private T       value ;
+
+        private Holder() {}
+    }
+
+    private static abstract class Summing<R> implements Collector<Object,SummingStage<Object>,R> {
+        @Override public SummingStage<Object> supply() {
+            return new SummingStage<Object>() ;
+        }
+        @Override public SummingStage<Object> accumulate( SummingStage<Object> container, Object value ) {
+            container.apply( value ) ;
+            return container ;
+        }
+        @Override public SummingStage<Object> combine( SummingStage<Object> left, SummingStage<Object> right ) {
+            return left.combine( right ) ;
+        }
+    }
+
+    private static <T> int compare( Comparator<? super T> comparator, T a, T b ) {
+        return comparator == null ? DefaultTypeTransformation.compareTo( a, b ) : comparator.compare( a, b ) ;
+    }
+
+    private static <T,U> Function<T,U> function( final Closure<U> closure ) {
+        return new Function<T,U>() {
+            @Override
+            public U call( T value ) {
+                return closure.call( value ) ;
+            }
+        } ;
+    }
+
+    private static <T,U,S> Function2<T,U,S> function2( final Closure<S> closure ) {
+        return new Function2<T,U,S>() {
+            @Override
+            public S call( T value, U value2 ) {
+                return closure.call( value, value2 ) ;
+            }
+        } ;
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream ;
+
+import groovy.lang.Closure ;
+
+import groovy.stream.functions.DoublePredicate ;
+import groovy.stream.functions.DoubleUnaryFunction ;
+import groovy.stream.iterators.primitive.* ;
+import groovy.stream.stages.DoubleArrayStage ;
+
+import java.nio.ByteBuffer ;
+
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+/**
+ * A {@link Stream} of {@code double} values.  Every stage works on the {@code double} values
+ * directly, so nothing is boxed unless a {@link Closure} is used, or the values are
+ * passed back to a {@link Stream} with {@link #boxed()}.
+ *
+ * <pre class="groovyTestCase">
+ *   import groovy.stream.*
+ *
+ *   double[] values = [ 1, 2, 3, 4, 5, 6 ]
+ *
+ *   assert DoubleStream.from( values )
+ *                   .filter { it % 2 == 0 }
+ *                   .map { it * 10 }
+ *                   .boxed()
+ *                   .collect() == [ 20, 40, 60 ]
+ * </pre>
+ *
+ * @since 0.9.1
+ */
+public class DoubleStream extends DoubleIterator {
+    private final DoubleIterator iterator ;
+
+    private DoubleStream( DoubleIterator iterator ) {
+        this.iterator = iterator ;
+    }
+
+    /**
+     * Filter the current stream, passing each value through a predicate filter.
+     *
+     * @param predicate A {@link DoublePredicate} returning {@code true} if the value is to be included.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleFilteringIterator}
+     */
+    public DoubleStream filter( DoublePredicate predicate ) {
+        return new DoubleStream( new DoubleFilteringIterator( iterator, predicate ) ) ;
+    }
+
+    /**
+     * Filter the current stream, passing each value through a predicate filter.
+     *
+     * @param predicate A single parameter closure returning {@code true} if the value is to be included.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleFilteringIterator}
+     */
+    public DoubleStream filter( Closure<Boolean> predicate ) {
+        return filter( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Maps each value to a new {@code double} value.
+     *
+     * @param map The transforming {@link DoubleUnaryFunction}.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleTransformingIterator}
+     */
+    public DoubleStream map( DoubleUnaryFunction map ) {
+        return new DoubleStream( new DoubleTransformingIterator( iterator, map ) ) ;
+    }
+
+    /**
+     * Maps each value to a new {@code double} value.
+     *
+     * @param map The transforming Closure, which must return a {@link Number}.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleTransformingIterator}
+     */
+    public DoubleStream map( final Closure<? extends Number> map ) {
+        return map( new DoubleUnaryFunction() {
+            @Override
+            public double call( double value ) {
+                return DefaultTypeTransformation.doubleUnbox( map.call( value ) ) ;
+            }
+        } ) ;
+    }
+
+    /**
+     * When the {@link DoublePredicate} returns {@code true}, the stream is stopped.
+     *
+     * @param predicate The {@link DoublePredicate} that stops the Stream when it returns {@code true}.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleUntilIterator}
+     */
+    public DoubleStream until( DoublePredicate predicate ) {
+        return new DoubleStream( new DoubleUntilIterator( iterator, predicate ) ) ;
+    }
+
+    /**
+     * When the {@link Closure} predicate returns {@code true}, the stream is stopped.
+     *
+     * @param predicate The {@link Closure} that stops the Stream when it returns {@code true}.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleUntilIterator}
+     */
+    public DoubleStream until( Closure<Boolean> predicate ) {
+        return until( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Limits the {@code DoubleStream} to {@code n} values.
+     *
+     * @param n The number of values to limit the {@code DoubleStream} to.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleLimitedIterator}
+     */
+    public DoubleStream take( int n ) {
+        return new DoubleStream( new DoubleLimitedIterator( iterator, n ) ) ;
+    }
+
+    /**
+     * Skip {@code n} values.
+     *
+     * @param n the number of values to skip
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleSkipIterator}
+     */
+    public DoubleStream skip( int n ) {
+        return new DoubleStream( new DoubleSkipIterator( iterator, n ) ) ;
+    }
+
+    /**
+     * Groups the values into {@code double[]} arrays of length {@code size}.
+     *
+     * @param size the size of each collated group
+     * @return A new {@code Stream} wrapping a {@link DoubleCollatingIterator}
+     */
+    public Stream<double[]> collate( int size ) { return collate( size, size, true ) ; }
+
+    /**
+     * Groups the values into {@code double[]} arrays of length {@code size}.
+     *
+     * @param size the size of each collated group
+     * @param keepRemainder Should any remaining values be returned at the end
+     * @return A new {@code Stream} wrapping a {@link DoubleCollatingIterator}
+     */
+    public Stream<double[]> collate( int size, boolean keepRemainder ) { return collate( size, size, keepRemainder ) ; }
+
+    /**
+     * Groups the values into {@code double[]} arrays of length {@code size} using a step-size of {@code step}.
+     *
+     * @param size the size of each collated group
+     * @param step How many to increment the window by each turn
+     * @return A new {@code Stream} wrapping a {@link DoubleCollatingIterator}
+     */
+    public Stream<double[]> collate( int size, int step ) { return collate( size, step, true ) ; }
+
+    /**
+     * Groups the values into {@code double[]} arrays of length {@code size} using a step-size of {@code step}.
+     *
+     * @param size the size of each collated group
+     * @param step How many to increment the window by each turn
+     * @param keepRemainder Should any remaining values be returned at the end
+     * @return A new {@code Stream} wrapping a {@link DoubleCollatingIterator}
+     */
+    public Stream<double[]> collate( int size, int step, boolean keepRemainder ) {
+        return Stream.from( new DoubleCollatingIterator( iterator, size, step, keepRemainder ) ) ;
+    }
+
+    /**
+     * @return A {@link Stream} of the boxed values.
+     */
+    public Stream<Double> boxed() {
+        return Stream.<Double>from( iterator ) ;
+    }
+
+    /**
+     * Maps each value to an {@code Object}, returning a {@link Stream} of the results.
+     *
+     * @param <U> The type of the new Stream.
+     * @param map The transforming Closure.
+     * @return A new {@link Stream} of the results of {@code map}.
+     */
+    public <U> Stream<U> mapToObj( Closure<U> map ) {
+        return boxed().map( map ) ;
+    }
+
+    /**
+     * @return The number of values left.
+     */
+    public long count() {
+        long count = 0 ;
+        while( iterator.hasNext() ) {
+            iterator.nextDouble() ;
+            count++ ;
+        }
+        return count ;
+    }
+
+    /**
+     * Adds up the remaining values in a {@code double}, without boxing them.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert DoubleStream.from( [ 1, 2, 3, 4 ] as double[] ).sum() == 10
+     * </pre>
+     *
+     * @return The total of the values, or {@code 0} if there are none.
+     */
+    public double sum() {
+        double sum = 0 ;
+        while( iterator.hasNext() ) {
+            sum += iterator.nextDouble() ;
+        }
+        return sum ;
+    }
+
+    /**
+     * @return The mean of the remaining values, or {@code null} if there are none.
+     */
+    public Double average() {
+        double sum = 0 ;
+        long count = 0 ;
+        while( iterator.hasNext() ) {
+            sum += iterator.nextDouble() ;
+            count++ ;
+        }
+        return count == 0 ? null : sum / count ;
+    }
+
+    /**
+     * @return The smallest remaining value, or {@code null} if there are none.
+     */
+    public Double min() {
+        if( !iterator.hasNext() ) {
+            return null ;
+        }
+        double min = iterator.nextDouble() ;
+        while( iterator.hasNext() ) {
+            double value = iterator.nextDouble() ;
+            if( value < min ) {
+                min = value ;
+            }
+        }
+        return min ;
+    }
+
+    /**
+     * @return The largest remaining value, or {@code null} if there are none.
+     */
+    public Double max() {
+        if( !iterator.hasNext() ) {
+            return null ;
+        }
+        double max = iterator.nextDouble() ;
+        while( iterator.hasNext() ) {
+            double value = iterator.nextDouble() ;
+            if( value > max ) {
+                max = value ;
+            }
+        }
+        return max ;
+    }
+
+    /**
+     * Reads values until one matches, and no further.
+     *
+     * @param predicate A {@link DoublePredicate} to check each value with.
+     * @return {@code true} if any value matched.
+     */
+    public boolean anyMatch( DoublePredicate predicate ) {
+        while( iterator.hasNext() ) {
+            if( predicate.call( iterator.nextDouble() ) ) {
+                return true ;
+            }
+        }
+        return false ;
+    }
+
+    /**
+     * @see #anyMatch(groovy.stream.functions.DoublePredicate)
+     * @param predicate A single parameter closure to check each value with.
+     * @return {@code true} if any value matched.
+     */
+    public boolean anyMatch( Closure<Boolean> predicate ) {
+        return anyMatch( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Reads values until one does not match, and no further.
+     *
+     * @param predicate A {@link DoublePredicate} to check each value with.
+     * @return {@code true} if every value matched, or there were none.
+     */
+    public boolean allMatch( DoublePredicate predicate ) {
+        while( iterator.hasNext() ) {
+            if( !predicate.call( iterator.nextDouble() ) ) {
+                return false ;
+            }
+        }
+        return true ;
+    }
+
+    /**
+     * @see #allMatch(groovy.stream.functions.DoublePredicate)
+     * @param predicate A single parameter closure to check each value with.
+     * @return {@code true} if every value matched, or there were none.
+     */
+    public boolean allMatch( Closure<Boolean> predicate ) {
+        return allMatch( predicate( predicate ) ) ;
+    }
+
+    /**
+     * @return The next value, or {@code null} if there are none.
+     */
+    public Double findFirst() {
+        return iterator.hasNext() ? (Double)iterator.nextDouble() : null ;
+    }
+
+    /**
+     * Reads every remaining value into a new {@code double} array.  When the number of values is
+     * known (reading an array), the array is created at that size; otherwise values are
+     * gathered in growing chunks and copied once at the end.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert DoubleStream.from( [ 0.5, 1.5, 2.5 ] as double[] ).toArray() == [ 0.5d, 1.5d, 2.5d ] as double[]
+     * </pre>
+     *
+     * @return A {@code double} array of the remaining values.
+     */
+    public double[] toArray() {
+        DoubleArrayStage<Double> stage = new DoubleArrayStage<Double>( sizeHint() ) ;
+        while( iterator.hasNext() ) {
+            stage.add( iterator.nextDouble() ) ;
+        }
+        return stage.toArray() ;
+    }
+
+    /**
+     * Writes values into a {@link ByteBuffer} with {@link ByteBuffer#putDouble(double)}, in the
+     * byte order of the buffer, until there are none left or the buffer has no room for
+     * another.  Values that do not fit are left in the {@code DoubleStream}, so the buffer can
+     * be emptied and this called again.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *   import java.nio.ByteBuffer
+     *
+     *   def stream = DoubleStream.from( [ 0.5, 1.5, 2.5 ] as double[] )
+     *   def buffer = ByteBuffer.allocateDirect( 23 )
+     *   assert stream.writeTo( buffer ) == 2
+     *   buffer.flip()
+     *   assert buffer.getDouble() == 0.5d
+     *   assert stream.findFirst() == 2.5d
+     * </pre>
+     *
+     * @param buffer The buffer to write to, from its current position.
+     * @return The number of values written.
+     */
+    public int writeTo( ByteBuffer buffer ) {
+        int written = 0 ;
+        while( buffer.remaining() >= 8 && iterator.hasNext() ) {
+            buffer.putDouble( iterator.nextDouble() ) ;
+            written++ ;
+        }
+        return written ;
+    }
+
+    /**
+     * Construct a {@code DoubleStream} that reads a {@code double} array in place.
+     *
+     * @param array The array to iterate.
+     * @return A new {@code DoubleStream} wrapping a {@link DoubleArrayIterator}.
+     */
+    public static DoubleStream from( double[] array ) {
+        return new DoubleStream( new DoubleArrayIterator( array ) ) ;
+    }
+
+    /**
+     * Construct a {@code DoubleStream} from a {@link DoubleIterator}.
+     *
+     * @param iterator The iterator to wrap.
+     * @return A new {@code DoubleStream} wrapping the iterator.
+     */
+    public static DoubleStream from( DoubleIterator iterator ) {
+        return new DoubleStream( iterator ) ;
+    }
+
+    @Override public boolean hasNext() {
+        return iterator.hasNext() ;
+    }
+    @Override public double nextDouble() {
+        return iterator.nextDouble() ;
+    }
+
+    /* Utilities */
+    private long sizeHint() {
+        if( iterator instanceof DoubleArrayIterator ) {
+            return ( (DoubleArrayIterator)iterator ).remaining() ;
+        }
+        return -1 ;
+    }
+
+    private static DoublePredicate predicate( final Closure<Boolean> predicate ) {
+        return new DoublePredicate() {
+            @Override
+            public boolean call( double value ) {
+                return DefaultTypeTransformation.castToBoolean( predicate.call( value ) ) ;
+            }
+        } ;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream ;
+
+import groovy.stream.transform.InlineStreamsTransformation ;
+
+import java.lang.annotation.ElementType ;
+import java.lang.annotation.Retention ;
+import java.lang.annotation.RetentionPolicy ;
+import java.lang.annotation.Target ;
+
+import org.codehaus.groovy.transform.GroovyASTTransformationClass ;
+
+/**
+ * Rewrites {@link Stream} pipelines in the annotated method (or every method of the
+ * annotated class) into plain loops when it is compiled, so they run without any
+ * {@link Stream}, stage or {@link groovy.lang.Closure} objects.
+ *
+ * A pipeline is rewritten when it is a whole statement, the right hand side of a
+ * declaration or assignment, or the value of a {@code return}, and is made of:
+ *
+ * <ul>
+ *   <li>{@code Stream.from( source )}, followed by</li>
+ *   <li>any of {@code filter}, {@code filterWithIndex}, {@code map}, {@code mapWithIndex},
+ *       {@code until}, {@code untilWithIndex}, {@code tap}, {@code tapWithIndex},
+ *       {@code tapEvery}, {@code tapEveryWithIndex}, {@code skip} and {@code take}, ending with</li>
+ *   <li>one of {@code collect()}, {@code collect { ... }}, {@code toList()}, {@code each { ... }}
+ *       or {@code forEach { ... }}.</li>
+ * </ul>
+ *
+ * Each step must be given a {@link groovy.lang.Closure} literal whose body is a single
+ * expression, with untyped parameters, which does not declare variables or closures of its
+ * own, and which only uses names that can be found without the closure's delegate.  Any
+ * other pipeline is left as it is, and runs with the normal {@link Stream} classes.
+ *
+ * <pre class="groovyTestCase">
+ *   import groovy.stream.*
+ *
+ *   &#64;InlineStreams
+ *   List evens( List numbers ) {
+ *     Stream.from( numbers ).filter { it % 2 == 0 }.map { it * 10 }.collect()
+ *   }
+ *
+ *   assert evens( 1..6 ) == [ 20, 40, 60 ]
+ * </pre>
+ */
+@Retention( RetentionPolicy.SOURCE )
+@Target( { ElementType.METHOD, ElementType.CONSTRUCTOR, ElementType.TYPE } )
+@GroovyASTTransformationClass( classes = { InlineStreamsTransformation.class } )
+public @interface InlineStreams {
+}
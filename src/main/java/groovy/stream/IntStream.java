@@ -0,0 +1,445 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream ;
+
+import groovy.lang.Closure ;
+
+import groovy.stream.functions.IntPredicate ;
+import groovy.stream.functions.IntUnaryFunction ;
+import groovy.stream.iterators.primitive.* ;
+import groovy.stream.stages.IntArrayStage ;
+
+import java.nio.ByteBuffer ;
+
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+/**
+ * A {@link Stream} of {@code int} values.  Every stage works on the {@code int} values
+ * directly, so nothing is boxed unless a {@link Closure} is used, or the values are
+ * passed back to a {@link Stream} with {@link #boxed()}.
+ *
+ * <pre class="groovyTestCase">
+ *   import groovy.stream.*
+ *
+ *   int[] values = [ 1, 2, 3, 4, 5, 6 ]
+ *
+ *   assert IntStream.from( values )
+ *                   .filter { it % 2 == 0 }
+ *                   .map { it * 10 }
+ *                   .boxed()
+ *                   .collect() == [ 20, 40, 60 ]
+ * </pre>
+ *
+ * @since 0.9.1
+ */
+public class IntStream extends IntIterator {
+    private final IntIterator iterator ;
+
+    private IntStream( IntIterator iterator ) {
+        this.iterator = iterator ;
+    }
+
+    /**
+     * Filter the current stream, passing each value through a predicate filter.
+     *
+     * @param predicate A {@link IntPredicate} returning {@code true} if the value is to be included.
+     * @return A new {@code IntStream} wrapping a {@link IntFilteringIterator}
+     */
+    public IntStream filter( IntPredicate predicate ) {
+        return new IntStream( new IntFilteringIterator( iterator, predicate ) ) ;
+    }
+
+    /**
+     * Filter the current stream, passing each value through a predicate filter.
+     *
+     * @param predicate A single parameter closure returning {@code true} if the value is to be included.
+     * @return A new {@code IntStream} wrapping a {@link IntFilteringIterator}
+     */
+    public IntStream filter( Closure<Boolean> predicate ) {
+        return filter( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Maps each value to a new {@code int} value.
+     *
+     * @param map The transforming {@link IntUnaryFunction}.
+     * @return A new {@code IntStream} wrapping a {@link IntTransformingIterator}
+     */
+    public IntStream map( IntUnaryFunction map ) {
+        return new IntStream( new IntTransformingIterator( iterator, map ) ) ;
+    }
+
+    /**
+     * Maps each value to a new {@code int} value.
+     *
+     * @param map The transforming Closure, which must return a {@link Number}.
+     * @return A new {@code IntStream} wrapping a {@link IntTransformingIterator}
+     */
+    public IntStream map( final Closure<? extends Number> map ) {
+        return map( new IntUnaryFunction() {
+            @Override
+            public int call( int value ) {
+                return DefaultTypeTransformation.intUnbox( map.call( value ) ) ;
+            }
+        } ) ;
+    }
+
+    /**
+     * When the {@link IntPredicate} returns {@code true}, the stream is stopped.
+     *
+     * @param predicate The {@link IntPredicate} that stops the Stream when it returns {@code true}.
+     * @return A new {@code IntStream} wrapping a {@link IntUntilIterator}
+     */
+    public IntStream until( IntPredicate predicate ) {
+        return new IntStream( new IntUntilIterator( iterator, predicate ) ) ;
+    }
+
+    /**
+     * When the {@link Closure} predicate returns {@code true}, the stream is stopped.
+     *
+     * @param predicate The {@link Closure} that stops the Stream when it returns {@code true}.
+     * @return A new {@code IntStream} wrapping a {@link IntUntilIterator}
+     */
+    public IntStream until( Closure<Boolean> predicate ) {
+        return until( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Limits the {@code IntStream} to {@code n} values.
+     *
+     * @param n The number of values to limit the {@code IntStream} to.
+     * @return A new {@code IntStream} wrapping a {@link IntLimitedIterator}
+     */
+    public IntStream take( int n ) {
+        return new IntStream( new IntLimitedIterator( iterator, n ) ) ;
+    }
+
+    /**
+     * Skip {@code n} values.
+     *
+     * @param n the number of values to skip
+     * @return A new {@code IntStream} wrapping a {@link IntSkipIterator}
+     */
+    public IntStream skip( int n ) {
+        return new IntStream( new IntSkipIterator( iterator, n ) ) ;
+    }
+
+    /**
+     * Groups the values into {@code int[]} arrays of length {@code size}.
+     *
+     * @param size the size of each collated group
+     * @return A new {@code Stream} wrapping a {@link IntCollatingIterator}
+     */
+    public Stream<int[]> collate( int size ) { return collate( size, size, true ) ; }
+
+    /**
+     * Groups the values into {@code int[]} arrays of length {@code size}.
+     *
+     * @param size the size of each collated group
+     * @param keepRemainder Should any remaining values be returned at the end
+     * @return A new {@code Stream} wrapping a {@link IntCollatingIterator}
+     */
+    public Stream<int[]> collate( int size, boolean keepRemainder ) { return collate( size, size, keepRemainder ) ; }
+
+    /**
+     * Groups the values into {@code int[]} arrays of length {@code size} using a step-size of {@code step}.
+     *
+     * @param size the size of each collated group
+     * @param step How many to increment the window by each turn
+     * @return A new {@code Stream} wrapping a {@link IntCollatingIterator}
+     */
+    public Stream<int[]> collate( int size, int step ) { return collate( size, step, true ) ; }
+
+    /**
+     * Groups the values into {@code int[]} arrays of length {@code size} using a step-size of {@code step}.
+     *
+     * @param size the size of each collated group
+     * @param step How many to increment the window by each turn
+     * @param keepRemainder Should any remaining values be returned at the end
+     * @return A new {@code Stream} wrapping a {@link IntCollatingIterator}
+     */
+    public Stream<int[]> collate( int size, int step, boolean keepRemainder ) {
+        return Stream.from( new IntCollatingIterator( iterator, size, step, keepRemainder ) ) ;
+    }
+
+    /**
+     * @return A {@link Stream} of the boxed values.
+     */
+    public Stream<Integer> boxed() {
+        return Stream.<Integer>from( iterator ) ;
+    }
+
+    /**
+     * Maps each value to an {@code Object}, returning a {@link Stream} of the results.
+     *
+     * @param <U> The type of the new Stream.
+     * @param map The transforming Closure.
+     * @return A new {@link Stream} of the results of {@code map}.
+     */
+    public <U> Stream<U> mapToObj( Closure<U> map ) {
+        return boxed().map( map ) ;
+    }
+
+    /**
+     * @return The number of values left.
+     */
+    public long count() {
+        long count = 0 ;
+        while( iterator.hasNext() ) {
+            iterator.nextInt() ;
+            count++ ;
+        }
+        return count ;
+    }
+
+    /**
+     * Adds up the remaining values in a {@code long}, without boxing them.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert IntStream.from( [ 1, 2, 3, 4 ] as int[] ).sum() == 10
+     * </pre>
+     *
+     * @return The total of the values, or {@code 0} if there are none.
+     */
+    public long sum() {
+        long sum = 0 ;
+        while( iterator.hasNext() ) {
+            sum += iterator.nextInt() ;
+        }
+        return sum ;
+    }
+
+    /**
+     * @return The mean of the remaining values, or {@code null} if there are none.
+     */
+    public Double average() {
+        long sum = 0 ;
+        long count = 0 ;
+        while( iterator.hasNext() ) {
+            sum += iterator.nextInt() ;
+            count++ ;
+        }
+        return count == 0 ? null : (double)sum / count ;
+    }
+
+    /**
+     * @return The smallest remaining value, or {@code null} if there are none.
+     */
+    public Integer min() {
+        if( !iterator.hasNext() ) {
+            return null ;
+        }
+        int min = iterator.nextInt() ;
+        while( iterator.hasNext() ) {
+            int value = iterator.nextInt() ;
+            if( value < min ) {
+                min = value ;
+            }
+        }
+        return min ;
+    }
+
+    /**
+     * @return The largest remaining value, or {@code null} if there are none.
+     */
+    public Integer max() {
+        if( !iterator.hasNext() ) {
+            return null ;
+        }
+        int max = iterator.nextInt() ;
+        while( iterator.hasNext() ) {
+            int value = iterator.nextInt() ;
+            if( value > max ) {
+                max = value ;
+            }
+        }
+        return max ;
+    }
+
+    /**
+     * Reads values until one matches, and no further.
+     *
+     * @param predicate A {@link IntPredicate} to check each value with.
+     * @return {@code true} if any value matched.
+     */
+    public boolean anyMatch( IntPredicate predicate ) {
+        while( iterator.hasNext() ) {
+            if( predicate.call( iterator.nextInt() ) ) {
+                return true ;
+            }
+        }
+        return false ;
+    }
+
+    /**
+     * @see #anyMatch(groovy.stream.functions.IntPredicate)
+     * @param predicate A single parameter closure to check each value with.
+     * @return {@code true} if any value matched.
+     */
+    public boolean anyMatch( Closure<Boolean> predicate ) {
+        return anyMatch( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Reads values until one does not match, and no further.
+     *
+     * @param predicate A {@link IntPredicate} to check each value with.
+     * @return {@code true} if every value matched, or there were none.
+     */
+    public boolean allMatch( IntPredicate predicate ) {
+        while( iterator.hasNext() ) {
+            if( !predicate.call( iterator.nextInt() ) ) {
+                return false ;
+            }
+        }
+        return true ;
+    }
+
+    /**
+     * @see #allMatch(groovy.stream.functions.IntPredicate)
+     * @param predicate A single parameter closure to check each value with.
+     * @return {@code true} if every value matched, or there were none.
+     */
+    public boolean allMatch( Closure<Boolean> predicate ) {
+        return allMatch( predicate( predicate ) ) ;
+    }
+
+    /**
+     * @return The next value, or {@code null} if there are none.
+     */
+    public Integer findFirst() {
+        return iterator.hasNext() ? (Integer)iterator.nextInt() : null ;
+    }
+
+    /**
+     * Reads every remaining value into a new {@code int} array.  When the number of values is
+     * known (reading an array or a range), the array is created at that size; otherwise values are
+     * gathered in growing chunks and copied once at the end.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert IntStream.range( 1, 6 ).toArray() == [ 1, 2, 3, 4, 5 ] as int[]
+     * </pre>
+     *
+     * @return A {@code int} array of the remaining values.
+     */
+    public int[] toArray() {
+        IntArrayStage<Integer> stage = new IntArrayStage<Integer>( sizeHint() ) ;
+        while( iterator.hasNext() ) {
+            stage.add( iterator.nextInt() ) ;
+        }
+        return stage.toArray() ;
+    }
+
+    /**
+     * Writes values into a {@link ByteBuffer} with {@link ByteBuffer#putInt(int)}, in the
+     * byte order of the buffer, until there are none left or the buffer has no room for
+     * another.  Values that do not fit are left in the {@code IntStream}, so the buffer can
+     * be emptied and this called again.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *   import java.nio.ByteBuffer
+     *
+     *   def stream = IntStream.range( 1, 6 )
+     *   def buffer = ByteBuffer.allocateDirect( 11 )
+     *   assert stream.writeTo( buffer ) == 2
+     *   buffer.flip()
+     *   assert buffer.getInt() == 1
+     *   assert stream.findFirst() == 3
+     * </pre>
+     *
+     * @param buffer The buffer to write to, from its current position.
+     * @return The number of values written.
+     */
+    public int writeTo( ByteBuffer buffer ) {
+        int written = 0 ;
+        while( buffer.remaining() >= 4 && iterator.hasNext() ) {
+            buffer.putInt( iterator.nextInt() ) ;
+            written++ ;
+        }
+        return written ;
+    }
+
+    /**
+     * Construct a {@code IntStream} that reads a {@code int} array in place.
+     *
+     * @param array The array to iterate.
+     * @return A new {@code IntStream} wrapping a {@link IntArrayIterator}.
+     */
+    public static IntStream from( int[] array ) {
+        return new IntStream( new IntArrayIterator( array ) ) ;
+    }
+
+    /**
+     * Construct a {@code IntStream} from a {@link IntIterator}.
+     *
+     * @param iterator The iterator to wrap.
+     * @return A new {@code IntStream} wrapping the iterator.
+     */
+    public static IntStream from( IntIterator iterator ) {
+        return new IntStream( iterator ) ;
+    }
+
+    /**
+     * Construct a {@code IntStream} of the values from {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert IntStream.range( 2, 6 ).boxed().collect() == [ 2, 3, 4, 5 ]
+     * </pre>
+     *
+     * @param from The first value.
+     * @param to The value to stop before.
+     * @return A new {@code IntStream} wrapping a {@link IntRangeIterator}.
+     */
+    public static IntStream range( int from, int to ) {
+        return new IntStream( new IntRangeIterator( from, to ) ) ;
+    }
+
+    @Override public boolean hasNext() {
+        return iterator.hasNext() ;
+    }
+    @Override public int nextInt() {
+        return iterator.nextInt() ;
+    }
+
+    /* Utilities */
+    private long sizeHint() {
+        if( iterator instanceof IntArrayIterator ) {
+            return ( (IntArrayIterator)iterator ).remaining() ;
+        }
+        if( iterator instanceof IntRangeIterator ) {
+            return ( (IntRangeIterator)iterator ).remaining() ;
+        }
+        return -1 ;
+    }
+
+    private static IntPredicate predicate( final Closure<Boolean> predicate ) {
+        return new IntPredicate() {
+            @Override
+            public boolean call( int value ) {
+                return DefaultTypeTransformation.castToBoolean( predicate.call( value ) ) ;
+            }
+        } ;
+    }
+}
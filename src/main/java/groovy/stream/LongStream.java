@@ -0,0 +1,445 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream ;
+
+import groovy.lang.Closure ;
+
+import groovy.stream.functions.LongPredicate ;
+import groovy.stream.functions.LongUnaryFunction ;
+import groovy.stream.iterators.primitive.* ;
+import groovy.stream.stages.LongArrayStage ;
+
+import java.nio.ByteBuffer ;
+
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+/**
+ * A {@link Stream} of {@code long} values.  Every stage works on the {@code long} values
+ * directly, so nothing is boxed unless a {@link Closure} is used, or the values are
+ * passed back to a {@link Stream} with {@link #boxed()}.
+ *
+ * <pre class="groovyTestCase">
+ *   import groovy.stream.*
+ *
+ *   long[] values = [ 1, 2, 3, 4, 5, 6 ]
+ *
+ *   assert LongStream.from( values )
+ *                   .filter { it % 2 == 0 }
+ *                   .map { it * 10 }
+ *                   .boxed()
+ *                   .collect() == [ 20, 40, 60 ]
+ * </pre>
+ *
+ * @since 0.9.1
+ */
+public class LongStream extends LongIterator {
+    private final LongIterator iterator ;
+
+    private LongStream( LongIterator iterator ) {
+        this.iterator = iterator ;
+    }
+
+    /**
+     * Filter the current stream, passing each value through a predicate filter.
+     *
+     * @param predicate A {@link LongPredicate} returning {@code true} if the value is to be included.
+     * @return A new {@code LongStream} wrapping a {@link LongFilteringIterator}
+     */
+    public LongStream filter( LongPredicate predicate ) {
+        return new LongStream( new LongFilteringIterator( iterator, predicate ) ) ;
+    }
+
+    /**
+     * Filter the current stream, passing each value through a predicate filter.
+     *
+     * @param predicate A single parameter closure returning {@code true} if the value is to be included.
+     * @return A new {@code LongStream} wrapping a {@link LongFilteringIterator}
+     */
+    public LongStream filter( Closure<Boolean> predicate ) {
+        return filter( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Maps each value to a new {@code long} value.
+     *
+     * @param map The transforming {@link LongUnaryFunction}.
+     * @return A new {@code LongStream} wrapping a {@link LongTransformingIterator}
+     */
+    public LongStream map( LongUnaryFunction map ) {
+        return new LongStream( new LongTransformingIterator( iterator, map ) ) ;
+    }
+
+    /**
+     * Maps each value to a new {@code long} value.
+     *
+     * @param map The transforming Closure, which must return a {@link Number}.
+     * @return A new {@code LongStream} wrapping a {@link LongTransformingIterator}
+     */
+    public LongStream map( final Closure<? extends Number> map ) {
+        return map( new LongUnaryFunction() {
+            @Override
+            public long call( long value ) {
+                return DefaultTypeTransformation.longUnbox( map.call( value ) ) ;
+            }
+        } ) ;
+    }
+
+    /**
+     * When the {@link LongPredicate} returns {@code true}, the stream is stopped.
+     *
+     * @param predicate The {@link LongPredicate} that stops the Stream when it returns {@code true}.
+     * @return A new {@code LongStream} wrapping a {@link LongUntilIterator}
+     */
+    public LongStream until( LongPredicate predicate ) {
+        return new LongStream( new LongUntilIterator( iterator, predicate ) ) ;
+    }
+
+    /**
+     * When the {@link Closure} predicate returns {@code true}, the stream is stopped.
+     *
+     * @param predicate The {@link Closure} that stops the Stream when it returns {@code true}.
+     * @return A new {@code LongStream} wrapping a {@link LongUntilIterator}
+     */
+    public LongStream until( Closure<Boolean> predicate ) {
+        return until( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Limits the {@code LongStream} to {@code n} values.
+     *
+     * @param n The number of values to limit the {@code LongStream} to.
+     * @return A new {@code LongStream} wrapping a {@link LongLimitedIterator}
+     */
+    public LongStream take( int n ) {
+        return new LongStream( new LongLimitedIterator( iterator, n ) ) ;
+    }
+
+    /**
+     * Skip {@code n} values.
+     *
+     * @param n the number of values to skip
+     * @return A new {@code LongStream} wrapping a {@link LongSkipIterator}
+     */
+    public LongStream skip( int n ) {
+        return new LongStream( new LongSkipIterator( iterator, n ) ) ;
+    }
+
+    /**
+     * Groups the values into {@code long[]} arrays of length {@code size}.
+     *
+     * @param size the size of each collated group
+     * @return A new {@code Stream} wrapping a {@link LongCollatingIterator}
+     */
+    public Stream<long[]> collate( int size ) { return collate( size, size, true ) ; }
+
+    /**
+     * Groups the values into {@code long[]} arrays of length {@code size}.
+     *
+     * @param size the size of each collated group
+     * @param keepRemainder Should any remaining values be returned at the end
+     * @return A new {@code Stream} wrapping a {@link LongCollatingIterator}
+     */
+    public Stream<long[]> collate( int size, boolean keepRemainder ) { return collate( size, size, keepRemainder ) ; }
+
+    /**
+     * Groups the values into {@code long[]} arrays of length {@code size} using a step-size of {@code step}.
+     *
+     * @param size the size of each collated group
+     * @param step How many to increment the window by each turn
+     * @return A new {@code Stream} wrapping a {@link LongCollatingIterator}
+     */
+    public Stream<long[]> collate( int size, int step ) { return collate( size, step, true ) ; }
+
+    /**
+     * Groups the values into {@code long[]} arrays of length {@code size} using a step-size of {@code step}.
+     *
+     * @param size the size of each collated group
+     * @param step How many to increment the window by each turn
+     * @param keepRemainder Should any remaining values be returned at the end
+     * @return A new {@code Stream} wrapping a {@link LongCollatingIterator}
+     */
+    public Stream<long[]> collate( int size, int step, boolean keepRemainder ) {
+        return Stream.from( new LongCollatingIterator( iterator, size, step, keepRemainder ) ) ;
+    }
+
+    /**
+     * @return A {@link Stream} of the boxed values.
+     */
+    public Stream<Long> boxed() {
+        return Stream.<Long>from( iterator ) ;
+    }
+
+    /**
+     * Maps each value to an {@code Object}, returning a {@link Stream} of the results.
+     *
+     * @param <U> The type of the new Stream.
+     * @param map The transforming Closure.
+     * @return A new {@link Stream} of the results of {@code map}.
+     */
+    public <U> Stream<U> mapToObj( Closure<U> map ) {
+        return boxed().map( map ) ;
+    }
+
+    /**
+     * @return The number of values left.
+     */
+    public long count() {
+        long count = 0 ;
+        while( iterator.hasNext() ) {
+            iterator.nextLong() ;
+            count++ ;
+        }
+        return count ;
+    }
+
+    /**
+     * Adds up the remaining values in a {@code long}, without boxing them.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert LongStream.from( [ 1, 2, 3, 4 ] as long[] ).sum() == 10
+     * </pre>
+     *
+     * @return The total of the values, or {@code 0} if there are none.
+     */
+    public long sum() {
+        long sum = 0 ;
+        while( iterator.hasNext() ) {
+            sum += iterator.nextLong() ;
+        }
+        return sum ;
+    }
+
+    /**
+     * @return The mean of the remaining values, or {@code null} if there are none.
+     */
+    public Double average() {
+        long sum = 0 ;
+        long count = 0 ;
+        while( iterator.hasNext() ) {
+            sum += iterator.nextLong() ;
+            count++ ;
+        }
+        return count == 0 ? null : (double)sum / count ;
+    }
+
+    /**
+     * @return The smallest remaining value, or {@code null} if there are none.
+     */
+    public Long min() {
+        if( !iterator.hasNext() ) {
+            return null ;
+        }
+        long min = iterator.nextLong() ;
+        while( iterator.hasNext() ) {
+            long value = iterator.nextLong() ;
+            if( value < min ) {
+                min = value ;
+            }
+        }
+        return min ;
+    }
+
+    /**
+     * @return The largest remaining value, or {@code null} if there are none.
+     */
+    public Long max() {
+        if( !iterator.hasNext() ) {
+            return null ;
+        }
+        long max = iterator.nextLong() ;
+        while( iterator.hasNext() ) {
+            long value = iterator.nextLong() ;
+            if( value > max ) {
+                max = value ;
+            }
+        }
+        return max ;
+    }
+
+    /**
+     * Reads values until one matches, and no further.
+     *
+     * @param predicate A {@link LongPredicate} to check each value with.
+     * @return {@code true} if any value matched.
+     */
+    public boolean anyMatch( LongPredicate predicate ) {
+        while( iterator.hasNext() ) {
+            if( predicate.call( iterator.nextLong() ) ) {
+                return true ;
+            }
+        }
+        return false ;
+    }
+
+    /**
+     * @see #anyMatch(groovy.stream.functions.LongPredicate)
+     * @param predicate A single parameter closure to check each value with.
+     * @return {@code true} if any value matched.
+     */
+    public boolean anyMatch( Closure<Boolean> predicate ) {
+        return anyMatch( predicate( predicate ) ) ;
+    }
+
+    /**
+     * Reads values until one does not match, and no further.
+     *
+     * @param predicate A {@link LongPredicate} to check each value with.
+     * @return {@code true} if every value matched, or there were none.
+     */
+    public boolean allMatch( LongPredicate predicate ) {
+        while( iterator.hasNext() ) {
+            if( !predicate.call( iterator.nextLong() ) ) {
+                return false ;
+            }
+        }
+        return true ;
+    }
+
+    /**
+     * @see #allMatch(groovy.stream.functions.LongPredicate)
+     * @param predicate A single parameter closure to check each value with.
+     * @return {@code true} if every value matched, or there were none.
+     */
+    public boolean allMatch( Closure<Boolean> predicate ) {
+        return allMatch( predicate( predicate ) ) ;
+    }
+
+    /**
+     * @return The next value, or {@code null} if there are none.
+     */
+    public Long findFirst() {
+        return iterator.hasNext() ? (Long)iterator.nextLong() : null ;
+    }
+
+    /**
+     * Reads every remaining value into a new {@code long} array.  When the number of values is
+     * known (reading an array or a range), the array is created at that size; otherwise values are
+     * gathered in growing chunks and copied once at the end.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert LongStream.range( 1, 6 ).toArray() == [ 1, 2, 3, 4, 5 ] as long[]
+     * </pre>
+     *
+     * @return A {@code long} array of the remaining values.
+     */
+    public long[] toArray() {
+        LongArrayStage<Long> stage = new LongArrayStage<Long>( sizeHint() ) ;
+        while( iterator.hasNext() ) {
+            stage.add( iterator.nextLong() ) ;
+        }
+        return stage.toArray() ;
+    }
+
+    /**
+     * Writes values into a {@link ByteBuffer} with {@link ByteBuffer#putLong(long)}, in the
+     * byte order of the buffer, until there are none left or the buffer has no room for
+     * another.  Values that do not fit are left in the {@code LongStream}, so the buffer can
+     * be emptied and this called again.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *   import java.nio.ByteBuffer
+     *
+     *   def stream = LongStream.range( 1, 6 )
+     *   def buffer = ByteBuffer.allocateDirect( 23 )
+     *   assert stream.writeTo( buffer ) == 2
+     *   buffer.flip()
+     *   assert buffer.getLong() == 1
+     *   assert stream.findFirst() == 3
+     * </pre>
+     *
+     * @param buffer The buffer to write to, from its current position.
+     * @return The number of values written.
+     */
+    public int writeTo( ByteBuffer buffer ) {
+        int written = 0 ;
+        while( buffer.remaining() >= 8 && iterator.hasNext() ) {
+            buffer.putLong( iterator.nextLong() ) ;
+            written++ ;
+        }
+        return written ;
+    }
+
+    /**
+     * Construct a {@code LongStream} that reads a {@code long} array in place.
+     *
+     * @param array The array to iterate.
+     * @return A new {@code LongStream} wrapping a {@link LongArrayIterator}.
+     */
+    public static LongStream from( long[] array ) {
+        return new LongStream( new LongArrayIterator( array ) ) ;
+    }
+
+    /**
+     * Construct a {@code LongStream} from a {@link LongIterator}.
+     *
+     * @param iterator The iterator to wrap.
+     * @return A new {@code LongStream} wrapping the iterator.
+     */
+    public static LongStream from( LongIterator iterator ) {
+        return new LongStream( iterator ) ;
+    }
+
+    /**
+     * Construct a {@code LongStream} of the values from {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert LongStream.range( 2, 6 ).boxed().collect() == [ 2, 3, 4, 5 ]
+     * </pre>
+     *
+     * @param from The first value.
+     * @param to The value to stop before.
+     * @return A new {@code LongStream} wrapping a {@link LongRangeIterator}.
+     */
+    public static LongStream range( long from, long to ) {
+        return new LongStream( new LongRangeIterator( from, to ) ) ;
+    }
+
+    @Override public boolean hasNext() {
+        return iterator.hasNext() ;
+    }
+    @Override public long nextLong() {
+        return iterator.nextLong() ;
+    }
+
+    /* Utilities */
+    private long sizeHint() {
+        if( iterator instanceof LongArrayIterator ) {
+            return ( (LongArrayIterator)iterator ).remaining() ;
+        }
+        if( iterator instanceof LongRangeIterator ) {
+            return ( (LongRangeIterator)iterator ).remaining() ;
+        }
+        return -1 ;
+    }
+
+    private static LongPredicate predicate( final Closure<Boolean> predicate ) {
+        return new LongPredicate() {
+            @Override
+            public boolean call( long value ) {
+                return DefaultTypeTransformation.castToBoolean( predicate.call( value ) ) ;
+            }
+        } ;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream ;
+
+import groovy.lang.Closure ;
+import groovy.stream.functions.Function ;
+import groovy.stream.functions.Predicate ;
+import groovy.stream.iterators.Combination ;
+import groovy.stream.iterators.ProductIterator ;
+
+import java.util.ArrayList ;
+import java.util.Arrays ;
+import java.util.Collection ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.Map ;
+
+import org.codehaus.groovy.runtime.InvokerHelper ;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+/**
+ * Builds a cartesian product one key at a time, as a comprehension.
+ *
+ * Each key is given either a fixed {@link Iterable} of values, or a {@link Closure} (or
+ * {@link Function}) which computes its values from the keys before it.  Constraints added
+ * with {@code where} belong to a key, and are checked as soon as that key has a value, so
+ * a partial combination which fails one is dropped along with every combination that
+ * would have started with it.
+ *
+ * <pre class="groovyTestCase">
+ *   import groovy.stream.*
+ *
+ *   assert Stream.product()
+ *                .key( 'a', 1..20 )
+ *                .key( 'b' ) { a..20 }
+ *                .key( 'c' ) { b..20 }
+ *                .where { a * a + b * b == c * c }
+ *                .stream()
+ *                .map { [ a, b, c ] }
+ *                .collect() == [ [ 3, 4, 5 ], [ 5, 12, 13 ], [ 6, 8, 10 ], [ 8, 15, 17 ], [ 9, 12, 15 ], [ 12, 16, 20 ] ]
+ * </pre>
+ *
+ * Closures are called with the partial combination as their delegate and parameter,
+ * which is shared and only valid for the duration of the call.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public class ProductBuilder<K,V> {
+    private final List<Level<K,V>> levels = new ArrayList<Level<K,V>>() ;
+
+    /**
+     * Add a key with a fixed set of values.
+     *
+     * Values for keys after the first are read into an array the first time they are needed.
+     * The values for the first key are only iterated once, so may be endless.
+     *
+     * @param key The key.
+     * @param values The values for the key.
+     * @return This builder.
+     */
+    public ProductBuilder<K,V> key( K key, Iterable<? extends V> values ) {
+        return add( new Level<K,V>( key, values, null, levels.isEmpty() ) ) ;
+    }
+
+    /**
+     * Add a key whose values are computed from the keys before it.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.product()
+     *                .key( 'a', 1..3 )
+     *                .key( 'b' ) { 1..a }
+     *                .stream()
+     *                .map { "$a$b".toString() }
+     *                .collect() == [ '11', '21', '22', '31', '32', '33' ]
+     * </pre>
+     *
+     * @param key The key.
+     * @param values A {@link Closure} returning the values for the key, which is called
+     *               with the values for the earlier keys as a {@link Map}.
+     * @return This builder.
+     */
+    public ProductBuilder<K,V> key( K key, Closure<?> values ) {
+        return add( new Level<K,V>( key, null, values, false ) ) ;
+    }
+
+    /**
+     * Add a key whose values are computed from the keys before it, as
+     * {@link #key(Object, groovy.lang.Closure)}.
+     *
+     * @param key The key.
+     * @param values A {@link Function} returning the values for the key.
+     * @return This builder.
+     */
+    public ProductBuilder<K,V> key( K key, Function<Map<K,V>,? extends Iterable<? extends V>> values ) {
+        return add( new Level<K,V>( key, null, values, false ) ) ;
+    }
+
+    /**
+     * Add a constraint to the last key added.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.product()
+     *                .key( 'a', 1..4 ).where { a % 2 == 0 }
+     *                .key( 'b', 1..4 ).where { b > a }
+     *                .stream()
+     *                .map { "$a$b".toString() }
+     *                .collect() == [ '23', '24' ]
+     * </pre>
+     *
+     * @param constraint A {@link Closure} called with the values for this key and the keys
+     *                   before it, returning {@code false} to skip the combinations starting
+     *                   with them.
+     * @return This builder.
+     * @throws IllegalStateException if no key has been added.
+     */
+    public ProductBuilder<K,V> where( Closure<Boolean> constraint ) {
+        return constrain( last(), constraint ) ;
+    }
+
+    /**
+     * Add a constraint to the last key added, as {@link #where(groovy.lang.Closure)}.
+     *
+     * @param constraint A {@link Predicate} over the values for this key and the keys before it.
+     * @return This builder.
+     * @throws IllegalStateException if no key has been added.
+     */
+    public ProductBuilder<K,V> where( Predicate<Map<K,V>> constraint ) {
+        return constrain( last(), constraint ) ;
+    }
+
+    /**
+     * Add a constraint to the given key, which must already have been added.
+     *
+     * @param key The key to check the constraint at.
+     * @param constraint A {@link Closure} called with the values for the key and the keys
+     *                   before it.
+     * @return This builder.
+     * @throws IllegalArgumentException if the key has not been added.
+     */
+    public ProductBuilder<K,V> where( K key, Closure<Boolean> constraint ) {
+        return constrain( level( key ), constraint ) ;
+    }
+
+    /**
+     * Add a constraint to the given key, as {@link #where(Object, groovy.lang.Closure)}.
+     *
+     * @param key The key to check the constraint at.
+     * @param constraint A {@link Predicate} over the values for the key and the keys before it.
+     * @return This builder.
+     * @throws IllegalArgumentException if the key has not been added.
+     */
+    public ProductBuilder<K,V> where( K key, Predicate<Map<K,V>> constraint ) {
+        return constrain( level( key ), constraint ) ;
+    }
+
+    /**
+     * @return A new {@code Stream} of every combination which meets the constraints.
+     */
+    public Stream<Map<K,V>> stream() {
+        return stream( false ) ;
+    }
+
+    /**
+     * @param reuseTuple {@code true} to return the same {@link Combination} for every element,
+     *                   updated in place, as {@link Stream#from(java.util.Map, boolean)}.
+     * @return A new {@code Stream} of every combination which meets the constraints.
+     */
+    public Stream<Map<K,V>> stream( boolean reuseTuple ) {
+        List<Level<K,V>> copies = new ArrayList<Level<K,V>>( levels.size() ) ;
+        for( Level<K,V> level : levels ) {
+            copies.add( level.copy() ) ;
+        }
+        return Stream.from( new ProductIterator<K,V>( copies, reuseTuple ) ) ;
+    }
+
+    private ProductBuilder<K,V> add( Level<K,V> level ) {
+        for( Level<K,V> existing : levels ) {
+            Object key = existing.getKey() ;
+            if( key == null ? level.getKey() == null : key.equals( level.getKey() ) ) {
+                throw new IllegalArgumentException( "Key " + level.getKey() + " has already been added" ) ;
+            }
+        }
+        levels.add( level ) ;
+        return this ;
+    }
+
+    private Level<K,V> last() {
+        if( levels.isEmpty() ) {
+            throw new IllegalStateException( "A key must be added before a constraint" ) ;
+        }
+        return levels.get( levels.size() - 1 ) ;
+    }
+
+    private Level<K,V> level( K key ) {
+        for( Level<K,V> level : levels ) {
+            if( key == null ? level.getKey() == null : key.equals( level.getKey() ) ) {
+                return level ;
+            }
+        }
+        throw new IllegalArgumentException( "Key " + key + " has not been added" ) ;
+    }
+
+    private ProductBuilder<K,V> constrain( Level<K,V> level, Object constraint ) {
+        level.constraints.add( constraint ) ;
+        return this ;
+    }
+
+    private static class Level<K,V> extends ProductIterator.Dimension<K,V> {
+        private final Iterable<? extends V> fixed ;
+        private final Object                generator ;
+        private final boolean               first ;
+        private final List<Object>          constraints = new ArrayList<Object>() ;
+
+        private Object[] cache ;
+
+        Level( K key, Iterable<? extends V> fixed, Object generator, boolean first ) {
+            super( key ) ;
+            this.fixed = fixed ;
+            this.generator = generator ;
+            this.first = first ;
+        }
+
+        Level<K,V> copy() {
+            Object generatorCopy = generator instanceof Closure ? ((Closure)generator).clone() : generator ;
+            Level<K,V> copy = new Level<K,V>( getKey(), fixed, generatorCopy, first ) ;
+            for( Object constraint : constraints ) {
+                copy.constraints.add( constraint instanceof Closure ? ((Closure)constraint).clone() : constraint ) ;
+            }
+            return copy ;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Iterator<? extends V> values( Map<K,V> earlier ) {
+            if( fixed != null ) {
+                if( first ) {
+                    return fixed.iterator() ;
+                }
+                if( cache == null ) {
+                    cache = fixed instanceof Collection ? ((Collection)fixed).toArray() : materialize( fixed ) ;
+                }
+                return (Iterator<V>)Arrays.asList( cache ).iterator() ;
+            }
+            Object result ;
+            if( generator instanceof Closure ) {
+                Closure<?> closure = (Closure<?>)generator ;
+                closure.setDelegate( earlier ) ;
+                result = closure.call( earlier ) ;
+            }
+            else {
+                result = ((Function<Map<K,V>,?>)generator).call( earlier ) ;
+            }
+            return result instanceof Iterable ? ((Iterable<V>)result).iterator() : (Iterator<V>)InvokerHelper.asIterator( result ) ;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected boolean accept( Map<K,V> partial ) {
+            for( Object constraint : constraints ) {
+                boolean result ;
+                if( constraint instanceof Closure ) {
+                    Closure<?> closure = (Closure<?>)constraint ;
+                    closure.setDelegate( partial ) ;
+                    result = DefaultTypeTransformation.castToBoolean( closure.call( partial ) ) ;
+                }
+                else {
+                    result = ((Predicate<Map<K,V>>)constraint).call( partial ) ;
+                }
+                if( !result ) {
+                    return false ;
+                }
+            }
+            return true ;
+        }
+
+        private static Object[] materialize( Iterable<?> values ) {
+            List<Object> list = new ArrayList<Object>() ;
+            for( Object value : values ) {
+                list.add( value ) ;
+            }
+            return list.toArray() ;
+        }
+    }
+}
@@ -17,26 +17,48 @@
 package groovy.stream ;
 
 import groovy.lang.Closure ;
+import groovy.lang.IntRange ;
+import groovy.lang.Range ;
+import groovy.util.ClosureComparator ;
+import groovy.util.OrderBy ;
 
 import groovy.stream.iterators.* ;
 import groovy.stream.iterators.java.* ;
 import groovy.stream.iterators.groovy.* ;
+import groovy.stream.iterators.primitive.DoubleUnboxingIterator ;
+import groovy.stream.iterators.primitive.IntUnboxingIterator ;
+import groovy.stream.iterators.primitive.LongUnboxingIterator ;
+import groovy.stream.functions.Collector ;
+import groovy.stream.functions.Emitter ;
 import groovy.stream.functions.Function ;
 import groovy.stream.functions.Function2 ;
 import groovy.stream.functions.Predicate ;
 import groovy.stream.functions.IndexedFunction ;
 import groovy.stream.functions.IndexedFunction2 ;
 import groovy.stream.functions.IndexedPredicate ;
+import groovy.stream.stages.* ;
+import groovy.stream.stages.java.* ;
 
 import java.io.BufferedReader ;
+import java.io.Closeable ;
+import java.io.File ;
 
-import java.lang.reflect.Array ;
+import java.nio.charset.Charset ;
 
 import java.util.ArrayList ;
+import java.util.Arrays ;
 import java.util.Collection ;
+import java.util.Comparator ;
 import java.util.Iterator ;
 import java.util.List ;
 import java.util.Map ;
+import java.util.RandomAccess ;
+import java.util.Set ;
+import java.util.SortedSet ;
+
+import java.util.concurrent.Executor ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Future ;
 
 import java.util.jar.JarEntry ;
 import java.util.jar.JarFile ;
@@ -50,11 +72,93 @@ import java.util.zip.ZipFile ;
  * @author Tim Yates
  * @param <T> the type of each element returned from the Stream.
  */
-public class Stream<T> implements Iterator<T> {
-    private final Iterator<T> iterator ;
+public class Stream<T> implements SizedIterator<T>, Closeable {
+    private static final Stage<?,?>[] NO_STAGES = new Stage<?,?>[ 0 ] ;
+    private static final int          MAX_ESTIMATED_CAPACITY = 8192 ;
+    private static final int          MAX_PRESIZED_CAPACITY = 1 << 16 ;
+
+    private final Iterator<?>     source ;
+    private final Stage<?,?>[]    stages ;
+    private final List<?>         elements ;
+    private final ExecutorService executor ;
+    private final int             parallelism ;
+    private final boolean         ordered ;
+    private Iterator<T>           iterator ;
 
     private Stream( Iterator<T> iterator ) {
-        this.iterator = iterator ;
+        this( iterator, NO_STAGES, null, null, 0, true ) ;
+    }
+
+    private Stream( Iterator<?> source, Stage<?,?>[] stages, List<?> elements, ExecutorService executor, int parallelism, boolean ordered ) {
+        this.source = source ;
+        this.stages = stages ;
+        this.elements = elements ;
+        this.executor = executor ;
+        this.parallelism = parallelism ;
+        this.ordered = ordered ;
+    }
+
+    /**
+     * Adds a {@link Stage} to the end of this pipeline.  If this {@code Stream} has
+     * already started iterating, the new {@code Stream} runs the stage over it instead.
+     */
+    private <U> Stream<U> fuse( Stage<T,U> stage ) {
+        if( iterator != null ) {
+            return new Stream<U>( iterator, new Stage<?,?>[] { stage }, null, executor, parallelism, ordered ) ;
+        }
+        Stage<?,?>[] fused = Arrays.copyOf( stages, stages.length + 1 ) ;
+        fused[ stages.length ] = stage ;
+        return new Stream<U>( source, fused, elements, executor, parallelism, ordered ) ;
+    }
+
+    /**
+     * Adds copies of a {@link StreamPipeline}'s stages to the end of this pipeline, as
+     * {@link #fuse(Stage)} does for a single stage.
+     */
+    <U> Stream<U> fuseCopies( Stage<?,?>[] template ) {
+        Stage<?,?>[] copies = new Stage<?,?>[ template.length ] ;
+        for( int i = 0 ; i < template.length ; i++ ) {
+            copies[ i ] = template[ i ].copy() ;
+        }
+        if( iterator != null ) {
+            return new Stream<U>( iterator, copies, null, executor, parallelism, ordered ) ;
+        }
+        Stage<?,?>[] fused = Arrays.copyOf( stages, stages.length + copies.length ) ;
+        System.arraycopy( copies, 0, fused, stages.length, copies.length ) ;
+        return new Stream<U>( source, fused, elements, executor, parallelism, ordered ) ;
+    }
+
+    /**
+     * Builds the iterator for this pipeline the first time it is required.
+     */
+    @SuppressWarnings("unchecked")
+    private Iterator<T> pipeline() {
+        if( iterator == null ) {
+            if( parallelism > 0 ) {
+                iterator = parallelPipeline() ;
+            }
+            else {
+                iterator = stages.length == 0 ? (Iterator<T>)source : new FusedIterator<T>( source, stages ) ;
+            }
+        }
+        return iterator ;
+    }
+
+    /**
+     * Runs the leading stateless stages on the {@link ParallelIterator}, and any
+     * following stages over its ordered output.
+     */
+    @SuppressWarnings("unchecked")
+    private Iterator<T> parallelPipeline() {
+        int split = 0 ;
+        while( split < stages.length && stages[ split ].isStateless() ) {
+            split++ ;
+        }
+        Iterator<Object> parallel = new ParallelIterator<Object>( source, elements, Arrays.copyOfRange( stages, 0, split ), executor, parallelism, ordered ) ;
+        if( split == stages.length ) {
+            return (Iterator<T>)parallel ;
+        }
+        return new FusedIterator<T>( parallel, true, Arrays.copyOfRange( stages, split, stages.length ) ) ;
     }
 
     /**
@@ -70,10 +174,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param predicate A single parameter closure to pass the element through,
      *                   returning {@code true} if the element is to be included.
-     * @return A new {@code Stream} wrapping a {@link FilteringIterator}
+     * @return A new {@code Stream} running a {@link FilteringStage}
      */
     public Stream<T> filter( Closure<Boolean> predicate ) {
-        return new Stream<T>( new FilteringIterator<T>( iterator, predicate, false ) ) ;
+        return fuse( new FilteringStage<T>( predicate, false ) ) ;
     }
 
     /**
@@ -81,10 +185,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param predicate A {@link Predicate} instance returning {@code true} from it's {@code call} method
      *                  if the element is to be included.
-     * @return A new {@code Stream} wrapping a {@link FilteringIteratorForPredicate}
+     * @return A new {@code Stream} running a {@link FilteringStageForPredicate}
      */
     public Stream<T> filter( Predicate<T> predicate ) {
-        return new Stream<T>( new FilteringIteratorForPredicate<T>( iterator, predicate ) ) ;
+        return fuse( new FilteringStageForPredicate<T>( predicate ) ) ;
     }
 
     /**
@@ -100,10 +204,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param predicate A two parameter closure, the first parameter being the
      *                   element in the {@code Stream}, the second the index (starting at 0).
-     * @return A new {@code Stream} wrapping a {@link FilteringIterator}
+     * @return A new {@code Stream} running a {@link FilteringStage}
      */
     public Stream<T> filterWithIndex( Closure<Boolean> predicate ) {
-        return new Stream<T>( new FilteringIterator<T>( iterator, predicate, true ) ) ;
+        return fuse( new FilteringStage<T>( predicate, true ) ) ;
     }
 
     /**
@@ -111,10 +215,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param predicate An {@link IndexedPredicate} instance returning {@code true} from it's {@code call} method
      *                  if the element is to be included.
-     * @return A new {@code Stream} wrapping a {@link FilteringIteratorForIndexedPredicate}
+     * @return A new {@code Stream} running a {@link FilteringStageForIndexedPredicate}
      */
     public Stream<T> filterWithIndex( IndexedPredicate<T> predicate ) {
-        return new Stream<T>( new FilteringIteratorForIndexedPredicate<T>( iterator, predicate ) ) ;
+        return fuse( new FilteringStageForIndexedPredicate<T>( predicate ) ) ;
     }
 
     /**
@@ -130,16 +234,24 @@ public class Stream<T> implements Iterator<T> {
      *   assert a.concat( b ).collect() == [ 1, 2, 3, 'a', 'b', 'c' ]
      * </pre>
      *
+     * Concatenating onto a {@code Stream} which is itself only a concatenation adds to the
+     * same list of iterators, rather than nesting another level, so calling {@code concat}
+     * in a loop costs the same per element as {@link #concatAll(java.util.Iterator[])}.
+     *
      * @param other The {@code Stream} to iterate after the current one is exhausted.
      * @return A new {@code Stream} wrapping a {@link ConcatenationIterator}
      */
     public Stream<T> concat( Iterator<? extends T> other ) {
-        return new Stream<T>( new ConcatenationIterator<T>( iterator, other ) ) ;
+        return new Stream<T>( new ConcatenationIterator<T>( pipeline(), other ) ) ;
     }
 
     /**
      * Skip {@code n} elements.
      *
+     * If nothing runs before the skip, and the source is a {@link SkippableIterator} (an array,
+     * a random access {@link List}, a {@link BufferedReader} or a {@link Map} of Collections),
+     * the source moves past the elements itself instead of reading each one.
+     *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
      *
@@ -151,13 +263,37 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping a {@link SkipIterator}
      */
     public Stream<T> skip( int n ) {
-        return new Stream<T>( new SkipIterator<T>( iterator, n ) ) ;
+        return skip( (long)n ) ;
+    }
+
+    /**
+     * Skip {@code n} elements, where {@code n} may be more than {@link Integer#MAX_VALUE}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( a:1..100000, b:1..100000 )
+     *                .skip( 3000000000L )
+     *                .take( 2 )
+     *                .collect() == [ [ a:30001, b:1 ], [ a:30001, b:2 ] ]
+     * </pre>
+     *
+     * @see #skip(int)
+     * @param n the number of elements to skip
+     * @return A new {@code Stream} wrapping a {@link SkipIterator}
+     */
+    public Stream<T> skip( long n ) {
+        return new Stream<T>( new SkipIterator<T>( pipeline(), n ) ) ;
     }
 
     /**
-     * Takes a {@code Closure} that returns a {@code Collection}.  Each element
-     * in this {@code Collection} is passed on in turn, before the next element is
-     * fetched from upstream, and the Closure executed again.
+     * Takes a {@code Closure} that returns a {@code Collection}, {@code Iterable},
+     * {@code Iterator} or {@code Stream}.  Each element of the result is passed on
+     * in turn, before the next element is fetched from upstream, and the Closure
+     * executed again.
+     *
+     * The result is read lazily rather than copied, so a Closure returning an
+     * {@code Iterator} or {@code Stream} never has all of its elements in memory at once.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -165,35 +301,55 @@ public class Stream<T> implements Iterator<T> {
      *   assert Stream.from( 1..3 )
      *                .flatMap { [ it ] * it }
      *                .collect() == [ 1, 2, 2, 3, 3, 3 ]
+     *
+     *   assert Stream.from( 1..3 )
+     *                .flatMap { n -&gt; Stream.from( 1..n ).map { n * it } }
+     *                .collect() == [ 1, 2, 4, 3, 6, 9 ]
      * </pre>
      *
      * @param <U> The type of the new Stream.
      * @param map A single parameter closure to pass the element through,
-     *            returning a new Collection of elements to iterate.
-     * @return A new {@code Stream} wrapping a {@link FlatMapIterator}
+     *            returning the elements to iterate.
+     * @return A new {@code Stream} running a {@link FlatMapStage}
      */
-    public <U> Stream<U> flatMap( Closure<? extends Collection<U>> map ) { 
-        return new Stream<U>( new FlatMapIterator<T,U>( iterator, map, false ) ) ;
+    public <U> Stream<U> flatMap( Closure<?> map ) {
+        return fuse( new FlatMapStage<T,U>( map, false ) ) ;
     }
 
     /**
-     * Takes a {@link Function} that returns a {@code Collection}.  Each element
-     * in this {@code Collection} is passed on in turn, before the next element is
+     * Takes a {@link Function} that returns an {@code Iterable}.  Each element
+     * of this {@code Iterable} is passed on in turn, before the next element is
      * fetched from upstream, and the {@link Function} is executed again.
      *
      * @param <U> The type of the new Stream.
-     * @param map A single {@link Function} to pass the element through, returning a
-     *            new Collection of elements to iterate.
-     * @return A new {@code Stream} wrapping a {@link FlatMapIteratorForFunction}
+     * @param map A single {@link Function} to pass the element through, returning
+     *            the elements to iterate.
+     * @return A new {@code Stream} running a {@link FlatMapStageForFunction}
+     */
+    public <U> Stream<U> flatMap( Function<T,? extends Iterable<U>> map ) {
+        return fuse( new FlatMapStageForFunction<T,U>( map ) ) ;
+    }
+
+    /**
+     * Takes a {@link Function} that returns an {@code Iterator} (such as another
+     * {@code Stream}).  Each element of the {@code Iterator} is read lazily and
+     * passed on in turn, before the next element is fetched from upstream, and the
+     * {@link Function} is executed again.
+     *
+     * @param <U> The type of the new Stream.
+     * @param map A single {@link Function} to pass the element through, returning
+     *            an {@code Iterator} over the elements to iterate.
+     * @return A new {@code Stream} running a {@link FlatMapStageForFunction}
      */
-    public <U> Stream<U> flatMap( Function<T,? extends Collection<U>> map ) {
-        return new Stream<U>( new FlatMapIteratorForFunction<T,U>( iterator, map ) ) ;
+    public <U> Stream<U> flatMapIterator( Function<T,? extends Iterator<U>> map ) {
+        return fuse( new FlatMapStageForFunction<T,U>( map ) ) ;
     }
 
     /**
-     * Takes a {@code Closure} that returns a {@code Collection}.  Each element
-     * in this {@code Collection} is passed on in turn, before the next element is
-     * fetched from upstream, and the Closure executed again.
+     * Takes a {@code Closure} that returns a {@code Collection}, {@code Iterable},
+     * {@code Iterator} or {@code Stream}.  Each element of the result is passed on
+     * in turn, before the next element is fetched from upstream, and the Closure
+     * executed again.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -205,25 +361,63 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param <U> The type of the new Stream.
      * @param map A two parameter closure to pass the element and it's index through,
-     *            returning a new Collection of elements to iterate.
+     *            returning the elements to iterate.
      * @return A new {@code Stream} wrapping a {@link FlatMapIterator}
      */
-    public <U> Stream<U> flatMapWithIndex( Closure<? extends Collection<U>> map ) { 
-        return new Stream<U>( new FlatMapIterator<T,U>( iterator, map, true ) ) ;
+    public <U> Stream<U> flatMapWithIndex( Closure<?> map ) { 
+        return new Stream<U>( new FlatMapIterator<T,U>( pipeline(), map, true ) ) ;
     }
 
     /**
-     * Takes an {@link IndexedFunction} that returns a {@code Collection}.  Each element
-     * in this {@code Collection} is passed on in turn, before the next element is
+     * Takes an {@link IndexedFunction} that returns an {@code Iterable}.  Each element
+     * of this {@code Iterable} is passed on in turn, before the next element is
      * fetched from upstream, and the {@link IndexedFunction} is executed again.
      *
      * @param <U> The type of the new Stream.
      * @param map A single {@link IndexedFunction} to pass the element and its index through,
-     *            returning a new Collection of elements to iterate.
+     *            returning the elements to iterate.
      * @return A new {@code Stream} wrapping a {@link FlatMapIteratorForIndexedFunction}
      */
-    public <U> Stream<U> flatMapWithIndex( IndexedFunction<T,? extends Collection<U>> map ) {
-        return new Stream<U>( new FlatMapIteratorForIndexedFunction<T,U>( iterator, map ) ) ;
+    public <U> Stream<U> flatMapWithIndex( IndexedFunction<T,? extends Iterable<U>> map ) {
+        return new Stream<U>( new FlatMapIteratorForIndexedFunction<T,U>( pipeline(), map ) ) ;
+    }
+
+    /**
+     * Takes a two parameter {@code Closure} which is passed each element and an
+     * {@link Emitter}, and calls the {@link Emitter} once for each element it wants
+     * to pass on.
+     *
+     * When the {@code Stream} is consumed by {@link #forEach(groovy.lang.Closure)},
+     * {@link #each(groovy.lang.Closure)}, {@link #drainTo(java.util.Collection)} or
+     * {@link #toList()}, emitted elements go straight through the rest of the pipeline.
+     * Otherwise they are gathered in a single buffer which is reused for every element.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 'a b', 'c', 'd e f' ] )
+     *                .flatMapEmit { line, emit -&gt; line.split( ' ' ).each { emit( it ) } }
+     *                .collect() == [ 'a', 'b', 'c', 'd', 'e', 'f' ]
+     * </pre>
+     *
+     * @param <U> The type of the new Stream.
+     * @param body A two parameter closure taking the element and an {@link Emitter}.
+     * @return A new {@code Stream} running a {@link FlatMapEmitStage}
+     */
+    public <U> Stream<U> flatMapEmit( Closure<?> body ) {
+        return fuse( new FlatMapEmitStage<T,U>( body ) ) ;
+    }
+
+    /**
+     * Takes a {@link Function2} which is passed each element and an {@link Emitter},
+     * as {@link #flatMapEmit(groovy.lang.Closure)}.
+     *
+     * @param <U> The type of the new Stream.
+     * @param body A {@link Function2} taking the element and an {@link Emitter}.
+     * @return A new {@code Stream} running a {@link FlatMapEmitStageForFunction}
+     */
+    public <U> Stream<U> flatMapEmit( Function2<T,Emitter<U>,?> body ) {
+        return fuse( new FlatMapEmitStageForFunction<T,U>( body ) ) ;
     }
 
     /**
@@ -240,7 +434,7 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param output The {@code Closure} to be called for every element
-     * @return A new {@code Stream} wrapping a {@link TapIterator}
+     * @return A new {@code Stream} running a {@link TapStage}
      */
     public Stream<T> tap( Closure<Void> output ) { return tapEvery( 1, output ) ; }
 
@@ -249,7 +443,7 @@ public class Stream<T> implements Iterator<T> {
      *
      * @see #tap(groovy.lang.Closure)
      * @param output The {@code Function} to be called for every element
-     * @return A new {@code Stream} wrapping a {@link TapIteratorForFunction}
+     * @return A new {@code Stream} running a {@link TapStageForFunction}
      */
     public Stream<T> tap( Function<T,Void> output ) { return tapEvery( 1, output ) ; }
 
@@ -268,10 +462,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param n the elements to inspect
      * @param output The {@code Closure} to be called for every nth element
-     * @return A new {@code Stream} wrapping a {@link TapIterator}
+     * @return A new {@code Stream} running a {@link TapStage}
      */
     public Stream<T> tapEvery( int n, Closure<Void> output ) {
-        return new Stream<T>( new TapIterator<T>( iterator, n, false, output ) ) ;
+        return fuse( new TapStage<T>( n, false, output ) ) ;
     }
 
     /**
@@ -280,10 +474,10 @@ public class Stream<T> implements Iterator<T> {
      * @see #tapEvery(int, groovy.lang.Closure)
      * @param n the elements to inspect
      * @param output The {@code Function} to be called for every nth element
-     * @return A new {@code Stream} wrapping a {@link TapIteratorForFunction}
+     * @return A new {@code Stream} running a {@link TapStageForFunction}
      */
     public Stream<T> tapEvery( int n, Function<T,Void> output ) {
-        return new Stream<T>( new TapIteratorForFunction<T>( iterator, n, output ) ) ;
+        return fuse( new TapStageForFunction<T>( n, output ) ) ;
     }
 
     /**
@@ -300,7 +494,7 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param output The closure to call for each element in the Stream.
-     * @return A new {@code Stream} wrapping a {@link TapIterator}
+     * @return A new {@code Stream} running a {@link TapStage}
      */
     public Stream<T> tapWithIndex( Closure<Void> output ) { return tapEveryWithIndex( 1, output ) ; }
 
@@ -309,7 +503,7 @@ public class Stream<T> implements Iterator<T> {
      *
      * @see #tapWithIndex(groovy.lang.Closure)
      * @param output The {@link IndexedFunction} to call for each element in the Stream.
-     * @return A new {@code Stream} wrapping a {@link TapIteratorForIndexedFunction}
+     * @return A new {@code Stream} running a {@link TapStageForIndexedFunction}
      */
     public Stream<T> tapWithIndex( IndexedFunction<T,Void> output ) { return tapEveryWithIndex( 1, output ) ; }
 
@@ -328,10 +522,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param n the elements to inspect
      * @param output The {@link Closure} to be called for every nth element
-     * @return A new {@code Stream} wrapping a {@link TapIterator}
+     * @return A new {@code Stream} running a {@link TapStage}
      */
     public Stream<T> tapEveryWithIndex( int n, Closure<Void> output ) {
-        return new Stream<T>( new TapIterator<T>( iterator, n, true, output ) ) ;
+        return fuse( new TapStage<T>( n, true, output ) ) ;
     }
 
     /**
@@ -340,10 +534,10 @@ public class Stream<T> implements Iterator<T> {
      * @see #tapEveryWithIndex(int, groovy.lang.Closure)
      * @param n the elements to inspect
      * @param output The {@link IndexedFunction} to be called for every nth element
-     * @return A new {@code Stream} wrapping a {@link TapIteratorForIndexedFunction}
+     * @return A new {@code Stream} running a {@link TapStageForIndexedFunction}
      */
     public Stream<T> tapEveryWithIndex( int n, IndexedFunction<T,Void> output ) {
-        return new Stream<T>( new TapIteratorForIndexedFunction<T>( iterator, n, output ) ) ;
+        return fuse( new TapStageForIndexedFunction<T>( n, output ) ) ;
     }
 
     /**
@@ -365,10 +559,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param <U> The type of the new Stream.
      * @param map The transforming Closure.
-     * @return A new {@code Stream} wrapping a {@link TransformingIterator}
+     * @return A new {@code Stream} running a {@link TransformingStage}
      */
     public <U> Stream<U> map( Closure<U> map ) {
-        return new Stream<U>( new TransformingIterator<T,U>( iterator, map, false ) ) ;
+        return fuse( new TransformingStage<T,U>( map, false ) ) ;
     }
 
     /**
@@ -379,10 +573,10 @@ public class Stream<T> implements Iterator<T> {
      * @see #map(groovy.lang.Closure)
      * @param <U> The type of the new Stream.
      * @param map The transforming {@link Function}.
-     * @return A new {@code Stream} wrapping a {@link TransformingIteratorForFunction}
+     * @return A new {@code Stream} running a {@link TransformingStageForFunction}
      */
     public <U> Stream<U> map( Function<T,U> map ) {
-        return new Stream<U>( new TransformingIteratorForFunction<T,U>( iterator, map ) ) ;
+        return fuse( new TransformingStageForFunction<T,U>( map ) ) ;
     }
 
     /**
@@ -404,10 +598,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param <U> The type of the new Stream.
      * @param map The transforming Closure.
-     * @return A new {@code Stream} wrapping a {@link TransformingIterator}
+     * @return A new {@code Stream} running a {@link TransformingStage}
      */
     public <U> Stream<U> mapWithIndex( Closure<U> map ) {
-        return new Stream<U>( new TransformingIterator<T,U>( iterator, map, true ) ) ;
+        return fuse( new TransformingStage<T,U>( map, true ) ) ;
     }
 
     /**
@@ -418,10 +612,165 @@ public class Stream<T> implements Iterator<T> {
      * @see #mapWithIndex(groovy.lang.Closure)
      * @param <U> The type of the new Stream.
      * @param map The transforming {@link IndexedFunction}.
-     * @return A new {@code Stream} wrapping a {@link TransformingIteratorForIndexedFunction}
+     * @return A new {@code Stream} running a {@link TransformingStageForIndexedFunction}
      */
     public <U> Stream<U> mapWithIndex( IndexedFunction<T,U> map ) {
-        return new Stream<U>( new TransformingIteratorForIndexedFunction<T,U>( iterator, map ) ) ;
+        return fuse( new TransformingStageForIndexedFunction<T,U>( map ) ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} to {@code int} values, returning an {@link IntStream}
+     * whose later stages work without boxing.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 'a', 'bb', 'ccc' ] )
+     *                .mapToInt { it.length() }
+     *                .map { it * it }
+     *                .boxed()
+     *                .collect() == [ 1, 4, 9 ]
+     * </pre>
+     *
+     * @param map The transforming Closure, which must return a {@link Number}.
+     * @return A new {@link IntStream} wrapping an {@link IntUnboxingIterator}
+     */
+    public IntStream mapToInt( Closure<? extends Number> map ) {
+        return IntStream.from( new IntUnboxingIterator( this, map ) ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} to {@code long} values, returning a {@link LongStream}
+     * whose later stages work without boxing.
+     *
+     * @see #mapToInt(groovy.lang.Closure)
+     * @param map The transforming Closure, which must return a {@link Number}.
+     * @return A new {@link LongStream} wrapping a {@link LongUnboxingIterator}
+     */
+    public LongStream mapToLong( Closure<? extends Number> map ) {
+        return LongStream.from( new LongUnboxingIterator( this, map ) ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} to {@code double} values, returning a {@link DoubleStream}
+     * whose later stages work without boxing.
+     *
+     * @see #mapToInt(groovy.lang.Closure)
+     * @param map The transforming Closure, which must return a {@link Number}.
+     * @return A new {@link DoubleStream} wrapping a {@link DoubleUnboxingIterator}
+     */
+    public DoubleStream mapToDouble( Closure<? extends Number> map ) {
+        return DoubleStream.from( new DoubleUnboxingIterator( this, map ) ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} on background threads, with up to {@code maxInFlight}
+     * calls to the {@link Closure} running at once.  This suits closures which spend most of their
+     * time blocked (on a remote call, a file or a database, ...).  The results are returned in the
+     * same order as the input, and each element is set as the delegate of the {@link Closure}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..6 )
+     *                .mapAsync( 3 ) { sleep( 10 * ( 6 - it ) ) ; it * 2 }
+     *                .collect() == [ 2, 4, 6, 8, 10, 12 ]
+     * </pre>
+     *
+     * @param <U> The type of the new Stream.
+     * @param maxInFlight The maximum number of elements to map at the same time.
+     * @param map The transforming Closure.
+     * @return A new {@code Stream} wrapping an {@link AsyncTransformingIterator}
+     */
+    public <U> Stream<U> mapAsync( int maxInFlight, Closure<U> map ) {
+        return mapAsync( maxInFlight, null, map ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} on background threads, with up to {@code maxInFlight}
+     * calls to the {@link Function} running at once.
+     *
+     * @see #mapAsync(int, groovy.lang.Closure)
+     * @param <U> The type of the new Stream.
+     * @param maxInFlight The maximum number of elements to map at the same time.
+     * @param map The transforming {@link Function}.
+     * @return A new {@code Stream} wrapping an {@link AsyncTransformingIteratorForFunction}
+     */
+    public <U> Stream<U> mapAsync( int maxInFlight, Function<T,U> map ) {
+        return mapAsync( maxInFlight, null, map ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} on the given {@link Executor}, with up to
+     * {@code maxInFlight} calls to the {@link Closure} running at once.
+     *
+     * @see #mapAsync(int, groovy.lang.Closure)
+     * @param <U> The type of the new Stream.
+     * @param maxInFlight The maximum number of elements to map at the same time.
+     * @param executor The {@link Executor} to run the {@link Closure} on.
+     * @param map The transforming Closure.
+     * @return A new {@code Stream} wrapping an {@link AsyncTransformingIterator}
+     */
+    public <U> Stream<U> mapAsync( int maxInFlight, Executor executor, Closure<U> map ) {
+        return new Stream<U>( new AsyncTransformingIterator<T,U>( pipeline(), maxInFlight, executor, map ) ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} on the given {@link Executor}, with up to
+     * {@code maxInFlight} calls to the {@link Function} running at once.
+     *
+     * @see #mapAsync(int, groovy.lang.Closure)
+     * @param <U> The type of the new Stream.
+     * @param maxInFlight The maximum number of elements to map at the same time.
+     * @param executor The {@link Executor} to run the {@link Function} on.
+     * @param map The transforming {@link Function}.
+     * @return A new {@code Stream} wrapping an {@link AsyncTransformingIteratorForFunction}
+     */
+    public <U> Stream<U> mapAsync( int maxInFlight, Executor executor, Function<T,U> map ) {
+        return new Stream<U>( new AsyncTransformingIteratorForFunction<T,U>( pipeline(), maxInFlight, executor, map ) ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} with a {@link Closure} that starts some work and returns a
+     * {@link Future} for its result.  Up to {@code maxInFlight} {@link Future}s are kept waiting at once,
+     * and their results are returned in the same order as the input.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *   import java.util.concurrent.*
+     *
+     *   def pool = Executors.newFixedThreadPool( 2 )
+     *   try {
+     *     assert Stream.from( 1..4 )
+     *                  .mapAsyncFuture( 2 ) { n -&gt; pool.submit( { n * 3 } as Callable ) }
+     *                  .collect() == [ 3, 6, 9, 12 ]
+     *   }
+     *   finally {
+     *     pool.shutdown()
+     *   }
+     * </pre>
+     *
+     * @param <U> The type of the new Stream.
+     * @param maxInFlight The maximum number of {@link Future}s to wait for at the same time.
+     * @param map The Closure returning a {@link Future}.
+     * @return A new {@code Stream} wrapping a {@link FutureTransformingIterator}
+     */
+    public <U> Stream<U> mapAsyncFuture( int maxInFlight, Closure<? extends Future<U>> map ) {
+        return new Stream<U>( new FutureTransformingIterator<T,U>( pipeline(), maxInFlight, map ) ) ;
+    }
+
+    /**
+     * Maps the elements of a {@code Stream} with a {@link Function} that starts some work and returns a
+     * {@link Future} for its result.
+     *
+     * @see #mapAsyncFuture(int, groovy.lang.Closure)
+     * @param <U> The type of the new Stream.
+     * @param maxInFlight The maximum number of {@link Future}s to wait for at the same time.
+     * @param map The {@link Function} returning a {@link Future}.
+     * @return A new {@code Stream} wrapping a {@link FutureTransformingIteratorForFunction}
+     */
+    public <U> Stream<U> mapAsyncFuture( int maxInFlight, Function<T,? extends Future<U>> map ) {
+        return new Stream<U>( new FutureTransformingIteratorForFunction<T,U>( pipeline(), maxInFlight, map ) ) ;
     }
 
     /**
@@ -436,10 +785,10 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param predicate The {@link Closure} that stops the Stream when it returns {@code true}.
-     * @return A new {@code Stream} wrapping an {@link UntilIterator}
+     * @return A new {@code Stream} running a {@link UntilStage}
      */
     public Stream<T> until( Closure<Boolean> predicate ) {
-        return new Stream<T>( new UntilIterator<T>( iterator, predicate, false ) ) ;
+        return fuse( new UntilStage<T>( predicate, false ) ) ;
     }
 
     /**
@@ -447,10 +796,10 @@ public class Stream<T> implements Iterator<T> {
      *
      * @see #until(groovy.lang.Closure)
      * @param predicate The {@link Predicate} that stops the Stream when it returns {@code true}.
-     * @return A new {@code Stream} wrapping an {@link UntilIteratorForPredicate}
+     * @return A new {@code Stream} running a {@link UntilStageForPredicate}
      */
     public Stream<T> until( Predicate<T> predicate ) {
-        return new Stream<T>( new UntilIteratorForPredicate<T>( iterator, predicate ) ) ;
+        return fuse( new UntilStageForPredicate<T>( predicate ) ) ;
     }
 
     /**
@@ -466,10 +815,10 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param predicate The {@link Closure} that stops the Stream when it returns {@code true}.
-     * @return A new {@code Stream} wrapping an {@link UntilIterator}
+     * @return A new {@code Stream} running a {@link UntilStage}
      */
     public Stream<T> untilWithIndex( Closure<Boolean> predicate ) {
-        return new Stream<T>( new UntilIterator<T>( iterator, predicate, true ) ) ;
+        return fuse( new UntilStage<T>( predicate, true ) ) ;
     }
 
     /**
@@ -477,10 +826,10 @@ public class Stream<T> implements Iterator<T> {
      * When the predicate returns {@code true}, the stream is stopped.
      *
      * @param predicate The {@link IndexedPredicate} that stops the Stream when it returns {@code true}.
-     * @return A new {@code Stream} wrapping an {@link UntilIteratorForIndexedPredicate}
+     * @return A new {@code Stream} running a {@link UntilStageForIndexedPredicate}
      */
     public Stream<T> untilWithIndex( IndexedPredicate<T> predicate ) {
-        return new Stream<T>( new UntilIteratorForIndexedPredicate<T>( iterator, predicate ) ) ;
+        return fuse( new UntilStageForIndexedPredicate<T>( predicate ) ) ;
     }
 
     /**
@@ -544,7 +893,8 @@ public class Stream<T> implements Iterator<T> {
 
     /**
      * Groups a the elements of a {@code Stream} into groups of length {@code size}
-     * using a step-size of {@code step}.
+     * using a step-size of {@code step}.  Each group is a {@link List} which may be changed;
+     * overlapping groups share the elements they hold until one of them is changed.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -565,7 +915,89 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping an {@link CollatingIterator}
      */
     public Stream<Collection<T>> collate( int size, int step, boolean keepRemainder ) {
-        return new Stream<Collection<T>>( new CollatingIterator<T>( this.iterator, size, step, keepRemainder ) ) ;
+        return new Stream<Collection<T>>( new CollatingIterator<T>( pipeline(), size, step, keepRemainder ) ) ;
+    }
+
+    /**
+     * Returns the sum of each window of {@code size} consecutive numbers, moving the
+     * window along one element at a time.  The total is kept up to date as each number
+     * enters and leaves the window, rather than being added up again for every window.  A
+     * {@code double} total is added up again once every {@code size} windows, so the windows
+     * between may differ from summing each one in the last few bits.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..6 )
+     *                .slidingSum( 3 )
+     *                .collect() == [ 6, 9, 12, 15 ]
+     * </pre>
+     *
+     * @param size the number of elements in each window
+     * @return A new {@code Stream} wrapping a {@link SlidingSumIterator}
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<Number> slidingSum( int size ) {
+        return new Stream<Number>( new SlidingSumIterator( (Iterator<? extends Number>)pipeline(), size, false ) ) ;
+    }
+
+    /**
+     * Returns the average of each window of {@code size} consecutive numbers, moving the
+     * window along one element at a time.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..6 )
+     *                .slidingAverage( 2 )
+     *                .collect() == [ 1.5, 2.5, 3.5, 4.5, 5.5 ]
+     * </pre>
+     *
+     * @see #slidingSum(int)
+     * @param size the number of elements in each window
+     * @return A new {@code Stream} wrapping a {@link SlidingSumIterator}
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<Number> slidingAverage( int size ) {
+        return new Stream<Number>( new SlidingSumIterator( (Iterator<? extends Number>)pipeline(), size, true ) ) ;
+    }
+
+    /**
+     * Returns the smallest element in each window of {@code size} consecutive elements,
+     * moving the window along one element at a time.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 4, 2, 5, 7, 1, 3 ] )
+     *                .slidingMin( 3 )
+     *                .collect() == [ 2, 2, 1, 1 ]
+     * </pre>
+     *
+     * @param size the number of elements in each window
+     * @return A new {@code Stream} wrapping a {@link SlidingExtremeIterator}
+     */
+    public Stream<T> slidingMin( int size ) {
+        return new Stream<T>( new SlidingExtremeIterator<T>( pipeline(), size, false ) ) ;
+    }
+
+    /**
+     * Returns the largest element in each window of {@code size} consecutive elements,
+     * moving the window along one element at a time.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 4, 2, 5, 7, 1, 3 ] )
+     *                .slidingMax( 3 )
+     *                .collect() == [ 5, 7, 7, 7 ]
+     * </pre>
+     *
+     * @param size the number of elements in each window
+     * @return A new {@code Stream} wrapping a {@link SlidingExtremeIterator}
+     */
+    public Stream<T> slidingMax( int size ) {
+        return new Stream<T>( new SlidingExtremeIterator<T>( pipeline(), size, true ) ) ;
     }
 
     /**
@@ -589,11 +1021,11 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping a {@link ZipIterator}
      */
     public <U,V> Stream<V> zip( Iterator<U> other, Closure<V> map ) {
-        return new Stream<V>( new ZipIterator<T,U,V>( this.iterator, other, false, map ) ) ;
+        return new Stream<V>( new ZipIterator<T,U,V>( pipeline(), other, false, map ) ) ;
     }
 
     public <U,V> Stream<V> zip( Iterable<U> other, Closure<V> map ) {
-        return new Stream<V>( new ZipIterator<T,U,V>( this.iterator, other.iterator(), false, map ) ) ;
+        return new Stream<V>( new ZipIterator<T,U,V>( pipeline(), other.iterator(), false, map ) ) ;
     }
 
     /**
@@ -608,11 +1040,11 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping a {@link ZipIteratorForFunction}
      */
     public <U,V> Stream<V> zip( Iterator<U> other, Function2<T,U,V> map ) {
-        return new Stream<V>( new ZipIteratorForFunction<T,U,V>( this.iterator, other, map ) ) ;
+        return new Stream<V>( new ZipIteratorForFunction<T,U,V>( pipeline(), other, map ) ) ;
     }
 
     public <U,V> Stream<V> zip( Iterable<U> other, Function2<T,U,V> map ) {
-        return new Stream<V>( new ZipIteratorForFunction<T,U,V>( this.iterator, other.iterator(), map ) ) ;
+        return new Stream<V>( new ZipIteratorForFunction<T,U,V>( pipeline(), other.iterator(), map ) ) ;
     }
 
     /**
@@ -637,11 +1069,11 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping a {@link ZipIterator}
      */
     public <U,V> Stream<V> zipWithIndex( Iterator<U> other, Closure<V> map ) {
-        return new Stream<V>( new ZipIterator<T,U,V>( this.iterator, other, true, map ) ) ;
+        return new Stream<V>( new ZipIterator<T,U,V>( pipeline(), other, true, map ) ) ;
     }
 
     public <U,V> Stream<V> zipWithIndex( Iterable<U> other, Closure<V> map ) {
-        return new Stream<V>( new ZipIterator<T,U,V>( this.iterator, other.iterator(), true, map ) ) ;
+        return new Stream<V>( new ZipIterator<T,U,V>( pipeline(), other.iterator(), true, map ) ) ;
     }
 
     /**
@@ -657,16 +1089,23 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping a {@link ZipIteratorForIndexedFunction}
      */
     public <U,V> Stream<V> zipWithIndex( Iterator<U> other, IndexedFunction2<T,U,V> map ) {
-        return new Stream<V>( new ZipIteratorForIndexedFunction<T,U,V>( this.iterator, other, map ) ) ;
+        return new Stream<V>( new ZipIteratorForIndexedFunction<T,U,V>( pipeline(), other, map ) ) ;
     }
 
     public <U,V> Stream<V> zipWithIndex( Iterable<U> other, IndexedFunction2<T,U,V> map ) {
-        return new Stream<V>( new ZipIteratorForIndexedFunction<T,U,V>( this.iterator, other.iterator(), map ) ) ;
+        return new Stream<V>( new ZipIteratorForIndexedFunction<T,U,V>( pipeline(), other.iterator(), map ) ) ;
     }
 
     /**
      * When this stream completes, repeat it's output endlessly.
      *
+     * If the {@code Stream} has not started, and comes from a source which can be read again
+     * (such as a {@link Collection}, an array or a {@link Map} of {@link Collection}s), each
+     * repeat reads the source again and runs the pipeline over it, so nothing is cached.
+     * This means every stage runs again on each pass: closures given to {@code map},
+     * {@code tap}, {@code tapEvery} and the like are called once per element per repeat.
+     * Otherwise the output is kept in memory as it is first read, and the stages run once.
+     *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
      *
@@ -679,13 +1118,14 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping a {@link RepeatingIterator}
      */
     public Stream<T> repeat() {
-        return new Stream<T>(new RepeatingIterator<T>(this.iterator));
+        return repeat( RepeatingIterator.FOREVER, -1 ) ;
     }
 
     /**
      * This stream will repeat <code>count</code> times.
      *
      * If count is <code>0</code>, the Stream will be empty. If <code>1</code>, no repetition will be performed.
+     * As with {@link #repeat()}, the source is read again for each repeat if it can be.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -699,7 +1139,39 @@ public class Stream<T> implements Iterator<T> {
      * @return A new {@code Stream} wrapping a {@link RepeatingIterator}
      */
     public Stream<T> repeat(int count) {
-        return new Stream<T>(new RepeatingIterator<T>(this.iterator, count));
+        return repeat( count, -1 ) ;
+    }
+
+    /**
+     * This stream will repeat <code>count</code> times, keeping at most <code>maxBuffered</code>
+     * elements in memory if the output has to be cached.  Any more are serialized to a temporary
+     * file (so they must be {@link java.io.Serializable}), which is deleted once the last repeat
+     * has finished.
+     *
+     * Nothing is cached when the source can be read again, so as with {@link #repeat()} the
+     * stages before the repeat run again on every pass, side effects and all.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def lines = Stream.from( new BufferedReader( new StringReader( 'a\nb\nc' ) ) )
+     *
+     *   assert lines.repeat( 3, 1 ).collect() == [ 'a', 'b', 'c' ] * 3
+     *
+     *   def taps = 0
+     *   assert Stream.from( [ 1, 2 ] ).tap { taps++ }.repeat( 3, 1 ).collect() == [ 1, 2 ] * 3
+     *   assert taps == 6
+     * </pre>
+     *
+     * @param count The number of times to repeat the elements, or {@link RepeatingIterator#FOREVER}.
+     * @param maxBuffered The most elements to keep in memory, or {@code -1} for no limit.
+     * @return A new {@code Stream} wrapping a {@link RepeatingIterator}
+     */
+    public Stream<T> repeat( int count, long maxBuffered ) {
+        if( iterator == null && parallelism == 0 && source instanceof RestartableIterator ) {
+            return new Stream<T>( new RepeatingIterator<T>( (RestartableIterator<?>)source, stages, count, maxBuffered ) ) ;
+        }
+        return new Stream<T>( new RepeatingIterator<T>( pipeline(), count, maxBuffered ) ) ;
     }
 
     /**
@@ -714,101 +1186,1024 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param n The number of element to limit the {@code Stream} to.
-     * @return A new {@code Stream} wrapping a {@link LimitedIterator}
+     * @return A new {@code Stream} wrapping a {@link LimitedIterator}, or running a
+     *         {@link LimitStage} if this {@code Stream} has other stages to fuse with.
      */
     public Stream<T> take( int n ) {
-        return new Stream<T>( new LimitedIterator<T>( this.iterator, n ) ) ;
+        if( stages.length == 0 || iterator != null ) {
+            return new Stream<T>( new LimitedIterator<T>( pipeline(), n ) ) ;
+        }
+        return fuse( new LimitStage<T>( n ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} from a {@link Map} of Iterables.
-     * 
+     * Pushes every remaining element in the {@code Stream} into the {@link Closure}.
+     *
+     * Unlike iterating the {@code Stream}, the elements are pushed through each stage
+     * in a single loop, without calling {@code hasNext()} and {@code next()} for every one.
+     *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
      *
-     *   assert Stream.from( a:1..3, b:'a'..'c' )
-     *                .collect() == [ [ a:1, b:'a' ],
-     *                                [ a:1, b:'b' ],
-     *                                [ a:1, b:'c' ],
-     *                                [ a:2, b:'a' ],
-     *                                [ a:2, b:'b' ],
-     *                                [ a:2, b:'c' ],
-     *                                [ a:3, b:'a' ],
-     *                                [ a:3, b:'b' ],
-     *                                [ a:3, b:'c' ] ]
+     *   def list = []
+     *   Stream.from( 1..5 ).filter { it % 2 }.forEach { list &lt;&lt; it }
+     *   assert list == [ 1, 3, 5 ]
      * </pre>
      *
-     * @param <K> They type of the Map keys.
-     * @param <V> The type of the Iterable value.
-     * @param map The map of Iterables.
-     * @return A new {@code Stream} wrapping a {@link MapIterator}.
+     * @param action The {@link Closure} to call with each element.
      */
-    public static <K,V> Stream<Map<K,V>> from( Map<K,? extends Iterable<V>> map ) {
-        return new Stream<Map<K,V>>( new MapIterator<K,V>( map ) ) ;
+    public void forEach( Closure<Void> action ) {
+        drain( new TapStage<T>( 1, false, action ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} from another {@code Stream}.
-     * 
+     * Pushes every remaining element in the {@code Stream} into the {@link Function}.
+     *
+     * @see #forEach(groovy.lang.Closure)
+     * @param action The {@link Function} to call with each element.
+     */
+    public void forEach( Function<T,Void> action ) {
+        drain( new TapStageForFunction<T>( action ) ) ;
+    }
+
+    /**
+     * Pushes every remaining element in the {@code Stream} into the {@link Closure}, and
+     * returns how many elements there were.
+     *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
      *
-     *   assert Stream.from( Stream.from( 1..3 ) )
-     *                .collect() == [ 1, 2, 3 ]
+     *   def total = 0
+     *   assert Stream.from( 1..10 ).until { it &gt; 4 }.each { total += it } == 4
+     *   assert total == 10
      * </pre>
      *
-     * @param <T> The type of the Stream.
-     * @param stream The other {@code Stream}.
-     * @return A new {@code Stream} wrapping the iterator of the other {@code Stream}.
+     * @param action The {@link Closure} to call with each element.
+     * @return The number of elements passed to the {@link Closure}.
      */
-    public static <T> Stream<T> from( Stream<T> stream ) {
-        return new Stream<T>( stream.iterator ) ;
+    public long each( Closure<Void> action ) {
+        return drain( new TapStage<T>( 1, false, action ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} from an {@link Iterable}.
+     * Pushes every remaining element in the {@code Stream} into a {@link Collection}.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
      *
-     *   assert Stream.from( [ 1, 2, 3 ] )
-     *                .collect() == [ 1, 2, 3 ]
+     *   assert Stream.from( 1..9 ).map { it * 2 }.take( 3 ).drainTo( new HashSet() ) == [ 2, 4, 6 ] as Set
      * </pre>
      *
-     * @param <T> The type of the Iterable.
-     * @param iterable The iterable to iterate.
-     * @return A new {@code Stream} wrapping the {@code iterable.iterator()}.
+     * @param <C> The type of the {@link Collection}.
+     * @param target The {@link Collection} to add each element to.
+     * @return {@code target}
      */
-    public static <T> Stream<T> from( Iterable<T> iterable ) {
-        return new Stream<T>( iterable.iterator() ) ;
+    public <C extends Collection<? super T>> C drainTo( C target ) {
+        drain( new CollectingStage<T>( target ) ) ;
+        return target ;
     }
 
     /**
-     * Construct a {@code Stream} from an {@link Iterator}.
+     * Pushes every remaining element in the {@code Stream} into a new {@link List}.  When
+     * the size of the {@code Stream} is known, and is no more than 65536, the {@link List} is
+     * created at that size, so it is never grown and copied.  A larger {@code Stream} starts at
+     * 65536 and grows as it is filled, so nothing huge is allocated before an element is read.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
      *
-     *   assert Stream.from( [ 1, 2, 3 ].iterator() )
-     *                .collect() == [ 1, 2, 3 ]
+     *   assert Stream.from( 1..5 ).map { it * 2 }.toList() == [ 2, 4, 6, 8, 10 ]
      * </pre>
      *
-     * @param <T> The type of the Iterator.
-     * @param iterator The iterator to wrap.
-     * @return A new {@code Stream} wrapping the iterator.
+     * @return A {@link List} of the remaining elements.
      */
-    public static <T> Stream<T> from( Iterator<T> iterator ) {
-        return new Stream<T>( iterator ) ;
+    public List<T> toList() {
+        long size = sizeHint() ;
+        return drainTo( new ArrayList<T>( size < 0 ? 10 : (int)size ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} from a {@link BufferedReader} that iterates the lines in it.
+     * Pushes every remaining element in the {@code Stream} into a new {@link List}, created
+     * to hold {@code expectedSize} elements.  If the exact size of the {@code Stream} is known,
+     * that is used instead.
      *
-     * @param reader The Reader to iterate lines from
-     * @return A new {@code Stream} wrapping a {@link BufferedReaderIterator}.
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..100 ).filter { it % 10 == 0 }.toList( 10 ) == [ 10, 20, 30, 40, 50, 60, 70, 80, 90, 100 ]
+     * </pre>
+     *
+     * @param expectedSize How many elements the caller expects there to be.
+     * @return A {@link List} of the remaining elements.
      */
-    public static Stream<String> from( BufferedReader reader ) {
-        return new Stream<String>( new BufferedReaderIterator( reader ) ) ;
+    public List<T> toList( int expectedSize ) {
+        if( expectedSize < 0 ) {
+            throw new IllegalArgumentException( "Expected size cannot be negative: " + expectedSize ) ;
+        }
+        long size = hasCharacteristics( SIZED ) ? sizeHint() : expectedSize ;
+        return drainTo( new ArrayList<T>( (int)size ) ) ;
+    }
+
+    /**
+     * Pushes every remaining element in the {@code Stream} into a new array.  When the
+     * size of the {@code Stream} is known, and is no more than 65536, the array is created at
+     * that size and filled in place.  Otherwise the elements are gathered in growing chunks, and copied into
+     * an array once at the end, so no intermediate {@link List} is built.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..5 ).map { it * 2 }.toArray() == [ 2, 4, 6, 8, 10 ] as Object[]
+     * </pre>
+     *
+     * @return An {@code Object} array of the remaining elements.
+     */
+    public Object[] toArray() {
+        return toArray( Object.class ) ;
+    }
+
+    /**
+     * Pushes every remaining element in the {@code Stream} into a new array of {@code type}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   String[] words = Stream.from( [ 'a', 'b', 'c' ] ).map { it * 2 }.toArray( String )
+     *   assert words == [ 'aa', 'bb', 'cc' ] as String[]
+     * </pre>
+     *
+     * @see #toArray()
+     * @param <A> The component type of the array.
+     * @param type The component type of the array.
+     * @return An array of the remaining elements.
+     * @throws ArrayStoreException if an element is not an instance of {@code type}.
+     */
+    @SuppressWarnings("unchecked")
+    public <A> A[] toArray( Class<A> type ) {
+        ArrayStage<T> stage = new ArrayStage<T>( type, sizeHint() ) ;
+        drain( stage ) ;
+        return (A[])stage.toArray() ;
+    }
+
+    /**
+     * Pushes every remaining element, which must all be {@link Number}s, into a new
+     * {@code int} array, gathered as in {@link #toArray()}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..100 ).filter { it % 25 == 0 }.toIntArray() == [ 25, 50, 75, 100 ] as int[]
+     * </pre>
+     *
+     * @return An {@code int} array of the remaining elements.
+     */
+    @SuppressWarnings("unchecked")
+    public int[] toIntArray() {
+        IntArrayStage<Number> stage = new IntArrayStage<Number>( sizeHint() ) ;
+        drain( (Stage<? super T,?>)(Stage)stage ) ;
+        return stage.toArray() ;
+    }
+
+    /**
+     * Pushes every remaining element, which must all be {@link Number}s, into a new
+     * {@code long} array, gathered as in {@link #toArray()}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..3 ).map { it * 10000000000L }.toLongArray() == [ 10000000000L, 20000000000L, 30000000000L ] as long[]
+     * </pre>
+     *
+     * @return A {@code long} array of the remaining elements.
+     */
+    @SuppressWarnings("unchecked")
+    public long[] toLongArray() {
+        LongArrayStage<Number> stage = new LongArrayStage<Number>( sizeHint() ) ;
+        drain( (Stage<? super T,?>)(Stage)stage ) ;
+        return stage.toArray() ;
+    }
+
+    /**
+     * Pushes every remaining element, which must all be {@link Number}s, into a new
+     * {@code double} array, gathered as in {@link #toArray()}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..3 ).map { it / 2 }.toDoubleArray() == [ 0.5d, 1.0d, 1.5d ] as double[]
+     * </pre>
+     *
+     * @return A {@code double} array of the remaining elements.
+     */
+    @SuppressWarnings("unchecked")
+    public double[] toDoubleArray() {
+        DoubleArrayStage<Number> stage = new DoubleArrayStage<Number>( sizeHint() ) ;
+        drain( (Stage<? super T,?>)(Stage)stage ) ;
+        return stage.toArray() ;
+    }
+
+    /**
+     * Reads every remaining element, and returns how many there were.
+     *
+     * If there are no stages, and the source knows exactly how many elements it has left
+     * and can skip past them (such as a {@link List}, an array, or the product of a
+     * {@link Map} of {@link Iterable}s), the elements are skipped rather than read.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..10 ).filter { it % 3 == 0 }.count() == 3
+     *   assert Stream.from( a:1..1000, b:1..1000 ).count() == 1000000
+     * </pre>
+     *
+     * @return The number of remaining elements.
+     */
+    public long count() {
+        if( stages.length == 0 && ( parallelism == 0 || iterator == null )
+                && source instanceof SkippableIterator && hasCharacteristics( SIZED ) ) {
+            long count = ( (SkippableIterator<?>)source ).skip( estimateSize() ) ;
+            while( source.hasNext() ) {
+                source.next() ;
+                count++ ;
+            }
+            return count ;
+        }
+        if( collectsInParallel() ) {
+            return collect( Collectors.counting() ) ;
+        }
+        return drain( new CountingStage<T>() ) ;
+    }
+
+    /**
+     * Gathers the remaining elements with a {@link Collector}.
+     *
+     * On a parallel {@code Stream} where every stage keeps no state between elements, the
+     * source is cut into parts of {@link ParallelCollector#LEAF_SIZE} elements, each part is
+     * gathered into its own container by a worker, and the containers are combined in a tree
+     * whose shape depends only on the number of parts.  The result is therefore the same on
+     * every run, whatever the parallelism, even where combining is not exact (such as adding
+     * up {@code double}s).
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def histogram = Stream.from( 1..1000 )
+     *                         .parallel( 4 )
+     *                         .map { it % 3 }
+     *                         .collect( Collectors.groupingBy( { it }, Collectors.counting() ) )
+     *   assert histogram == [ 1:334, 2:333, 0:333 ]
+     * </pre>
+     *
+     * @param <A> The type of the container.
+     * @param <R> The type of the result.
+     * @param collector The {@link Collector} to gather the elements with.
+     * @return The result of the {@link Collector}.
+     * @see Collectors
+     */
+    public <A,R> R collect( Collector<? super T,A,R> collector ) {
+        A container ;
+        if( collectsInParallel() ) {
+            container = ParallelCollector.collect( source, elements, stages, collector, executor, parallelism ) ;
+            iterator = new EmptyIterator<T>() ;
+        }
+        else {
+            AccumulatingStage<T,A> stage = new AccumulatingStage<T,A>( collector ) ;
+            drain( stage ) ;
+            container = stage.getContainer() ;
+        }
+        return collector.finish( container ) ;
+    }
+
+    /**
+     * Combines the elements one at a time, starting with the first.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..5 ).reduce { a, b -&gt; a * b } == 120
+     * </pre>
+     *
+     * @param reduction A two parameter closure, called with the result so far and the next element.
+     * @return The result of the last call, the only element if there was one, or {@code null} if there were none.
+     */
+    public T reduce( Closure<T> reduction ) {
+        if( collectsInParallel() ) {
+            return collect( Collectors.reducing( reduction ) ) ;
+        }
+        ReducingStage<T,T> stage = new ReducingStage<T,T>( reduction, false, null ) ;
+        drain( stage ) ;
+        return stage.getResult() ;
+    }
+
+    /**
+     * Combines the elements one at a time, starting with the first (Java friendly version).
+     *
+     * @see #reduce(groovy.lang.Closure)
+     * @param reduction A {@link Function2} called with the result so far and the next element.
+     * @return The result of the last call, the only element if there was one, or {@code null} if there were none.
+     */
+    public T reduce( Function2<T,T,T> reduction ) {
+        if( collectsInParallel() ) {
+            return collect( Collectors.reducing( reduction ) ) ;
+        }
+        ReducingStage<T,T> stage = new ReducingStageForFunction<T,T>( reduction, false, null ) ;
+        drain( stage ) ;
+        return stage.getResult() ;
+    }
+
+    /**
+     * Combines the elements one at a time into a result, starting with {@code initial}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 'a'..'c' ).fold( '' ) { acc, s -&gt; acc + s.toUpperCase() } == 'ABC'
+     * </pre>
+     *
+     * @param <A> The type of the result.
+     * @param initial The result to start with.
+     * @param reduction A two parameter closure, called with the result so far and the next element.
+     * @return The result of the last call, or {@code initial} if there were no elements.
+     */
+    public <A> A fold( A initial, Closure<A> reduction ) {
+        ReducingStage<T,A> stage = new ReducingStage<T,A>( reduction, true, initial ) ;
+        drain( stage ) ;
+        return stage.getResult() ;
+    }
+
+    /**
+     * Combines the elements one at a time into a result, starting with {@code initial} (Java friendly version).
+     *
+     * @see #fold(java.lang.Object, groovy.lang.Closure)
+     * @param <A> The type of the result.
+     * @param initial The result to start with.
+     * @param reduction A {@link Function2} called with the result so far and the next element.
+     * @return The result of the last call, or {@code initial} if there were no elements.
+     */
+    public <A> A fold( A initial, Function2<A,T,A> reduction ) {
+        ReducingStage<T,A> stage = new ReducingStageForFunction<T,A>( reduction, true, initial ) ;
+        drain( stage ) ;
+        return stage.getResult() ;
+    }
+
+    /**
+     * Adds up the remaining elements.  Whole numbers are added in a {@code long}, and floating
+     * point numbers in a {@code double}, rather than boxing a new total for each element.  Once an
+     * element which is not a {@link Number} is reached, the total so far and the elements after it
+     * are added with Groovy's {@code plus}, so Strings and Lists add up as {@code Iterator.sum()}
+     * would add them.  As with {@code Iterator.sum()}, an empty stream adds up to {@code null}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..4 ).sum() == 10
+     *   assert Stream.from( [ 1, 2.5d ] ).sum() == 3.5d
+     *   assert Stream.from( [] ).sum() == null
+     *   assert Stream.from( [ 'a', 'b' ] ).sum() == 'ab'
+     *   assert Stream.from( [ [ 1 ], [ 2 ] ] ).sum() == [ 1, 2 ]
+     * </pre>
+     *
+     * @return The total: an {@link Integer} if every element was an {@link Integer} and the total
+     *         fits, a {@link Long} if every element was a whole number, or a {@link Double} if any
+     *         was a {@link Double} or {@link Float}.  Other types are added as Groovy would,
+     *         and there is no total, {@code null}, if there were no elements.
+     */
+    public Object sum() {
+        return collect( Collectors.summing() ) ;
+    }
+
+    /**
+     * The mean of the remaining elements, which must all be {@link Number}s.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..4 ).average() == 2.5d
+     *   assert Stream.from( [] ).average() == null
+     * </pre>
+     *
+     * @return The mean as a {@link Double} (or as Groovy would divide, if any element was not a
+     *         primitive wrapper), or {@code null} if there were no elements.
+     */
+    public Number average() {
+        return collect( Collectors.averaging() ) ;
+    }
+
+    /**
+     * The smallest remaining element, as Groovy compares them.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 3, 1, 2 ] ).min() == 1
+     *   assert Stream.from( [ null, 3, 1 ] ).min() == 1
+     * </pre>
+     *
+     * @return The first of the smallest elements, or {@code null} if there were none.  As with
+     *         {@code Iterator.min()}, {@code null} elements are ignored.
+     */
+    public T min() {
+        return extreme( null, false ) ;
+    }
+
+    /**
+     * The smallest remaining element by a {@link Comparator}.
+     *
+     * @param comparator The {@link Comparator} to order the elements with.
+     * @return The first of the smallest elements, or {@code null} if there were none.
+     */
+    public T min( Comparator<? super T> comparator ) {
+        return extreme( comparator, false ) ;
+    }
+
+    /**
+     * The smallest remaining element by a {@link Closure}, which either compares two elements,
+     * or returns the value to compare an element by.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 'ccc', 'a', 'bb' ] ).min { it.length() } == 'a'
+     *   assert Stream.from( [ 'ccc', 'a', 'bb' ] ).min { a, b -&gt; b.length() &lt;=&gt; a.length() } == 'ccc'
+     * </pre>
+     *
+     * @param order A two parameter comparing closure, or a single parameter closure.
+     * @return The first of the smallest elements, or {@code null} if there were none.
+     */
+    public T min( Closure<?> order ) {
+        return extreme( comparator( order ), false ) ;
+    }
+
+    /**
+     * The largest remaining element, as Groovy compares them.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 3, 1, 2 ] ).max() == 3
+     *   assert Stream.from( [ 3, null, 1 ] ).max() == 3
+     * </pre>
+     *
+     * @return The first of the largest elements, or {@code null} if there were none.  As with
+     *         {@code Iterator.max()}, {@code null} elements are ignored.
+     */
+    public T max() {
+        return extreme( null, true ) ;
+    }
+
+    /**
+     * The largest remaining element by a {@link Comparator}.
+     *
+     * @param comparator The {@link Comparator} to order the elements with.
+     * @return The first of the largest elements, or {@code null} if there were none.
+     */
+    public T max( Comparator<? super T> comparator ) {
+        return extreme( comparator, true ) ;
+    }
+
+    /**
+     * The largest remaining element by a {@link Closure}.
+     *
+     * @see #min(groovy.lang.Closure)
+     * @param order A two parameter comparing closure, or a single parameter closure.
+     * @return The first of the largest elements, or {@code null} if there were none.
+     */
+    public T max( Closure<?> order ) {
+        return extreme( comparator( order ), true ) ;
+    }
+
+    /**
+     * Reads elements until one matches, and no further.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def read = 0
+     *   assert Stream.from( 1..10 ).tap { read++ }.anyMatch { it &gt; 2 }
+     *   assert read == 3
+     * </pre>
+     *
+     * @param predicate A single parameter closure to check each element with.
+     * @return {@code true} if any element matched.
+     */
+    public boolean anyMatch( Closure<Boolean> predicate ) {
+        return match( new MatchingStage<T>( predicate, true ) ).isFound() ;
+    }
+
+    /**
+     * Reads elements until one matches, and no further (Java friendly version).
+     *
+     * @see #anyMatch(groovy.lang.Closure)
+     * @param predicate A {@link Predicate} to check each element with.
+     * @return {@code true} if any element matched.
+     */
+    public boolean anyMatch( Predicate<T> predicate ) {
+        return match( new MatchingStageForPredicate<T>( predicate, true ) ).isFound() ;
+    }
+
+    /**
+     * Reads elements until one does not match, and no further.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..10 ).allMatch { it &lt; 20 }
+     *   assert !Stream.from( 1..10 ).allMatch { it &lt; 5 }
+     * </pre>
+     *
+     * @param predicate A single parameter closure to check each element with.
+     * @return {@code true} if every element matched, or there were none.
+     */
+    public boolean allMatch( Closure<Boolean> predicate ) {
+        return !match( new MatchingStage<T>( predicate, false ) ).isFound() ;
+    }
+
+    /**
+     * Reads elements until one does not match, and no further (Java friendly version).
+     *
+     * @see #allMatch(groovy.lang.Closure)
+     * @param predicate A {@link Predicate} to check each element with.
+     * @return {@code true} if every element matched, or there were none.
+     */
+    public boolean allMatch( Predicate<T> predicate ) {
+        return !match( new MatchingStageForPredicate<T>( predicate, false ) ).isFound() ;
+    }
+
+    /**
+     * Reads one element.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 5..10 ).findFirst() == 5
+     *   assert Stream.from( [] ).findFirst() == null
+     * </pre>
+     *
+     * @return The next element, or {@code null} if there are none.
+     */
+    public T findFirst() {
+        return match( new MatchingStage<T>( null, true ) ).getValue() ;
+    }
+
+    /**
+     * Reads elements until one matches, and no further.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def stream = Stream.from( 1..10 )
+     *   assert stream.findFirst { it % 4 == 0 } == 4
+     *   assert stream.next() == 5
+     * </pre>
+     *
+     * @param predicate A single parameter closure to check each element with.
+     * @return The first element which matched, or {@code null} if none did.
+     */
+    public T findFirst( Closure<Boolean> predicate ) {
+        return match( new MatchingStage<T>( predicate, true ) ).getValue() ;
+    }
+
+    /**
+     * Reads elements until one matches, and no further (Java friendly version).
+     *
+     * @see #findFirst(groovy.lang.Closure)
+     * @param predicate A {@link Predicate} to check each element with.
+     * @return The first element which matched, or {@code null} if none did.
+     */
+    public T findFirst( Predicate<T> predicate ) {
+        return match( new MatchingStageForPredicate<T>( predicate, true ) ).getValue() ;
+    }
+
+    /**
+     * Reads up to {@code capacity} elements ahead of the consumer on a background thread,
+     * so slow sources (such as a {@link BufferedReader}) can be read while earlier elements
+     * are being processed.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..10 )
+     *                .map { it * 2 }
+     *                .prefetch( 4 )
+     *                .filter { it % 3 }
+     *                .collect() == [ 2, 4, 8, 10, 14, 16, 20 ]
+     * </pre>
+     *
+     * @param capacity The maximum number of elements to read ahead.
+     * @return A new {@code Stream} wrapping a {@link PrefetchIterator}
+     */
+    public Stream<T> prefetch( int capacity ) {
+        return new Stream<T>( new PrefetchIterator<T>( pipeline(), capacity ) ) ;
+    }
+
+    /**
+     * Runs the stateless {@code map}, {@code filter}, {@code flatMap} and {@code tap} stages of
+     * this {@code Stream} on {@code threads} worker threads.
+     *
+     * Random access Lists, {@link IntRange}s, arrays and {@link Map}s of Collections are split into
+     * chunks up front (a chunk of {@link Map} combinations starts from its first index), other sources
+     * are read in batches as they are needed.  Each chunk is run through its own copy of the stages,
+     * and the results are returned in source order.  The first stage that needs to see every element
+     * in order ({@code until}, {@code take}, any {@code WithIndex} variant, ...) and everything after
+     * it runs on the calling thread.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( 1..100 )
+     *                .parallel( 4 )
+     *                .map { it * 2 }
+     *                .filter { it % 3 }
+     *                .collect() == ( 1..100 ).collect { it * 2 }.findAll { it % 3 }
+     * </pre>
+     *
+     * @param threads The number of worker threads to use.
+     * @return A new {@code Stream} that runs its stateless stages in parallel.
+     */
+    public Stream<T> parallel( int threads ) {
+        return parallelize( null, threads, true ) ;
+    }
+
+    /**
+     * Runs the stateless stages of this {@code Stream} on {@code threads} worker threads, as
+     * {@link #parallel(int)}.  If {@code ordered} is {@code false}, each chunk of results is
+     * returned as soon as it is ready, rather than waiting for the chunks before it.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( x:1..20, y:1..20 )
+     *                .parallel( 4, false )
+     *                .filter { x * y == 36 }
+     *                .map { "${x}x${y}".toString() }
+     *                .collect() as Set == [ '2x18', '3x12', '4x9', '6x6', '9x4', '12x3', '18x2' ] as Set
+     * </pre>
+     *
+     * @param threads The number of worker threads to use.
+     * @param ordered {@code false} if the results may be returned out of source order.
+     * @return A new {@code Stream} that runs its stateless stages in parallel.
+     */
+    public Stream<T> parallel( int threads, boolean ordered ) {
+        return parallelize( null, threads, ordered ) ;
+    }
+
+    /**
+     * Runs the stateless stages of this {@code Stream} on an existing {@link ExecutorService}.
+     * The {@link ExecutorService} is not shut down when the {@code Stream} is exhausted.
+     *
+     * @see #parallel(int)
+     * @param executor The {@link ExecutorService} to run each chunk on.
+     * @return A new {@code Stream} that runs its stateless stages in parallel.
+     */
+    public Stream<T> parallel( ExecutorService executor ) {
+        return parallelize( executor, Runtime.getRuntime().availableProcessors(), true ) ;
+    }
+
+    /**
+     * Runs the stateless stages of this {@code Stream} on an existing {@link ExecutorService},
+     * optionally returning each chunk of results as soon as it is ready.
+     *
+     * @see #parallel(int,boolean)
+     * @param executor The {@link ExecutorService} to run each chunk on.
+     * @param ordered {@code false} if the results may be returned out of source order.
+     * @return A new {@code Stream} that runs its stateless stages in parallel.
+     */
+    public Stream<T> parallel( ExecutorService executor, boolean ordered ) {
+        return parallelize( executor, Runtime.getRuntime().availableProcessors(), ordered ) ;
+    }
+
+    private Stream<T> parallelize( ExecutorService executor, int threads, boolean ordered ) {
+        if( threads < 1 ) {
+            throw new IllegalArgumentException( "Parallel thread count must be > 0" ) ;
+        }
+        if( iterator != null ) {
+            return new Stream<T>( iterator, NO_STAGES, null, executor, threads, ordered ) ;
+        }
+        return new Stream<T>( source, stages, elements, executor, threads, ordered ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} from a {@link Map} of Iterables.  Each element is a new
+     * {@link java.util.LinkedHashMap}, which may be changed or kept.
+     * 
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( a:1..3, b:'a'..'c' )
+     *                .collect() == [ [ a:1, b:'a' ],
+     *                                [ a:1, b:'b' ],
+     *                                [ a:1, b:'c' ],
+     *                                [ a:2, b:'a' ],
+     *                                [ a:2, b:'b' ],
+     *                                [ a:2, b:'c' ],
+     *                                [ a:3, b:'a' ],
+     *                                [ a:3, b:'b' ],
+     *                                [ a:3, b:'c' ] ]
+     * </pre>
+     *
+     * @param <K> They type of the Map keys.
+     * @param <V> The type of the Iterable value.
+     * @param map The map of Iterables.
+     * @return A new {@code Stream} wrapping a {@link MapIterator}.
+     */
+    public static <K,V> Stream<Map<K,V>> from( Map<K,? extends Iterable<V>> map ) {
+        return from( map, false ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} from a {@link Map} of Iterables, as {@link #from(java.util.Map)},
+     * but optionally returning the same read-only {@link Combination} for every element, updated
+     * in place.  No {@link Map} is created per element, so a {@link Combination} cannot be changed,
+     * is only valid until the next element, and must be copied if it is to be kept once the
+     * {@code Stream} moves on.  Otherwise each element is a new, mutable {@link java.util.LinkedHashMap}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ a:1..3, b:1..3 ], true )
+     *                .filter { a &lt; b }
+     *                .map { "$a$b".toString() }
+     *                .collect() == [ '12', '13', '23' ]
+     * </pre>
+     *
+     * @param <K> They type of the Map keys.
+     * @param <V> The type of the Iterable value.
+     * @param map The map of Iterables.
+     * @param reuseTuple {@code true} to return the same read-only {@link Combination} for every element.
+     * @return A new {@code Stream} wrapping a {@link MapIterator}.
+     */
+    public static <K,V> Stream<Map<K,V>> from( Map<K,? extends Iterable<V>> map, boolean reuseTuple ) {
+        MapIterator<K,V> combinations = new MapIterator<K,V>( map, reuseTuple ) ;
+        return new Stream<Map<K,V>>( combinations, NO_STAGES, combinations.asList(), null, 0, true ) ;
+    }
+
+    /**
+     * Start building a cartesian product with constraints, where each key's values may
+     * depend on the keys before it.  Unlike filtering the output of {@link #from(java.util.Map)},
+     * a constraint is checked as soon as its key has a value, so the combinations which start
+     * with a failing partial combination are never built.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.product()
+     *                .key( 'a', 1..3 )
+     *                .key( 'b', 1..3 ).where { a &lt; b }
+     *                .key( 'c', 1..3 ).where { b &lt; c }
+     *                .stream()
+     *                .collect() == [ [ a:1, b:2, c:3 ] ]
+     * </pre>
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     * @return A new, empty {@link ProductBuilder}.
+     */
+    public static <K,V> ProductBuilder<K,V> product() {
+        return new ProductBuilder<K,V>() ;
+    }
+
+    /**
+     * Construct a {@code Stream} which iterates each of the given iterators in turn.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.concatAll( [ 1, 2 ].iterator(), Stream.from( 3..4 ), [].iterator(), [ 5 ].iterator() )
+     *                .collect() == [ 1, 2, 3, 4, 5 ]
+     * </pre>
+     *
+     * @param <T> The type of the elements.
+     * @param iterators The iterators to concatenate.
+     * @return A new {@code Stream} wrapping a {@link ConcatenationIterator}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Stream<T> concatAll( Iterator<? extends T>... iterators ) {
+        return concatAll( Arrays.asList( iterators ) ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} which iterates each of the given iterators in turn.  The
+     * iterators are all taken up front, but each is only read once the one before it is exhausted.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def shards = ( 1..10000 ).collect { [ it ].iterator() }
+     *   assert Stream.concatAll( shards ).collect() == ( 1..10000 ).toList()
+     * </pre>
+     *
+     * @param <T> The type of the elements.
+     * @param iterators The iterators to concatenate.
+     * @return A new {@code Stream} wrapping a {@link ConcatenationIterator}
+     */
+    public static <T> Stream<T> concatAll( Iterable<? extends Iterator<? extends T>> iterators ) {
+        return new Stream<T>( new ConcatenationIterator<T>( iterators ) ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} from another {@code Stream}.
+     * 
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( Stream.from( 1..3 ) )
+     *                .collect() == [ 1, 2, 3 ]
+     * </pre>
+     *
+     * @param <T> The type of the Stream.
+     * @param stream The other {@code Stream}.
+     * @return A new {@code Stream} sharing the pipeline of the other {@code Stream}.
+     */
+    public static <T> Stream<T> from( Stream<T> stream ) {
+        if( stream.iterator != null ) {
+            return new Stream<T>( stream.iterator ) ;
+        }
+        return new Stream<T>( stream.source, stream.stages, stream.elements, stream.executor, stream.parallelism, stream.ordered ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} from an {@link Iterable}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 1, 2, 3 ] )
+     *                .collect() == [ 1, 2, 3 ]
+     * </pre>
+     *
+     * @param <T> The type of the Iterable.
+     * @param iterable The iterable to iterate.
+     * @return A new {@code Stream} wrapping the {@code iterable.iterator()}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Stream<T> from( Iterable<T> iterable ) {
+        if( iterable instanceof RandomAccess || iterable instanceof IntRange ) {
+            return fromList( (List<T>)iterable ) ;
+        }
+        if( iterable instanceof Collection ) {
+            Collection<T> collection = (Collection<T>)iterable ;
+            return new Stream<T>( new CollectionIterator<T>( collection, characteristicsOf( collection ) ) ) ;
+        }
+        return new Stream<T>( iterable.iterator() ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} from an {@link Iterator}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   assert Stream.from( [ 1, 2, 3 ].iterator() )
+     *                .collect() == [ 1, 2, 3 ]
+     * </pre>
+     *
+     * @param <T> The type of the Iterator.
+     * @param iterator The iterator to wrap.
+     * @return A new {@code Stream} wrapping the iterator.
+     */
+    public static <T> Stream<T> from( Iterator<T> iterator ) {
+        return new Stream<T>( iterator ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} from a {@link BufferedReader} that iterates the lines in it.
+     *
+     * @param reader The Reader to iterate lines from
+     * @return A new {@code Stream} wrapping a {@link BufferedReaderIterator}.
+     */
+    public static Stream<String> from( BufferedReader reader ) {
+        return new Stream<String>( new BufferedReaderIterator( reader ) ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} over the lines of a UTF-8 file, read through a memory
+     * mapped window.
+     *
+     * @see #lines(java.io.File, java.nio.charset.Charset)
+     * @param file The file to read.
+     * @return A new {@code Stream} wrapping a {@link MappedLineIterator}.
+     */
+    public static Stream<CharSequence> lines( File file ) {
+        return lines( file, Charset.forName( "UTF-8" ) ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} over the lines of a file, read through a memory mapped
+     * window.  Line ends are found by scanning the mapped bytes, and each line is a
+     * {@link MappedLine} view onto them, so no {@link String} is made for a line unless
+     * {@code toString()} is called on it.  The same {@link MappedLine} is returned for every
+     * line, so any line that is kept must be copied with {@code toString()} first.  A
+     * {@link MappedLine} is never {@code ==} to a {@link String}, so compare lines with
+     * {@link MappedLine#contentEquals(CharSequence)} or a {@code toString()} copy.
+     *
+     * The file is closed once the last line has been read.  A {@code Stream} which may be
+     * left part way through should be {@link #close() closed}, such as in a {@code finally}.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def file = File.createTempFile( 'lines', '.txt' )
+     *   file.deleteOnExit()
+     *   file.text = 'GET /index\nPOST /form\r\nGET /about\n'
+     *
+     *   assert Stream.lines( file ).filter { it.charAt( 0 ) == 'G' }
+     *                              .map { it.toString() }
+     *                              .collect() == [ 'GET /index', 'GET /about' ]
+     *
+     *   def lines = Stream.lines( file )
+     *   try {
+     *       assert lines.filter { it.contentEquals( 'POST /form' ) }.next().toString() == 'POST /form'
+     *   }
+     *   finally {
+     *       lines.close()
+     *   }
+     * </pre>
+     *
+     * @param file The file to read.
+     * @param charset The encoding of the file, in which {@code \r} and {@code \n} must be single bytes.
+     * @return A new {@code Stream} wrapping a {@link MappedLineIterator}.
+     */
+    public static Stream<CharSequence> lines( File file, Charset charset ) {
+        return new Stream<CharSequence>( new MappedLineIterator( file, charset ) ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} over the lines of an indexed file.  A {@code skip} on the
+     * {@code Stream} seeks straight to the last indexed line it passes, rather than reading
+     * every line before it.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *   import groovy.stream.iterators.LineIndex
+     *   import java.nio.charset.Charset
+     *
+     *   def file = File.createTempFile( 'indexed', '.txt' )
+     *   file.deleteOnExit()
+     *   file.text = ( 0..&lt;1000 ).collect { "line $it" }.join( '\n' )
+     *   def index = LineIndex.build( file, 100 )
+     *
+     *   assert Stream.lines( index, Charset.forName( 'UTF-8' ) )
+     *                .skip( 750 )
+     *                .take( 2 )
+     *                .map { it.toString() }
+     *                .collect() == [ 'line 750', 'line 751' ]
+     * </pre>
+     *
+     * @param index An index of the file to read, from {@link LineIndex#forFile(java.io.File)}.
+     * @param charset The encoding of the file.
+     * @return A new {@code Stream} wrapping a {@link MappedLineIterator}.
+     */
+    public static Stream<CharSequence> lines( LineIndex index, Charset charset ) {
+        return lines( index, charset, 0, -1 ) ;
+    }
+
+    /**
+     * Construct a {@code Stream} over a range of lines of an indexed file, starting with a
+     * seek to the last indexed line at or before {@code fromLine}.
+     *
+     * @param index An index of the file to read.
+     * @param charset The encoding of the file.
+     * @param fromLine The number of the first line to read, counting from {@code 0}.
+     * @param toLine The number of the line to stop before, or {@code -1} to read to the end of the file.
+     * @return A new {@code Stream} wrapping a {@link MappedLineIterator}.
+     */
+    public static Stream<CharSequence> lines( LineIndex index, Charset charset, long fromLine, long toLine ) {
+        return new Stream<CharSequence>( new MappedLineIterator( index, charset, fromLine, toLine ) ) ;
+    }
+
+    /**
+     * Splits an indexed file into {@code Stream}s over consecutive ranges of roughly the same
+     * number of lines, which can be read by separate workers.  Each range starts at an
+     * indexed line, so is reached with a single seek.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *   import groovy.stream.iterators.LineIndex
+     *   import java.nio.charset.Charset
+     *
+     *   def file = File.createTempFile( 'split', '.txt' )
+     *   file.deleteOnExit()
+     *   file.text = ( 1..1000 ).join( '\n' )
+     *   def parts = Stream.splitLines( LineIndex.build( file, 50 ), Charset.forName( 'UTF-8' ), 4 )
+     *
+     *   assert parts.size() == 4
+     *   assert parts.collect { part -&gt; part.map { it.toString().toInteger() }.sum() }.sum() == 500500
+     * </pre>
+     *
+     * @see LineIndex#split(int)
+     * @param index An index of the file to read.
+     * @param charset The encoding of the file.
+     * @param parts How many {@code Stream}s to make.  Fewer are made if the file has too few
+     *              indexed lines.
+     * @return A {@code Stream} for each range of lines, in order.
+     */
+    public static List<Stream<CharSequence>> splitLines( LineIndex index, Charset charset, int parts ) {
+        long[] bounds = index.split( parts ) ;
+        List<Stream<CharSequence>> streams = new ArrayList<Stream<CharSequence>>( bounds.length - 1 ) ;
+        for( int i = 1 ; i < bounds.length ; i++ ) {
+            streams.add( lines( index, charset, bounds[ i - 1 ], bounds[ i ] ) ) ;
+        }
+        return streams ;
     }
 
     /**
@@ -860,7 +2255,7 @@ public class Stream<T> implements Iterator<T> {
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Object} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Object} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -872,15 +2267,14 @@ public class Stream<T> implements Iterator<T> {
      *
      * @param <T> The type of the array.
      * @param array An array of Object to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static <T> Stream<T> from( T[] array ) {
-        return new Stream<T>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code byte} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code byte} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -891,15 +2285,14 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of byte to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Byte> from( byte[] array ) {
-        return new Stream<Byte>(      primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Character} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Character} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -910,15 +2303,14 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of char to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Character> from( char[] array ) {
-        return new Stream<Character>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Short} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Short} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -929,15 +2321,14 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of short to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Short> from( short[] array ) {
-        return new Stream<Short>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Integer} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Integer} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -948,15 +2339,14 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of int to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Integer> from( int[] array ) {
-        return new Stream<Integer>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Long} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Long} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -967,15 +2357,14 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of long to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Long> from( long[] array ) {
-        return new Stream<Long>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Float} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Float} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -986,15 +2375,14 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of float to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Float> from( float[] array ) {
-        return new Stream<Float>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Double} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Double} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -1005,15 +2393,14 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of double to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Double> from( double[] array ) {
-        return new Stream<Double>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
     }
 
     /**
-     * Construct a {@code Stream} that iterates every {@code Boolean} in an array. First converts the array to an {@link ArrayList}, then wraps the {@code ArrayList.iterator()}.
+     * Construct a {@code Stream} that iterates every {@code Boolean} in an array. The array is read in place rather than copied, so skipping elements is free.
      *
      * <pre class="groovyTestCase">
      *   import groovy.stream.*
@@ -1024,31 +2411,182 @@ public class Stream<T> implements Iterator<T> {
      * </pre>
      *
      * @param array An array of boolean to iterate
-     * @return A new {@code Stream} wrapping the iterator for the array as a List.
+     * @return A new {@code Stream} wrapping an {@link ArrayIterator} over the array.
      */
-    @SuppressWarnings("unchecked")
     public static Stream<Boolean> from( boolean[] array ) {
-        return new Stream<Boolean>( primitiveArrayToList( array ).iterator() ) ;
+        return fromArray( ArrayIterator.of( array ) ) ;
+    }
+
+    /**
+     * Works out how many elements are left from the source, and each stage in turn.
+     * A {@code map} keeps the size, a {@code take} caps it, and a {@code filter} turns it
+     * into an upper bound.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *   import groovy.stream.iterators.SizedIterator
+     *
+     *   def mapped = Stream.from( 1..100 ).map { it * 2 }.take( 10 )
+     *   assert mapped.estimateSize() == 10
+     *   assert mapped.hasCharacteristics( SizedIterator.SIZED )
+     *
+     *   def filtered = Stream.from( 1..100 ).filter { it % 2 }
+     *   assert filtered.estimateSize() == 100
+     *   assert !filtered.hasCharacteristics( SizedIterator.SIZED )
+     * </pre>
+     *
+     * @return The number of elements left, which is exact if this {@code Stream} has the
+     *         {@link SizedIterator#SIZED} characteristic, or {@code -1} if it is not known.
+     */
+    @Override
+    public long estimateSize() {
+        if( iterator != null ) {
+            return iterator instanceof SizedIterator ? ( (SizedIterator<T>)iterator ).estimateSize() : -1 ;
+        }
+        long size = source instanceof SizedIterator ? ( (SizedIterator<?>)source ).estimateSize() : -1 ;
+        for( Stage<?,?> stage : stages ) {
+            size = stage.estimateSize( size ) ;
+        }
+        return size ;
+    }
+
+    /**
+     * @see #estimateSize()
+     * @return A combination of the {@link SizedIterator#SIZED}, {@link SizedIterator#SORTED}
+     *         and {@link SizedIterator#DISTINCT} flags that hold for the remaining elements.
+     */
+    @Override
+    public int characteristics() {
+        if( iterator != null ) {
+            return iterator instanceof SizedIterator ? ( (SizedIterator<T>)iterator ).characteristics() : 0 ;
+        }
+        int characteristics = source instanceof SizedIterator ? ( (SizedIterator<?>)source ).characteristics() : 0 ;
+        for( Stage<?,?> stage : stages ) {
+            characteristics = stage.characteristics( characteristics ) ;
+        }
+        return characteristics ;
+    }
+
+    /**
+     * @param characteristics The {@link SizedIterator} flags to check for.
+     * @return {@code true} if all of the flags hold for this {@code Stream}.
+     */
+    public boolean hasCharacteristics( int characteristics ) {
+        return ( characteristics() & characteristics ) == characteristics ;
+    }
+
+    /**
+     * Lets go of any threads or open file held by this {@code Stream}, such as the pool of a
+     * parallel {@code Stream} or the file read by {@link #lines(java.io.File)}, when it will
+     * not be read to the end.  There are no more elements once it is closed.
+     *
+     * <pre class="groovyTestCase">
+     *   import groovy.stream.*
+     *
+     *   def stream = Stream.from( 1..100000 ).parallel( 4 ).map { it * 2 }
+     *   assert stream.next() == 2
+     *   stream.close()
+     *   assert !stream.hasNext()
+     * </pre>
+     */
+    @Override
+    public void close() {
+        if( iterator instanceof CloseableIterator ) {
+            ( (CloseableIterator<?>)iterator ).close() ;
+        }
+        if( source instanceof CloseableIterator ) {
+            ( (CloseableIterator<?>)source ).close() ;
+        }
+        iterator = new EmptyIterator<T>() ;
     }
 
     @Override public T next() {
-        return iterator.next() ;
+        return pipeline().next() ;
     }
     @Override public boolean hasNext() {
-        return iterator.hasNext() ;
+        return pipeline().hasNext() ;
     }
     @Override public void remove() {
-        iterator.remove() ;
+        pipeline().remove() ;
     }
 
     /* Utilities */
-    @SuppressWarnings("unchecked")
-    private static List primitiveArrayToList( Object array ) {
-        int size = Array.getLength( array ) ;
-        List list = new ArrayList( size ) ;
-        for( int i = 0 ; i < size ; i++ ) {
-            list.add( Array.get( array, i ) ) ;
+    private static <T> Stream<T> fromList( List<T> list ) {
+        return new Stream<T>( new SkippableListIterator<T>( list, characteristicsOf( list ) ), NO_STAGES, list, null, 0, true ) ;
+    }
+
+    private static int characteristicsOf( Collection<?> collection ) {
+        if( collection instanceof Range ) {
+            return ( (Range<?>)collection ).isReverse() ? DISTINCT : SORTED | DISTINCT ;
+        }
+        if( collection instanceof SortedSet ) {
+            return SORTED | DISTINCT ;
+        }
+        return collection instanceof Set ? DISTINCT : 0 ;
+    }
+
+    private static <T> Stream<T> fromArray( ArrayIterator<T> array ) {
+        return new Stream<T>( array, NO_STAGES, array.asList(), null, 0, true ) ;
+    }
+
+    /**
+     * @return {@code true} if this {@code Stream} is parallel and has not started, and
+     *         every stage can run on a separate part of the source.
+     */
+    private boolean collectsInParallel() {
+        if( parallelism == 0 || iterator != null ) {
+            return false ;
+        }
+        for( Stage<?,?> stage : stages ) {
+            if( !stage.isStateless() ) {
+                return false ;
+            }
+        }
+        return true ;
+    }
+
+    private MatchingStage<T> match( MatchingStage<T> stage ) {
+        drain( stage ) ;
+        return stage ;
+    }
+
+    private T extreme( Comparator<? super T> comparator, boolean largest ) {
+        if( collectsInParallel() ) {
+            return collect( largest ? Collectors.<T>maxBy( comparator ) : Collectors.<T>minBy( comparator ) ) ;
+        }
+        ExtremeStage<T> stage = new ExtremeStage<T>( comparator, largest ) ;
+        drain( stage ) ;
+        return stage.getResult() ;
+    }
+
+    static <T> Comparator<T> comparator( Closure<?> order ) {
+        return order.getMaximumNumberOfParameters() == 1 ? new OrderBy<T>( order ) : new ClosureComparator<T>( order ) ;
+    }
+
+    /**
+     * How large to make a container for the remaining elements: the exact size if it is
+     * known, capped at {@link #MAX_PRESIZED_CAPACITY} so that a huge source is not allocated
+     * for before any element is read; an estimate capped at {@link #MAX_ESTIMATED_CAPACITY};
+     * or {@code -1}.
+     */
+    private long sizeHint() {
+        long size = estimateSize() ;
+        long limit = hasCharacteristics( SIZED ) ? MAX_PRESIZED_CAPACITY : MAX_ESTIMATED_CAPACITY ;
+        return size < 0 ? -1 : Math.min( size, limit ) ;
+    }
+
+    private long drain( Stage<? super T,?> sink ) {
+        Iterator<T> it = pipeline() ;
+        if( it instanceof FusedIterator ) {
+            return ((FusedIterator<T>)it).drain( sink ) ;
+        }
+        long count = 0 ;
+        while( it.hasNext() ) {
+            count++ ;
+            if( sink.apply( it.next() ) == Stage.STOP ) {
+                break ;
+            }
         }
-        return list ;
+        return count ;
     }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream ;
+
+import groovy.lang.Closure ;
+import groovy.stream.functions.Emitter ;
+import groovy.stream.functions.Function ;
+import groovy.stream.functions.Function2 ;
+import groovy.stream.functions.IndexedFunction ;
+import groovy.stream.functions.IndexedPredicate ;
+import groovy.stream.functions.Predicate ;
+import groovy.stream.stages.* ;
+import groovy.stream.stages.java.* ;
+
+import java.util.Arrays ;
+import java.util.Iterator ;
+
+/**
+ * A chain of steps which is defined once, and can then be run over any number of sources.
+ *
+ * Each call to {@code apply} runs fresh copies of the steps, each with its own clone of its
+ * {@link Closure}, so the closures given here are never called and never have their delegate
+ * changed.  A {@code StreamPipeline} can therefore be shared between threads, and each step
+ * after the first only costs a copy to run.
+ *
+ * Every method returns a new {@code StreamPipeline}, leaving the original unchanged.
+ *
+ * <pre class="groovyTestCase">
+ *   import groovy.stream.*
+ *
+ *   def evens = StreamPipeline.create()
+ *                             .filter { it % 2 == 0 }
+ *                             .map { it * 10 }
+ *
+ *   assert evens.apply( 1..6 ).collect() == [ 20, 40, 60 ]
+ *   assert evens.apply( [ 8, 9 ] ).collect() == [ 80 ]
+ * </pre>
+ *
+ * @param <T> The type of the elements going in.
+ * @param <U> The type of the elements coming out.
+ */
+public class StreamPipeline<T,U> {
+    private final Stage<?,?>[] stages ;
+
+    private StreamPipeline( Stage<?,?>[] stages ) {
+        this.stages = stages ;
+    }
+
+    /**
+     * @param <T> The type of the elements going in.
+     * @return A new {@code StreamPipeline} with no steps.
+     */
+    public static <T> StreamPipeline<T,T> create() {
+        return new StreamPipeline<T,T>( new Stage<?,?>[ 0 ] ) ;
+    }
+
+    private <V> StreamPipeline<T,V> then( Stage<U,V> stage ) {
+        Stage<?,?>[] next = Arrays.copyOf( stages, stages.length + 1 ) ;
+        next[ stages.length ] = stage ;
+        return new StreamPipeline<T,V>( next ) ;
+    }
+
+    /**
+     * Run the steps over a {@link Stream}.
+     *
+     * @param source The {@code Stream} to run the steps over.
+     * @return A new {@code Stream} running copies of the steps after those of {@code source}.
+     */
+    public Stream<U> apply( Stream<T> source ) {
+        return source.fuseCopies( stages ) ;
+    }
+
+    /**
+     * Run the steps over an {@link Iterable}, as {@link Stream#from(java.lang.Iterable)}.
+     *
+     * @param source The elements to run the steps over.
+     * @return A new {@code Stream} running copies of the steps.
+     */
+    public Stream<U> apply( Iterable<T> source ) {
+        return apply( Stream.from( source ) ) ;
+    }
+
+    /**
+     * Run the steps over an {@link Iterator}.
+     *
+     * @param source The elements to run the steps over.
+     * @return A new {@code Stream} running copies of the steps.
+     */
+    public Stream<U> apply( Iterator<T> source ) {
+        return apply( Stream.from( source ) ) ;
+    }
+
+    /** @see Stream#filter(groovy.lang.Closure) */
+    public StreamPipeline<T,U> filter( Closure<Boolean> predicate ) {
+        return then( new FilteringStage<U>( predicate, false ) ) ;
+    }
+
+    /** @see Stream#filter(groovy.stream.functions.Predicate) */
+    public StreamPipeline<T,U> filter( Predicate<U> predicate ) {
+        return then( new FilteringStageForPredicate<U>( predicate ) ) ;
+    }
+
+    /** @see Stream#filterWithIndex(groovy.lang.Closure) */
+    public StreamPipeline<T,U> filterWithIndex( Closure<Boolean> predicate ) {
+        return then( new FilteringStage<U>( predicate, true ) ) ;
+    }
+
+    /** @see Stream#filterWithIndex(groovy.stream.functions.IndexedPredicate) */
+    public StreamPipeline<T,U> filterWithIndex( IndexedPredicate<U> predicate ) {
+        return then( new FilteringStageForIndexedPredicate<U>( predicate ) ) ;
+    }
+
+    /** @see Stream#map(groovy.lang.Closure) */
+    public <V> StreamPipeline<T,V> map( Closure<V> map ) {
+        return then( new TransformingStage<U,V>( map, false ) ) ;
+    }
+
+    /** @see Stream#map(groovy.stream.functions.Function) */
+    public <V> StreamPipeline<T,V> map( Function<U,V> map ) {
+        return then( new TransformingStageForFunction<U,V>( map ) ) ;
+    }
+
+    /** @see Stream#mapWithIndex(groovy.lang.Closure) */
+    public <V> StreamPipeline<T,V> mapWithIndex( Closure<V> map ) {
+        return then( new TransformingStage<U,V>( map, true ) ) ;
+    }
+
+    /** @see Stream#mapWithIndex(groovy.stream.functions.IndexedFunction) */
+    public <V> StreamPipeline<T,V> mapWithIndex( IndexedFunction<U,V> map ) {
+        return then( new TransformingStageForIndexedFunction<U,V>( map ) ) ;
+    }
+
+    /** @see Stream#flatMap(groovy.lang.Closure) */
+    public <V> StreamPipeline<T,V> flatMap( Closure<?> map ) {
+        return then( new FlatMapStage<U,V>( map, false ) ) ;
+    }
+
+    /** @see Stream#flatMap(groovy.stream.functions.Function) */
+    public <V> StreamPipeline<T,V> flatMap( Function<U,? extends Iterable<V>> map ) {
+        return then( new FlatMapStageForFunction<U,V>( map ) ) ;
+    }
+
+    /** @see Stream#flatMapIterator(groovy.stream.functions.Function) */
+    public <V> StreamPipeline<T,V> flatMapIterator( Function<U,? extends Iterator<V>> map ) {
+        return then( new FlatMapStageForFunction<U,V>( map ) ) ;
+    }
+
+    /** @see Stream#flatMapEmit(groovy.lang.Closure) */
+    public <V> StreamPipeline<T,V> flatMapEmit( Closure<?> body ) {
+        return then( new FlatMapEmitStage<U,V>( body ) ) ;
+    }
+
+    /** @see Stream#flatMapEmit(groovy.stream.functions.Function2) */
+    public <V> StreamPipeline<T,V> flatMapEmit( Function2<U,Emitter<V>,?> body ) {
+        return then( new FlatMapEmitStageForFunction<U,V>( body ) ) ;
+    }
+
+    /** @see Stream#tap(groovy.lang.Closure) */
+    public StreamPipeline<T,U> tap( Closure<Void> output ) {
+        return tapEvery( 1, output ) ;
+    }
+
+    /** @see Stream#tap(groovy.stream.functions.Function) */
+    public StreamPipeline<T,U> tap( Function<U,Void> output ) {
+        return tapEvery( 1, output ) ;
+    }
+
+    /** @see Stream#tapEvery(int, groovy.lang.Closure) */
+    public StreamPipeline<T,U> tapEvery( int n, Closure<Void> output ) {
+        return then( new TapStage<U>( n, false, output ) ) ;
+    }
+
+    /** @see Stream#tapEvery(int, groovy.stream.functions.Function) */
+    public StreamPipeline<T,U> tapEvery( int n, Function<U,Void> output ) {
+        return then( new TapStageForFunction<U>( n, output ) ) ;
+    }
+
+    /** @see Stream#tapWithIndex(groovy.lang.Closure) */
+    public StreamPipeline<T,U> tapWithIndex( Closure<Void> output ) {
+        return tapEveryWithIndex( 1, output ) ;
+    }
+
+    /** @see Stream#tapWithIndex(groovy.stream.functions.IndexedFunction) */
+    public StreamPipeline<T,U> tapWithIndex( IndexedFunction<U,Void> output ) {
+        return tapEveryWithIndex( 1, output ) ;
+    }
+
+    /** @see Stream#tapEveryWithIndex(int, groovy.lang.Closure) */
+    public StreamPipeline<T,U> tapEveryWithIndex( int n, Closure<Void> output ) {
+        return then( new TapStage<U>( n, true, output ) ) ;
+    }
+
+    /** @see Stream#tapEveryWithIndex(int, groovy.stream.functions.IndexedFunction) */
+    public StreamPipeline<T,U> tapEveryWithIndex( int n, IndexedFunction<U,Void> output ) {
+        return then( new TapStageForIndexedFunction<U>( n, output ) ) ;
+    }
+
+    /** @see Stream#until(groovy.lang.Closure) */
+    public StreamPipeline<T,U> until( Closure<Boolean> predicate ) {
+        return then( new UntilStage<U>( predicate, false ) ) ;
+    }
+
+    /** @see Stream#until(groovy.stream.functions.Predicate) */
+    public StreamPipeline<T,U> until( Predicate<U> predicate ) {
+        return then( new UntilStageForPredicate<U>( predicate ) ) ;
+    }
+
+    /** @see Stream#untilWithIndex(groovy.lang.Closure) */
+    public StreamPipeline<T,U> untilWithIndex( Closure<Boolean> predicate ) {
+        return then( new UntilStage<U>( predicate, true ) ) ;
+    }
+
+    /** @see Stream#untilWithIndex(groovy.stream.functions.IndexedPredicate) */
+    public StreamPipeline<T,U> untilWithIndex( IndexedPredicate<U> predicate ) {
+        return then( new UntilStageForIndexedPredicate<U>( predicate ) ) ;
+    }
+
+    /** @see Stream#take(int) */
+    public StreamPipeline<T,U> take( int n ) {
+        return then( new LimitStage<U>( n ) ) ;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.functions ;
+
+/**
+ * Describes how to gather elements into a result: a new container is made for each part
+ * of the input, each element is added to the container for its part, and the containers
+ * are combined in order before the result is taken from the last one.
+ *
+ * {@link #combine(Object, Object)} must be associative, and {@link #accumulate(Object, Object)}
+ * and {@link #combine(Object, Object)} may be called for different containers at the same time.
+ *
+ * @param <T> The type of the elements.
+ * @param <A> The type of the container.
+ * @param <R> The type of the result.
+ */
+public interface Collector<T,A,R> {
+    /**
+     * @return A new, empty container.
+     */
+    A supply() ;
+
+    /**
+     * @param container The container so far.
+     * @param value The next element.
+     * @return The container with {@code value} added, which may be {@code container} itself.
+     */
+    A accumulate( A container, T value ) ;
+
+    /**
+     * @param left The container for the earlier elements.
+     * @param right The container for the later elements.
+     * @return A container holding both, which may be {@code left} itself.
+     */
+    A combine( A left, A right ) ;
+
+    /**
+     * @param container The container holding every element.
+     * @return The result.
+     */
+    R finish( A container ) ;
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+import java.util.LinkedList ;
+import java.util.Queue ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.Future ;
+
+/**
+ * Keeps up to {@code maxInFlight} elements of its input being processed at once, and
+ * returns the results in input order.  The queue of pending {@link Future}s is the
+ * reorder buffer: results which finish early wait in it until those before them are done.
+ *
+ * {@link #close() Closing} cancels any elements still being processed, for a stream which
+ * will not be read to the end.
+ */
+public abstract class AbstractAsyncIterator<T,U> extends AbstractIterator<U> implements CloseableIterator<U> {
+    protected final Iterator<T>      inputIterator ;
+    private   final int              maxInFlight ;
+    private   final Queue<Future<U>> inFlight = new LinkedList<Future<U>>() ;
+
+    public AbstractAsyncIterator( Iterator<T> iterator, int maxInFlight ) {
+        super( null ) ;
+        if( maxInFlight < 1 ) {
+            throw new IllegalArgumentException( "Maximum in flight must be > 0" ) ;
+        }
+        this.inputIterator = iterator ;
+        this.maxInFlight = maxInFlight ;
+    }
+
+    protected abstract Future<U> start( T value ) ;
+
+    protected void finish() {
+    }
+
+    @Override
+    protected void loadNext() {
+        while( inFlight.size() < maxInFlight && inputIterator.hasNext() ) {
+            inFlight.offer( start( inputIterator.next() ) ) ;
+        }
+        if( inFlight.isEmpty() ) {
+            exhausted = true ;
+            finish() ;
+        }
+        else {
+            current = await( inFlight.poll() ) ;
+        }
+    }
+
+    private U await( Future<U> future ) {
+        try {
+            return future.get() ;
+        }
+        catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt() ;
+            abort() ;
+            throw new RuntimeException( ex ) ;
+        }
+        catch( ExecutionException ex ) {
+            abort() ;
+            Throwable cause = ex.getCause() ;
+            if( cause instanceof RuntimeException ) {
+                throw (RuntimeException)cause ;
+            }
+            if( cause instanceof Error ) {
+                throw (Error)cause ;
+            }
+            throw new RuntimeException( cause ) ;
+        }
+    }
+
+    /**
+     * Cancels the elements still being processed, interrupting any that have started.
+     */
+    @Override
+    public void close() {
+        abort() ;
+        exhausted = true ;
+        loaded = true ;
+    }
+
+    private void abort() {
+        for( Future<U> future : inFlight ) {
+            future.cancel( true ) ;
+        }
+        inFlight.clear() ;
+        finish() ;
+    }
+}
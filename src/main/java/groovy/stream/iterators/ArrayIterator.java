@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.AbstractList ;
+import java.util.Arrays ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.ListIterator ;
+import java.util.NoSuchElementException ;
+import java.util.RandomAccess ;
+
+/**
+ * Iterates an array in place, without copying it into a {@link List} first.
+ *
+ * The iterator knows exactly how many elements are left, and {@link #skip(long)}
+ * moves the index rather than reading the skipped elements.  Primitive arrays are
+ * boxed one element at a time as they are requested.
+ */
+public abstract class ArrayIterator<T> implements ListIterator<T>, SkippableIterator<T>, SizedIterator<T>, RestartableIterator<T> {
+    protected final int length ;
+    protected int       index ;
+
+    protected ArrayIterator( int length ) {
+        this.length = length ;
+        this.index = 0 ;
+    }
+
+    protected abstract T get( int index ) ;
+
+    @Override
+    public long estimateSize() {
+        return length - index ;
+    }
+
+    @Override
+    public int characteristics() {
+        return SIZED ;
+    }
+
+    @Override
+    public long skip( long n ) {
+        long skipped = Math.max( 0, Math.min( n, estimateSize() ) ) ;
+        index += (int)skipped ;
+        return skipped ;
+    }
+
+    @Override
+    public Iterator<T> restart() {
+        return new SkippableListIterator<T>( asList(), characteristics() ) ;
+    }
+
+    /**
+     * @return A read-only, random access view of the whole array.
+     */
+    public List<T> asList() {
+        return new ArrayView() ;
+    }
+
+    @Override public boolean hasNext() {
+        return index < length ;
+    }
+
+    @Override public T next() {
+        if( index >= length ) {
+            throw new NoSuchElementException( "ArrayIterator has been exhausted and contains no more elements" ) ;
+        }
+        return get( index++ ) ;
+    }
+
+    @Override public boolean hasPrevious() {
+        return index > 0 ;
+    }
+
+    @Override public T previous() {
+        if( index <= 0 ) {
+            throw new NoSuchElementException( "ArrayIterator is at the start of the array" ) ;
+        }
+        return get( --index ) ;
+    }
+
+    @Override public int nextIndex() {
+        return index ;
+    }
+
+    @Override public int previousIndex() {
+        return index - 1 ;
+    }
+
+    @Override public void remove() {
+        throw new UnsupportedOperationException( "Cannot remove() from an array" ) ;
+    }
+
+    @Override public void set( T value ) {
+        throw new UnsupportedOperationException( "Cannot set() on an ArrayIterator" ) ;
+    }
+
+    @Override public void add( T value ) {
+        throw new UnsupportedOperationException( "Cannot add() to an array" ) ;
+    }
+
+    private class ArrayView extends AbstractList<T> implements RandomAccess {
+        @Override public T get( int i ) {
+            if( i < 0 || i >= length ) {
+                throw new IndexOutOfBoundsException( "Index: " + i + ", Size: " + length ) ;
+            }
+            return ArrayIterator.this.get( i ) ;
+        }
+
+        @Override public int size() {
+            return length ;
+        }
+    }
+
+    public static <T> ArrayIterator<T> of( final T[] array ) {
+        return new ArrayIterator<T>( array.length ) {
+            @Override protected T get( int i ) { return array[ i ] ; }
+            @Override public List<T> asList() { return Arrays.asList( array ) ; }
+        } ;
+    }
+
+    public static ArrayIterator<Byte> of( final byte[] array ) {
+        return new ArrayIterator<Byte>( array.length ) {
+            @Override protected Byte get( int i ) { return array[ i ] ; }
+        } ;
+    }
+
+    public static ArrayIterator<Character> of( final char[] array ) {
+        return new ArrayIterator<Character>( array.length ) {
+            @Override protected Character get( int i ) { return array[ i ] ; }
+        } ;
+    }
+
+    public static ArrayIterator<Short> of( final short[] array ) {
+        return new ArrayIterator<Short>( array.length ) {
+            @Override protected Short get( int i ) { return array[ i ] ; }
+        } ;
+    }
+
+    public static ArrayIterator<Integer> of( final int[] array ) {
+        return new ArrayIterator<Integer>( array.length ) {
+            @Override protected Integer get( int i ) { return array[ i ] ; }
+        } ;
+    }
+
+    public static ArrayIterator<Long> of( final long[] array ) {
+        return new ArrayIterator<Long>( array.length ) {
+            @Override protected Long get( int i ) { return array[ i ] ; }
+        } ;
+    }
+
+    public static ArrayIterator<Float> of( final float[] array ) {
+        return new ArrayIterator<Float>( array.length ) {
+            @Override protected Float get( int i ) { return array[ i ] ; }
+        } ;
+    }
+
+    public static ArrayIterator<Double> of( final double[] array ) {
+        return new ArrayIterator<Double>( array.length ) {
+            @Override protected Double get( int i ) { return array[ i ] ; }
+        } ;
+    }
+
+    public static ArrayIterator<Boolean> of( final boolean[] array ) {
+        return new ArrayIterator<Boolean>( array.length ) {
+            @Override protected Boolean get( int i ) { return array[ i ] ; }
+        } ;
+    }
+}
@@ -18,10 +18,11 @@ package groovy.stream.iterators ;
 
 import java.io.BufferedReader ;
 import java.io.IOException ;
-import java.util.Iterator ;
 import java.util.NoSuchElementException ;
 
-public class BufferedReaderIterator implements Iterator<String> {
+public class BufferedReaderIterator implements SkippableIterator<String> {
+    private static final int SKIP_BUFFER = 8192 ;
+
     private String current ;
     private final BufferedReader reader ;
     private boolean  exhausted ;
@@ -66,6 +67,66 @@ public class BufferedReaderIterator implements Iterator<String> {
         return ret ;
     }
 
+    /**
+     * Skips lines without building a {@link String} for each one.  Characters are read
+     * in blocks to find the line ends, then the reader is reset and moved past the
+     * skipped lines with {@link BufferedReader#skip(long)}.
+     */
+    @Override
+    public long skip( long n ) {
+        long skipped = 0 ;
+        if( loaded ) {
+            if( exhausted || n <= 0 ) {
+                return 0 ;
+            }
+            loaded = false ;
+            current = null ;
+            skipped++ ;
+        }
+        char[] buffer = new char[ SKIP_BUFFER ] ;
+        boolean inLine = false ;
+        boolean skipLF = false ;
+        try {
+            while( skipped < n ) {
+                reader.mark( SKIP_BUFFER ) ;
+                int read = reader.read( buffer, 0, SKIP_BUFFER ) ;
+                if( read < 0 ) {
+                    exhausted = true ;
+                    loaded = true ;
+                    return inLine ? skipped + 1 : skipped ;
+                }
+                int i = 0 ;
+                for( ; i < read && skipped < n ; i++ ) {
+                    char c = buffer[ i ] ;
+                    if( skipLF && c == '\n' ) {
+                        skipLF = false ;
+                        continue ;
+                    }
+                    skipLF = c == '\r' ;
+                    inLine = !skipLF && c != '\n' ;
+                    if( !inLine ) {
+                        skipped++ ;
+                    }
+                }
+                if( i < read ) {
+                    reader.reset() ;
+                    reader.skip( i ) ;
+                }
+            }
+            if( skipLF ) {
+                reader.mark( 1 ) ;
+                if( reader.read() != '\n' ) {
+                    reader.reset() ;
+                }
+            }
+        }
+        catch( IOException ex ) {
+            exhausted = true ;
+            loaded = true ;
+        }
+        return skipped ;
+    }
+
     @Override
     public void remove() {
         throw new UnsupportedOperationException( "Remove not supported on BufferedReaderIterator" ) ;
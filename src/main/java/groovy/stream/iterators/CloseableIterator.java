@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.io.Closeable ;
+import java.util.Iterator ;
+
+/**
+ * An {@link Iterator} that holds threads or an open file while it runs.
+ *
+ * A {@link FusedIterator} closes a source of this type that it owns as soon as nothing more
+ * will be read from it, such as when a {@code take} has all it needs, and
+ * {@code Stream.close()} closes one that is given up part way through.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+    /**
+     * Lets go of any threads or files, after which there are no more elements.  Closing
+     * more than once has no further effect.
+     */
+    @Override
+    void close() ;
+}
@@ -14,23 +14,42 @@
  * limitations under the License.
  */
 
+
 package groovy.stream.iterators ;
 
+import java.util.AbstractList ;
 import java.util.ArrayList ;
 import java.util.Collection ;
 import java.util.Iterator ;
-import java.util.LinkedList ;
 import java.util.List ;
-import java.util.Queue ;
 import java.util.NoSuchElementException ;
+import java.util.RandomAccess ;
 
+/**
+ * Groups elements into windows of {@code size}, starting a new window every {@code step}
+ * elements.
+ *
+ * Elements are stored once, in an append-only buffer, and each window is a view of a
+ * slice of it.  Slots are never written twice, so windows that have been returned stay
+ * valid.  When the buffer fills up, the elements still needed by open windows are copied
+ * to the start of a new one.
+ *
+ * Windows are mutable {@link List}s.  The first change to a window copies its slice into
+ * a list of its own, so changing one window never changes the ones that overlap it.
+ */
 public class CollatingIterator<T> extends AbstractIterator<Collection<T>> {
-    private final Queue<Collection<T>> cache = new LinkedList<Collection<T>>() ;
-    private Iterator<T> parent ;
-    private int         size ;
-    private int         step ;
-    private boolean     keepRemainder ;
-    private int         index = 0 ;
+    private static final int MIN_CAPACITY = 64 ;
+
+    private final Iterator<T> parent ;
+    private final int         size ;
+    private final int         step ;
+    private final boolean     keepRemainder ;
+    private final int         capacity ;
+
+    private Object[] buffer ;
+    private long     bufferStart = 0 ;
+    private long     read = 0 ;
+    private long     windowStart = 0 ;
 
     public CollatingIterator( Iterator<T> parent, int size ) {
         this( parent, size, size, true ) ;
@@ -56,38 +75,40 @@ public class CollatingIterator<T> extends AbstractIterator<Collection<T>> {
         this.size = size ;
         this.step = step ;
         this.keepRemainder = keepRemainder ;
+        // Windows which do not overlap get an array each; overlapping ones share a larger one
+        this.capacity = step >= size ? size : (int)Math.min( Integer.MAX_VALUE - 8, Math.max( MIN_CAPACITY, size * 2L ) ) ;
+        this.buffer = new Object[ capacity ] ;
     }
 
-    private void addElementToEachCachedList( T next ) {
-        for( Collection<T> item : cache ) {
-            item.add( next ) ;
-        }
-    }
-
-    private boolean isFinished() {
-        if( !keepRemainder && ( current == null || current.size() < size ) ) {
-            return true ;
+    private void store( long position, T value ) {
+        if( position - bufferStart >= buffer.length ) {
+            Object[] next = new Object[ capacity ] ;
+            int live = (int)( position - windowStart ) ;
+            if( live > 0 ) {
+                System.arraycopy( buffer, (int)( windowStart - bufferStart ), next, 0, live ) ;
+            }
+            buffer = next ;
+            bufferStart = windowStart ;
         }
-        return current == null && !parent.hasNext();
+        buffer[ (int)( position - bufferStart ) ] = value ;
     }
 
     @Override
     protected void loadNext() {
-        while( parent.hasNext() ) {
+        while( read < windowStart + size && parent.hasNext() ) {
             T next = parent.next() ;
-            if( index % step == 0 ) {
-                cache.offer( new ArrayList<T>() ) ;
-            }
-            index++ ;
-            addElementToEachCachedList( next ) ;
-            if( cache.peek().size() == size ) {
-                break ;
+            long position = read++ ;
+            if( position >= windowStart ) {
+                store( position, next ) ;
             }
         }
-        current = cache.poll() ;
-        if( isFinished() ) {
+        int length = (int)Math.min( size, read - windowStart ) ;
+        if( length <= 0 || ( length < size && !keepRemainder ) ) {
             exhausted = true ;
+            return ;
         }
+        current = new Window<T>( buffer, (int)( windowStart - bufferStart ), length ) ;
+        windowStart += step ;
     }
 
     @Override
@@ -96,8 +117,66 @@ public class CollatingIterator<T> extends AbstractIterator<Collection<T>> {
         if( exhausted ) {
             throw new NoSuchElementException( "CollatingIterator has been exhausted and contains no more elements" ) ;
         }
-        List<T> ret = new ArrayList<T>( current ) ;
         loaded = false ;
-        return ret ;
+        return current ;
+    }
+
+    private static class Window<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[] buffer ;
+        private final int      offset ;
+        private final int      length ;
+        private List<T>        copy ;
+
+        Window( Object[] buffer, int offset, int length ) {
+            this.buffer = buffer ;
+            this.offset = offset ;
+            this.length = length ;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> copy() {
+            if( copy == null ) {
+                copy = new ArrayList<T>( length + 1 ) ;
+                for( int i = 0 ; i < length ; i++ ) {
+                    copy.add( (T)buffer[ offset + i ] ) ;
+                }
+            }
+            return copy ;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get( int index ) {
+            if( copy != null ) {
+                return copy.get( index ) ;
+            }
+            if( index < 0 || index >= length ) {
+                throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + length ) ;
+            }
+            return (T)buffer[ offset + index ] ;
+        }
+
+        @Override
+        public int size() {
+            return copy == null ? length : copy.size() ;
+        }
+
+        @Override
+        public T set( int index, T value ) {
+            return copy().set( index, value ) ;
+        }
+
+        @Override
+        public void add( int index, T value ) {
+            copy().add( index, value ) ;
+            modCount++ ;
+        }
+
+        @Override
+        public T remove( int index ) {
+            T removed = copy().remove( index ) ;
+            modCount++ ;
+            return removed ;
+        }
     }
-}
\ No newline at end of file
+}
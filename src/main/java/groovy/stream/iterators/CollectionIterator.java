@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.Collection ;
+import java.util.Iterator ;
+
+/**
+ * Iterates a {@link Collection}, counting down from its size so the number of
+ * elements left is always known.
+ */
+public class CollectionIterator<T> implements SizedIterator<T>, RestartableIterator<T> {
+    private final Collection<T> collection ;
+    private final Iterator<T>   delegate ;
+    private final int           characteristics ;
+    private long                remaining ;
+
+    public CollectionIterator( Collection<T> collection, int characteristics ) {
+        this.collection = collection ;
+        this.delegate = collection.iterator() ;
+        this.remaining = collection.size() ;
+        this.characteristics = characteristics | SIZED ;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return delegate.hasNext() ;
+    }
+
+    @Override
+    public T next() {
+        T ret = delegate.next() ;
+        remaining-- ;
+        return ret ;
+    }
+
+    @Override
+    public void remove() {
+        delegate.remove() ;
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining ;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics ;
+    }
+
+    @Override
+    public Iterator<T> restart() {
+        return new CollectionIterator<T>( collection, characteristics ) ;
+    }
+}
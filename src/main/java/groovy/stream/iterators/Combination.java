@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.AbstractMap ;
+import java.util.AbstractSet ;
+import java.util.Iterator ;
+import java.util.LinkedHashMap ;
+import java.util.Map ;
+import java.util.NoSuchElementException ;
+import java.util.Set ;
+
+/**
+ * One combination from a {@link MapIterator} or {@link ProductIterator} which is reusing its
+ * tuple: a read-only {@link Map} which shares its table of keys with every other combination,
+ * and holds its values in an array that is updated in place as the iterator moves on.
+ *
+ * Values can also be read by position, in the order of the keys in the original {@link Map}.
+ */
+public class Combination<K,V> extends AbstractMap<K,V> {
+    private final Object[] keys ;
+    Object[]               values ;
+
+    Combination( Object[] keys, Object[] values ) {
+        this.keys = keys ;
+        this.values = values ;
+    }
+
+    /**
+     * @return A new, mutable {@link LinkedHashMap} of the keys to the values, in order.
+     */
+    @SuppressWarnings("unchecked")
+    static <K,V> Map<K,V> copyOf( Object[] keys, Object[] values ) {
+        Map<K,V> copy = new LinkedHashMap<K,V>( keys.length * 2 ) ;
+        for( int i = 0 ; i < keys.length ; i++ ) {
+            copy.put( (K)keys[ i ], (V)values[ i ] ) ;
+        }
+        return copy ;
+    }
+
+    @SuppressWarnings("unchecked")
+    public K keyAt( int index ) {
+        return (K)keys[ index ] ;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt( int index ) {
+        return (V)values[ index ] ;
+    }
+
+    private int indexOf( Object key ) {
+        for( int i = 0 ; i < keys.length ; i++ ) {
+            if( key == null ? keys[ i ] == null : key.equals( keys[ i ] ) ) {
+                return i ;
+            }
+        }
+        return -1 ;
+    }
+
+    @Override
+    public V get( Object key ) {
+        int index = indexOf( key ) ;
+        return index < 0 ? null : valueAt( index ) ;
+    }
+
+    @Override
+    public boolean containsKey( Object key ) {
+        return indexOf( key ) >= 0 ;
+    }
+
+    @Override
+    public int size() {
+        return keys.length ;
+    }
+
+    @Override
+    public Set<Map.Entry<K,V>> entrySet() {
+        return new AbstractSet<Map.Entry<K,V>>() {
+            @Override
+            public int size() {
+                return keys.length ;
+            }
+
+            @Override
+            public Iterator<Map.Entry<K,V>> iterator() {
+                return new Iterator<Map.Entry<K,V>>() {
+                    private int index = 0 ;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length ;
+                    }
+
+                    @Override
+                    public Map.Entry<K,V> next() {
+                        if( index >= keys.length ) {
+                            throw new NoSuchElementException( "Combination has no more entries" ) ;
+                        }
+                        Map.Entry<K,V> entry = new AbstractMap.SimpleImmutableEntry<K,V>( keyAt( index ), valueAt( index ) ) ;
+                        index++ ;
+                        return entry ;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException( "Combination is read-only" ) ;
+                    }
+                } ;
+            }
+        } ;
+    }
+}
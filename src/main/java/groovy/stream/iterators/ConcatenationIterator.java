@@ -16,27 +16,87 @@
 
 package groovy.stream.iterators ;
 
+import java.util.ArrayDeque ;
+import java.util.Collections ;
 import java.util.Iterator ;
+import java.util.Queue ;
 
+/**
+ * Iterates each of a queue of {@link Iterator}s in turn.
+ *
+ * Concatenating onto a {@code ConcatenationIterator} does not wrap it.  Instead the new
+ * iterator remembers the one it was built on, and when it is first read it walks back along
+ * the chain, copying the queue of the first one which has been read and adding each later
+ * iterator to the end.  So however many times iterators are concatenated, moving to the next
+ * one is a single poll, and building the queue takes one step per concatenation.  The earlier
+ * {@code ConcatenationIterator}s are left as they were, and share their remaining iterators
+ * with the new one, just as wrapped ones would.
+ */
 public class ConcatenationIterator<T> extends AbstractIterator<T> {
-    private final Iterator<? extends T> last ;
+    private ConcatenationIterator<T>     previous ;
+    private Iterator<? extends T>        last ;
+    private Queue<Iterator<? extends T>> queue ;
+    private Iterator<? extends T>        active ;
 
     public ConcatenationIterator( Iterator<T> first,
                                   Iterator<? extends T> last ) {
-        super( first ) ;
-        this.last = last ;
+        super( null ) ;
+        if( first instanceof ConcatenationIterator ) {
+            this.previous = (ConcatenationIterator<T>)first ;
+            this.last = last ;
+        }
+        else {
+            this.queue = new ArrayDeque<Iterator<? extends T>>() ;
+            this.active = first ;
+            queue.offer( last ) ;
+        }
     }
 
-    @Override
-    protected void loadNext() {
-        if( !iterator.hasNext() && !last.hasNext() ) {
-            exhausted = true ;
+    public ConcatenationIterator( Iterable<? extends Iterator<? extends T>> iterators ) {
+        super( null ) ;
+        this.queue = new ArrayDeque<Iterator<? extends T>>() ;
+        for( Iterator<? extends T> iterator : iterators ) {
+            queue.offer( iterator ) ;
+        }
+        this.active = Collections.<T>emptyList().iterator() ;
+    }
+
+    /**
+     * Builds the queue of a {@code ConcatenationIterator} made by concatenating onto another.
+     */
+    private void flatten() {
+        ArrayDeque<Iterator<? extends T>> tails = new ArrayDeque<Iterator<? extends T>>() ;
+        ConcatenationIterator<T> node = this ;
+        while( node.queue == null ) {
+            tails.addFirst( node.last ) ;
+            node = node.previous ;
         }
-        else if( iterator.hasNext() ) {
-            current = iterator.next() ;
+        if( node.loaded ) {
+            // It holds an element it has already read, so it must be read through
+            queue = tails ;
+            active = node ;
         }
         else {
-            current = last.next() ;
+            queue = new ArrayDeque<Iterator<? extends T>>( node.queue ) ;
+            queue.addAll( tails ) ;
+            active = node.active ;
+        }
+        previous = null ;
+        last = null ;
+    }
+
+    @Override
+    protected void loadNext() {
+        if( queue == null ) {
+            flatten() ;
+        }
+        while( !active.hasNext() ) {
+            if( queue.isEmpty() ) {
+                exhausted = true ;
+                return ;
+            }
+            active = queue.poll() ;
         }
+        current = active.next() ;
     }
-}
\ No newline at end of file
+}
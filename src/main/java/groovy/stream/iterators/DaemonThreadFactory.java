@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators ;
+
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.LinkedBlockingQueue ;
+import java.util.concurrent.ThreadFactory ;
+import java.util.concurrent.ThreadPoolExecutor ;
+import java.util.concurrent.TimeUnit ;
+
+/**
+ * Creates daemon threads, so pools owned by an abandoned {@link groovy.stream.Stream}
+ * never stop the JVM from exiting.
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+    private static final long IDLE_SECONDS = 1 ;
+
+    private final ThreadFactory delegate = Executors.defaultThreadFactory() ;
+
+    /**
+     * A pool of up to {@code threads} daemon threads, each of which exits once it has been
+     * idle for a second.  A pool whose {@link groovy.stream.Stream} is dropped part way
+     * through is therefore left with no threads, even if it is never shut down.
+     *
+     * @param threads The most threads to run at once.
+     * @return A new {@link ExecutorService}.
+     */
+    public static ExecutorService newPool( int threads ) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor( threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                                                          new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory() ) ;
+        pool.allowCoreThreadTimeOut( true ) ;
+        return pool ;
+    }
+
+    @Override
+    public Thread newThread( Runnable runnable ) {
+        Thread thread = delegate.newThread( runnable ) ;
+        thread.setDaemon( true ) ;
+        return thread ;
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators ;
+
+import groovy.stream.functions.Emitter ;
+import groovy.stream.stages.FlatMapEmitStage ;
+import groovy.stream.stages.Stage ;
+import groovy.stream.stages.TapStage ;
+import java.util.ArrayList ;
+import java.util.Arrays ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.NoSuchElementException ;
+
+/**
+ * Runs a chain of {@link Stage} instances over a source {@link Iterator} in a
+ * single {@code loadNext()} loop.
+ *
+ * Any {@link TapStage} instances at the end of the chain are run when the element
+ * is returned from {@code next()}, as they would be by a {@link groovy.stream.iterators.groovy.TapIterator}.
+ *
+ * The same loop can also be run in push mode via {@link #drain(Stage)}, which hands each
+ * element straight to a terminal {@link Stage} without going through {@code hasNext()}/{@code next()}.
+ *
+ * Expanding stages (such as a {@link groovy.stream.stages.FlatMapStage}) return an {@link Iterator}
+ * which is read lazily: each of its elements runs through the following stages before the next is
+ * taken, and the iterator is kept open across calls to {@code next()}.
+ *
+ * A source created for this iterator alone (such as the {@link ParallelIterator} of a
+ * parallel {@link groovy.stream.Stream}) can be handed over to it, and is then closed as
+ * soon as nothing more will be taken from it: because it has run out, a stage has stopped,
+ * or a guard such as a {@code take} has completed.  Any threads it holds are let go then,
+ * rather than when the whole source has been read.
+ */
+@SuppressWarnings( { "rawtypes", "unchecked" } )
+public class FusedIterator<T> extends AbstractIterator<T> implements SizedIterator<T>, CloseableIterator<T> {
+    private final Iterator<?> source ;
+    private final boolean     ownsSource ;
+    private final Stage[]     stages ;
+    private final Stage[]     trailing ;
+    private final Stage[]     guards ;
+    private final int[]       guardIndex ;
+    private final boolean[]   expanding ;
+    private final Iterator[]  open ;
+
+    // The index of the innermost open expansion in open, or -1 if there are none
+    private int top = -1 ;
+
+    public FusedIterator( Iterator<?> source, Stage<?,?>... stages ) {
+        this( source, false, stages ) ;
+    }
+
+    /**
+     * @param source The iterator to read elements from.
+     * @param ownsSource {@code true} if nothing else reads from {@code source}, so it can be
+     *                   closed once this iterator is done with it.
+     * @param stages The stages to run each element through.
+     */
+    public FusedIterator( Iterator<?> source, boolean ownsSource, Stage<?,?>... stages ) {
+        super( null ) ;
+        this.source = source ;
+        this.ownsSource = ownsSource ;
+        int split = stages.length ;
+        while( split > 0 && stages[ split - 1 ] instanceof TapStage ) {
+            split-- ;
+        }
+        this.stages = Arrays.copyOfRange( stages, 0, split ) ;
+        this.trailing = Arrays.copyOfRange( stages, split, stages.length ) ;
+        List<Integer> shortCircuiting = new ArrayList<Integer>() ;
+        for( int i = 0 ; i < stages.length ; i++ ) {
+            if( stages[ i ].isShortCircuiting() ) {
+                shortCircuiting.add( i ) ;
+            }
+        }
+        this.guards = new Stage[ shortCircuiting.size() ] ;
+        this.guardIndex = new int[ shortCircuiting.size() ] ;
+        for( int i = 0 ; i < guards.length ; i++ ) {
+            guardIndex[ i ] = shortCircuiting.get( i ) ;
+            guards[ i ] = stages[ guardIndex[ i ] ] ;
+        }
+        this.expanding = new boolean[ split ] ;
+        for( int i = 0 ; i < split ; i++ ) {
+            expanding[ i ] = this.stages[ i ].isExpanding() ;
+        }
+        this.open = new Iterator[ split ] ;
+    }
+
+    /**
+     * Whether elements entering the stages at {@code level} could still get through.  A
+     * completed guard only stops elements that would pass through it, so an expansion
+     * opened after a guard is read to the end even once the guard has completed.
+     *
+     * @param level The index of the first stage the next element would be passed to.
+     * @return {@code true} if a completed guard sits at or after {@code level}.
+     */
+    private boolean isCancelled( int level ) {
+        for( int i = 0 ; i < guards.length ; i++ ) {
+            if( guardIndex[ i ] >= level && guards[ i ].isComplete() ) {
+                return true ;
+            }
+        }
+        return false ;
+    }
+
+    @Override
+    protected void loadNext() {
+        while( !isCancelled( top + 1 ) ) {
+            int from = 0 ;
+            Object value ;
+            if( top >= 0 ) {
+                if( !open[ top ].hasNext() ) {
+                    open[ top ] = null ;
+                    while( --top >= 0 && open[ top ] == null ) ;
+                    continue ;
+                }
+                value = open[ top ].next() ;
+                from = top + 1 ;
+            }
+            else if( source.hasNext() ) {
+                value = source.next() ;
+            }
+            else {
+                break ;
+            }
+            for( int i = from ; i < stages.length && value != Stage.SKIP ; i++ ) {
+                value = stages[ i ].apply( value ) ;
+                if( value == Stage.STOP ) {
+                    close() ;
+                    return ;
+                }
+                if( value != Stage.SKIP && expanding[ i ] ) {
+                    open[ i ] = (Iterator<?>)value ;
+                    top = i ;
+                    value = Stage.SKIP ;
+                }
+            }
+            if( value != Stage.SKIP ) {
+                current = (T)value ;
+                return ;
+            }
+        }
+        close() ;
+    }
+
+    /**
+     * Stops iterating, and closes the source if it was handed over to this iterator.
+     */
+    @Override
+    public void close() {
+        exhausted = true ;
+        if( ownsSource && source instanceof CloseableIterator ) {
+            ((CloseableIterator<?>)source).close() ;
+        }
+    }
+
+    @Override
+    public T next() {
+        hasNext() ;
+        if( exhausted ) {
+            throw new NoSuchElementException( "FusedIterator has been exhausted and contains no more elements" ) ;
+        }
+        T ret = current ;
+        for( int i = 0 ; i < trailing.length ; i++ ) {
+            trailing[ i ].apply( ret ) ;
+        }
+        loaded = false ;
+        return ret ;
+    }
+
+    /**
+     * Works out the size from the source, and each stage in turn.  Stages hold their
+     * own state (such as how many elements a {@code take} has left), so this stays
+     * correct part way through iteration.
+     */
+    @Override
+    public long estimateSize() {
+        if( loaded && exhausted ) {
+            return 0 ;
+        }
+        long size = source instanceof SizedIterator ? ( (SizedIterator<?>)source ).estimateSize() : -1 ;
+        for( int i = 0 ; i < stages.length ; i++ ) {
+            size = stages[ i ].estimateSize( size ) ;
+        }
+        return loaded && size >= 0 ? size + 1 : size ;
+    }
+
+    @Override
+    public int characteristics() {
+        if( loaded && exhausted ) {
+            return SIZED ;
+        }
+        int characteristics = source instanceof SizedIterator ? ( (SizedIterator<?>)source ).characteristics() : 0 ;
+        for( int i = 0 ; i < stages.length ; i++ ) {
+            characteristics = stages[ i ].characteristics( characteristics ) ;
+        }
+        return characteristics ;
+    }
+
+    /**
+     * Push every remaining element through the stages and into {@code sink}.
+     *
+     * If {@code sink} returns {@link Stage#STOP}, draining stops and this iterator
+     * can carry on from the next element.
+     *
+     * @param sink the terminal stage to receive each element.
+     * @return the number of elements passed to {@code sink}.
+     */
+    public long drain( Stage<? super T,?> sink ) {
+        Drain drain = new Drain( sink ) ;
+        if( loaded ) {
+            if( exhausted ) {
+                return drain.count ;
+            }
+            drain.count++ ;
+            if( sink.apply( next() ) == Stage.STOP ) {
+                return drain.count ;
+            }
+        }
+        while( !drain.stopped && top >= 0 ) {
+            int level = top ;
+            Iterator<?> expansion = open[ level ] ;
+            open[ level ] = null ;
+            while( --top >= 0 && open[ top ] == null ) ;
+            drain.expand( expansion, level ) ;
+        }
+        while( !drain.stopped && !isCancelled( 0 ) && source.hasNext() ) {
+            drain.push( source.next(), 0 ) ;
+        }
+        if( drain.finished ) {
+            close() ;
+            loaded = true ;
+        }
+        return drain.count ;
+    }
+
+    /**
+     * Pushes elements through the stages from a given one on.  Expansions are run to the
+     * end before the next element is taken, and a {@link FlatMapEmitStage} is handed an
+     * {@link Emitter} which pushes straight on, rather than filling a buffer.
+     */
+    private class Drain {
+        private final Stage       sink ;
+        private final Forwarder[] forwarders = new FusedIterator.Drain.Forwarder[ stages.length ] ;
+
+        long    count = 0 ;
+        boolean stopped = false ;
+        boolean finished = true ;
+
+        Drain( Stage sink ) {
+            this.sink = sink ;
+        }
+
+        void push( Object value, int from ) {
+            for( int i = from ; i < stages.length ; i++ ) {
+                if( stages[ i ] instanceof FlatMapEmitStage ) {
+                    Forwarder forwarder = forwarder( i ) ;
+                    ((FlatMapEmitStage)stages[ i ]).emit( value, forwarder ) ;
+                    if( forwarder.leftover != null ) {
+                        suspend( forwarder.leftover.iterator(), i ) ;
+                        forwarder.leftover = null ;
+                    }
+                    return ;
+                }
+                value = stages[ i ].apply( value ) ;
+                if( value == Stage.SKIP ) {
+                    return ;
+                }
+                if( value == Stage.STOP ) {
+                    stopped = true ;
+                    return ;
+                }
+                if( expanding[ i ] ) {
+                    expand( (Iterator<?>)value, i ) ;
+                    return ;
+                }
+            }
+            for( int i = 0 ; i < trailing.length ; i++ ) {
+                trailing[ i ].apply( value ) ;
+            }
+            count++ ;
+            if( sink.apply( value ) == Stage.STOP ) {
+                stopped = true ;
+                finished = false ;
+            }
+        }
+
+        void expand( Iterator<?> expansion, int level ) {
+            while( !stopped && !isCancelled( level + 1 ) && expansion.hasNext() ) {
+                push( expansion.next(), level + 1 ) ;
+            }
+            if( !finished && expansion.hasNext() ) {
+                suspend( expansion, level ) ;
+            }
+        }
+
+        /**
+         * The sink stopped part way through an expansion, so keep the rest of it for
+         * whoever carries on from here.
+         */
+        private void suspend( Iterator<?> expansion, int level ) {
+            open[ level ] = expansion ;
+            top = Math.max( top, level ) ;
+        }
+
+        private Forwarder forwarder( int level ) {
+            if( forwarders[ level ] == null ) {
+                forwarders[ level ] = new Forwarder( level + 1 ) ;
+            }
+            return forwarders[ level ] ;
+        }
+
+        /**
+         * Pushes each emitted value on from the stage after the one emitting it.
+         */
+        private class Forwarder implements Emitter<Object> {
+            private final int from ;
+            List<Object>      leftover ;
+
+            Forwarder( int from ) {
+                this.from = from ;
+            }
+
+            @Override
+            public void call( Object value ) {
+                if( !stopped ) {
+                    if( !isCancelled( from ) ) {
+                        push( value, from ) ;
+                    }
+                }
+                else if( !finished ) {
+                    if( leftover == null ) {
+                        leftover = new ArrayList<Object>() ;
+                    }
+                    leftover.add( value ) ;
+                }
+            }
+        }
+    }
+}
@@ -18,7 +18,7 @@ package groovy.stream.iterators ;
 
 import java.util.Iterator ;
 
-public class LimitedIterator<T> implements Iterator<T> {
+public class LimitedIterator<T> implements SizedIterator<T> {
     private final Iterator<T> delegate ;
     private int limit ;
 
@@ -39,6 +39,17 @@ public class LimitedIterator<T> implements Iterator<T> {
     	return ret ;
     }
 
+    @Override
+    public long estimateSize() {
+        long size = delegate instanceof SizedIterator ? ( (SizedIterator<T>)delegate ).estimateSize() : -1 ;
+        return size < 0 ? Math.max( 0, limit ) : Math.min( size, Math.max( 0, limit ) ) ;
+    }
+
+    @Override
+    public int characteristics() {
+        return delegate instanceof SizedIterator ? ( (SizedIterator<T>)delegate ).characteristics() : 0 ;
+    }
+
     @Override
     public void remove() {
         delegate.remove() ;
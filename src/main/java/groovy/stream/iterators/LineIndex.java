@@ -0,0 +1,307 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.io.BufferedInputStream ;
+import java.io.BufferedOutputStream ;
+import java.io.DataInputStream ;
+import java.io.DataOutputStream ;
+import java.io.File ;
+import java.io.FileInputStream ;
+import java.io.FileOutputStream ;
+import java.io.IOException ;
+
+import java.nio.charset.Charset ;
+
+import java.util.Arrays ;
+
+/**
+ * A sparse index of where lines start in a file: the byte offset of every
+ * {@link #getInterval()}th line.  With it, a {@link MappedLineIterator} can skip to any
+ * line by seeking to the indexed line before it and scanning at most one interval of
+ * lines, and a file can be split into ranges with the same number of lines.
+ *
+ * An index is built with one scan of the file, and is kept in a small sidecar file
+ * next to it, so later runs can load it rather than scan again.  The index records the
+ * length and modification time of the file it was built from, and is rebuilt by
+ * {@link #forFile(java.io.File)} if either has changed.
+ */
+public class LineIndex {
+    /**
+     * How many lines apart the indexed lines are, unless another interval is given.
+     */
+    public static final int    DEFAULT_INTERVAL = 65536 ;
+
+    /**
+     * Added to the name of a file to give the name of its sidecar index.
+     */
+    public static final String SUFFIX = ".lineindex" ;
+
+    private static final int   MAGIC = 0x4c494458 ;
+    private static final int   VERSION = 1 ;
+
+    private final File   file ;
+    private final long   length ;
+    private final long   lastModified ;
+    private final int    interval ;
+    private final long   lineCount ;
+    private final long[] offsets ;
+
+    private LineIndex( File file, long length, long lastModified, int interval, long lineCount, long[] offsets ) {
+        this.file = file ;
+        this.length = length ;
+        this.lastModified = lastModified ;
+        this.interval = interval ;
+        this.lineCount = lineCount ;
+        this.offsets = offsets ;
+    }
+
+    /**
+     * Loads the index in the sidecar file next to {@code file}, or builds and saves one with
+     * {@link #DEFAULT_INTERVAL} if there is none or it is out of date.
+     *
+     * @param file The file to index.
+     * @return An index of the lines in {@code file}.
+     */
+    public static LineIndex forFile( File file ) {
+        return forFile( file, sidecarFor( file ), DEFAULT_INTERVAL ) ;
+    }
+
+    /**
+     * Loads the index in {@code sidecar}, or builds one and saves it there if there is none,
+     * it is out of date, or it was built with a different interval.
+     *
+     * @param file The file to index.
+     * @param sidecar Where the index is kept.
+     * @param interval How many lines apart the indexed lines should be.
+     * @return An index of the lines in {@code file}.
+     */
+    public static LineIndex forFile( File file, File sidecar, int interval ) {
+        LineIndex index = load( file, sidecar ) ;
+        if( index == null || index.interval != interval ) {
+            index = build( file, interval ) ;
+            index.save( sidecar ) ;
+        }
+        return index ;
+    }
+
+    /**
+     * @param file An indexed file.
+     * @return Where the index of {@code file} is kept by {@link #forFile(java.io.File)}.
+     */
+    public static File sidecarFor( File file ) {
+        return new File( file.getPath() + SUFFIX ) ;
+    }
+
+    /**
+     * Scans a file for the start of every {@code interval}th line.  The lines are found in
+     * the bytes of the file, and are not decoded.
+     *
+     * @param file The file to index.
+     * @param interval How many lines apart the indexed lines should be.
+     * @return An index of the lines in {@code file}.
+     */
+    public static LineIndex build( File file, int interval ) {
+        if( interval <= 0 ) {
+            throw new IllegalArgumentException( "Interval must be positive: " + interval ) ;
+        }
+        long length = file.length() ;
+        long lastModified = file.lastModified() ;
+        MappedLineIterator lines = new MappedLineIterator( file, Charset.forName( "ISO-8859-1" ), 0, length ) ;
+        long[] offsets = new long[ 16 ] ;
+        int count = 1 ;
+        long line = 0 ;
+        try {
+            while( lines.skip( 1 ) == 1 ) {
+                line++ ;
+                if( line % interval == 0 && lines.position() < length ) {
+                    if( count == offsets.length ) {
+                        offsets = Arrays.copyOf( offsets, count * 2 ) ;
+                    }
+                    offsets[ count++ ] = lines.position() ;
+                }
+            }
+        }
+        finally {
+            lines.close() ;
+        }
+        return new LineIndex( file, length, lastModified, interval, line, Arrays.copyOf( offsets, count ) ) ;
+    }
+
+    /**
+     * Reads an index from its sidecar file.
+     *
+     * @param file The file that was indexed.
+     * @param sidecar Where the index is kept.
+     * @return The index, or {@code null} if {@code sidecar} does not hold an index that is
+     *         up to date with {@code file}.
+     */
+    public static LineIndex load( File file, File sidecar ) {
+        if( !sidecar.isFile() ) {
+            return null ;
+        }
+        DataInputStream in = null ;
+        try {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( sidecar ) ) ) ;
+            if( in.readInt() != MAGIC || in.readInt() != VERSION ) {
+                return null ;
+            }
+            long length = in.readLong() ;
+            long lastModified = in.readLong() ;
+            int interval = in.readInt() ;
+            long lineCount = in.readLong() ;
+            long[] offsets = new long[ in.readInt() ] ;
+            for( int i = 0 ; i < offsets.length ; i++ ) {
+                offsets[ i ] = in.readLong() ;
+            }
+            LineIndex index = new LineIndex( file, length, lastModified, interval, lineCount, offsets ) ;
+            return index.isCurrent() ? index : null ;
+        }
+        catch( IOException ex ) {
+            // Unreadable or cut short, so it will be built again
+            return null ;
+        }
+        finally {
+            if( in != null ) {
+                try {
+                    in.close() ;
+                }
+                catch( IOException ex ) {
+                    // Only read from, so nothing is lost
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes this index to a sidecar file, replacing any index already there.
+     *
+     * @param sidecar Where to keep the index.
+     */
+    public void save( File sidecar ) {
+        File partial = new File( sidecar.getPath() + ".tmp" ) ;
+        try {
+            DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( partial ) ) ) ;
+            try {
+                out.writeInt( MAGIC ) ;
+                out.writeInt( VERSION ) ;
+                out.writeLong( length ) ;
+                out.writeLong( lastModified ) ;
+                out.writeInt( interval ) ;
+                out.writeLong( lineCount ) ;
+                out.writeInt( offsets.length ) ;
+                for( long offset : offsets ) {
+                    out.writeLong( offset ) ;
+                }
+            }
+            finally {
+                out.close() ;
+            }
+        }
+        catch( IOException ex ) {
+            partial.delete() ;
+            throw new RuntimeException( "Could not write " + sidecar, ex ) ;
+        }
+        sidecar.delete() ;
+        if( !partial.renameTo( sidecar ) ) {
+            partial.delete() ;
+            throw new RuntimeException( "Could not write " + sidecar ) ;
+        }
+    }
+
+    /**
+     * @return {@code true} if the indexed file has the same length and modification time as
+     *         when it was indexed.
+     */
+    public boolean isCurrent() {
+        return file.length() == length && file.lastModified() == lastModified ;
+    }
+
+    /**
+     * @return The file that was indexed.
+     */
+    public File getFile() {
+        return file ;
+    }
+
+    /**
+     * @return The length in bytes of the file when it was indexed.
+     */
+    public long getLength() {
+        return length ;
+    }
+
+    /**
+     * @return How many lines apart the indexed lines are.
+     */
+    public int getInterval() {
+        return interval ;
+    }
+
+    /**
+     * @return The number of lines in the file.
+     */
+    public long getLineCount() {
+        return lineCount ;
+    }
+
+    /**
+     * @param line A line number, counting from {@code 0}.
+     * @return The number of the last indexed line at or before {@code line}.
+     */
+    public long checkpoint( long line ) {
+        return Math.min( Math.max( line, 0 ) / interval, offsets.length - 1 ) * interval ;
+    }
+
+    /**
+     * @param checkpoint The number of an indexed line, as returned by {@link #checkpoint(long)}.
+     * @return The byte offset in the file where that line starts.
+     * @throws IllegalArgumentException if the line is not in the index.
+     */
+    public long offset( long checkpoint ) {
+        if( checkpoint % interval != 0 || checkpoint < 0 || checkpoint / interval >= offsets.length ) {
+            throw new IllegalArgumentException( "Line " + checkpoint + " is not in the index" ) ;
+        }
+        return offsets[ (int)( checkpoint / interval ) ] ;
+    }
+
+    /**
+     * Divides the lines of the file into ranges of roughly the same number of lines, each
+     * starting at an indexed line so it can be reached with a single seek.
+     *
+     * @param parts How many ranges to make.  Fewer are made if there are not enough
+     *              indexed lines.
+     * @return The line numbers the ranges start at, followed by {@link #getLineCount()}.
+     */
+    public long[] split( int parts ) {
+        if( parts <= 0 ) {
+            throw new IllegalArgumentException( "Parts must be positive: " + parts ) ;
+        }
+        long[] bounds = new long[ parts + 1 ] ;
+        int count = 0 ;
+        for( int i = 0 ; i < parts ; i++ ) {
+            long start = checkpoint( (long)( (double)lineCount * i / parts ) ) ;
+            if( count == 0 || start > bounds[ count - 1 ] ) {
+                bounds[ count++ ] = start ;
+            }
+        }
+        if( lineCount > bounds[ count - 1 ] || count == 1 ) {
+            bounds[ count++ ] = lineCount ;
+        }
+        return Arrays.copyOf( bounds, count ) ;
+    }
+}
@@ -14,59 +14,339 @@
  * limitations under the License.
  */
 
+
 package groovy.stream.iterators ;
 
+import java.util.AbstractList ;
 import java.util.ArrayList ;
+import java.util.Collection ;
 import java.util.Iterator ;
-import java.util.LinkedHashMap ;
 import java.util.List ;
 import java.util.Map ;
+import java.util.RandomAccess ;
+
+/**
+ * Iterates every combination of the values in a {@link Map} of {@link Iterable}s, with
+ * the last key changing fastest.
+ *
+ * Each {@link Iterable} after the first is read into an array once, rather than being
+ * iterated again every time it wraps around.  The first is read into an array too if it
+ * is a {@link Collection}; otherwise it is only iterated once, so it may be endless.
+ *
+ * When every {@link Iterable} has been read into an array, combination {@code n} can be
+ * found directly by treating {@code n} as a mixed-radix number (one digit per key, in base
+ * the number of values for that key).  So {@link #count()} is known up front, and
+ * {@link #skip(long)} and {@link #get(long)} cost one division per key, however far they go.
+ * {@link #asList()} and {@link #range(long,long)} use the same trick to split the combinations
+ * into ranges that can be iterated separately, such as by a {@link ParallelIterator}.  Where
+ * there are more than {@link Integer#MAX_VALUE} combinations, {@link #asList()} cannot index
+ * them all, so they are shared out with {@link #range(long,long)} instead.
+ *
+ * Each combination is returned as a new, mutable {@link java.util.LinkedHashMap}.  If
+ * {@code reuse} is set, the same read-only {@link Combination} is returned instead, updated in
+ * place for each element, so it is only valid until the next element and callers must copy any
+ * they want to keep.
+ */
+public class MapIterator<T,U> extends AbstractIterator<Map<T,U>> implements RangedIterator<Map<T,U>>, SkippableIterator<Map<T,U>>, RestartableIterator<Map<T,U>> {
+    private final Object[]         keys ;
+    private final Object[][]       dimensions ;
+    private final Iterator<U>      outer ;
+    private final int[]            indices ;
+    private final Object[]         values ;
+    private final boolean          reuse ;
+    private final long             size ;
+    private final long             end ;
+    private final Combination<T,U> shared ;
 
-public class MapIterator<T,U> extends AbstractIterator<Map<T,U>> {
-    private final Map<T,Iterable<U>> iterables ;
-    private final Map<T,Iterator<U>> iterators ;
-    private final List<T>            keys ;
+    private long    position = 0 ;
+    private boolean started = false ;
+    private boolean jumped = false ;
 
     public MapIterator( Map<T,? extends Iterable<U>> underlying ) {
+        this( underlying, false ) ;
+    }
+
+    public MapIterator( Map<T,? extends Iterable<U>> underlying, boolean reuse ) {
         super( null ) ;
-        this.iterables = new LinkedHashMap<T,Iterable<U>>();
-        this.iterators = new LinkedHashMap<T,Iterator<U>>();
-        this.keys = new ArrayList<T>();
+        int count = underlying.size() ;
+        this.keys = new Object[ count ] ;
+        this.dimensions = new Object[ count ][] ;
+        this.indices = new int[ count ] ;
+        this.values = new Object[ count ] ;
+        this.reuse = reuse ;
+        Iterator<U> first = null ;
+        int i = 0 ;
         for( Map.Entry<T,? extends Iterable<U>> entry : underlying.entrySet() ) {
-            keys.add( entry.getKey() ) ;
-            iterables.put( entry.getKey(), entry.getValue() ) ;
-            iterators.put( entry.getKey(), entry.getValue().iterator() ) ;
+            keys[ i ] = entry.getKey() ;
+            if( i == 0 && !( entry.getValue() instanceof Collection ) ) {
+                first = entry.getValue().iterator() ;
+            }
+            else {
+                dimensions[ i ] = materialize( entry.getValue() ) ;
+            }
+            i++ ;
         }
+        this.outer = first ;
+        this.size = productSize() ;
+        this.end = size ;
+        this.shared = reuse ? new Combination<T,U>( keys, values ) : null ;
     }
 
-    private void loadFirst() {
-        current = new LinkedHashMap<T,U>() ;
-        for( T key : keys ) {
-            current.put( key, iterators.get( key ).next() ) ;
+    private MapIterator( MapIterator<T,U> parent, long from, long to, boolean reuse ) {
+        super( null ) ;
+        this.keys = parent.keys ;
+        this.dimensions = parent.dimensions ;
+        this.outer = null ;
+        this.indices = new int[ keys.length ] ;
+        this.values = new Object[ keys.length ] ;
+        this.reuse = reuse ;
+        this.size = parent.size ;
+        this.end = to ;
+        this.shared = reuse ? new Combination<T,U>( keys, values ) : null ;
+        this.position = from ;
+    }
+
+    private static Object[] materialize( Iterable<?> iterable ) {
+        if( iterable instanceof Collection ) {
+            return ( (Collection<?>)iterable ).toArray() ;
+        }
+        List<Object> list = new ArrayList<Object>() ;
+        for( Object value : iterable ) {
+            list.add( value ) ;
         }
+        return list.toArray() ;
+    }
+
+    private long productSize() {
+        if( outer != null ) {
+            return -1 ;
+        }
+        long product = 1 ;
+        for( Object[] dimension : dimensions ) {
+            if( dimension.length == 0 ) {
+                return 0 ;
+            }
+            if( product > Long.MAX_VALUE / dimension.length ) {
+                return -1 ;
+            }
+            product *= dimension.length ;
+        }
+        return product ;
+    }
+
+    private boolean isIndexed() {
+        return size >= 0 ;
+    }
+
+    /**
+     * @return The total number of combinations, or {@code -1} if the first {@link Iterable}
+     *         is not a {@link Collection} (or the count is too large for a {@code long}).
+     */
+    public long count() {
+        return size ;
+    }
+
+    /**
+     * Works out combination {@code index} without iterating, and without changing the
+     * position of this iterator.
+     *
+     * @param index The zero-based index of the combination.
+     * @return A new, mutable {@link Map} of the combination at {@code index}.
+     */
+    public Map<T,U> get( long index ) {
+        if( !isIndexed() ) {
+            throw new UnsupportedOperationException( "Combinations can only be indexed when the first Iterable is a Collection" ) ;
+        }
+        if( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size ) ;
+        }
+        int[] digits = new int[ dimensions.length ] ;
+        Object[] result = new Object[ dimensions.length ] ;
+        unrank( index, digits, result ) ;
+        return Combination.copyOf( keys, result ) ;
+    }
+
+    private void unrank( long index, int[] digits, Object[] result ) {
+        for( int i = dimensions.length - 1 ; i >= 0 ; i-- ) {
+            int radix = dimensions[ i ].length ;
+            digits[ i ] = (int)( index % radix ) ;
+            result[ i ] = dimensions[ i ][ digits[ i ] ] ;
+            index /= radix ;
+        }
+    }
+
+    /**
+     * @return A read-only, random access view of every combination, or {@code null} if there
+     *         are too many to index with an {@code int} (use {@link #range(long,long)}), or they
+     *         cannot be indexed at all.  The
+     *         {@link Iterator} of the view, and of any {@link List#subList(int,int)} of it, finds
+     *         its first combination directly and steps on from there.
+     */
+    public List<Map<T,U>> asList() {
+        if( !isIndexed() || size > Integer.MAX_VALUE ) {
+            return null ;
+        }
+        return new CombinationList( 0, size ) ;
     }
 
     @Override
-    protected void loadNext() {
-        if( current == null ) {
-            loadFirst() ;
+    public List<Map<T,U>> range( long from, long to ) {
+        if( !isIndexed() ) {
+            throw new UnsupportedOperationException( "Combinations can only be indexed when the first Iterable is a Collection" ) ;
         }
-        else {
-            current = new LinkedHashMap<T,U>( current ) ;
-            for( int i = keys.size() - 1 ; i >= 0 ; i-- ) {
-                T key = keys.get( i ) ;
-                if( iterators.get( key ).hasNext() ) {
-                    current.put( key, iterators.get( key ).next() ) ;
-                    break ;
-                }
-                else if( i > 0 ) {
-                    iterators.put( key, iterables.get( key ).iterator() ) ;
-                    current.put( key, iterators.get( key ).next() ) ;
+        long start = end - estimateSize() ;
+        if( from < 0 || from > to || start + to > end || to - from > Integer.MAX_VALUE ) {
+            throw new IndexOutOfBoundsException( "from: " + from + ", to: " + to + ", Remaining: " + ( end - start ) ) ;
+        }
+        return new CombinationList( start + from, start + to ) ;
+    }
+
+    private class CombinationList extends AbstractList<Map<T,U>> implements RandomAccess {
+        private final long from ;
+        private final long to ;
+
+        CombinationList( long from, long to ) {
+            this.from = from ;
+            this.to = to ;
+        }
+
+        @Override
+        public Map<T,U> get( int index ) {
+            if( index < 0 || index >= size() ) {
+                throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size() ) ;
+            }
+            return MapIterator.this.get( from + index ) ;
+        }
+
+        @Override
+        public int size() {
+            return (int)( to - from ) ;
+        }
+
+        @Override
+        public List<Map<T,U>> subList( int fromIndex, int toIndex ) {
+            if( fromIndex < 0 || toIndex > size() || fromIndex > toIndex ) {
+                throw new IndexOutOfBoundsException( "fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + size() ) ;
+            }
+            return new CombinationList( from + fromIndex, from + toIndex ) ;
+        }
+
+        @Override
+        public Iterator<Map<T,U>> iterator() {
+            return new MapIterator<T,U>( MapIterator.this, from, to, false ) ;
+        }
+    }
+
+    /**
+     * @return A new {@code MapIterator} from the first combination, or {@code null} if the
+     *         first {@link Iterable} is being streamed.
+     */
+    @Override
+    public Iterator<Map<T,U>> restart() {
+        return isIndexed() ? new MapIterator<T,U>( this, 0, size, reuse ) : null ;
+    }
+
+    @Override
+    public long skip( long n ) {
+        if( n <= 0 ) {
+            return 0 ;
+        }
+        long skipped = 0 ;
+        if( loaded ) {
+            if( exhausted ) {
+                return 0 ;
+            }
+            loaded = false ;
+            skipped++ ;
+        }
+        if( !isIndexed() ) {
+            while( skipped < n && hasNext() ) {
+                next() ;
+                skipped++ ;
+            }
+            return skipped ;
+        }
+        long jump = Math.min( n - skipped, end - position ) ;
+        position += jump ;
+        jumped = true ;
+        return skipped + jump ;
+    }
+
+    @Override
+    public long estimateSize() {
+        if( exhausted ) {
+            return 0 ;
+        }
+        if( size < 0 ) {
+            return -1 ;
+        }
+        return loaded ? end - position + 1 : end - position ;
+    }
+
+    @Override
+    public int characteristics() {
+        return size < 0 && !exhausted ? 0 : SIZED ;
+    }
+
+    private boolean loadFirst() {
+        for( int i = 0 ; i < dimensions.length ; i++ ) {
+            if( i == 0 && outer != null ) {
+                if( !outer.hasNext() ) {
+                    return false ;
                 }
-                else {
-                    exhausted = true ;
+                values[ 0 ] = outer.next() ;
+            }
+            else if( dimensions[ i ].length == 0 ) {
+                return false ;
+            }
+            else {
+                values[ i ] = dimensions[ i ][ 0 ] ;
+            }
+        }
+        return true ;
+    }
+
+    private boolean advance() {
+        for( int i = dimensions.length - 1 ; i >= 0 ; i-- ) {
+            if( i == 0 && outer != null ) {
+                if( !outer.hasNext() ) {
+                    return false ;
                 }
+                values[ 0 ] = outer.next() ;
+                return true ;
             }
+            if( ++indices[ i ] < dimensions[ i ].length ) {
+                values[ i ] = dimensions[ i ][ indices[ i ] ] ;
+                return true ;
+            }
+            indices[ i ] = 0 ;
+            values[ i ] = dimensions[ i ][ 0 ] ;
+        }
+        return false ;
+    }
+
+    @Override
+    protected void loadNext() {
+        boolean found ;
+        if( isIndexed() ) {
+            found = position < end ;
+            if( found && ( jumped || !started ) ) {
+                unrank( position, indices, values ) ;
+            }
+            else if( found ) {
+                advance() ;
+            }
+        }
+        else {
+            found = started ? advance() : loadFirst() ;
+        }
+        started = true ;
+        jumped = false ;
+        if( !found ) {
+            exhausted = true ;
+            return ;
         }
+        position++ ;
+        current = reuse ? shared : Combination.<T,U>copyOf( keys, values ) ;
     }
-}
\ No newline at end of file
+}
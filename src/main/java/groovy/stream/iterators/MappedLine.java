@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.nio.ByteBuffer ;
+import java.nio.CharBuffer ;
+
+import java.nio.charset.Charset ;
+import java.nio.charset.CharsetDecoder ;
+import java.nio.charset.CodingErrorAction ;
+
+/**
+ * A line read by a {@link MappedLineIterator}, viewed in place in the mapped file.
+ *
+ * The same {@code MappedLine} is returned for every line, and changes each time the
+ * iterator moves on, so callers which need to keep a line should take a copy of it
+ * with {@link #toString()}.  Lines made up only of ASCII bytes are read straight from
+ * the mapped bytes; any other line is decoded into a buffer which is reused from line
+ * to line.
+ *
+ * As its content changes, a {@code MappedLine} keeps the identity {@code equals} and
+ * {@code hashCode} of {@link Object}, so it is never {@code ==} to a {@link String} in Groovy
+ * and cannot be used as a key.  Compare lines with {@link #contentEquals(CharSequence)}, or
+ * with a copy from {@link #toString()}.
+ */
+public class MappedLine implements CharSequence {
+    private final CharsetDecoder decoder ;
+    private final boolean        asciiCompatible ;
+    private ByteBuffer           bytes ;
+    private CharBuffer           chars ;
+    private int                  start ;
+    private int                  length ;
+    private boolean              ascii ;
+
+    MappedLine( Charset charset ) {
+        this.decoder = charset.newDecoder()
+                              .onMalformedInput( CodingErrorAction.REPLACE )
+                              .onUnmappableCharacter( CodingErrorAction.REPLACE ) ;
+        String name = charset.name() ;
+        this.asciiCompatible = name.equals( "UTF-8" ) || name.equals( "US-ASCII" ) || name.equals( "ISO-8859-1" ) ;
+        this.chars = CharBuffer.allocate( 128 ) ;
+    }
+
+    /**
+     * Points this line at the bytes from {@code start} to {@code end} of {@code bytes}.
+     *
+     * @param bytes A view of the mapped file, whose position and limit may be changed.
+     * @param start The index of the first byte of the line.
+     * @param end The index after the last byte of the line.
+     * @param ascii {@code true} if every byte of the line is below {@code 0x80}.
+     */
+    void set( ByteBuffer bytes, int start, int end, boolean ascii ) {
+        this.bytes = bytes ;
+        this.start = start ;
+        this.ascii = ascii && asciiCompatible ;
+        if( this.ascii ) {
+            // Undo the limit left by decoding an earlier line
+            bytes.clear() ;
+            this.length = end - start ;
+            return ;
+        }
+        int needed = (int)Math.ceil( ( end - start ) * (double)decoder.maxCharsPerByte() ) + 1 ;
+        if( chars.capacity() < needed ) {
+            chars = CharBuffer.allocate( Math.max( needed, chars.capacity() * 2 ) ) ;
+        }
+        bytes.limit( end ) ;
+        bytes.position( start ) ;
+        chars.clear() ;
+        decoder.reset() ;
+        decoder.decode( bytes, chars, true ) ;
+        decoder.flush( chars ) ;
+        this.length = chars.position() ;
+    }
+
+    /**
+     * @return {@code true} if this line was read straight from the mapped bytes, without decoding.
+     */
+    public boolean isAscii() {
+        return ascii ;
+    }
+
+    @Override
+    public int length() {
+        return length ;
+    }
+
+    @Override
+    public char charAt( int index ) {
+        if( index < 0 || index >= length ) {
+            throw new IndexOutOfBoundsException( "Index " + index + " is outside a line of length " + length ) ;
+        }
+        return ascii ? (char)bytes.get( start + index ) : chars.get( index ) ;
+    }
+
+    /**
+     * @param other The characters to compare with.
+     * @return {@code true} if this line holds the same characters as {@code other}.
+     */
+    public boolean contentEquals( CharSequence other ) {
+        if( other == null || other.length() != length ) {
+            return false ;
+        }
+        for( int i = 0 ; i < length ; i++ ) {
+            if( charAt( i ) != other.charAt( i ) ) {
+                return false ;
+            }
+        }
+        return true ;
+    }
+
+    /**
+     * @return A new {@link String} holding the characters from {@code from} to {@code to}.
+     */
+    @Override
+    public CharSequence subSequence( int from, int to ) {
+        if( from < 0 || to > length || from > to ) {
+            throw new IndexOutOfBoundsException( "Range " + from + " to " + to + " is outside a line of length " + length ) ;
+        }
+        return copy( from, to ) ;
+    }
+
+    /**
+     * @return A copy of this line, which does not change when the iterator moves on.
+     */
+    @Override
+    public String toString() {
+        return copy( 0, length ) ;
+    }
+
+    private String copy( int from, int to ) {
+        if( !ascii ) {
+            return new String( chars.array(), from, to - from ) ;
+        }
+        char[] copy = new char[ to - from ] ;
+        for( int i = 0 ; i < copy.length ; i++ ) {
+            copy[ i ] = (char)bytes.get( start + from + i ) ;
+        }
+        return new String( copy ) ;
+    }
+}
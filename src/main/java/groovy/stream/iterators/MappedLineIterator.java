@@ -0,0 +1,294 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.io.File ;
+import java.io.IOException ;
+import java.io.RandomAccessFile ;
+
+import java.nio.ByteBuffer ;
+import java.nio.MappedByteBuffer ;
+
+import java.nio.channels.FileChannel ;
+
+import java.nio.charset.Charset ;
+
+import java.util.Arrays ;
+import java.util.NoSuchElementException ;
+
+/**
+ * Reads the lines of a file through a memory mapped window, finding the line ends by
+ * scanning the mapped bytes.  Each line is returned as the same {@link MappedLine},
+ * which is a view onto the window rather than a new {@link String}.
+ *
+ * Lines end at {@code \n}, {@code \r} or {@code \r\n}, as with
+ * {@link java.io.BufferedReader#readLine()}.  The window is moved along the file as it
+ * is read, so files larger than can be mapped at once are read in pieces.  The file is
+ * closed once the last line has been read, or by {@link #close()} if it will not be.
+ */
+public class MappedLineIterator implements SkippableIterator<CharSequence>, CloseableIterator<CharSequence> {
+    /**
+     * How much of the file is mapped at a time, unless a single line is longer.
+     */
+    public static final int WINDOW_SIZE = 64 * 1024 * 1024 ;
+
+    private final File             file ;
+    private final RandomAccessFile input ;
+    private final FileChannel      channel ;
+    private final long             end ;
+    private final MappedLine       line ;
+    private final LineIndex        index ;
+    private final long             lastLine ;
+    private MappedByteBuffer       window ;
+    private ByteBuffer             view ;
+    private long                   windowStart ;
+    private int                    windowSize ;
+    private long                   position ;
+    private long                   lineNumber ;
+    private boolean                loaded ;
+    private boolean                exhausted ;
+
+    /**
+     * @param file The file to read.
+     * @param charset The encoding of the file, which must write {@code \r} and {@code \n}
+     *                as the single bytes {@code 0x0D} and {@code 0x0A}.
+     */
+    public MappedLineIterator( File file, Charset charset ) {
+        this( file, charset, 0, -1 ) ;
+    }
+
+    /**
+     * Reads the lines between two byte offsets of a file.
+     *
+     * @param file The file to read.
+     * @param charset The encoding of the file.
+     * @param from The offset of the first byte to read, which should be the start of a line.
+     * @param to The offset to stop reading at, or {@code -1} to read to the end of the file.
+     */
+    public MappedLineIterator( File file, Charset charset, long from, long to ) {
+        this( file, charset, from, to, WINDOW_SIZE ) ;
+    }
+
+    /**
+     * Reads a range of lines from an indexed file, starting with a seek to the indexed line
+     * at or before {@code fromLine}.  {@link #skip(long)} also seeks using the index, so it
+     * only scans the lines after the last indexed line it passes.
+     *
+     * @param index An index of the file to read.
+     * @param charset The encoding of the file.
+     * @param fromLine The number of the first line to read, counting from {@code 0}.
+     * @param toLine The number of the line to stop before, or {@code -1} to read to the end of the file.
+     * @throws IllegalArgumentException if the file has changed length or modification time
+     *         since it was indexed.
+     */
+    public MappedLineIterator( LineIndex index, Charset charset, long fromLine, long toLine ) {
+        this( index.getFile(), charset, index.offset( index.checkpoint( fromLine ) ), -1, WINDOW_SIZE, index, toLine ) ;
+        if( end != index.getLength() || !index.isCurrent() ) {
+            close() ;
+            throw new IllegalArgumentException( index.getFile() + " has changed since it was indexed" ) ;
+        }
+        lineNumber = index.checkpoint( fromLine ) ;
+        skip( fromLine - lineNumber ) ;
+    }
+
+    /**
+     * @param file The file to read.
+     * @param charset The encoding of the file.
+     * @param from The offset of the first byte to read, which should be the start of a line.
+     * @param to The offset to stop reading at, or {@code -1} to read to the end of the file.
+     * @param windowSize How many bytes of the file to map at a time.
+     */
+    public MappedLineIterator( File file, Charset charset, long from, long to, int windowSize ) {
+        this( file, charset, from, to, windowSize, null, -1 ) ;
+    }
+
+    private MappedLineIterator( File file, Charset charset, long from, long to, int windowSize, LineIndex index, long toLine ) {
+        if( windowSize <= 0 ) {
+            throw new IllegalArgumentException( "Window size must be positive: " + windowSize ) ;
+        }
+        if( !Arrays.equals( "\r\n".getBytes( charset ), new byte[] { '\r', '\n' } ) ) {
+            throw new IllegalArgumentException( "Cannot find line ends in mapped bytes for " + charset ) ;
+        }
+        this.file = file ;
+        this.line = new MappedLine( charset ) ;
+        this.windowSize = windowSize ;
+        this.position = from ;
+        this.lineNumber = 0 ;
+        this.index = index ;
+        this.lastLine = toLine < 0 ? Long.MAX_VALUE : toLine ;
+        try {
+            this.input = new RandomAccessFile( file, "r" ) ;
+            this.channel = input.getChannel() ;
+            this.end = to < 0 ? channel.size() : Math.min( to, channel.size() ) ;
+        }
+        catch( IOException ex ) {
+            throw new RuntimeException( "Could not open " + file, ex ) ;
+        }
+        this.loaded = false ;
+        this.exhausted = false ;
+    }
+
+    /**
+     * @return The byte offset in the file of the next line to be read.
+     */
+    public long position() {
+        return position ;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if( !loaded ) {
+            if( !advance( true ) ) {
+                exhausted = true ;
+                close() ;
+            }
+            loaded = true ;
+        }
+        return !exhausted ;
+    }
+
+    @Override
+    public CharSequence next() {
+        hasNext() ;
+        if( exhausted ) {
+            throw new NoSuchElementException( "MappedLineIterator has been exhausted and contains no more elements" ) ;
+        }
+        loaded = false ;
+        return line ;
+    }
+
+    /**
+     * @return The number of lines passed so far, counted from the start of the file when
+     *         reading from a {@link LineIndex}, or from the first line read otherwise.
+     */
+    public long lineNumber() {
+        return lineNumber ;
+    }
+
+    /**
+     * Skips lines by finding their ends in the mapped bytes, without decoding them.  With a
+     * {@link LineIndex}, the lines up to the last indexed line in reach are skipped with a
+     * single seek.
+     */
+    @Override
+    public long skip( long n ) {
+        long skipped = 0 ;
+        if( loaded ) {
+            if( exhausted || n <= 0 ) {
+                return 0 ;
+            }
+            loaded = false ;
+            skipped++ ;
+        }
+        if( index != null && skipped < n ) {
+            long left = n - skipped ;
+            long checkpoint = index.checkpoint( left >= lastLine - lineNumber ? lastLine : lineNumber + left ) ;
+            if( checkpoint > lineNumber ) {
+                skipped += checkpoint - lineNumber ;
+                lineNumber = checkpoint ;
+                position = index.offset( checkpoint ) ;
+            }
+        }
+        while( skipped < n && advance( false ) ) {
+            skipped++ ;
+        }
+        return skipped ;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException( "Remove not supported on MappedLineIterator" ) ;
+    }
+
+    /**
+     * Closes the file, after which there are no more lines.  This happens by itself once
+     * every line has been read.
+     */
+    @Override
+    public void close() {
+        exhausted = true ;
+        loaded = true ;
+        try {
+            input.close() ;
+        }
+        catch( IOException ex ) {
+            // Only read from, so nothing is lost
+        }
+    }
+
+    /**
+     * Finds the end of the line starting at {@code position}, and moves past it.
+     *
+     * @param keep {@code true} to point {@link #line} at the line that was found.
+     * @return {@code false} if there are no more lines.
+     */
+    private boolean advance( boolean keep ) {
+        if( position >= end || lineNumber >= lastLine ) {
+            return false ;
+        }
+        if( window == null || position < windowStart || position >= windowStart + window.limit() ) {
+            map( position ) ;
+        }
+        while( true ) {
+            int from = (int)( position - windowStart ) ;
+            int limit = window.limit() ;
+            int bits = 0 ;
+            int i = from ;
+            byte b = 0 ;
+            for( ; i < limit ; i++ ) {
+                b = window.get( i ) ;
+                if( b == '\n' || b == '\r' ) {
+                    break ;
+                }
+                bits |= b ;
+            }
+            boolean more = windowStart + limit < end ;
+            if( i == limit && more || b == '\r' && i == limit - 1 && more ) {
+                // The line, or its \r\n ending, runs past the window
+                map( position ) ;
+                continue ;
+            }
+            int next = i == limit ? limit : i + 1 ;
+            if( b == '\r' && next < limit && window.get( next ) == '\n' ) {
+                next++ ;
+            }
+            if( keep ) {
+                line.set( view, from, i, ( bits & 0x80 ) == 0 ) ;
+            }
+            position = windowStart + next ;
+            lineNumber++ ;
+            return true ;
+        }
+    }
+
+    private void map( long start ) {
+        if( window != null && start == windowStart ) {
+            if( windowSize == Integer.MAX_VALUE ) {
+                throw new IllegalStateException( "Line at offset " + start + " of " + file + " is too long to map" ) ;
+            }
+            windowSize = (int)Math.min( windowSize * 2L, Integer.MAX_VALUE ) ;
+        }
+        try {
+            window = channel.map( FileChannel.MapMode.READ_ONLY, start, Math.min( windowSize, end - start ) ) ;
+        }
+        catch( IOException ex ) {
+            throw new RuntimeException( "Could not map " + file + " at offset " + start, ex ) ;
+        }
+        view = window.duplicate() ;
+        windowStart = start ;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import groovy.stream.functions.Collector ;
+import groovy.stream.stages.Stage ;
+import java.util.ArrayList ;
+import java.util.Iterator ;
+import java.util.LinkedList ;
+import java.util.List ;
+import java.util.ListIterator ;
+import java.util.Queue ;
+import java.util.concurrent.Callable ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.Future ;
+
+/**
+ * Gathers the elements of a parallel pipeline with a {@link Collector}, combining the
+ * partial results in a fixed order.
+ *
+ * The source is cut into leaves of {@link #LEAF_SIZE} elements, and each leaf is run through
+ * copies of the stages into its own container on an {@link ExecutorService}.  The containers
+ * are then combined on the calling thread as each one finishes, in source order, as a binary
+ * counter would add them: two neighbouring partials of the same number of leaves are always
+ * combined first.  The shape of the tree depends only on how many elements the source has,
+ * never on the number of threads or which finishes first, so a floating point sum is the same
+ * to the last bit on every run.
+ */
+@SuppressWarnings( { "rawtypes", "unchecked" } )
+public class ParallelCollector {
+    /**
+     * The number of source elements in each leaf of the combining tree.
+     */
+    public static final int LEAF_SIZE = 1024 ;
+
+    private ParallelCollector() {}
+
+    public static <A> A collect( Iterator<?> source, List<?> elements, Stage<?,?>[] stages, Collector<?,A,?> collector, ExecutorService executor, int parallelism ) {
+        if( parallelism < 1 ) {
+            throw new IllegalArgumentException( "Parallelism must be > 0" ) ;
+        }
+        boolean shutdown = executor == null ;
+        ExecutorService pool = shutdown ? Executors.newFixedThreadPool( parallelism, new DaemonThreadFactory() ) : executor ;
+        Queue<Future<A>> pending = new LinkedList<Future<A>>() ;
+        List<A> partials = new ArrayList<A>() ;
+        List<Integer> leaves = new ArrayList<Integer>() ;
+        Leaves input = new Leaves( source, elements ) ;
+        try {
+            while( true ) {
+                while( pending.size() < parallelism * 2 ) {
+                    List<?> leaf = input.next() ;
+                    if( leaf == null ) {
+                        break ;
+                    }
+                    pending.offer( pool.submit( task( leaf, stages, (Collector<Object,A,?>)collector ) ) ) ;
+                }
+                if( pending.isEmpty() ) {
+                    break ;
+                }
+                partials.add( await( pending.poll() ) ) ;
+                leaves.add( 1 ) ;
+                for( int top = partials.size() - 1 ; top > 0 && leaves.get( top - 1 ).equals( leaves.get( top ) ) ; top-- ) {
+                    partials.set( top - 1, collector.combine( partials.get( top - 1 ), partials.remove( top ) ) ) ;
+                    leaves.set( top - 1, leaves.get( top - 1 ) * 2 ) ;
+                    leaves.remove( top ) ;
+                }
+            }
+        }
+        finally {
+            for( Future<?> future : pending ) {
+                future.cancel( true ) ;
+            }
+            if( shutdown ) {
+                pool.shutdownNow() ;
+            }
+        }
+        if( partials.isEmpty() ) {
+            return collector.supply() ;
+        }
+        A result = partials.get( partials.size() - 1 ) ;
+        for( int i = partials.size() - 2 ; i >= 0 ; i-- ) {
+            result = collector.combine( partials.get( i ), result ) ;
+        }
+        return result ;
+    }
+
+    private static <A> Callable<A> task( final List<?> leaf, Stage<?,?>[] stages, final Collector<Object,A,?> collector ) {
+        final Stage[] copies = new Stage[ stages.length ] ;
+        for( int i = 0 ; i < stages.length ; i++ ) {
+            copies[ i ] = stages[ i ].copy() ;
+        }
+        return new Callable<A>() {
+            @Override
+            public A call() {
+                A container = collector.supply() ;
+                List<Object> output = new ArrayList<Object>() ;
+                for( Object value : leaf ) {
+                    ParallelIterator.push( value, copies, 0, output ) ;
+                    for( Object out : output ) {
+                        container = collector.accumulate( container, out ) ;
+                    }
+                    output.clear() ;
+                }
+                return container ;
+            }
+        } ;
+    }
+
+    private static <A> A await( Future<A> future ) {
+        try {
+            return future.get() ;
+        }
+        catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt() ;
+            throw new RuntimeException( ex ) ;
+        }
+        catch( ExecutionException ex ) {
+            Throwable cause = ex.getCause() ;
+            if( cause instanceof RuntimeException ) {
+                throw (RuntimeException)cause ;
+            }
+            if( cause instanceof Error ) {
+                throw (Error)cause ;
+            }
+            throw new RuntimeException( cause ) ;
+        }
+    }
+
+    /**
+     * Cuts the source into leaves, as views of a random access {@link List} or ranges of a
+     * {@link RangedIterator} where there is one.
+     */
+    private static class Leaves {
+        private final Iterator<?>       source ;
+        private final List<?>           elements ;
+        private final RangedIterator<?> ranged ;
+        private       long              offset ;
+        private       long              limit ;
+
+        Leaves( Iterator<?> source, List<?> elements ) {
+            this.source = source ;
+            if( elements != null && ( source instanceof ListIterator || ParallelIterator.isSized( source ) ) ) {
+                this.elements = elements ;
+                this.ranged = null ;
+                this.offset = source instanceof ListIterator ? ( (ListIterator<?>)source ).nextIndex() :
+                                                               elements.size() - (int)( (SizedIterator<?>)source ).estimateSize() ;
+                this.limit = elements.size() ;
+            }
+            else if( source instanceof RangedIterator && ParallelIterator.isSized( source ) ) {
+                this.elements = null ;
+                this.ranged = (RangedIterator<?>)source ;
+                this.limit = ranged.estimateSize() ;
+            }
+            else {
+                this.elements = null ;
+                this.ranged = null ;
+            }
+        }
+
+        List<?> next() {
+            if( elements != null || ranged != null ) {
+                if( offset >= limit ) {
+                    return null ;
+                }
+                long end = Math.min( limit, offset + LEAF_SIZE ) ;
+                List<?> next = ranged != null ? ranged.range( offset, end ) : elements.subList( (int)offset, (int)end ) ;
+                offset = end ;
+                return next ;
+            }
+            List<Object> next = new ArrayList<Object>( LEAF_SIZE ) ;
+            while( next.size() < LEAF_SIZE && source.hasNext() ) {
+                next.add( source.next() ) ;
+            }
+            return next.isEmpty() ? null : next ;
+        }
+    }
+}
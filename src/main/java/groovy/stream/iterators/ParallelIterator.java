@@ -0,0 +1,259 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators ;
+
+import groovy.stream.functions.Emitter ;
+import groovy.stream.stages.FlatMapEmitStage ;
+import groovy.stream.stages.Stage ;
+import java.util.ArrayList ;
+import java.util.Iterator ;
+import java.util.LinkedList ;
+import java.util.List ;
+import java.util.ListIterator ;
+import java.util.Queue ;
+import java.util.concurrent.Callable ;
+import java.util.concurrent.CompletionService ;
+import java.util.concurrent.ExecutorCompletionService ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Future ;
+
+/**
+ * Runs a chain of stateless {@link Stage} instances over chunks of the source on an
+ * {@link ExecutorService}, and returns the results in source order (or, if {@code ordered}
+ * is {@code false}, each chunk as soon as it is finished).
+ *
+ * If the source is a {@link ListIterator} over a random access {@link List}, or a sized
+ * iterator with a random access view (such as an {@link ArrayIterator} or a {@link MapIterator}),
+ * the rest of the {@link List} is split into one chunk per worker (times four, to balance
+ * uneven work).  A sized {@link RangedIterator} with too many elements for a {@link List}
+ * (such as a {@link MapIterator} of more than {@link Integer#MAX_VALUE} combinations) is split
+ * into ranges by {@code long} index instead.  Otherwise chunks are read from the source
+ * {@link Iterator} as they are needed, and are made smaller for a {@link SizedIterator} with
+ * too few elements to share out.
+ *
+ * A pool created here is shut down when the last chunk has been read, or when the iterator
+ * is {@link #close() closed} early, such as by a {@code take} that has all it needs.
+ */
+@SuppressWarnings( { "rawtypes", "unchecked" } )
+public class ParallelIterator<T> extends AbstractIterator<T> implements CloseableIterator<T> {
+    private static final int BATCH_SIZE = 1024 ;
+
+    private final Iterator<?>                     source ;
+    private final List<?>                         elements ;
+    private final RangedIterator<?>               ranged ;
+    private final Stage[]                         stages ;
+    private final ExecutorService                 executor ;
+    private final boolean                         shutdown ;
+    private final int                             window ;
+    private final Queue<Future<List<Object>>>     pending = new LinkedList<Future<List<Object>>>() ;
+    private final CompletionService<List<Object>> completion ;
+
+    private long             offset ;
+    private long             limit ;
+    private int              chunkSize ;
+    private Iterator<Object> chunk ;
+
+    public ParallelIterator( Iterator<?> source, List<?> elements, Stage<?,?>[] stages, ExecutorService executor, int parallelism ) {
+        this( source, elements, stages, executor, parallelism, true ) ;
+    }
+
+    public ParallelIterator( Iterator<?> source, List<?> elements, Stage<?,?>[] stages, ExecutorService executor, int parallelism, boolean ordered ) {
+        super( null ) ;
+        if( parallelism < 1 ) {
+            throw new IllegalArgumentException( "Parallelism must be > 0" ) ;
+        }
+        this.source = source ;
+        this.stages = stages ;
+        this.shutdown = executor == null ;
+        this.executor = executor == null ? DaemonThreadFactory.newPool( parallelism ) : executor ;
+        this.window = parallelism * 2 ;
+        this.completion = ordered ? null : new ExecutorCompletionService<List<Object>>( this.executor ) ;
+        if( elements != null && ( source instanceof ListIterator || isSized( source ) ) ) {
+            this.elements = elements ;
+            this.ranged = null ;
+            this.offset = source instanceof ListIterator ? ( (ListIterator<?>)source ).nextIndex() :
+                                                           elements.size() - (int)( (SizedIterator<?>)source ).estimateSize() ;
+            this.limit = elements.size() ;
+            int tasks = parallelism * 4 ;
+            this.chunkSize = (int)Math.max( 1, ( limit - offset + tasks - 1 ) / tasks ) ;
+        }
+        else if( source instanceof RangedIterator && isSized( source ) ) {
+            this.elements = null ;
+            this.ranged = (RangedIterator<?>)source ;
+            this.limit = ranged.estimateSize() ;
+            int tasks = parallelism * 4 ;
+            this.chunkSize = (int)Math.max( 1, Math.min( BATCH_SIZE, ( limit + tasks - 1 ) / tasks ) ) ;
+        }
+        else {
+            this.elements = null ;
+            this.ranged = null ;
+            long size = source instanceof SizedIterator ? ( (SizedIterator<?>)source ).estimateSize() : -1 ;
+            int tasks = parallelism * 4 ;
+            this.chunkSize = size < 0 ? BATCH_SIZE : (int)Math.max( 1, Math.min( BATCH_SIZE, ( size + tasks - 1 ) / tasks ) ) ;
+        }
+    }
+
+    static boolean isSized( Iterator<?> source ) {
+        return source instanceof SizedIterator && ( ( (SizedIterator<?>)source ).characteristics() & SizedIterator.SIZED ) != 0 ;
+    }
+
+    @Override
+    protected void loadNext() {
+        while( chunk == null || !chunk.hasNext() ) {
+            fill() ;
+            if( pending.isEmpty() ) {
+                finish() ;
+                exhausted = true ;
+                return ;
+            }
+            chunk = await( nextDone() ).iterator() ;
+        }
+        current = (T)chunk.next() ;
+    }
+
+    private void fill() {
+        while( pending.size() < window ) {
+            List<?> next = nextChunk() ;
+            if( next == null ) {
+                return ;
+            }
+            pending.offer( submit( next ) ) ;
+        }
+    }
+
+    private List<?> nextChunk() {
+        if( elements != null || ranged != null ) {
+            if( offset >= limit ) {
+                return null ;
+            }
+            long end = Math.min( limit, offset + chunkSize ) ;
+            List<?> next = ranged != null ? ranged.range( offset, end ) : elements.subList( (int)offset, (int)end ) ;
+            offset = end ;
+            return next ;
+        }
+        List<Object> next = new ArrayList<Object>( chunkSize ) ;
+        while( next.size() < chunkSize && source.hasNext() ) {
+            next.add( source.next() ) ;
+        }
+        return next.isEmpty() ? null : next ;
+    }
+
+    private Future<List<Object>> nextDone() {
+        if( completion == null ) {
+            return pending.poll() ;
+        }
+        try {
+            Future<List<Object>> done = completion.take() ;
+            pending.remove( done ) ;
+            return done ;
+        }
+        catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt() ;
+            finish() ;
+            throw new RuntimeException( ex ) ;
+        }
+    }
+
+    private Future<List<Object>> submit( final List<?> input ) {
+        final Stage[] copies = new Stage[ stages.length ] ;
+        for( int i = 0 ; i < stages.length ; i++ ) {
+            copies[ i ] = stages[ i ].copy() ;
+        }
+        Callable<List<Object>> task = new Callable<List<Object>>() {
+            @Override
+            public List<Object> call() {
+                List<Object> output = new ArrayList<Object>( input.size() ) ;
+                for( Object value : input ) {
+                    push( value, copies, 0, output ) ;
+                }
+                return output ;
+            }
+        } ;
+        return completion == null ? executor.submit( task ) : completion.submit( task ) ;
+    }
+
+    static void push( Object value, final Stage[] stages, int from, final List<Object> output ) {
+        for( int i = from ; i < stages.length ; i++ ) {
+            if( stages[ i ] instanceof FlatMapEmitStage ) {
+                final int next = i + 1 ;
+                ((FlatMapEmitStage)stages[ i ]).emit( value, new Emitter<Object>() {
+                    @Override
+                    public void call( Object emitted ) {
+                        push( emitted, stages, next, output ) ;
+                    }
+                } ) ;
+                return ;
+            }
+            value = stages[ i ].apply( value ) ;
+            if( value == Stage.SKIP ) {
+                return ;
+            }
+            if( stages[ i ].isExpanding() ) {
+                Iterator<?> expanded = (Iterator<?>)value ;
+                while( expanded.hasNext() ) {
+                    push( expanded.next(), stages, i + 1, output ) ;
+                }
+                return ;
+            }
+        }
+        output.add( value ) ;
+    }
+
+    private List<Object> await( Future<List<Object>> future ) {
+        try {
+            return future.get() ;
+        }
+        catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt() ;
+            finish() ;
+            throw new RuntimeException( ex ) ;
+        }
+        catch( ExecutionException ex ) {
+            finish() ;
+            Throwable cause = ex.getCause() ;
+            if( cause instanceof RuntimeException ) {
+                throw (RuntimeException)cause ;
+            }
+            if( cause instanceof Error ) {
+                throw (Error)cause ;
+            }
+            throw new RuntimeException( cause ) ;
+        }
+    }
+
+    /**
+     * Stops reading: chunks not yet started are cancelled, running ones are interrupted, and
+     * a pool created by this iterator is shut down.
+     */
+    @Override
+    public void close() {
+        finish() ;
+        chunk = null ;
+        exhausted = true ;
+        loaded = true ;
+    }
+
+    private void finish() {
+        for( Future<?> future : pending ) {
+            future.cancel( true ) ;
+        }
+        pending.clear() ;
+        if( shutdown ) {
+            executor.shutdownNow() ;
+        }
+    }
+}
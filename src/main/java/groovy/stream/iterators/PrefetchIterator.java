@@ -0,0 +1,220 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators ;
+
+import java.lang.ref.ReferenceQueue ;
+import java.lang.ref.WeakReference ;
+import java.util.Arrays ;
+import java.util.Collections ;
+import java.util.HashSet ;
+import java.util.Iterator ;
+import java.util.Set ;
+import java.util.concurrent.locks.LockSupport ;
+
+/**
+ * Reads ahead from its parent {@link Iterator} on a background thread.
+ *
+ * Elements are handed over through a bounded single-producer/single-consumer ring
+ * buffer.  Each side only writes its own index, so no locks are needed; a side which
+ * finds the buffer full (or empty) spins briefly, then parks until the other side
+ * wakes it.  Any exception thrown by the parent is rethrown to the consumer once
+ * every element read before it has been returned.
+ *
+ * The background thread stops when the parent runs out, when this iterator is
+ * {@link #close() closed}, or when this iterator is dropped without being read to the
+ * end: it only holds the buffer, not the iterator, so a dropped iterator is collected,
+ * and the thread is woken and told to stop.
+ */
+public class PrefetchIterator<T> extends AbstractIterator<T> implements CloseableIterator<T> {
+    private static final Object NULL  = new Object() ;
+    private static final int    SPINS = 64 ;
+
+    private static final ReferenceQueue<Object> dropped = new ReferenceQueue<Object>() ;
+    private static final Set<Watch>             watched = Collections.synchronizedSet( new HashSet<Watch>() ) ;
+    private static Thread                       reaper ;
+
+    private final Channel channel ;
+    private final Watch   watch ;
+
+    public PrefetchIterator( Iterator<T> parent, int capacity ) {
+        super( parent ) ;
+        if( capacity < 1 ) {
+            throw new IllegalArgumentException( "Prefetch capacity must be > 0" ) ;
+        }
+        this.channel = new Channel( parent, capacity ) ;
+        this.watch = new Watch( this, channel ) ;
+    }
+
+    private void start() {
+        watched.add( watch ) ;
+        startReaper() ;
+        channel.consumer = Thread.currentThread() ;
+        Thread producer = new Thread( channel, "groovy-stream-prefetch" ) ;
+        producer.setDaemon( true ) ;
+        channel.producer = producer ;
+        producer.start() ;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void loadNext() {
+        if( channel.producer == null ) {
+            start() ;
+        }
+        channel.consumer = Thread.currentThread() ;
+        long position = channel.head ;
+        for( int spins = 0 ; position == channel.tail ; spins++ ) {
+            if( channel.finished && position == channel.tail ) {
+                exhausted = true ;
+                watched.remove( watch ) ;
+                rethrow( channel.error ) ;
+                return ;
+            }
+            if( spins > SPINS ) {
+                LockSupport.park( this ) ;
+            }
+        }
+        int slot = (int)( position % channel.capacity ) ;
+        Object value = channel.buffer[ slot ] ;
+        channel.buffer[ slot ] = null ;
+        channel.head = position + 1 ;
+        LockSupport.unpark( channel.producer ) ;
+        current = value == NULL ? null : (T)value ;
+    }
+
+    /**
+     * Stops the background thread, and drops any elements it has read ahead.
+     */
+    @Override
+    public void close() {
+        watched.remove( watch ) ;
+        channel.cancel() ;
+        exhausted = true ;
+        loaded = true ;
+    }
+
+    private static synchronized void startReaper() {
+        if( reaper != null ) {
+            return ;
+        }
+        reaper = new Thread( new Runnable() {
+            @Override
+            public void run() {
+                while( true ) {
+                    try {
+                        Watch watch = (Watch)dropped.remove() ;
+                        if( watched.remove( watch ) ) {
+                            watch.channel.cancel() ;
+                        }
+                    }
+                    catch( InterruptedException ex ) {
+                        // Keep watching
+                    }
+                }
+            }
+        }, "groovy-stream-prefetch-reaper" ) ;
+        reaper.setDaemon( true ) ;
+        reaper.start() ;
+    }
+
+    private static void rethrow( Throwable t ) {
+        if( t == null ) {
+            return ;
+        }
+        if( t instanceof RuntimeException ) {
+            throw (RuntimeException)t ;
+        }
+        if( t instanceof Error ) {
+            throw (Error)t ;
+        }
+        throw new RuntimeException( t ) ;
+    }
+
+    /**
+     * Tells the reaper when a {@code PrefetchIterator} has been dropped, so its channel
+     * can be cancelled.
+     */
+    private static class Watch extends WeakReference<Object> {
+        final Channel channel ;
+
+        Watch( Object iterator, Channel channel ) {
+            super( iterator, dropped ) ;
+            this.channel = channel ;
+        }
+    }
+
+    /**
+     * The state shared by both sides, and the work of the background thread.
+     */
+    private static class Channel implements Runnable {
+        final Iterator<?> source ;
+        final Object[]    buffer ;
+        final int         capacity ;
+
+        volatile long      head = 0 ;
+        volatile long      tail = 0 ;
+        volatile boolean   finished = false ;
+        volatile boolean   cancelled = false ;
+        volatile Throwable error ;
+        volatile Thread    consumer ;
+        volatile Thread    producer ;
+
+        Channel( Iterator<?> source, int capacity ) {
+            this.source = source ;
+            this.capacity = capacity ;
+            this.buffer = new Object[ capacity ] ;
+        }
+
+        void cancel() {
+            cancelled = true ;
+            Thread thread = producer ;
+            if( thread != null ) {
+                LockSupport.unpark( thread ) ;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while( !cancelled && source.hasNext() ) {
+                    Object value = source.next() ;
+                    long position = tail ;
+                    for( int spins = 0 ; position - head == capacity ; spins++ ) {
+                        if( cancelled ) {
+                            return ;
+                        }
+                        if( spins > SPINS ) {
+                            LockSupport.park( this ) ;
+                        }
+                    }
+                    buffer[ (int)( position % capacity ) ] = value == null ? NULL : value ;
+                    tail = position + 1 ;
+                    LockSupport.unpark( consumer ) ;
+                }
+            }
+            catch( Throwable t ) {
+                error = t ;
+            }
+            finally {
+                finished = true ;
+                if( cancelled ) {
+                    Arrays.fill( buffer, null ) ;
+                }
+                LockSupport.unpark( consumer ) ;
+            }
+        }
+    }
+}
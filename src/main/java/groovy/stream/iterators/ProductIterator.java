@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.Map ;
+
+/**
+ * Iterates the combinations of a list of {@link Dimension}s depth first, with the last
+ * dimension changing fastest, like a {@link MapIterator}.
+ *
+ * Each {@link Dimension} is asked for its values once the dimensions before it have been
+ * assigned, so its values may depend on theirs, and as soon as a value is assigned the
+ * {@link Dimension} is asked whether the partial combination is acceptable.  If it is not,
+ * every combination that starts with it is skipped without being built.
+ *
+ * Each combination is returned as a new, mutable {@link java.util.LinkedHashMap}.  If
+ * {@code reuse} is set, the same read-only {@link Combination} is returned instead, updated in
+ * place for each element, so it is only valid until the next element and callers must copy any
+ * they want to keep.  The partial combinations passed to a {@link Dimension} are always shared.
+ */
+public class ProductIterator<K,V> extends AbstractIterator<Map<K,V>> {
+    /**
+     * One key of a {@link ProductIterator}.
+     */
+    public static abstract class Dimension<K,V> {
+        private final K key ;
+
+        protected Dimension( K key ) {
+            this.key = key ;
+        }
+
+        public K getKey() {
+            return key ;
+        }
+
+        /**
+         * @param earlier the values assigned to the dimensions before this one.
+         * @return the values for this dimension.
+         */
+        protected abstract Iterator<? extends V> values( Map<K,V> earlier ) ;
+
+        /**
+         * @param partial the values assigned to this dimension and the ones before it.
+         * @return {@code false} to skip every combination which starts with {@code partial}.
+         */
+        protected abstract boolean accept( Map<K,V> partial ) ;
+    }
+
+    private final Dimension<K,V>[]    dimensions ;
+    private final Combination<K,V>[]  partials ;
+    private final Iterator<?>[]       open ;
+    private final Object[]            keys ;
+    private final Object[]            values ;
+    private final boolean             reuse ;
+    private final Combination<K,V>    empty ;
+    private final Combination<K,V>    shared ;
+
+    private int level = 0 ;
+
+    public ProductIterator( List<? extends Dimension<K,V>> dimensions ) {
+        this( dimensions, false ) ;
+    }
+
+    public ProductIterator( List<? extends Dimension<K,V>> dimensions, boolean reuse ) {
+        super( null ) ;
+        int count = dimensions.size() ;
+        // Arrays of a generic type can only be created raw
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        Dimension<K,V>[] levels = dimensions.toArray( new Dimension[ count ] ) ;
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        Combination<K,V>[] prefixes = new Combination[ count ] ;
+        this.dimensions = levels ;
+        this.partials = prefixes ;
+        this.open = new Iterator<?>[ count ] ;
+        this.keys = new Object[ count ] ;
+        this.values = new Object[ count ] ;
+        this.reuse = reuse ;
+        for( int i = 0 ; i < count ; i++ ) {
+            keys[ i ] = this.dimensions[ i ].getKey() ;
+        }
+        for( int i = 0 ; i < count ; i++ ) {
+            Object[] prefix = new Object[ i + 1 ] ;
+            System.arraycopy( keys, 0, prefix, 0, i + 1 ) ;
+            partials[ i ] = new Combination<K,V>( prefix, values ) ;
+        }
+        this.empty = new Combination<K,V>( new Object[ 0 ], new Object[ 0 ] ) ;
+        this.shared = reuse ? new Combination<K,V>( keys, values ) : null ;
+    }
+
+    @Override
+    protected void loadNext() {
+        int last = dimensions.length - 1 ;
+        if( last < 0 ) {
+            // The product of no dimensions is a single empty combination
+            if( level == 0 ) {
+                level = -1 ;
+                current = empty ;
+            }
+            else {
+                exhausted = true ;
+            }
+            return ;
+        }
+        while( level >= 0 ) {
+            if( open[ level ] == null ) {
+                open[ level ] = dimensions[ level ].values( level == 0 ? empty : partials[ level - 1 ] ) ;
+            }
+            if( !open[ level ].hasNext() ) {
+                open[ level ] = null ;
+                level-- ;
+                continue ;
+            }
+            values[ level ] = open[ level ].next() ;
+            if( !dimensions[ level ].accept( partials[ level ] ) ) {
+                continue ;
+            }
+            if( level == last ) {
+                current = reuse ? shared : Combination.<K,V>copyOf( keys, values ) ;
+                return ;
+            }
+            level++ ;
+        }
+        exhausted = true ;
+    }
+}
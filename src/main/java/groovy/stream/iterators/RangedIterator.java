@@ -0,0 +1,38 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.util.List ;
+
+/**
+ * A {@link SizedIterator} whose remaining elements can be viewed a range at a time by
+ * {@code long} index, so that a {@link ParallelIterator} or {@link ParallelCollector} can
+ * share them out even when there are more than a {@link List} can index.
+ */
+public interface RangedIterator<T> extends SizedIterator<T> {
+    /**
+     * Views some of the remaining elements, without moving this iterator.
+     *
+     * @param from The index of the first element to view, where {@code 0} is the next
+     *             element this iterator would return.
+     * @param to   One past the index of the last element to view.
+     * @return A read-only, random access view of the elements from {@code from} up to {@code to}.
+     * @throws IndexOutOfBoundsException if the range is outside the remaining elements, or
+     *         holds more than {@link Integer#MAX_VALUE} of them.
+     */
+    List<T> range( long from, long to ) ;
+}
@@ -14,59 +14,123 @@
  * limitations under the License.
  */
 
-package groovy.stream.iterators;
+package groovy.stream.iterators ;
 
+import groovy.stream.stages.Stage ;
+import java.util.Iterator ;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.NoSuchElementException;
-import java.util.Queue;
+/**
+ * Repeats the elements of an {@link Iterator} a number of times, or {@link #FOREVER}.
+ *
+ * Given a {@link RestartableIterator} and the {@link Stage}s to run over it, each pass after
+ * the first reads the source again and runs copies of the stages, so nothing is kept between
+ * passes.  Otherwise the first pass is recorded in a {@link ReplayBuffer}, which may keep only
+ * {@code maxBuffered} elements in memory and spill the rest to disk.
+ */
+@SuppressWarnings( { "rawtypes", "unchecked" } )
+public class RepeatingIterator<T> extends AbstractIterator<T> {
+    public static final int FOREVER = -65536 ;
 
-public class RepeatingIterator<T> implements Iterator<T> {
-    private static final Integer FOREVER = -65536;
-    private final Queue<T> queue = new LinkedList<T>();
-    private boolean repeating;
-    private Integer nRepeats;
-    private Iterator<T> current;
+    private final RestartableIterator<?> source ;
+    private final Stage[]                stages ;
+    private final ReplayBuffer<T>        buffer ;
+    private final boolean                forever ;
 
-    public RepeatingIterator(Iterator<T> parent) {
-        this(parent, FOREVER);
+    private Iterator<?> restarted ;
+    private Iterator<T> pass ;
+    private int         remaining ;
+    private boolean     recording ;
+    private boolean     seen = false ;
+
+    public RepeatingIterator( Iterator<T> parent ) {
+        this( parent, FOREVER ) ;
     }
 
-    public RepeatingIterator(Iterator<T> parent, Integer nRepeats) {
-        if(nRepeats < 0 && !nRepeats.equals(FOREVER)) {
-            throw new IllegalArgumentException("Cannot repeat a negative number of times");
-        }
-        this.nRepeats = nRepeats;
-        this.current = nRepeats == 0 ? new EmptyIterator<T>() : parent;
-        this.repeating = false;
+    public RepeatingIterator( Iterator<T> parent, Integer nRepeats ) {
+        this( parent, nRepeats, -1 ) ;
     }
 
-    @Override
-    public boolean hasNext() {
-        return nRepeats == FOREVER || nRepeats > 1 || current.hasNext();
+    /**
+     * @param parent The elements to repeat.
+     * @param nRepeats How many times to return the elements, or {@link #FOREVER}.
+     * @param maxBuffered The most elements to keep in memory, or {@code -1} for no limit.
+     */
+    public RepeatingIterator( Iterator<T> parent, Integer nRepeats, long maxBuffered ) {
+        this( null, null, null, parent, nRepeats, maxBuffered ) ;
     }
 
-    @Override
-    public void remove() {
-        throw new UnsupportedOperationException() ;
+    /**
+     * @param source The source of the elements, which is read again for each pass if it can be.
+     * @param stages The stages to run over the source.
+     * @param nRepeats How many times to return the elements, or {@link #FOREVER}.
+     * @param maxBuffered The most elements to keep in memory if the source cannot be read again,
+     *                    or {@code -1} for no limit.
+     */
+    public RepeatingIterator( RestartableIterator<?> source, Stage<?,?>[] stages, Integer nRepeats, long maxBuffered ) {
+        this( source, stages, source.restart(), null, nRepeats, maxBuffered ) ;
+    }
+
+    private RepeatingIterator( RestartableIterator<?> source, Stage<?,?>[] stages, Iterator<?> restarted, Iterator<T> parent, Integer nRepeats, long maxBuffered ) {
+        super( null ) ;
+        if( nRepeats < 0 && !nRepeats.equals( FOREVER ) ) {
+            throw new IllegalArgumentException( "Cannot repeat a negative number of times" ) ;
+        }
+        this.forever = nRepeats.equals( FOREVER ) ;
+        this.remaining = nRepeats ;
+        if( source != null ) {
+            parent = stages.length == 0 ? (Iterator<T>)source : new FusedIterator<T>( source, stages ) ;
+        }
+        this.pass = nRepeats == 0 ? new EmptyIterator<T>() : parent ;
+        this.restarted = restarted ;
+        this.source = restarted == null ? null : source ;
+        this.stages = stages ;
+        this.recording = restarted == null && ( forever || nRepeats > 1 ) ;
+        this.buffer = recording ? new ReplayBuffer<T>( maxBuffered ) : null ;
     }
 
     @Override
-    public T next() {
-        if (!current.hasNext()) {
-            if (nRepeats == FOREVER || nRepeats-- > 1) {
-                this.repeating = true;
-                current = queue.iterator();
+    protected void loadNext() {
+        while( true ) {
+            if( pass.hasNext() ) {
+                current = pass.next() ;
+                if( recording ) {
+                    buffer.add( current ) ;
+                }
+                seen = true ;
+                return ;
+            }
+            if( recording ) {
+                recording = false ;
+                buffer.finish() ;
+            }
+            if( !seen || ( !forever && remaining <= 1 ) ) {
+                exhausted = true ;
+                if( buffer != null ) {
+                    buffer.close() ;
+                }
+                return ;
             }
-            else {
-                throw new NoSuchElementException("RepeatingIterator has been exhausted and contains no more elements");
+            if( !forever ) {
+                remaining-- ;
             }
+            seen = false ;
+            pass = nextPass() ;
+        }
+    }
+
+    private Iterator<T> nextPass() {
+        if( buffer != null ) {
+            return buffer.iterator() ;
+        }
+        Iterator<?> input = restarted != null ? restarted : source.restart() ;
+        restarted = null ;
+        if( stages.length == 0 ) {
+            return (Iterator<T>)input ;
         }
-        T ret = current.next();
-        if (!repeating) {
-            queue.offer(ret);
+        Stage[] copies = new Stage[ stages.length ] ;
+        for( int i = 0 ; i < stages.length ; i++ ) {
+            copies[ i ] = stages[ i ].copy() ;
         }
-        return ret;
+        return new FusedIterator<T>( input, copies ) ;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.io.BufferedInputStream ;
+import java.io.BufferedOutputStream ;
+import java.io.EOFException ;
+import java.io.File ;
+import java.io.FileInputStream ;
+import java.io.FileOutputStream ;
+import java.io.IOException ;
+import java.io.ObjectInputStream ;
+import java.io.ObjectOutputStream ;
+import java.util.ArrayList ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.NoSuchElementException ;
+
+/**
+ * Records a sequence of elements so it can be read back any number of times.
+ *
+ * Elements are held in arrays which double in size up to {@value #MAX_CHUNK} elements, so
+ * there is no per-element overhead beyond a reference.  If {@code maxBuffered} is given, only
+ * that many elements are kept in memory, and the rest are serialized to a temporary file, so
+ * they must be {@link java.io.Serializable}.  The file is removed by {@link #close()}.
+ */
+public class ReplayBuffer<T> implements Iterable<T> {
+    private static final int MIN_CHUNK = 16 ;
+    private static final int MAX_CHUNK = 4096 ;
+
+    private final long           maxBuffered ;
+    private final List<Object[]> chunks = new ArrayList<Object[]>() ;
+
+    private Object[]           tail ;
+    private int                tailSize ;
+    private long               buffered ;
+    private long               spilled ;
+    private File               file ;
+    private ObjectOutputStream out ;
+    private boolean            finished ;
+
+    public ReplayBuffer() {
+        this( -1 ) ;
+    }
+
+    /**
+     * @param maxBuffered The most elements to keep in memory, or {@code -1} for no limit.
+     */
+    public ReplayBuffer( long maxBuffered ) {
+        this.maxBuffered = maxBuffered ;
+    }
+
+    public void add( T element ) {
+        if( finished ) {
+            throw new IllegalStateException( "ReplayBuffer has been finished" ) ;
+        }
+        if( maxBuffered >= 0 && buffered >= maxBuffered ) {
+            spill( element ) ;
+            return ;
+        }
+        if( tail == null || tailSize == tail.length ) {
+            tail = new Object[ tail == null ? MIN_CHUNK : Math.min( tail.length * 2, MAX_CHUNK ) ] ;
+            tailSize = 0 ;
+            chunks.add( tail ) ;
+        }
+        tail[ tailSize++ ] = element ;
+        buffered++ ;
+    }
+
+    /**
+     * @return The number of elements added.
+     */
+    public long size() {
+        return buffered + spilled ;
+    }
+
+    /**
+     * @return The number of elements written to the temporary file.
+     */
+    public long spilled() {
+        return spilled ;
+    }
+
+    /**
+     * Stop adding elements, and flush any that were spilled.
+     */
+    public void finish() {
+        if( !finished ) {
+            finished = true ;
+            if( out != null ) {
+                try {
+                    out.close() ;
+                }
+                catch( IOException ex ) {
+                    throw new RuntimeException( "Could not write to " + file, ex ) ;
+                }
+                out = null ;
+            }
+        }
+    }
+
+    /**
+     * Drop every element, and delete the temporary file if there is one.
+     */
+    public void close() {
+        finished = true ;
+        chunks.clear() ;
+        tail = null ;
+        if( out != null ) {
+            try {
+                out.close() ;
+            }
+            catch( IOException ex ) {
+                // Deleting it anyway
+            }
+            out = null ;
+        }
+        if( file != null ) {
+            file.delete() ;
+            file = null ;
+        }
+    }
+
+    private void spill( T element ) {
+        try {
+            if( out == null ) {
+                file = File.createTempFile( "groovy-stream-", ".replay" ) ;
+                file.deleteOnExit() ;
+                out = new ObjectOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) ) ;
+            }
+            out.writeObject( element ) ;
+            spilled++ ;
+            if( spilled % MAX_CHUNK == 0 ) {
+                // Stop the stream holding a reference to everything it has written
+                out.reset() ;
+            }
+        }
+        catch( IOException ex ) {
+            throw new RuntimeException( "Could not spill element " + size() + " to " + file, ex ) ;
+        }
+    }
+
+    /**
+     * @return An {@link Iterator} over every element added, in order.
+     * @throws IllegalStateException if {@link #finish()} has not been called.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        if( !finished ) {
+            throw new IllegalStateException( "ReplayBuffer must be finished before it is read" ) ;
+        }
+        return new Replay() ;
+    }
+
+    private class Replay extends AbstractIterator<T> {
+        private int               chunk = 0 ;
+        private int               offset = 0 ;
+        private long              remaining = buffered ;
+        private long              unread = spilled ;
+        private ObjectInputStream in ;
+
+        Replay() {
+            super( null ) ;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void loadNext() {
+            if( remaining > 0 ) {
+                Object[] array = chunks.get( chunk ) ;
+                current = (T)array[ offset++ ] ;
+                if( offset == array.length ) {
+                    chunk++ ;
+                    offset = 0 ;
+                }
+                remaining-- ;
+                return ;
+            }
+            if( unread > 0 ) {
+                try {
+                    if( in == null ) {
+                        in = new ObjectInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) ;
+                    }
+                    current = (T)in.readObject() ;
+                    if( --unread == 0 ) {
+                        in.close() ;
+                        in = null ;
+                    }
+                    return ;
+                }
+                catch( EOFException ex ) {
+                    throw new NoSuchElementException( "Spilled elements are missing from " + file ) ;
+                }
+                catch( IOException ex ) {
+                    throw new RuntimeException( "Could not read spilled elements from " + file, ex ) ;
+                }
+                catch( ClassNotFoundException ex ) {
+                    throw new RuntimeException( "Could not read spilled elements from " + file, ex ) ;
+                }
+            }
+            exhausted = true ;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+
+/**
+ * An {@link Iterator} over a source which can be read again from the start, such as a
+ * {@link java.util.Collection} or an array, so it never needs to be cached to be repeated.
+ */
+public interface RestartableIterator<T> extends Iterator<T> {
+    /**
+     * @return A new {@link Iterator} over every element of the source from the first, which
+     *         leaves this one where it is, or {@code null} if the source can only be read once.
+     */
+    Iterator<T> restart() ;
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+
+/**
+ * An {@link Iterator} that knows roughly how many elements it has left, and what
+ * is known about their order.  Callers use this to presize buffers and to split
+ * work evenly.
+ */
+public interface SizedIterator<T> extends Iterator<T> {
+    /**
+     * {@link #estimateSize()} is the exact number of elements left.
+     */
+    int SIZED = 0x01 ;
+
+    /**
+     * The elements are returned in ascending order.
+     */
+    int SORTED = 0x02 ;
+
+    /**
+     * No element is returned more than once.
+     */
+    int DISTINCT = 0x04 ;
+
+    /**
+     * @return The number of elements left, which is exact if the {@link #SIZED} flag is
+     *         set and an estimate otherwise, or {@code -1} if it is not known.
+     */
+    long estimateSize() ;
+
+    /**
+     * @return A combination of the {@link #SIZED}, {@link #SORTED} and {@link #DISTINCT} flags.
+     */
+    int characteristics() ;
+}
@@ -18,16 +18,19 @@ package groovy.stream.iterators ;
 
 import java.util.Iterator ;
 
-public class SkipIterator<T> extends AbstractIterator<T> {
-    private int     numberToSkip ;
+public class SkipIterator<T> extends AbstractIterator<T> implements SizedIterator<T> {
+    private long    numberToSkip ;
 
-    public SkipIterator( Iterator<T> parentIterator, int numberToSkip ) {
+    public SkipIterator( Iterator<T> parentIterator, long numberToSkip ) {
         super( parentIterator ) ;
         this.numberToSkip = numberToSkip ;
     }
 
     @Override
     protected void loadNext() {
+        if( numberToSkip > 0 && iterator instanceof SkippableIterator ) {
+            numberToSkip -= ( (SkippableIterator<?>)iterator ).skip( numberToSkip ) ;
+        }
         while( !exhausted ) {
             if( numberToSkip-- <= 0 ) {
                 break ;
@@ -46,4 +49,21 @@ public class SkipIterator<T> extends AbstractIterator<T> {
             exhausted = true ;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public long estimateSize() {
+        long size = iterator instanceof SizedIterator ? ( (SizedIterator<T>)iterator ).estimateSize() : -1 ;
+        if( loaded ) {
+            return exhausted ? 0 : size < 0 ? size : size + 1 ;
+        }
+        return size < 0 ? size : Math.max( 0, size - Math.max( 0, numberToSkip ) ) ;
+    }
+
+    @Override
+    public int characteristics() {
+        if( loaded && exhausted ) {
+            return SIZED ;
+        }
+        return iterator instanceof SizedIterator ? ( (SizedIterator<T>)iterator ).characteristics() : 0 ;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+
+/**
+ * An {@link Iterator} that can move past elements more cheaply than reading them
+ * one at a time, such as by jumping an index or seeking in a file.
+ *
+ * {@link SkipIterator} checks for this interface, so {@code Stream.skip} is passed
+ * down to any source that implements it.
+ */
+public interface SkippableIterator<T> extends Iterator<T> {
+    /**
+     * Moves past the next {@code n} elements.
+     *
+     * @param n The number of elements to skip.
+     * @return The number of elements skipped. This is less than {@code n} only
+     *         if the iterator ran out of elements.
+     */
+    long skip( long n ) ;
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.ListIterator ;
+
+/**
+ * A {@link ListIterator} over a random access {@link List} which skips by starting
+ * a new {@link ListIterator} further down the {@link List}.
+ */
+public class SkippableListIterator<T> implements ListIterator<T>, SkippableIterator<T>, SizedIterator<T>, RestartableIterator<T> {
+    private final List<T>   list ;
+    private final int       characteristics ;
+    private ListIterator<T> delegate ;
+
+    public SkippableListIterator( List<T> list ) {
+        this( list, 0 ) ;
+    }
+
+    public SkippableListIterator( List<T> list, int characteristics ) {
+        this.list = list ;
+        this.characteristics = characteristics | SIZED ;
+        this.delegate = list.listIterator() ;
+    }
+
+    @Override
+    public long estimateSize() {
+        return list.size() - delegate.nextIndex() ;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics ;
+    }
+
+    @Override
+    public Iterator<T> restart() {
+        return new SkippableListIterator<T>( list, characteristics ) ;
+    }
+
+    @Override
+    public long skip( long n ) {
+        int from = delegate.nextIndex() ;
+        int size = list.size() ;
+        int to = n <= 0 ? from : n >= size - from ? Math.max( from, size ) : (int)( from + n ) ;
+        if( to > from ) {
+            delegate = list.listIterator( to ) ;
+        }
+        return to - from ;
+    }
+
+    @Override public boolean hasNext()     { return delegate.hasNext() ; }
+    @Override public T next()              { return delegate.next() ; }
+    @Override public boolean hasPrevious() { return delegate.hasPrevious() ; }
+    @Override public T previous()          { return delegate.previous() ; }
+    @Override public int nextIndex()       { return delegate.nextIndex() ; }
+    @Override public int previousIndex()   { return delegate.previousIndex() ; }
+    @Override public void remove()         { delegate.remove() ; }
+    @Override public void set( T value )   { delegate.set( value ) ; }
+    @Override public void add( T value )   { delegate.add( value ) ; }
+}
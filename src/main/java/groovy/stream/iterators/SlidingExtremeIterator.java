@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+/**
+ * Returns the minimum (or maximum) of each window of {@code size} consecutive elements.
+ *
+ * Candidates are kept in a monotonic deque: any element that can never be the answer
+ * for a later window (as a newer one beats it) is dropped as soon as that newer one
+ * arrives.  Each element is added and removed at most once, so the cost per element
+ * does not depend on the size of the window.
+ */
+public class SlidingExtremeIterator<T> extends AbstractIterator<T> {
+    private final Iterator<T> parent ;
+    private final int         size ;
+    private final boolean     max ;
+    private final Object[]    values ;
+    private final long[]      positions ;
+
+    private int  head = 0 ;
+    private int  count = 0 ;
+    private long read = 0 ;
+
+    public SlidingExtremeIterator( Iterator<T> parent, int size, boolean max ) {
+        super( null ) ;
+        if( size < 1 ) {
+            throw new IllegalArgumentException( "Window size must be > 0" ) ;
+        }
+        this.parent = parent ;
+        this.size = size ;
+        this.max = max ;
+        this.values = new Object[ size ] ;
+        this.positions = new long[ size ] ;
+    }
+
+    private boolean beats( Object value, Object other ) {
+        int comparison = DefaultTypeTransformation.compareTo( value, other ) ;
+        return max ? comparison >= 0 : comparison <= 0 ;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void loadNext() {
+        while( parent.hasNext() ) {
+            T value = parent.next() ;
+            long position = read++ ;
+            while( count > 0 && beats( value, values[ ( head + count - 1 ) % size ] ) ) {
+                count-- ;
+            }
+            if( count > 0 && positions[ head ] <= position - size ) {
+                head = ( head + 1 ) % size ;
+                count-- ;
+            }
+            int tail = ( head + count ) % size ;
+            values[ tail ] = value ;
+            positions[ tail ] = position ;
+            count++ ;
+            if( read >= size ) {
+                current = (T)values[ head ] ;
+                return ;
+            }
+        }
+        exhausted = true ;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators ;
+
+import java.util.Iterator ;
+import org.codehaus.groovy.runtime.typehandling.NumberMath ;
+
+/**
+ * Returns the sum (or average) of each window of {@code size} consecutive numbers.
+ *
+ * The last {@code size} numbers are kept in a ring buffer, and the running total has
+ * the oldest one taken off as each new one is added, so each element costs the same
+ * no matter how large the window is.
+ *
+ * Taking {@code double}s off a running total leaves rounding errors behind, so while the
+ * total is a {@link Double} or {@link Float} it is added up again from the ring buffer once
+ * every {@code size} elements.  Every {@code size}th window is then exactly the sum of its
+ * numbers in order, and the windows between may differ from that in the last few bits.
+ */
+public class SlidingSumIterator extends AbstractIterator<Number> {
+    private final Iterator<? extends Number> parent ;
+    private final Number[]                   window ;
+    private final boolean                    average ;
+
+    private Number sum = 0 ;
+    private int    filled = 0 ;
+    private int    position = 0 ;
+
+    public SlidingSumIterator( Iterator<? extends Number> parent, int size, boolean average ) {
+        super( null ) ;
+        if( size < 1 ) {
+            throw new IllegalArgumentException( "Window size must be > 0" ) ;
+        }
+        this.parent = parent ;
+        this.window = new Number[ size ] ;
+        this.average = average ;
+    }
+
+    @Override
+    protected void loadNext() {
+        while( parent.hasNext() ) {
+            Number value = parent.next() ;
+            if( filled == window.length ) {
+                sum = NumberMath.subtract( sum, window[ position ] ) ;
+            }
+            else {
+                filled++ ;
+            }
+            window[ position ] = value ;
+            position = ( position + 1 ) % window.length ;
+            sum = NumberMath.add( sum, value ) ;
+            if( position == 0 && ( sum instanceof Double || sum instanceof Float ) ) {
+                sum = resum() ;
+            }
+            if( filled == window.length ) {
+                current = average ? NumberMath.divide( sum, window.length ) : sum ;
+                return ;
+            }
+        }
+        exhausted = true ;
+    }
+
+    /**
+     * Adds up the ring buffer from its oldest number, which is at {@code position}.
+     */
+    private Number resum() {
+        Number total = 0 ;
+        for( int i = 0 ; i < filled ; i++ ) {
+            total = NumberMath.add( total, window[ ( position + i ) % window.length ] ) ;
+        }
+        return total ;
+    }
+}
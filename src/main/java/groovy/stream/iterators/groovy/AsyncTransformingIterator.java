@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators.groovy ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.AbstractAsyncIterator ;
+import groovy.stream.iterators.DaemonThreadFactory ;
+import java.util.Iterator ;
+import java.util.concurrent.Callable ;
+import java.util.concurrent.Executor ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Future ;
+import java.util.concurrent.FutureTask ;
+
+/**
+ * Runs a {@link Closure} over each element on an {@link Executor}.  If none is given, a pool
+ * is created whose threads exit once idle, so a stream which is not read to the end does
+ * not keep them; it is shut down when the input runs out or the iterator is closed.
+ */
+public class AsyncTransformingIterator<T,U> extends AbstractAsyncIterator<T,U> {
+    private final Executor               executor ;
+    private final ExecutorService        owned ;
+    private final ThreadLocal<Closure<U>> mapping ;
+
+    public AsyncTransformingIterator( Iterator<T> iterator, int maxInFlight, Executor executor, final Closure<U> mapping ) {
+        super( iterator, maxInFlight ) ;
+        this.owned = executor == null ? DaemonThreadFactory.newPool( maxInFlight ) : null ;
+        this.executor = executor == null ? owned : executor ;
+        this.mapping = mapping == null ? null : new ThreadLocal<Closure<U>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected Closure<U> initialValue() {
+                return (Closure<U>)mapping.clone() ;
+            }
+        } ;
+    }
+
+    @Override
+    protected Future<U> start( final T value ) {
+        FutureTask<U> task = new FutureTask<U>( new Callable<U>() {
+            @Override
+            public U call() {
+                return getMappedValue( value ) ;
+            }
+        } ) ;
+        executor.execute( task ) ;
+        return task ;
+    }
+
+    @Override
+    protected void finish() {
+        if( owned != null ) {
+            owned.shutdownNow() ;
+        }
+    }
+
+    protected U getMappedValue( T value ) {
+        Closure<U> closure = mapping.get() ;
+        closure.setDelegate( value ) ;
+        return closure.call( value ) ;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators.groovy ;
+
+import groovy.lang.Closure ;
+import java.lang.reflect.InvocationTargetException ;
+import java.lang.reflect.Method ;
+import org.codehaus.groovy.runtime.GeneratedClosure ;
+import org.codehaus.groovy.runtime.metaclass.ClosureMetaClass ;
+
+/**
+ * Calls a {@link Closure} with a fixed number of arguments, without going through its
+ * {@link groovy.lang.MetaClass} for every call.
+ *
+ * When the {@link Closure} is one the compiler generated, and takes exactly that many untyped
+ * parameters, its {@code doCall} method is looked up once and invoked directly.  Any other
+ * {@link Closure} (curried, typed, taking a different number of parameters, or with its own
+ * {@link groovy.lang.MetaClass}) is called as normal, so Groovy can coerce the arguments.
+ *
+ * What a direct call saves is the {@link groovy.lang.MetaClass} dispatch.  It is still a
+ * reflective call, which is passed an argument array.  Once the call is compiled, the JIT
+ * can usually drop a single argument's array, but not always those of two or three, and an
+ * {@code int} index is boxed whenever it is passed.  So a closure taking one element costs
+ * no allocation per call, but one also taking its index may.  Closures which are not called
+ * directly allocate as {@link Closure#call(Object...)} does.
+ */
+public class ClosureInvoker<V> {
+    private final Closure<V> closure ;
+    private final Method     doCall ;
+
+    private ClosureInvoker( Closure<V> closure, Method doCall ) {
+        this.closure = closure ;
+        this.doCall = doCall ;
+    }
+
+    /**
+     * @param closure the {@link Closure} to call, or {@code null}.
+     * @param arity the number of arguments it will be called with.
+     * @return an invoker for {@code closure}, or {@code null} if it was {@code null}.
+     */
+    public static <V> ClosureInvoker<V> of( Closure<V> closure, int arity ) {
+        return closure == null ? null : new ClosureInvoker<V>( closure, findDoCall( closure, arity ) ) ;
+    }
+
+    /**
+     * @return an invoker for a clone of the {@link Closure}, which skips looking up {@code doCall} again.
+     */
+    @SuppressWarnings("unchecked")
+    public ClosureInvoker<V> copy() {
+        return new ClosureInvoker<V>( (Closure<V>)closure.clone(), doCall ) ;
+    }
+
+    public Closure<V> getClosure() {
+        return closure ;
+    }
+
+    private static Method findDoCall( Closure<?> closure, int arity ) {
+        if( !( closure instanceof GeneratedClosure ) ||
+            closure.getMetaClass().getClass() != ClosureMetaClass.class ||
+            closure.getMaximumNumberOfParameters() != arity ) {
+            return null ;
+        }
+        Class<?>[] types = closure.getParameterTypes() ;
+        if( types.length != arity ) {
+            return null ;
+        }
+        for( Class<?> type : types ) {
+            if( type != Object.class ) {
+                return null ;
+            }
+        }
+        try {
+            Method method = closure.getClass().getDeclaredMethod( "doCall", types ) ;
+            method.setAccessible( true ) ;
+            return method ;
+        }
+        catch( NoSuchMethodException ex ) {
+            return null ;
+        }
+        catch( SecurityException ex ) {
+            return null ;
+        }
+    }
+
+    /**
+     * @return {@code true} if calls skip the {@link groovy.lang.MetaClass}.
+     */
+    public boolean isDirect() {
+        return doCall != null ;
+    }
+
+    public V call( Object argument ) {
+        return doCall == null ? closure.call( argument ) : invoke( argument ) ;
+    }
+
+    public V call( Object first, Object second ) {
+        return doCall == null ? closure.call( first, second ) : invoke( first, second ) ;
+    }
+
+    public V call( Object first, Object second, Object third ) {
+        return doCall == null ? closure.call( first, second, third ) : invoke( first, second, third ) ;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V invoke( Object... arguments ) {
+        try {
+            return (V)doCall.invoke( closure, arguments ) ;
+        }
+        catch( InvocationTargetException ex ) {
+            // Rethrow whatever the closure threw, as calling it normally would
+            ClosureInvoker.<RuntimeException>rethrow( ex.getCause() ) ;
+            return null ;
+        }
+        catch( IllegalAccessException ex ) {
+            throw new IllegalStateException( "Cannot call " + doCall, ex ) ;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> void rethrow( Throwable cause ) throws E {
+        throw (E)cause ;
+    }
+}
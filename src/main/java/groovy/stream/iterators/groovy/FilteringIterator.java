@@ -22,13 +22,15 @@ import java.util.Iterator ;
 import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
 
 public class FilteringIterator<T> extends AbstractIterator<T> {
-    private   final Closure<Boolean> predicate ;
-    private   final boolean withIndex ;
-    protected int     index = 0 ;
+    private   final Closure<Boolean>        predicate ;
+    private   final ClosureInvoker<Boolean> invoker ;
+    private   final boolean                 withIndex ;
+    protected int                           index = 0 ;
 
     public FilteringIterator( Iterator<T> iterator, Closure<Boolean> predicate, boolean withIndex ) {
         super( iterator ) ;
         this.predicate = predicate ;
+        this.invoker = ClosureInvoker.of( predicate, withIndex ? 2 : 1 ) ;
         this.withIndex = withIndex ;
     }
 
@@ -45,8 +47,8 @@ public class FilteringIterator<T> extends AbstractIterator<T> {
     }
 
     protected boolean callFilter() {
-        return withIndex ? DefaultTypeTransformation.castToBoolean( predicate.call( current, index ) ) :
-                           DefaultTypeTransformation.castToBoolean( predicate.call( current ) );
+        return withIndex ? DefaultTypeTransformation.castToBoolean( invoker.call( current, index ) ) :
+                           DefaultTypeTransformation.castToBoolean( invoker.call( current ) );
     }
 
     protected void setDelegate() {
@@ -18,49 +18,46 @@ package groovy.stream.iterators.groovy ;
 
 import groovy.lang.Closure ;
 import groovy.stream.iterators.AbstractIterator ;
-import java.util.Collection ;
+import groovy.stream.stages.FlatMapStage ;
 import java.util.Iterator ;
-import java.util.LinkedList ;
-import java.util.Queue ;
 
 public class FlatMapIterator<T,U> extends AbstractIterator<U> {
-    protected final Queue<U>    pushback = new LinkedList<U>() ;
-    protected final Iterator<T> inputIterator ;
-    private   final boolean     withIndex ;
-    protected int            index = 0 ;
-    private final Closure<? extends Collection<U>> mapping ;
+    protected final Iterator<T>       inputIterator ;
+    private   final boolean           withIndex ;
+    protected int                     index = 0 ;
+    private   final Closure<?>        mapping ;
+    private   final ClosureInvoker<?> invoker ;
+    private   Iterator<U>             expansion ;
 
-    public FlatMapIterator( Iterator<T> iterator, Closure<? extends Collection<U>> mapping, boolean withIndex ) {
+    public FlatMapIterator( Iterator<T> iterator, Closure<?> mapping, boolean withIndex ) {
         super( null ) ;
         this.mapping = mapping ;
+        this.invoker = ClosureInvoker.of( mapping, withIndex ? 2 : 1 ) ;
         this.inputIterator = iterator ;
         this.withIndex = withIndex ;
     }
 
     @Override
     protected void loadNext() {
-        while( pushback.isEmpty() && inputIterator.hasNext() ) {
+        while( expansion == null || !expansion.hasNext() ) {
+            if( !inputIterator.hasNext() ) {
+                expansion = null ;
+                exhausted = true ;
+                return ;
+            }
             T next = inputIterator.next() ;
             setDelegate( next );
-            Collection<U> mapped = performMapping( next ) ;
+            expansion = FlatMapStage.expand( performMapping( next ) ) ;
             index++ ;
-            for( U element : mapped ) {
-                pushback.offer( element ) ;
-            }
-        }
-        if( !pushback.isEmpty() ) {
-            current = pushback.poll() ;
-        }
-        else {
-            exhausted = true ;
         }
+        current = expansion.next() ;
     }
 
-    protected Collection<U> performMapping( T next ) {
-        return withIndex ? mapping.call( next, index ) : mapping.call( next );
+    protected Object performMapping( T next ) {
+        return withIndex ? invoker.call( next, index ) : invoker.call( next );
     }
 
     protected void setDelegate( T next ) {
         mapping.setDelegate( next ) ;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators.groovy ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.AbstractAsyncIterator ;
+import java.util.Iterator ;
+import java.util.concurrent.Future ;
+
+public class FutureTransformingIterator<T,U> extends AbstractAsyncIterator<T,U> {
+    private final Closure<? extends Future<U>> mapping ;
+
+    public FutureTransformingIterator( Iterator<T> iterator, int maxInFlight, Closure<? extends Future<U>> mapping ) {
+        super( iterator, maxInFlight ) ;
+        this.mapping = mapping ;
+    }
+
+    @Override
+    protected Future<U> start( T value ) {
+        setDelegate( value ) ;
+        return performMapping( value ) ;
+    }
+
+    protected void setDelegate( T value ) {
+        mapping.setDelegate( value ) ;
+    }
+
+    protected Future<U> performMapping( T value ) {
+        return mapping.call( value ) ;
+    }
+}
@@ -22,9 +22,10 @@ import java.util.Iterator ;
 import java.util.NoSuchElementException ;
 
 public class TapIterator<T> extends AbstractIterator<T> {
-    protected final int           every ;
-    private   final boolean       withIndex ;
-    private   final Closure<Void> output ;
+    protected final int                  every ;
+    private   final boolean              withIndex ;
+    private   final Closure<Void>        output ;
+    private   final ClosureInvoker<Void> invoker ;
 
     protected int     index ;
 
@@ -34,6 +35,7 @@ public class TapIterator<T> extends AbstractIterator<T> {
         this.index = 0 ;
         this.withIndex = withIndex ;
         this.output = output ;
+        this.invoker = ClosureInvoker.of( output, withIndex ? 2 : 1 ) ;
     }
 
     @Override
@@ -61,10 +63,10 @@ public class TapIterator<T> extends AbstractIterator<T> {
     protected void performTap( T ret ) {
         if( ++index % every == 0 ) {
             if( withIndex ) {
-                output.call( ret, index - 1 ) ;
+                invoker.call( ret, index - 1 ) ;
             }
             else {
-                output.call( ret ) ;
+                invoker.call( ret ) ;
             }
         }
     }
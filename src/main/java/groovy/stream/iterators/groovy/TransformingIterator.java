@@ -21,15 +21,17 @@ import groovy.stream.iterators.AbstractIterator ;
 import java.util.Iterator ;
 
 public class TransformingIterator<T,U> extends AbstractIterator<U> {
-    protected final Iterator<T> inputIterator ;
-    private   final Closure<U>  mapping ;
-    private   final boolean     withIndex ;
-    protected int               index = 0 ;
+    protected final Iterator<T>       inputIterator ;
+    private   final Closure<U>        mapping ;
+    private   final ClosureInvoker<U> invoker ;
+    private   final boolean           withIndex ;
+    protected int                     index = 0 ;
 
     public TransformingIterator( Iterator<T> iterator, Closure<U> mapping, boolean withIndex ) {
         super( null ) ;
         this.inputIterator = iterator ;
         this.mapping = mapping ;
+        this.invoker = ClosureInvoker.of( mapping, withIndex ? 2 : 1 ) ;
         this.withIndex = withIndex ;
     }
 
@@ -51,6 +53,6 @@ public class TransformingIterator<T,U> extends AbstractIterator<U> {
     }
 
     protected U getMappedValue( T next ) {
-        return withIndex ? mapping.call( next, index ) : mapping.call( next );
+        return withIndex ? invoker.call( next, index ) : invoker.call( next );
     }
 }
\ No newline at end of file
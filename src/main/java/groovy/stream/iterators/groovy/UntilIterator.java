@@ -23,13 +23,15 @@ import java.util.Iterator ;
 import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
 
 public class UntilIterator<T> extends AbstractIterator<T> {
-    private   final Closure<Boolean> predicate ;
-    private   final boolean          withIndex ;
-    protected int     index = 0 ;
+    private   final Closure<Boolean>        predicate ;
+    private   final ClosureInvoker<Boolean> invoker ;
+    private   final boolean                 withIndex ;
+    protected int                           index = 0 ;
 
     public UntilIterator( Iterator<T> iterator, Closure<Boolean> predicate, boolean withIndex ) {
         super( iterator ) ;
         this.predicate = predicate ;
+        this.invoker = ClosureInvoker.of( predicate, withIndex ? 2 : 1 ) ;
         this.withIndex = withIndex ;
     }
 
@@ -54,7 +56,7 @@ public class UntilIterator<T> extends AbstractIterator<T> {
     }
 
     protected boolean performCheck() {
-        return withIndex ? DefaultTypeTransformation.castToBoolean( predicate.call( current, index ) ) :
-                           DefaultTypeTransformation.castToBoolean( predicate.call( current ) );
+        return withIndex ? DefaultTypeTransformation.castToBoolean( invoker.call( current, index ) ) :
+                           DefaultTypeTransformation.castToBoolean( invoker.call( current ) );
     }
 }
\ No newline at end of file
@@ -22,17 +22,19 @@ import java.util.Iterator ;
 import java.util.NoSuchElementException ;
 
 public class ZipIterator<T,U,V> extends AbstractIterator<V> {
-    protected final Iterator<T> iter1 ;
-    protected final Iterator<U> iter2 ;
-    private   final Closure<V>  method ;
-    private   final boolean     withIndex ;
-    protected int   index ;
+    protected final Iterator<T>       iter1 ;
+    protected final Iterator<U>       iter2 ;
+    private   final Closure<V>        method ;
+    private   final ClosureInvoker<V> invoker ;
+    private   final boolean           withIndex ;
+    protected int                     index ;
 
     public ZipIterator( Iterator<T> iter1, Iterator<U> iter2, boolean withIndex, Closure<V> method ) {
         super( null ) ;
         this.iter1 = iter1 ;
         this.iter2 = iter2 ;
         this.method = method ;
+        this.invoker = ClosureInvoker.of( method, withIndex ? 3 : 2 ) ;
         this.withIndex = withIndex ;
         this.loaded = false ;
         this.exhausted = false ;
@@ -58,6 +60,6 @@ public class ZipIterator<T,U,V> extends AbstractIterator<V> {
     }
 
     protected V performZip( T obj1, U obj2 ) {
-        return withIndex ? method.call( obj1, obj2, index ) : method.call( obj1, obj2 ) ;
+        return withIndex ? invoker.call( obj1, obj2, index ) : invoker.call( obj1, obj2 ) ;
     }
 }
\ No newline at end of file
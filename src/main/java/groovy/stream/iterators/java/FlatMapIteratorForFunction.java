@@ -18,13 +18,12 @@ package groovy.stream.iterators.java ;
 
 import groovy.stream.functions.Function ;
 import groovy.stream.iterators.groovy.FlatMapIterator ;
-import java.util.Collection ;
 import java.util.Iterator ;
 
 public class FlatMapIteratorForFunction<T,U> extends FlatMapIterator<T,U> {
-    private final Function<T,? extends Collection<U>> mappingFn ;
+    private final Function<T,?> mappingFn ;
 
-    public FlatMapIteratorForFunction( Iterator<T> iterator, Function<T, ? extends Collection<U>> mapping ) {
+    public FlatMapIteratorForFunction( Iterator<T> iterator, Function<T,?> mapping ) {
         super( iterator, null, false ) ;
         this.mappingFn = mapping ;
     }
@@ -35,7 +34,7 @@ public class FlatMapIteratorForFunction<T,U> extends FlatMapIterator<T,U> {
     }
 
     @Override
-    protected Collection<U> performMapping( T next ) {
+    protected Object performMapping( T next ) {
         return mappingFn.call( next ) ;
     }
 }
\ No newline at end of file
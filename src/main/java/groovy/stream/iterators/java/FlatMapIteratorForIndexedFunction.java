@@ -18,13 +18,12 @@ package groovy.stream.iterators.java ;
 
 import groovy.stream.functions.IndexedFunction ;
 import groovy.stream.iterators.groovy.FlatMapIterator ;
-import java.util.Collection ;
 import java.util.Iterator ;
 
 public class FlatMapIteratorForIndexedFunction<T,U> extends FlatMapIterator<T,U> {
-    private final IndexedFunction<T,? extends Collection<U>> mappingFn ;
+    private final IndexedFunction<T,?> mappingFn ;
 
-    public FlatMapIteratorForIndexedFunction( Iterator<T> iterator, IndexedFunction<T, ? extends Collection<U>> mapping ) {
+    public FlatMapIteratorForIndexedFunction( Iterator<T> iterator, IndexedFunction<T,?> mapping ) {
         super( iterator, null, true ) ;
         this.mappingFn = mapping ;
     }
@@ -35,7 +34,7 @@ public class FlatMapIteratorForIndexedFunction<T,U> extends FlatMapIterator<T,U>
     }
 
     @Override
-    protected Collection<U> performMapping( T next ) {
+    protected Object performMapping( T next ) {
         return mappingFn.call( next, index ) ;
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import java.util.NoSuchElementException ;
+
+public abstract class AbstractIntIterator extends IntIterator {
+    protected final IntIterator iterator ;
+
+    protected int     current ;
+    protected boolean loaded ;
+    protected boolean exhausted ;
+
+    public AbstractIntIterator( IntIterator parentIterator ) {
+        this.iterator = parentIterator ;
+        this.loaded = false ;
+        this.exhausted = false ;
+    }
+
+    protected abstract void loadNext() ;
+
+    @Override
+    public boolean hasNext() {
+        if( !loaded ) {
+            loadNext() ;
+            loaded = true ;
+        }
+        return !exhausted ;
+    }
+
+    @Override
+    public int nextInt() {
+        hasNext() ;
+        if( exhausted ) {
+            throw new NoSuchElementException( "Iterator has been exhausted and contains no more elements" ) ;
+        }
+        loaded = false ;
+        return current ;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import java.util.Iterator ;
+
+/**
+ * An {@link Iterator} over {@code double} values.  Callers which know they have one should
+ * use {@link #nextDouble()}, which does not box the value.
+ */
+public abstract class DoubleIterator implements Iterator<Double> {
+    public abstract double nextDouble() ;
+
+    @Override
+    public Double next() {
+        return nextDouble() ;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException() ;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import java.util.NoSuchElementException ;
+
+public class DoubleLimitedIterator extends DoubleIterator {
+    private final DoubleIterator delegate ;
+    private int              limit ;
+
+    public DoubleLimitedIterator( DoubleIterator delegate, int limit ) {
+        this.delegate = delegate ;
+        this.limit = limit ;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return limit > 0 && delegate.hasNext() ;
+    }
+
+    @Override
+    public double nextDouble() {
+        if( limit <= 0 ) {
+            throw new NoSuchElementException( "DoubleLimitedIterator has been exhausted and contains no more elements" ) ;
+        }
+        double ret = delegate.nextDouble() ;
+        limit-- ;
+        return ret ;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import java.util.NoSuchElementException ;
+
+public class IntRangeIterator extends IntIterator {
+    private final int to ;
+    private int       next ;
+
+    public IntRangeIterator( int from, int to ) {
+        this.next = from ;
+        this.to = to ;
+    }
+
+    public long remaining() {
+        return Math.max( 0L, (long)to - next ) ;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next < to ;
+    }
+
+    @Override
+    public int nextInt() {
+        if( next >= to ) {
+            throw new NoSuchElementException( "IntRangeIterator has been exhausted and contains no more elements" ) ;
+        }
+        return next++ ;
+    }
+}
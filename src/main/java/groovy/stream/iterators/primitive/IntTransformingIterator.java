@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import groovy.stream.functions.IntUnaryFunction ;
+
+public class IntTransformingIterator extends IntIterator {
+    private final IntIterator      iterator ;
+    private final IntUnaryFunction mapping ;
+
+    public IntTransformingIterator( IntIterator iterator, IntUnaryFunction mapping ) {
+        this.iterator = iterator ;
+        this.mapping = mapping ;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return iterator.hasNext() ;
+    }
+
+    @Override
+    public int nextInt() {
+        return mapping.call( iterator.nextInt() ) ;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import java.util.NoSuchElementException ;
+
+public class LongArrayIterator extends LongIterator {
+    private final long[] array ;
+    private int        index ;
+
+    public LongArrayIterator( long[] array ) {
+        this.array = array ;
+        this.index = 0 ;
+    }
+
+    public int remaining() {
+        return array.length - index ;
+    }
+
+    public long skip( long n ) {
+        long skipped = Math.max( 0, Math.min( n, (long)remaining() ) ) ;
+        index += (int)skipped ;
+        return skipped ;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index < array.length ;
+    }
+
+    @Override
+    public long nextLong() {
+        if( index >= array.length ) {
+            throw new NoSuchElementException( "LongArrayIterator has been exhausted and contains no more elements" ) ;
+        }
+        return array[ index++ ] ;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import groovy.stream.iterators.AbstractIterator ;
+import java.util.Arrays ;
+
+/**
+ * Groups {@code long} values into {@code long[]} windows of {@code size} elements, starting
+ * a new window every {@code step} elements.  The open window is kept in a single array,
+ * which is shifted along by {@code step} elements for each new window.
+ */
+public class LongCollatingIterator extends AbstractIterator<long[]> {
+    private final LongIterator parent ;
+    private final int        size ;
+    private final int        step ;
+    private final boolean    keepRemainder ;
+    private final long[]       window ;
+    private int              filled = 0 ;
+    private boolean          started = false ;
+
+    public LongCollatingIterator( LongIterator parent, int size, int step, boolean keepRemainder ) {
+        super( null ) ;
+        if( size < 1 ) {
+            throw new IllegalArgumentException( "Collation size must be > 1" ) ;
+        }
+        if( step < 1 ) {
+            throw new IllegalArgumentException( "Step size must be > 1" ) ;
+        }
+        this.parent = parent ;
+        this.size = size ;
+        this.step = step ;
+        this.keepRemainder = keepRemainder ;
+        this.window = new long[ size ] ;
+    }
+
+    @Override
+    protected void loadNext() {
+        if( started ) {
+            if( step < filled ) {
+                System.arraycopy( window, step, window, 0, filled - step ) ;
+                filled -= step ;
+            }
+            else {
+                for( int i = filled ; i < step && parent.hasNext() ; i++ ) {
+                    parent.nextLong() ;
+                }
+                filled = 0 ;
+            }
+        }
+        started = true ;
+        while( filled < size && parent.hasNext() ) {
+            window[ filled++ ] = parent.nextLong() ;
+        }
+        if( filled == 0 || ( filled < size && !keepRemainder ) ) {
+            exhausted = true ;
+        }
+        else {
+            current = Arrays.copyOf( window, filled ) ;
+        }
+    }
+}
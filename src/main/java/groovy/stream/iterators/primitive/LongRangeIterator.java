@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators.primitive ;
+
+import java.util.NoSuchElementException ;
+
+public class LongRangeIterator extends LongIterator {
+    private final long to ;
+    private long       next ;
+
+    public LongRangeIterator( long from, long to ) {
+        this.next = from ;
+        this.to = to ;
+    }
+
+    /**
+     * @return The number of values left, or {@code -1} if there are too many to count in a {@code long}.
+     */
+    public long remaining() {
+        if( next >= to ) {
+            return 0 ;
+        }
+        long remaining = to - next ;
+        return remaining < 0 ? -1 : remaining ;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next < to ;
+    }
+
+    @Override
+    public long nextLong() {
+        if( next >= to ) {
+            throw new NoSuchElementException( "LongRangeIterator has been exhausted and contains no more elements" ) ;
+        }
+        return next++ ;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import java.lang.reflect.Array ;
+
+import java.util.ArrayList ;
+import java.util.List ;
+
+/**
+ * Gathers elements into an array.  When the number of elements is known up front, and is
+ * no more than {@link #MAX_FIRST_CHUNK}, a single array of that size is filled and returned
+ * as it is.  Otherwise the elements go into a series of chunks, each as large as all of the
+ * ones before it, and are copied once into an array of the right size at the end.  So a
+ * huge expected size is never allocated before any element has been read.
+ */
+public class ArrayStage<T> extends Stage<T,T> {
+    static final int FIRST_CHUNK     = 16 ;
+    static final int MAX_FIRST_CHUNK = 1 << 16 ;
+    static final int MAX_CHUNK       = 1 << 20 ;
+    static final int MAX_ARRAY       = Integer.MAX_VALUE - 8 ;
+
+    private final Class<?>       type ;
+    private final long           expectedSize ;
+    private final List<Object[]> chunks = new ArrayList<Object[]>() ;
+    private Object[]             chunk ;
+    private int                  used = 0 ;
+    private long                 size = 0 ;
+
+    /**
+     * @param type The component type of the array to build.
+     * @param expectedSize How many elements are expected, or {@code -1} if not known.
+     */
+    public ArrayStage( Class<?> type, long expectedSize ) {
+        this.type = type ;
+        this.expectedSize = expectedSize ;
+        this.chunk = (Object[])Array.newInstance( type, firstChunk( expectedSize ) ) ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        if( used == chunk.length ) {
+            chunks.add( chunk ) ;
+            chunk = (Object[])Array.newInstance( type, nextChunk( size ) ) ;
+            used = 0 ;
+        }
+        chunk[ used++ ] = value ;
+        size++ ;
+        return value ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new ArrayStage<T>( type, expectedSize ) ;
+    }
+
+    /**
+     * @return An array of every element seen, in order.
+     */
+    public Object[] toArray() {
+        if( chunks.isEmpty() && used == chunk.length ) {
+            return chunk ;
+        }
+        Object[] result = (Object[])Array.newInstance( type, arraySize( size ) ) ;
+        int offset = 0 ;
+        for( Object[] full : chunks ) {
+            System.arraycopy( full, 0, result, offset, full.length ) ;
+            offset += full.length ;
+        }
+        System.arraycopy( chunk, 0, result, offset, used ) ;
+        return result ;
+    }
+
+    static int firstChunk( long expectedSize ) {
+        return expectedSize < 0 ? FIRST_CHUNK : (int)Math.min( expectedSize, MAX_FIRST_CHUNK ) ;
+    }
+
+    static int nextChunk( long size ) {
+        return (int)Math.max( FIRST_CHUNK, Math.min( size, MAX_CHUNK ) ) ;
+    }
+
+    static int arraySize( long size ) {
+        if( size > MAX_ARRAY ) {
+            throw new IllegalStateException( "Too many elements to fit in an array: " + size ) ;
+        }
+        return (int)size ;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import java.util.Comparator ;
+
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+/**
+ * Keeps the smallest (or largest) element, by a {@link Comparator} or by Groovy's own
+ * comparison.  Of several equal elements, the first is kept.  Without a {@link Comparator},
+ * {@code null} elements are skipped, as {@code Iterator.min()} and {@code max()} skip them.
+ */
+public class ExtremeStage<T> extends Stage<T,T> {
+    private   final Comparator<? super T> comparator ;
+    private   final boolean               largest ;
+    protected boolean                     found = false ;
+    protected T                           result ;
+
+    public ExtremeStage( Comparator<? super T> comparator, boolean largest ) {
+        this.comparator = comparator ;
+        this.largest = largest ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        if( comparator == null && value == null ) {
+            return value ;
+        }
+        if( !found ) {
+            result = value ;
+            found = true ;
+        }
+        else {
+            int order = comparator == null ? DefaultTypeTransformation.compareTo( value, result ) : comparator.compare( value, result ) ;
+            if( largest ? order > 0 : order < 0 ) {
+                result = value ;
+            }
+        }
+        return value ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new ExtremeStage<T>( comparator, largest ) ;
+    }
+
+    /**
+     * @return The smallest (or largest) element, or {@code null} if there were none.
+     */
+    public T getResult() {
+        return result ;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.groovy.ClosureInvoker ;
+import groovy.stream.iterators.SizedIterator ;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+public class FilteringStage<T> extends Stage<T,T> {
+    private   final Closure<Boolean>        predicate ;
+    private   final ClosureInvoker<Boolean> invoker ;
+    private   final boolean                 withIndex ;
+    protected int                           index = 0 ;
+
+    public FilteringStage( Closure<Boolean> predicate, boolean withIndex ) {
+        this( ClosureInvoker.of( predicate, withIndex ? 2 : 1 ), withIndex ) ;
+    }
+
+    private FilteringStage( ClosureInvoker<Boolean> invoker, boolean withIndex ) {
+        this.predicate = invoker == null ? null : invoker.getClosure() ;
+        this.invoker = invoker ;
+        this.withIndex = withIndex ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        setDelegate( value ) ;
+        boolean result = callFilter( value ) ;
+        index++ ;
+        return result ? value : SKIP ;
+    }
+
+    @Override
+    public boolean isStateless() {
+        return !withIndex ;
+    }
+
+    @Override
+    public int characteristics( int upstream ) {
+        return upstream & ~SizedIterator.SIZED ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new FilteringStage<T>( invoker.copy(), withIndex ) ;
+    }
+
+    protected boolean callFilter( T value ) {
+        return withIndex ? DefaultTypeTransformation.castToBoolean( invoker.call( value, index ) ) :
+                           DefaultTypeTransformation.castToBoolean( invoker.call( value ) ) ;
+    }
+
+    protected void setDelegate( T value ) {
+        predicate.setDelegate( value ) ;
+    }
+}
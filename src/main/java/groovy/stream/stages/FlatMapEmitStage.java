@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.lang.Closure ;
+import groovy.stream.functions.Emitter ;
+import groovy.stream.iterators.groovy.ClosureInvoker ;
+import java.util.ArrayList ;
+import java.util.List ;
+
+/**
+ * Expands each element by handing it to a closure along with an {@link Emitter}.
+ *
+ * When pulled, the emitted values are gathered in a buffer which is reused for every
+ * element.  When pushed, as by {@link groovy.stream.iterators.FusedIterator#drain(Stage)},
+ * {@link #emit(Object, Emitter)} is called with an {@link Emitter} which runs the rest of
+ * the pipeline, so nothing is buffered.
+ */
+public class FlatMapEmitStage<T,U> extends Stage<T,U> {
+    private final Closure<?>        body ;
+    private final ClosureInvoker<?> invoker ;
+    private final List<U>           buffer = new ArrayList<U>() ;
+    private final Emitter<U>        collector = new Emitter<U>() {
+        @Override
+        public void call( U value ) {
+            buffer.add( value ) ;
+        }
+    } ;
+
+    public FlatMapEmitStage( Closure<?> body ) {
+        this( ClosureInvoker.of( body, 2 ) ) ;
+    }
+
+    private FlatMapEmitStage( ClosureInvoker<?> invoker ) {
+        this.body = invoker == null ? null : invoker.getClosure() ;
+        this.invoker = invoker ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        buffer.clear() ;
+        emit( value, collector ) ;
+        return buffer.iterator() ;
+    }
+
+    /**
+     * Run the closure for one element.
+     *
+     * @param value the element from the previous stage.
+     * @param emitter receives each value the closure emits.
+     */
+    public void emit( T value, Emitter<U> emitter ) {
+        body.setDelegate( value ) ;
+        invoker.call( value, emitter ) ;
+    }
+
+    @Override
+    public boolean isExpanding() {
+        return true ;
+    }
+
+    @Override
+    public boolean isStateless() {
+        return true ;
+    }
+
+    @Override
+    public long estimateSize( long upstream ) {
+        return -1 ;
+    }
+
+    @Override
+    public int characteristics( int upstream ) {
+        return 0 ;
+    }
+
+    @Override
+    public Stage<T,U> copy() {
+        return new FlatMapEmitStage<T,U>( invoker.copy() ) ;
+    }
+}
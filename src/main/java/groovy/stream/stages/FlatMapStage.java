@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.groovy.ClosureInvoker ;
+import java.util.Collections ;
+import java.util.Iterator ;
+import org.codehaus.groovy.runtime.InvokerHelper ;
+
+public class FlatMapStage<T,U> extends Stage<T,U> {
+    private   final Closure<?>        mapping ;
+    private   final ClosureInvoker<?> invoker ;
+    private   final boolean           withIndex ;
+    protected int                     index = 0 ;
+
+    public FlatMapStage( Closure<?> mapping, boolean withIndex ) {
+        this( ClosureInvoker.of( mapping, withIndex ? 2 : 1 ), withIndex ) ;
+    }
+
+    private FlatMapStage( ClosureInvoker<?> invoker, boolean withIndex ) {
+        this.mapping = invoker == null ? null : invoker.getClosure() ;
+        this.invoker = invoker ;
+        this.withIndex = withIndex ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        setDelegate( value ) ;
+        Object mapped = performMapping( value ) ;
+        index++ ;
+        return expand( mapped ) ;
+    }
+
+    /**
+     * Turns the result of a mapping into an {@link Iterator} without copying it, so an
+     * {@link Iterator}, {@link Iterable} or {@link groovy.stream.Stream} is read lazily.
+     * Anything else is iterated as Groovy would, and {@code null} gives no elements.
+     *
+     * @param mapped the result of a mapping.
+     * @return an {@link Iterator} over the elements of {@code mapped}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <U> Iterator<U> expand( Object mapped ) {
+        if( mapped == null ) {
+            return Collections.<U>emptyList().iterator() ;
+        }
+        if( mapped instanceof Iterator ) {
+            return (Iterator<U>)mapped ;
+        }
+        if( mapped instanceof Iterable ) {
+            return ((Iterable<U>)mapped).iterator() ;
+        }
+        return (Iterator<U>)InvokerHelper.asIterator( mapped ) ;
+    }
+
+    @Override
+    public boolean isExpanding() {
+        return true ;
+    }
+
+    @Override
+    public boolean isStateless() {
+        return !withIndex ;
+    }
+
+    @Override
+    public long estimateSize( long upstream ) {
+        return -1 ;
+    }
+
+    @Override
+    public int characteristics( int upstream ) {
+        return 0 ;
+    }
+
+    @Override
+    public Stage<T,U> copy() {
+        return new FlatMapStage<T,U>( invoker.copy(), withIndex ) ;
+    }
+
+    protected Object performMapping( T value ) {
+        return withIndex ? invoker.call( value, index ) : invoker.call( value ) ;
+    }
+
+    protected void setDelegate( T value ) {
+        mapping.setDelegate( value ) ;
+    }
+}
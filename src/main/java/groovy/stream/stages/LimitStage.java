@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+public class LimitStage<T> extends Stage<T,T> {
+    private final int limit ;
+    private       int remaining ;
+
+    public LimitStage( int limit ) {
+        this.limit = limit ;
+        this.remaining = limit ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        remaining-- ;
+        return value ;
+    }
+
+    @Override
+    public boolean isShortCircuiting() {
+        return true ;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return remaining <= 0 ;
+    }
+
+    @Override
+    public long estimateSize( long upstream ) {
+        return upstream < 0 ? remaining : Math.min( upstream, remaining ) ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new LimitStage<T>( limit ) ;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import java.util.ArrayList ;
+import java.util.List ;
+
+/**
+ * Gathers {@link Number} elements into a {@code long} array, in the same way as
+ * {@link ArrayStage}.  Primitive streams call {@link #add(long)} directly, so their
+ * values are never boxed.
+ */
+public class LongArrayStage<T extends Number> extends Stage<T,T> {
+    private final long         expectedSize ;
+    private final List<long[]> chunks = new ArrayList<long[]>() ;
+    private long[]             chunk ;
+    private int                used = 0 ;
+    private long               size = 0 ;
+
+    /**
+     * @param expectedSize How many values are expected, or {@code -1} if not known.
+     */
+    public LongArrayStage( long expectedSize ) {
+        this.expectedSize = expectedSize ;
+        this.chunk = new long[ ArrayStage.firstChunk( expectedSize ) ] ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        add( value.longValue() ) ;
+        return value ;
+    }
+
+    /**
+     * @param value The next value to add to the array.
+     */
+    public void add( long value ) {
+        if( used == chunk.length ) {
+            chunks.add( chunk ) ;
+            chunk = new long[ ArrayStage.nextChunk( size ) ] ;
+            used = 0 ;
+        }
+        chunk[ used++ ] = value ;
+        size++ ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new LongArrayStage<T>( expectedSize ) ;
+    }
+
+    /**
+     * @return An array of every value seen, in order.
+     */
+    public long[] toArray() {
+        if( chunks.isEmpty() && used == chunk.length ) {
+            return chunk ;
+        }
+        long[] result = new long[ ArrayStage.arraySize( size ) ] ;
+        int offset = 0 ;
+        for( long[] full : chunks ) {
+            System.arraycopy( full, 0, result, offset, full.length ) ;
+            offset += full.length ;
+        }
+        System.arraycopy( chunk, 0, result, offset, used ) ;
+        return result ;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.groovy.ClosureInvoker ;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation ;
+
+public class MatchingStage<T> extends Stage<T,T> {
+    private   final Closure<Boolean>        predicate ;
+    private   final ClosureInvoker<Boolean> invoker ;
+    private   final boolean                 stopOn ;
+    protected boolean                       found = false ;
+    protected T                             value ;
+
+    /**
+     * @param predicate The predicate to check each element with, or {@code null} to stop at the first element.
+     * @param stopOn Stop at the first element for which {@code predicate} returns this.
+     */
+    public MatchingStage( Closure<Boolean> predicate, boolean stopOn ) {
+        this( ClosureInvoker.of( predicate, 1 ), stopOn ) ;
+    }
+
+    private MatchingStage( ClosureInvoker<Boolean> invoker, boolean stopOn ) {
+        this.predicate = invoker == null ? null : invoker.getClosure() ;
+        this.invoker = invoker ;
+        this.stopOn = stopOn ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        setDelegate( value ) ;
+        if( callPredicate( value ) == stopOn ) {
+            this.found = true ;
+            this.value = value ;
+            return STOP ;
+        }
+        return value ;
+    }
+
+    @Override
+    public boolean isShortCircuiting() {
+        return true ;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return found ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new MatchingStage<T>( invoker == null ? null : invoker.copy(), stopOn ) ;
+    }
+
+    /**
+     * @return {@code true} if an element stopped the stage.
+     */
+    public boolean isFound() {
+        return found ;
+    }
+
+    /**
+     * @return The element which stopped the stage, or {@code null}.
+     */
+    public T getValue() {
+        return value ;
+    }
+
+    protected boolean callPredicate( T value ) {
+        return invoker == null ? stopOn : DefaultTypeTransformation.castToBoolean( invoker.call( value ) ) ;
+    }
+
+    protected void setDelegate( T value ) {
+        if( predicate != null ) {
+            predicate.setDelegate( value ) ;
+        }
+    }
+}
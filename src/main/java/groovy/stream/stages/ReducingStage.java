@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.groovy.ClosureInvoker ;
+
+public class ReducingStage<T,A> extends Stage<T,T> {
+    private   final ClosureInvoker<A> invoker ;
+    private   final boolean           seeded ;
+    private   final A                 initial ;
+    protected boolean                 started ;
+    protected A                       result ;
+
+    /**
+     * @param reduction A two parameter closure, called with the result so far and the next element.
+     * @param seeded {@code false} if the first element should be the starting result.
+     * @param initial The starting result, if {@code seeded}.
+     */
+    public ReducingStage( Closure<A> reduction, boolean seeded, A initial ) {
+        this( ClosureInvoker.of( reduction, 2 ), seeded, initial ) ;
+    }
+
+    private ReducingStage( ClosureInvoker<A> invoker, boolean seeded, A initial ) {
+        this.invoker = invoker ;
+        this.seeded = seeded ;
+        this.initial = initial ;
+        this.started = seeded ;
+        this.result = initial ;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object apply( T value ) {
+        if( started ) {
+            result = callReduction( result, value ) ;
+        }
+        else {
+            result = (A)value ;
+            started = true ;
+        }
+        return value ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new ReducingStage<T,A>( invoker.copy(), seeded, initial ) ;
+    }
+
+    /**
+     * @return The result so far, or the initial value (or {@code null}) if no elements were seen.
+     */
+    public A getResult() {
+        return result ;
+    }
+
+    protected A callReduction( A result, T value ) {
+        return invoker.call( result, value ) ;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.stream.iterators.SizedIterator ;
+
+/**
+ * A single per-element step of a {@link groovy.stream.Stream} pipeline.
+ *
+ * Adjacent stages are run one after the other by a single
+ * {@link groovy.stream.iterators.FusedIterator}, rather than each one being
+ * wrapped in its own {@link java.util.Iterator}.
+ *
+ * @param <T> the type of element consumed by this stage
+ * @param <U> the type of element produced by this stage
+ */
+public abstract class Stage<T,U> {
+    /**
+     * Returned from {@link #apply(Object)} when the element should be dropped.
+     */
+    public static final Object SKIP = new Object() ;
+
+    /**
+     * Returned from {@link #apply(Object)} when the pipeline should stop.
+     */
+    public static final Object STOP = new Object() ;
+
+    /**
+     * Process a single element.
+     *
+     * @param value the element from the previous stage.
+     * @return the element to pass on, {@link #SKIP} or {@link #STOP}.
+     */
+    public abstract Object apply( T value ) ;
+
+    /**
+     * Stages which can finish before their input is exhausted should return {@code true},
+     * so the pipeline knows to poll {@link #isComplete()} before pulling each element.
+     *
+     * @return {@code true} if {@link #isComplete()} may ever return {@code true}.
+     */
+    public boolean isShortCircuiting() {
+        return false ;
+    }
+
+    /**
+     * @return {@code true} once this stage will accept no more elements.
+     */
+    public boolean isComplete() {
+        return false ;
+    }
+
+    /**
+     * Stateless stages give the same result for an element no matter which other
+     * elements they have seen, so copies of them can be run over separate chunks
+     * of a {@link groovy.stream.Stream} at the same time.
+     *
+     * @return {@code true} if this stage keeps no state between elements.
+     */
+    public boolean isStateless() {
+        return false ;
+    }
+
+    /**
+     * Expanding stages return an {@link java.util.Iterator} from {@link #apply(Object)}, each
+     * element of which is passed on to the following stages in turn.
+     *
+     * @return {@code true} if this stage can produce many elements from each one it is given.
+     */
+    public boolean isExpanding() {
+        return false ;
+    }
+
+    /**
+     * How many elements this stage passes on, given how many it will be sent.
+     *
+     * @param upstream the number of elements coming in, or {@code -1} if not known.
+     * @return the number of elements going out, or {@code -1} if not known.
+     */
+    public long estimateSize( long upstream ) {
+        return upstream ;
+    }
+
+    /**
+     * Which {@link SizedIterator} characteristics still hold after this stage.
+     *
+     * @param upstream the characteristics of the elements coming in.
+     * @return the characteristics of the elements going out.
+     */
+    public int characteristics( int upstream ) {
+        return upstream ;
+    }
+
+    /**
+     * @return a new instance of this stage with the same configuration, but none of its state.
+     */
+    public abstract Stage<T,U> copy() ;
+}
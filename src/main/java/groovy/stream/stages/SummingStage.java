@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import java.math.BigDecimal ;
+import java.math.BigInteger ;
+
+import org.codehaus.groovy.runtime.InvokerHelper ;
+import org.codehaus.groovy.runtime.typehandling.NumberMath ;
+
+/**
+ * Adds up {@link Number} elements.  Whole numbers are added in a {@code long} and
+ * floating point numbers in a {@code double}, so only {@link BigInteger},
+ * {@link BigDecimal} and other {@link Number} types are added as objects.
+ *
+ * Once an element which is not a {@link Number} is seen (such as a {@link String} or a
+ * {@link java.util.List}), the total so far and every element after it are added with
+ * Groovy's {@code plus}, in order, as {@code Iterator.sum()} would add them.
+ */
+public class SummingStage<T> extends Stage<T,T> {
+    private long    whole = 0 ;
+    private double  floating = 0 ;
+    private Number  exact = null ;
+    private boolean longs = false ;
+    private boolean doubles = false ;
+    private long    count = 0 ;
+    private boolean objects = false ;
+    private Object  total = null ;
+
+    @Override
+    public Object apply( T value ) {
+        if( objects || !( value instanceof Number ) ) {
+            total = objects ? plus( total, value ) : count == 0 ? value : plus( getSum(), value ) ;
+            objects = true ;
+            count++ ;
+            return value ;
+        }
+        Number number = (Number)value ;
+        if( number instanceof Integer || number instanceof Short || number instanceof Byte ) {
+            whole += number.intValue() ;
+        }
+        else if( number instanceof Long ) {
+            whole += number.longValue() ;
+            longs = true ;
+        }
+        else if( number instanceof Double || number instanceof Float ) {
+            floating += number.doubleValue() ;
+            doubles = true ;
+        }
+        else {
+            exact = exact == null ? number : NumberMath.add( exact, number ) ;
+        }
+        count++ ;
+        return value ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new SummingStage<T>() ;
+    }
+
+    /**
+     * Adds the elements summed by another {@code SummingStage} to this one.
+     *
+     * @param other The stage to add the totals of.
+     * @return This stage.
+     */
+    public SummingStage<T> combine( SummingStage<?> other ) {
+        if( objects || other.objects ) {
+            if( other.count > 0 ) {
+                total = count == 0 ? other.getSum() : plus( getSum(), other.getSum() ) ;
+                objects = true ;
+            }
+            count += other.count ;
+            return this ;
+        }
+        whole += other.whole ;
+        floating += other.floating ;
+        if( other.exact != null ) {
+            exact = exact == null ? other.exact : NumberMath.add( exact, other.exact ) ;
+        }
+        longs |= other.longs ;
+        doubles |= other.doubles ;
+        count += other.count ;
+        return this ;
+    }
+
+    /**
+     * @return The number of elements added.
+     */
+    public long getCount() {
+        return count ;
+    }
+
+    /**
+     * @return The total, as an {@link Integer} if every element was an {@link Integer} and
+     *         the total fits, a {@link Long} if every element was a whole number, or a
+     *         {@link Double} if any was a {@link Double} or {@link Float}.  If any element was of
+     *         another type, they are added as Groovy would.  As {@code Iterator.sum()} does, the
+     *         total of no elements is {@code null}.
+     */
+    public Object getSum() {
+        if( count == 0 ) {
+            return null ;
+        }
+        if( objects ) {
+            return total ;
+        }
+        Number sum ;
+        if( doubles ) {
+            sum = whole + floating ;
+        }
+        else if( longs || whole != (int)whole ) {
+            sum = whole ;
+        }
+        else {
+            sum = (int)whole ;
+        }
+        return exact == null ? sum : NumberMath.add( exact, sum ) ;
+    }
+
+    /**
+     * @return The mean, as a {@link Double}, or a {@link BigDecimal} if any element was
+     *         not a primitive wrapper; or {@code null} if there were no elements.
+     * @throws ClassCastException if any element was not a {@link Number}.
+     */
+    public Number getAverage() {
+        if( count == 0 ) {
+            return null ;
+        }
+        if( objects ) {
+            throw new ClassCastException( "Cannot average elements which are not Numbers" ) ;
+        }
+        if( exact != null ) {
+            return NumberMath.divide( (Number)getSum(), count ) ;
+        }
+        return ( whole + floating ) / count ;
+    }
+
+    private static Object plus( Object left, Object right ) {
+        return InvokerHelper.invokeMethod( left, "plus", right ) ;
+    }
+}
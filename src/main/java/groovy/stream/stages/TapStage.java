@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.groovy.ClosureInvoker ;
+
+public class TapStage<T> extends Stage<T,T> {
+    protected final int                  every ;
+    private   final boolean              withIndex ;
+    private   final Closure<Void>        output ;
+    private   final ClosureInvoker<Void> invoker ;
+    protected int                        index = 0 ;
+
+    public TapStage( int every, boolean withIndex, Closure<Void> output ) {
+        this( every, withIndex, ClosureInvoker.of( output, withIndex ? 2 : 1 ) ) ;
+    }
+
+    private TapStage( int every, boolean withIndex, ClosureInvoker<Void> invoker ) {
+        this.every = every ;
+        this.withIndex = withIndex ;
+        this.output = invoker == null ? null : invoker.getClosure() ;
+        this.invoker = invoker ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        performTap( value ) ;
+        return value ;
+    }
+
+    @Override
+    public boolean isStateless() {
+        return !withIndex && every == 1 ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new TapStage<T>( every, withIndex, invoker.copy() ) ;
+    }
+
+    protected void performTap( T value ) {
+        if( ++index % every == 0 ) {
+            if( withIndex ) {
+                invoker.call( value, index - 1 ) ;
+            }
+            else {
+                invoker.call( value ) ;
+            }
+        }
+    }
+}
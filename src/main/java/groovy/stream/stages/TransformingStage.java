@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages ;
+
+import groovy.lang.Closure ;
+import groovy.stream.iterators.groovy.ClosureInvoker ;
+import groovy.stream.iterators.SizedIterator ;
+
+public class TransformingStage<T,U> extends Stage<T,U> {
+    private   final Closure<U>        mapping ;
+    private   final ClosureInvoker<U> invoker ;
+    private   final boolean           withIndex ;
+    protected int                     index = 0 ;
+
+    public TransformingStage( Closure<U> mapping, boolean withIndex ) {
+        this( ClosureInvoker.of( mapping, withIndex ? 2 : 1 ), withIndex ) ;
+    }
+
+    private TransformingStage( ClosureInvoker<U> invoker, boolean withIndex ) {
+        this.mapping = invoker == null ? null : invoker.getClosure() ;
+        this.invoker = invoker ;
+        this.withIndex = withIndex ;
+    }
+
+    @Override
+    public Object apply( T value ) {
+        setDelegate( value ) ;
+        U result = getMappedValue( value ) ;
+        index++ ;
+        return result ;
+    }
+
+    @Override
+    public boolean isStateless() {
+        return !withIndex ;
+    }
+
+    @Override
+    public int characteristics( int upstream ) {
+        return upstream & SizedIterator.SIZED ;
+    }
+
+    @Override
+    public Stage<T,U> copy() {
+        return new TransformingStage<T,U>( invoker.copy(), withIndex ) ;
+    }
+
+    protected void setDelegate( T value ) {
+        mapping.setDelegate( value ) ;
+    }
+
+    protected U getMappedValue( T value ) {
+        return withIndex ? invoker.call( value, index ) : invoker.call( value ) ;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages.java ;
+
+import groovy.stream.functions.Emitter ;
+import groovy.stream.functions.Function2 ;
+import groovy.stream.stages.FlatMapEmitStage ;
+import groovy.stream.stages.Stage ;
+
+public class FlatMapEmitStageForFunction<T,U> extends FlatMapEmitStage<T,U> {
+    private final Function2<T,Emitter<U>,?> bodyFn ;
+
+    public FlatMapEmitStageForFunction( Function2<T,Emitter<U>,?> body ) {
+        super( null ) ;
+        this.bodyFn = body ;
+    }
+
+    @Override
+    public Stage<T,U> copy() {
+        return new FlatMapEmitStageForFunction<T,U>( bodyFn ) ;
+    }
+
+    @Override
+    public void emit( T value, Emitter<U> emitter ) {
+        bodyFn.call( value, emitter ) ;
+    }
+}
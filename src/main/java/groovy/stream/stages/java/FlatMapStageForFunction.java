@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages.java ;
+
+import groovy.stream.functions.Function ;
+import groovy.stream.stages.FlatMapStage ;
+import groovy.stream.stages.Stage ;
+
+public class FlatMapStageForFunction<T,U> extends FlatMapStage<T,U> {
+    private final Function<T,?> mappingFn ;
+
+    public FlatMapStageForFunction( Function<T,?> mapping ) {
+        super( null, false ) ;
+        this.mappingFn = mapping ;
+    }
+
+    @Override
+    public Stage<T,U> copy() {
+        return new FlatMapStageForFunction<T,U>( mappingFn ) ;
+    }
+
+    @Override
+    protected void setDelegate( T value ) {
+        // Cannot set delegate
+    }
+
+    @Override
+    protected Object performMapping( T value ) {
+        return mappingFn.call( value ) ;
+    }
+}
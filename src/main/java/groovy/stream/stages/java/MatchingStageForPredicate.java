@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages.java ;
+
+import groovy.stream.functions.Predicate ;
+import groovy.stream.stages.MatchingStage ;
+import groovy.stream.stages.Stage ;
+
+public class MatchingStageForPredicate<T> extends MatchingStage<T> {
+    private final Predicate<T> predicateFn ;
+    private final boolean      stopOn ;
+
+    public MatchingStageForPredicate( Predicate<T> predicate, boolean stopOn ) {
+        super( null, stopOn ) ;
+        this.predicateFn = predicate ;
+        this.stopOn = stopOn ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new MatchingStageForPredicate<T>( predicateFn, stopOn ) ;
+    }
+
+    @Override
+    protected void setDelegate( T value ) {
+        // Cannot set delegate
+    }
+
+    @Override
+    protected boolean callPredicate( T value ) {
+        return predicateFn.call( value ) ;
+    }
+}
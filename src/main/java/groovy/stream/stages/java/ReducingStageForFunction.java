@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages.java ;
+
+import groovy.stream.functions.Function2 ;
+import groovy.stream.stages.ReducingStage ;
+import groovy.stream.stages.Stage ;
+
+public class ReducingStageForFunction<T,A> extends ReducingStage<T,A> {
+    private final Function2<A,T,A> reductionFn ;
+    private final boolean          seeded ;
+    private final A                initial ;
+
+    public ReducingStageForFunction( Function2<A,T,A> reduction, boolean seeded, A initial ) {
+        super( null, seeded, initial ) ;
+        this.reductionFn = reduction ;
+        this.seeded = seeded ;
+        this.initial = initial ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new ReducingStageForFunction<T,A>( reductionFn, seeded, initial ) ;
+    }
+
+    @Override
+    protected A callReduction( A result, T value ) {
+        return reductionFn.call( result, value ) ;
+    }
+}
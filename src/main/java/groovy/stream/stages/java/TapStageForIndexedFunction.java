@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.stages.java ;
+
+import groovy.stream.functions.IndexedFunction ;
+import groovy.stream.stages.Stage ;
+import groovy.stream.stages.TapStage ;
+
+public class TapStageForIndexedFunction<T> extends TapStage<T> {
+    private final IndexedFunction<T,Void> function ;
+
+    public TapStageForIndexedFunction( IndexedFunction<T,Void> function ) {
+        this( 1, function ) ;
+    }
+
+    public TapStageForIndexedFunction( int every, IndexedFunction<T,Void> function ) {
+        super( every, true, null ) ;
+        this.function = function ;
+    }
+
+    @Override
+    public Stage<T,T> copy() {
+        return new TapStageForIndexedFunction<T>( every, function ) ;
+    }
+
+    @Override
+    protected void performTap( T value ) {
+        if( ++index % every == 0 ) {
+            function.call( value, index - 1 ) ;
+        }
+    }
+}
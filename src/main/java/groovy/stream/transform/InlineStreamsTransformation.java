@@ -0,0 +1,584 @@
+/*
+ * Copyright 2013-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.transform ;
+
+import java.lang.reflect.Method ;
+import java.lang.reflect.Modifier ;
+
+import java.util.ArrayList ;
+import java.util.Collections ;
+import java.util.HashSet ;
+import java.util.IdentityHashMap ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Set ;
+
+import org.codehaus.groovy.ast.ASTNode ;
+import org.codehaus.groovy.ast.ClassCodeExpressionTransformer ;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport ;
+import org.codehaus.groovy.ast.ClassHelper ;
+import org.codehaus.groovy.ast.ClassNode ;
+import org.codehaus.groovy.ast.CodeVisitorSupport ;
+import org.codehaus.groovy.ast.DynamicVariable ;
+import org.codehaus.groovy.ast.MethodNode ;
+import org.codehaus.groovy.ast.Parameter ;
+import org.codehaus.groovy.ast.Variable ;
+import org.codehaus.groovy.ast.VariableScope ;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression ;
+import org.codehaus.groovy.ast.expr.BinaryExpression ;
+import org.codehaus.groovy.ast.expr.BooleanExpression ;
+import org.codehaus.groovy.ast.expr.ClassExpression ;
+import org.codehaus.groovy.ast.expr.ClosureExpression ;
+import org.codehaus.groovy.ast.expr.ConstantExpression ;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression ;
+import org.codehaus.groovy.ast.expr.DeclarationExpression ;
+import org.codehaus.groovy.ast.expr.Expression ;
+import org.codehaus.groovy.ast.expr.MethodCallExpression ;
+import org.codehaus.groovy.ast.expr.NotExpression ;
+import org.codehaus.groovy.ast.expr.PostfixExpression ;
+import org.codehaus.groovy.ast.expr.VariableExpression ;
+import org.codehaus.groovy.ast.stmt.BlockStatement ;
+import org.codehaus.groovy.ast.stmt.BreakStatement ;
+import org.codehaus.groovy.ast.stmt.ContinueStatement ;
+import org.codehaus.groovy.ast.stmt.EmptyStatement ;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement ;
+import org.codehaus.groovy.ast.stmt.IfStatement ;
+import org.codehaus.groovy.ast.stmt.ReturnStatement ;
+import org.codehaus.groovy.ast.stmt.Statement ;
+import org.codehaus.groovy.ast.stmt.WhileStatement ;
+import org.codehaus.groovy.control.CompilePhase ;
+import org.codehaus.groovy.control.SourceUnit ;
+import org.codehaus.groovy.runtime.DefaultGroovyMethods ;
+import org.codehaus.groovy.syntax.Token ;
+import org.codehaus.groovy.syntax.Types ;
+import org.codehaus.groovy.transform.ASTTransformation ;
+import org.codehaus.groovy.transform.GroovyASTTransformation ;
+
+/**
+ * Implements {@link groovy.stream.InlineStreams}.
+ *
+ * Runs once variable scopes have been resolved, and replaces each pipeline statement with
+ * a {@code while} loop over the source, placed just before it.  Each step becomes a few
+ * statements in the body of the loop, with the body of its {@link groovy.lang.Closure}
+ * copied in and its parameters replaced by local variables.  Pipelines inside closures
+ * are left alone.
+ */
+@GroovyASTTransformation( phase = CompilePhase.CANONICALIZATION )
+public class InlineStreamsTransformation implements ASTTransformation {
+    private static final String      STREAM         = "groovy.stream.Stream" ;
+    private static final Set<String> OBJECT_METHODS = objectMethods() ;
+
+    @Override
+    public void visit( ASTNode[] nodes, SourceUnit source ) {
+        if( nodes.length != 2 ) {
+            return ;
+        }
+        if( nodes[ 1 ] instanceof ClassNode ) {
+            ClassNode owner = (ClassNode)nodes[ 1 ] ;
+            for( MethodNode method : owner.getMethods() ) {
+                inline( owner, method, source ) ;
+            }
+            for( MethodNode constructor : owner.getDeclaredConstructors() ) {
+                inline( owner, constructor, source ) ;
+            }
+        }
+        else if( nodes[ 1 ] instanceof MethodNode ) {
+            MethodNode method = (MethodNode)nodes[ 1 ] ;
+            inline( method.getDeclaringClass(), method, source ) ;
+        }
+    }
+
+    private static void inline( ClassNode owner, MethodNode method, SourceUnit source ) {
+        if( method.getCode() != null ) {
+            method.getCode().visit( new Inliner( owner, source ) ) ;
+        }
+    }
+
+    /**
+     * The names an implicit-this call in a closure can reach on any owner.
+     */
+    private static Set<String> objectMethods() {
+        Set<String> names = new HashSet<String>() ;
+        for( Method method : DefaultGroovyMethods.class.getMethods() ) {
+            Class<?>[] types = method.getParameterTypes() ;
+            if( Modifier.isStatic( method.getModifiers() ) && types.length > 0 && types[ 0 ] == Object.class ) {
+                names.add( method.getName() ) ;
+            }
+        }
+        return Collections.unmodifiableSet( names ) ;
+    }
+
+    /**
+     * A step in a pipeline: the name of the method, its closure (if any) and its other argument (if any).
+     */
+    private static class Step {
+        final String            name ;
+        final ClosureExpression closure ;
+        final Expression        argument ;
+        final Variable[]        parameters ;
+
+        Step( String name, ClosureExpression closure, Expression argument, Variable[] parameters ) {
+            this.name = name ;
+            this.closure = closure ;
+            this.argument = argument ;
+            this.parameters = parameters ;
+        }
+
+        boolean withIndex() {
+            return name.endsWith( "WithIndex" ) ;
+        }
+    }
+
+    private static class Inliner extends ClassCodeVisitorSupport {
+        private final ClassNode  owner ;
+        private final SourceUnit source ;
+        private       int        count = 0 ;
+
+        Inliner( ClassNode owner, SourceUnit source ) {
+            this.owner = owner ;
+            this.source = source ;
+        }
+
+        @Override
+        protected SourceUnit getSourceUnit() {
+            return source ;
+        }
+
+        @Override
+        public void visitClosureExpression( ClosureExpression expression ) {
+        }
+
+        @Override
+        public void visitBlockStatement( BlockStatement block ) {
+            super.visitBlockStatement( block ) ;
+            List<Statement> rewritten = new ArrayList<Statement>() ;
+            boolean changed = false ;
+            for( Statement statement : block.getStatements() ) {
+                changed |= rewrite( statement, block.getVariableScope(), rewritten ) ;
+            }
+            if( changed ) {
+                block.getStatements().clear() ;
+                block.getStatements().addAll( rewritten ) ;
+            }
+        }
+
+        /**
+         * Adds {@code statement} to {@code out}, preceded by the loop for its pipeline if it has one.
+         */
+        private boolean rewrite( Statement statement, VariableScope scope, List<Statement> out ) {
+            if( statement.getStatementLabel() == null ) {
+                if( statement instanceof ReturnStatement ) {
+                    ReturnStatement ret = (ReturnStatement)statement ;
+                    Expression result = inline( ret.getExpression(), statement, scope, out ) ;
+                    if( result != null ) {
+                        ret.setExpression( result ) ;
+                        out.add( ret ) ;
+                        return true ;
+                    }
+                }
+                else if( statement instanceof ExpressionStatement ) {
+                    Expression expression = ( (ExpressionStatement)statement ).getExpression() ;
+                    if( expression instanceof DeclarationExpression ) {
+                        DeclarationExpression declaration = (DeclarationExpression)expression ;
+                        if( !declaration.isMultipleAssignmentDeclaration() ) {
+                            Expression result = inline( declaration.getRightExpression(), statement, scope, out ) ;
+                            if( result != null ) {
+                                declaration.setRightExpression( result ) ;
+                                out.add( statement ) ;
+                                return true ;
+                            }
+                        }
+                    }
+                    else if( expression instanceof BinaryExpression ) {
+                        BinaryExpression assignment = (BinaryExpression)expression ;
+                        if( assignment.getOperation().getType() == Types.ASSIGN && assignment.getLeftExpression() instanceof VariableExpression ) {
+                            Expression result = inline( assignment.getRightExpression(), statement, scope, out ) ;
+                            if( result != null ) {
+                                assignment.setRightExpression( result ) ;
+                                out.add( statement ) ;
+                                return true ;
+                            }
+                        }
+                    }
+                    else {
+                        Expression result = inline( expression, statement, scope, out ) ;
+                        if( result != null ) {
+                            out.add( at( new ExpressionStatement( result ), statement ) ) ;
+                            return true ;
+                        }
+                    }
+                }
+            }
+            out.add( statement ) ;
+            return false ;
+        }
+
+        /**
+         * Adds the loop for {@code expression} to {@code out} if it is a pipeline which can be
+         * inlined, and returns the expression for its result, or returns {@code null}.
+         */
+        private Expression inline( Expression expression, Statement statement, VariableScope scope, List<Statement> out ) {
+            List<Step> steps = new ArrayList<Step>() ;
+            while( expression instanceof MethodCallExpression ) {
+                MethodCallExpression call = (MethodCallExpression)expression ;
+                String name = call.getMethodAsString() ;
+                if( name == null || call.isSafe() || call.isSpreadSafe() || !( call.getArguments() instanceof ArgumentListExpression ) ) {
+                    return null ;
+                }
+                List<Expression> arguments = ( (ArgumentListExpression)call.getArguments() ).getExpressions() ;
+                if( call.getObjectExpression() instanceof ClassExpression ) {
+                    if( !name.equals( "from" ) || arguments.size() != 1 || steps.isEmpty() ||
+                        !call.getObjectExpression().getType().getName().equals( STREAM ) ) {
+                        return null ;
+                    }
+                    Collections.reverse( steps ) ;
+                    return generate( call, steps, statement, scope, out ) ;
+                }
+                Step step = step( name, arguments, steps.isEmpty() ) ;
+                if( step == null ) {
+                    return null ;
+                }
+                steps.add( step ) ;
+                expression = call.getObjectExpression() ;
+            }
+            return null ;
+        }
+
+        /**
+         * Checks a call in the pipeline can be inlined, and returns it as a {@link Step} if so.
+         */
+        private Step step( String name, List<Expression> arguments, boolean terminal ) {
+            int size = arguments.size() ;
+            if( terminal ) {
+                if( ( name.equals( "collect" ) || name.equals( "toList" ) ) && size == 0 ) {
+                    return new Step( name, null, null, null ) ;
+                }
+                if( !name.equals( "collect" ) && !name.equals( "each" ) && !name.equals( "forEach" ) ) {
+                    return null ;
+                }
+            }
+            else if( name.equals( "skip" ) || name.equals( "take" ) ) {
+                return size == 1 && !( arguments.get( 0 ) instanceof ClosureExpression ) ? new Step( name, null, arguments.get( 0 ), null ) : null ;
+            }
+            else if( !name.matches( "(filter|map|until|tap|tapEvery)(WithIndex)?" ) ) {
+                return null ;
+            }
+            boolean every = name.startsWith( "tapEvery" ) ;
+            if( size != ( every ? 2 : 1 ) || !( arguments.get( size - 1 ) instanceof ClosureExpression ) ) {
+                return null ;
+            }
+            ClosureExpression closure = (ClosureExpression)arguments.get( size - 1 ) ;
+            Variable[] parameters = parameters( closure, name.endsWith( "WithIndex" ) ? 2 : 1 ) ;
+            if( parameters == null || body( closure ) == null || !inlinable( body( closure ) ) ) {
+                return null ;
+            }
+            return new Step( name, closure, every ? arguments.get( 0 ) : null, parameters ) ;
+        }
+
+        /**
+         * @return the variables {@code closure}'s parameters are read through, or {@code null}
+         *         if it does not take exactly {@code arity} untyped parameters.
+         */
+        private static Variable[] parameters( ClosureExpression closure, int arity ) {
+            Parameter[] parameters = closure.getParameters() ;
+            if( parameters == null ) {
+                return null ;
+            }
+            if( parameters.length == 0 ) {
+                Variable it = closure.getVariableScope().getDeclaredVariable( "it" ) ;
+                return arity == 1 && it != null ? new Variable[] { it } : null ;
+            }
+            if( parameters.length != arity ) {
+                return null ;
+            }
+            for( Parameter parameter : parameters ) {
+                if( !parameter.isDynamicTyped() || parameter.hasInitialExpression() ) {
+                    return null ;
+                }
+            }
+            return parameters ;
+        }
+
+        /**
+         * @return the expression {@code closure} returns, if its body is nothing else.
+         */
+        private static Expression body( ClosureExpression closure ) {
+            Statement code = closure.getCode() ;
+            if( code instanceof BlockStatement ) {
+                List<Statement> statements = ( (BlockStatement)code ).getStatements() ;
+                code = statements.size() == 1 ? statements.get( 0 ) : null ;
+            }
+            if( code instanceof ExpressionStatement && code.getStatementLabel() == null ) {
+                return ( (ExpressionStatement)code ).getExpression() ;
+            }
+            if( code instanceof ReturnStatement && code.getStatementLabel() == null ) {
+                return ( (ReturnStatement)code ).getExpression() ;
+            }
+            return null ;
+        }
+
+        /**
+         * @return {@code true} if {@code body} means the same when copied out of its closure:
+         *         it declares nothing, and never needs the closure's delegate.
+         */
+        private boolean inlinable( Expression body ) {
+            final boolean[] inlinable = { true } ;
+            body.visit( new CodeVisitorSupport() {
+                @Override
+                public void visitClosureExpression( ClosureExpression expression ) {
+                    inlinable[ 0 ] = false ;
+                }
+
+                @Override
+                public void visitDeclarationExpression( DeclarationExpression expression ) {
+                    inlinable[ 0 ] = false ;
+                }
+
+                @Override
+                public void visitVariableExpression( VariableExpression expression ) {
+                    if( expression.getAccessedVariable() instanceof DynamicVariable ) {
+                        inlinable[ 0 ] = false ;
+                    }
+                }
+
+                @Override
+                public void visitMethodCallExpression( MethodCallExpression call ) {
+                    if( call.isImplicitThis() && !ownerResponds( call.getMethodAsString() ) ) {
+                        inlinable[ 0 ] = false ;
+                    }
+                    super.visitMethodCallExpression( call ) ;
+                }
+            } ) ;
+            return inlinable[ 0 ] ;
+        }
+
+        private boolean ownerResponds( String name ) {
+            if( name == null ) {
+                return false ;
+            }
+            for( ClassNode node = owner ; node != null ; node = node.getSuperClass() ) {
+                if( !node.getMethods( name ).isEmpty() ) {
+                    return true ;
+                }
+            }
+            return OBJECT_METHODS.contains( name ) ;
+        }
+
+        /**
+         * Adds the declarations and loop for the pipeline to {@code out}, and returns its result.
+         *
+         * Every step is evaluated in the order the {@link groovy.stream.Stream} would: the source,
+         * then the arguments of each step, then one element at a time through every step.  Steps
+         * that end the pipeline ({@code take}) are checked before the next element is read.
+         */
+        private Expression generate( Expression from, List<Step> steps, Statement statement, VariableScope scope, List<Statement> out ) {
+            String prefix = "$stream" + count++ + "_" ;
+            Generator generator = new Generator( prefix, statement, out ) ;
+            VariableExpression iterator = generator.declare( "source", ClassHelper.DYNAMIC_TYPE, from ) ;
+
+            Expression condition = null ;
+            VariableExpression[] counters = new VariableExpression[ steps.size() ] ;
+            VariableExpression[] arguments = new VariableExpression[ steps.size() ] ;
+            for( int i = 0 ; i < steps.size() - 1 ; i++ ) {
+                Step step = steps.get( i ) ;
+                if( step.argument != null ) {
+                    ClassNode type = step.name.equals( "skip" ) ? ClassHelper.long_TYPE : ClassHelper.int_TYPE ;
+                    arguments[ i ] = generator.declare( step.name + i, type, step.argument ) ;
+                }
+                if( step.name.equals( "skip" ) ) {
+                    counters[ i ] = generator.declare( "count" + i, ClassHelper.long_TYPE, new ConstantExpression( 0L ) ) ;
+                }
+                else if( step.argument != null || step.withIndex() ) {
+                    counters[ i ] = generator.declare( "count" + i, ClassHelper.int_TYPE, new ConstantExpression( 0 ) ) ;
+                }
+                if( step.name.equals( "take" ) ) {
+                    Expression taking = binary( ref( counters[ i ] ), Types.COMPARE_LESS_THAN, ref( arguments[ i ] ) ) ;
+                    condition = condition == null ? taking : binary( condition, Types.LOGICAL_AND, taking ) ;
+                }
+            }
+            Step terminal = steps.get( steps.size() - 1 ) ;
+            VariableExpression result = null ;
+            if( terminal.name.equals( "each" ) ) {
+                result = generator.declare( "count", ClassHelper.long_TYPE, new ConstantExpression( 0L ) ) ;
+            }
+            else if( !terminal.name.equals( "forEach" ) ) {
+                result = generator.declare( "result", ClassHelper.DYNAMIC_TYPE,
+                                            new ConstructorCallExpression( ClassHelper.make( ArrayList.class ), new ArgumentListExpression() ) ) ;
+            }
+
+            Expression hasNext = call( ref( iterator ), "hasNext" ) ;
+            condition = condition == null ? hasNext : binary( condition, Types.LOGICAL_AND, hasNext ) ;
+
+            BlockStatement loop = new BlockStatement( new ArrayList<Statement>(), new VariableScope( scope ) ) ;
+            List<Statement> body = loop.getStatements() ;
+            VariableExpression current = generator.declare( body, "value", call( ref( iterator ), "next" ) ) ;
+            for( int i = 0 ; i < steps.size() - 1 ; i++ ) {
+                Step step = steps.get( i ) ;
+                if( step.name.equals( "skip" ) ) {
+                    BlockStatement skipping = block( loop.getVariableScope(), increment( counters[ i ] ), new ContinueStatement() ) ;
+                    body.add( new IfStatement( new BooleanExpression( binary( ref( counters[ i ] ), Types.COMPARE_LESS_THAN, ref( arguments[ i ] ) ) ),
+                                               skipping, new EmptyStatement() ) ) ;
+                }
+                else if( step.name.equals( "take" ) ) {
+                    body.add( increment( counters[ i ] ) ) ;
+                }
+                else if( step.name.startsWith( "tap" ) ) {
+                    BlockStatement tapping = block( loop.getVariableScope() ) ;
+                    Expression index = step.withIndex() ? binary( ref( counters[ i ] ), Types.MINUS, new ConstantExpression( 1 ) ) : null ;
+                    tapping.addStatement( new ExpressionStatement( generator.bind( tapping.getStatements(), step, current, index ) ) ) ;
+                    if( counters[ i ] != null ) {
+                        body.add( increment( counters[ i ] ) ) ;
+                    }
+                    if( step.argument == null ) {
+                        body.add( tapping ) ;
+                    }
+                    else {
+                        Expression due = binary( binary( ref( counters[ i ] ), Types.MOD, ref( arguments[ i ] ) ), Types.COMPARE_EQUAL, new ConstantExpression( 0 ) ) ;
+                        body.add( new IfStatement( new BooleanExpression( due ), tapping, new EmptyStatement() ) ) ;
+                    }
+                }
+                else {
+                    Expression bound = generator.bind( body, step, current, step.withIndex() ? ref( counters[ i ] ) : null ) ;
+                    if( step.withIndex() ) {
+                        body.add( increment( counters[ i ] ) ) ;
+                    }
+                    if( step.name.startsWith( "map" ) ) {
+                        current = generator.declare( body, "value", bound ) ;
+                    }
+                    else if( step.name.startsWith( "filter" ) ) {
+                        body.add( new IfStatement( new BooleanExpression( new NotExpression( bound ) ), new ContinueStatement(), new EmptyStatement() ) ) ;
+                    }
+                    else {
+                        body.add( new IfStatement( new BooleanExpression( bound ), new BreakStatement(), new EmptyStatement() ) ) ;
+                    }
+                }
+            }
+            if( terminal.closure == null ) {
+                body.add( new ExpressionStatement( call( ref( result ), "add", ref( current ) ) ) ) ;
+            }
+            else {
+                Expression bound = generator.bind( body, terminal, current, null ) ;
+                if( terminal.name.equals( "collect" ) ) {
+                    body.add( new ExpressionStatement( call( ref( result ), "add", bound ) ) ) ;
+                }
+                else {
+                    body.add( new ExpressionStatement( bound ) ) ;
+                    if( result != null ) {
+                        body.add( increment( result ) ) ;
+                    }
+                }
+            }
+            out.add( at( new WhileStatement( new BooleanExpression( condition ), loop ), statement ) ) ;
+            return result == null ? ConstantExpression.NULL : ref( result ) ;
+        }
+    }
+
+    /**
+     * Names and declares the local variables for one pipeline.
+     */
+    private static class Generator {
+        private final String          prefix ;
+        private final Statement       statement ;
+        private final List<Statement> out ;
+        private       int             count = 0 ;
+
+        Generator( String prefix, Statement statement, List<Statement> out ) {
+            this.prefix = prefix ;
+            this.statement = statement ;
+            this.out = out ;
+        }
+
+        VariableExpression declare( String name, ClassNode type, Expression value ) {
+            VariableExpression variable = new VariableExpression( prefix + name, type ) ;
+            out.add( at( new ExpressionStatement( new DeclarationExpression( variable, Token.newSymbol( Types.ASSIGN, -1, -1 ), value ) ), statement ) ) ;
+            return variable ;
+        }
+
+        VariableExpression declare( List<Statement> body, String name, Expression value ) {
+            VariableExpression variable = new VariableExpression( prefix + name + count++, ClassHelper.DYNAMIC_TYPE ) ;
+            body.add( new ExpressionStatement( new DeclarationExpression( variable, Token.newSymbol( Types.ASSIGN, -1, -1 ), value ) ) ) ;
+            return variable ;
+        }
+
+        /**
+         * Declares a local variable for each of the step's closure parameters, and returns
+         * the body of the closure reading them instead.
+         */
+        Expression bind( List<Statement> body, Step step, VariableExpression value, Expression index ) {
+            final Map<Variable,VariableExpression> locals = new IdentityHashMap<Variable,VariableExpression>() ;
+            locals.put( step.parameters[ 0 ], declare( body, "it", ref( value ) ) ) ;
+            if( index != null ) {
+                locals.put( step.parameters[ 1 ], declare( body, "index", index ) ) ;
+            }
+            return new ClassCodeExpressionTransformer() {
+                @Override
+                public Expression transform( Expression expression ) {
+                    if( expression instanceof VariableExpression ) {
+                        VariableExpression local = locals.get( ( (VariableExpression)expression ).getAccessedVariable() ) ;
+                        if( local != null ) {
+                            return at( ref( local ), expression ) ;
+                        }
+                    }
+                    return expression == null ? null : expression.transformExpression( this ) ;
+                }
+
+                @Override
+                protected SourceUnit getSourceUnit() {
+                    return null ;
+                }
+            }.transform( body( step.closure ) ) ;
+        }
+
+        private static Expression body( ClosureExpression closure ) {
+            Statement code = ( (BlockStatement)closure.getCode() ).getStatements().get( 0 ) ;
+            return code instanceof ReturnStatement ? ( (ReturnStatement)code ).getExpression() : ( (ExpressionStatement)code ).getExpression() ;
+        }
+    }
+
+    private static VariableExpression ref( VariableExpression variable ) {
+        VariableExpression ref = new VariableExpression( variable.getName(), variable.getOriginType() ) ;
+        ref.setAccessedVariable( variable ) ;
+        return ref ;
+    }
+
+    private static Expression binary( Expression left, int type, Expression right ) {
+        return new BinaryExpression( left, Token.newSymbol( type, -1, -1 ), right ) ;
+    }
+
+    private static Statement increment( VariableExpression variable ) {
+        return new ExpressionStatement( new PostfixExpression( ref( variable ), Token.newSymbol( Types.PLUS_PLUS, -1, -1 ) ) ) ;
+    }
+
+    private static MethodCallExpression call( Expression target, String name, Expression... arguments ) {
+        MethodCallExpression call = new MethodCallExpression( target, name, new ArgumentListExpression( arguments ) ) ;
+        call.setImplicitThis( false ) ;
+        return call ;
+    }
+
+    private static BlockStatement block( VariableScope scope, Statement... statements ) {
+        BlockStatement block = new BlockStatement( new ArrayList<Statement>(), new VariableScope( scope ) ) ;
+        for( Statement statement : statements ) {
+            block.addStatement( statement ) ;
+        }
+        return block ;
+    }
+
+    private static <N extends ASTNode> N at( N node, ASTNode position ) {
+        node.setSourcePosition( position ) ;
+        return node ;
+    }
+}
@@ -53,6 +53,22 @@ class CollateTests extends spock.lang.Specification {
             result == [ 6, 12, 18, 24, 19 ]
     }
 
+    def "collated groups should be mutable lists"() {
+        setup:
+            def stream = Stream.from( 1..9 ).collate( 3, 1 )
+        when:
+            def first = stream.next()
+            first << 99
+            def second = stream.next()
+            second[ 0 ] = 20
+            second.remove( 1 )
+        then:
+            first == [ 1, 2, 3, 99 ]
+            second == [ 20, 4 ]
+            stream.next() == [ 3, 4, 5 ]
+            Stream.from( 1..9 ).collate( 3 ).next() << 99 == [ 1, 2, 3, 99 ]
+    }
+
     def "Check for NPE bug"() {
         setup:
             def stream = Stream.from 1..9 filter { it % 2 == 0 } collate( 2, false )
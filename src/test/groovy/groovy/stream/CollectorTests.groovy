@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream
+
+import groovy.stream.functions.*
+import groovy.stream.iterators.ParallelCollector
+
+class CollectorTests extends spock.lang.Specification {
+    def "built in collectors"() {
+        expect:
+            Stream.from( input ).collect( collector ) == expected
+
+        where:
+            input                  | collector                                                    | expected
+            [ 3, 1, 3 ]            | Collectors.toList()                                          | [ 3, 1, 3 ]
+            [ 3, 1, 3 ]            | Collectors.toSet()                                           | [ 3, 1 ] as Set
+            [ 'a', 1, [ 2 ] ]      | Collectors.joining()                                         | 'a1[2]'
+            [ 'a', '', 'b' ]       | Collectors.joining( '-' )                                    | 'a--b'
+            []                     | Collectors.joining( '-' )                                    | ''
+            1..10                  | Collectors.counting()                                        | 10L
+            [ 1, 2.5d ]            | Collectors.summing()                                         | 3.5d
+            1..4                   | Collectors.averaging()                                       | 2.5d
+            [ 'bb', 'a', 'c' ]     | Collectors.minBy { it.size() }                               | 'a'
+            [ 'bb', 'a', 'cc' ]    | Collectors.maxBy( { a, b -> a.size() <=> b.size() } as Comparator ) | 'bb'
+            [ 3, 1, 2 ]            | Collectors.minBy( (Comparator)null )                         | 1
+            1..5                   | Collectors.reducing { a, b -> a * b }                        | 120
+            []                     | Collectors.reducing { a, b -> a * b }                        | null
+            1..3                   | Collectors.mapping( { it * 2 }, Collectors.summing() )       | 12
+            [ 'ab', 'c', 'de' ]    | Collectors.groupingBy { it.size() }                          | [ 2:[ 'ab', 'de' ], 1:[ 'c' ] ]
+            1..6                   | Collectors.partitioningBy { it > 4 }                         | [ (false):[ 1, 2, 3, 4 ], (true):[ 5, 6 ] ]
+            []                     | Collectors.partitioningBy( { it } as Predicate, Collectors.counting() ) | [ (false):0L, (true):0L ]
+    }
+
+    def "collectors made from closures"() {
+        setup:
+            def collector = Collectors.of( { [:] }, { m, v -> m[ v ] = ( m[ v ] ?: 0 ) + 1 ; m }, { a, b -> b.each { k, v -> a[ k ] = ( a[ k ] ?: 0 ) + v } ; a }, { it.sort() } )
+
+        expect:
+            Stream.from( 'abracadabra'.toList() ).collect( collector ) == [ a:5, b:2, c:1, d:1, r:2 ]
+            Stream.from( ( 'abracadabra' * 1000 ).toList() ).parallel( 3 ).collect( collector ) == [ a:5000, b:2000, c:1000, d:1000, r:2000 ]
+    }
+
+    def "java function collectors"() {
+        setup:
+            def length = { it.size() } as Function
+
+        expect:
+            Stream.from( [ 'a', 'bb', 'cc' ] ).collect( Collectors.groupingBy( length, Collectors.counting() ) ) == [ 1:1L, 2:2L ]
+            Stream.from( [ 'a', 'bb' ] ).collect( Collectors.mapping( length, Collectors.toList() ) ) == [ 1, 2 ]
+            Stream.from( 1..4 ).collect( Collectors.reducing( { a, b -> a + b } as Function2 ) ) == 10
+    }
+
+    def "parallel collection keeps source order"() {
+        expect:
+            Stream.from( input() ).parallel( 4 ).filter { it % 5 }.map { it * 2 }.collect( Collectors.toList() ) == expected
+            Stream.from( input() ).parallel( 4 ).collect( Collectors.groupingBy { it % 3 } ).keySet().toList() == [ 1, 2, 0 ]
+
+        where:
+            input << [ { 1..10000 }, { ( 1..10000 ).toList() }, { ( 1..10000 ).iterator() } ]
+            expected = ( 1..10000 ).findAll { it % 5 }.collect { it * 2 }
+    }
+
+    def "parallel floating point sums are the same on every run"() {
+        setup:
+            def random = new Random( 42 )
+            def values = ( 1..50000 ).collect { random.nextDouble() * 10 ** random.nextInt( 12 ) }
+            def sums = ( 1..8 ).collect { n -> Stream.from( values ).parallel( n ).sum() }
+            def iteratorSums = ( 1..4 ).collect { n -> Stream.from( values.iterator() ).parallel( n ).map { it }.sum() }
+
+        expect:
+            sums.every { Double.doubleToLongBits( it ) == Double.doubleToLongBits( sums[ 0 ] ) }
+            iteratorSums.every { Double.doubleToLongBits( it ) == Double.doubleToLongBits( sums[ 0 ] ) }
+            Math.abs( sums[ 0 ] - values.sum() ) < 1e-6 * sums[ 0 ]
+    }
+
+    def "parallel terminal operations use the combining tree"() {
+        setup:
+            def source = { Stream.from( 1..5000 ).parallel( 4 ).map { it * 2 } }
+
+        expect:
+            source().count() == 5000
+            source().reduce { a, b -> a + b } == 5001 * 5000
+            source().min() == 2
+            source().max { it % 1000 } == 998
+            source().average() == 5001d
+    }
+
+    def "parallel collection consumes the stream"() {
+        setup:
+            def stream = Stream.from( 1..3000 ).parallel( 2 )
+
+        when:
+            def count = stream.collect( Collectors.counting() )
+
+        then:
+            count == 3000
+            !stream.hasNext()
+    }
+
+    def "stateful stages are collected in order after the parallel part"() {
+        expect:
+            Stream.from( 1..3000 ).parallel( 4 ).map { it * 2 }.mapWithIndex { it, idx -> it - idx }.collect( Collectors.toSet() ) == [ 2..3001 ].flatten() as Set
+    }
+
+    def "errors from workers are thrown to the caller"() {
+        when:
+            Stream.from( 1..5000 ).parallel( 2 ).map { if( it == 4000 ) throw new IllegalStateException( 'bad' ) ; it }.collect( Collectors.toList() )
+
+        then:
+            def ex = thrown( IllegalStateException )
+            ex.message == 'bad'
+    }
+
+    def "the leaf size is fixed"() {
+        expect:
+            ParallelCollector.LEAF_SIZE == 1024
+    }
+}
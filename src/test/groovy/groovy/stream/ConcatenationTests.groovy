@@ -27,4 +27,63 @@ class ConcatenationTests extends spock.lang.Specification {
         then:
             result == [ 1, 2, 3, 'a', 'b', 'c' ]
     }
-}
\ No newline at end of file
+
+    def "concatenating in a loop should not nest"() {
+        setup:
+            def stream = Stream.from( [ 0 ] )
+            ( 1..20000 ).each { stream = stream.concat( [ it ].iterator() ) }
+
+        expect:
+            stream.collect() == ( 0..20000 ).toList()
+    }
+
+    def "concatenating onto a started stream should keep its next element"() {
+        setup:
+            def stream = Stream.concatAll( [ 1, 2 ].iterator(), [ 3 ].iterator() )
+            stream.hasNext()
+
+        expect:
+            stream.concat( [ 4 ].iterator() ).collect() == [ 1, 2, 3, 4 ]
+    }
+
+    def "concatenating onto a stream should leave it as it was"() {
+        setup:
+            def a = Stream.from( 1..2 ).concat( Stream.from( 3..4 ) )
+            def b = a.concat( Stream.from( 5..6 ) )
+            def c = a.concat( Stream.from( 7..8 ) )
+
+        expect:
+            a.collect() == [ 1, 2, 3, 4 ]
+            b.collect() == [ 5, 6 ]
+            c.collect() == [ 7, 8 ]
+    }
+
+    def "concatenated streams should share what is left of earlier ones"() {
+        setup:
+            def a = Stream.from( 1..2 ).concat( Stream.from( 3..4 ) )
+            def b = a.concat( Stream.from( 5..6 ) )
+
+        expect:
+            b.take( 3 ).collect() == [ 1, 2, 3 ]
+            a.collect() == [ 4 ]
+            b.collect() == [ 5, 6 ]
+    }
+
+    def "concatAll should read each iterator in turn"() {
+        setup:
+            def read = []
+            def shards = ( 1..3 ).collect { n -> Stream.from( [ n, n ] ).tap { read << it } }
+
+        when:
+            def stream = Stream.concatAll( shards )
+
+        then:
+            stream.take( 3 ).collect() == [ 1, 1, 2 ]
+            read == [ 1, 1, 2 ]
+    }
+
+    def "concatAll with nothing should be empty"() {
+        expect:
+            Stream.concatAll( [] ).collect() == []
+    }
+}
@@ -16,6 +16,10 @@
 
 package groovy.stream
 
+import groovy.stream.iterators.LineIndex
+import groovy.stream.iterators.MappedLineIterator
+
+import java.nio.charset.Charset
 import java.util.jar.JarFile
 import java.util.zip.ZipFile
 
@@ -66,4 +70,196 @@ class FileTests extends spock.lang.Specification {
                         'File B',
                         'And File C' ]
     }
-}
\ No newline at end of file
+
+    def "mapped lines should match readLine for every window size"() {
+        setup:
+            def text = 'first\nsecond\r\n\nthird\r\rcaf\u00e9 \u2603\r\n\u00fcber\nlast'
+            def file = tempFile( text.getBytes( 'UTF-8' ) )
+            def expected = Stream.from( new BufferedReader( new StringReader( text ) ) ).collect()
+        expect:
+            ( 1..12 ).every { size ->
+                Stream.from( new MappedLineIterator( file, UTF8, 0, -1, size ) ).map { it.toString() }.collect() == expected
+            }
+            Stream.lines( file ).map { it.toString() }.collect() == expected
+    }
+
+    def "mapped lines should be read in place when they are ascii"() {
+        setup:
+            def file = tempFile( 'plain\nna\u00efve\n'.getBytes( 'UTF-8' ) )
+            def lines = new MappedLineIterator( file, UTF8 )
+        when:
+            def first = lines.next()
+            def ascii = first.isAscii()
+            def copy = first.toString()
+            def second = lines.next()
+        then:
+            ascii
+            !second.isAscii()
+            first.is( second )
+            copy == 'plain'
+            second.toString() == 'na\u00efve'
+            second.length() == 5
+            second.charAt( 2 ) == '\u00ef'
+            second.subSequence( 1, 4 ) == 'a\u00efv'
+            !lines.hasNext()
+    }
+
+    def "mapped lines should skip without decoding"() {
+        setup:
+            def file = tempFile( ( 1..100 ).join( '\r\n' ).getBytes( 'UTF-8' ) )
+        expect:
+            Stream.from( new MappedLineIterator( file, UTF8, 0, -1, 16 ) ).skip( 95 ).map { it.toString() }.collect() == [ '96', '97', '98', '99', '100' ]
+            Stream.lines( file ).skip( 200 ).collect() == []
+    }
+
+    def "mapped lines should read other single byte charsets"() {
+        setup:
+            def latin = Charset.forName( 'ISO-8859-1' )
+            def file = tempFile( 'd\u00e9j\u00e0\nvu'.getBytes( latin ) )
+        expect:
+            Stream.lines( file, latin ).map { it.toString() }.collect() == [ 'd\u00e9j\u00e0', 'vu' ]
+            Stream.lines( tempFile( new byte[ 0 ] ) ).collect() == []
+    }
+
+    def "mapped lines should be compared by content"() {
+        setup:
+            def file = tempFile( 'GET\nPOST\nGET\nna\u00efve\n'.getBytes( 'UTF-8' ) )
+        expect:
+            Stream.lines( file ).filter { it == 'GET' }.count() == 0
+            Stream.lines( file ).filter { it.contentEquals( 'GET' ) }.count() == 2
+            Stream.lines( file ).filter { it.contentEquals( 'na\u00efve' ) }.count() == 1
+            !Stream.lines( file ).next().contentEquals( 'GE' )
+            !Stream.lines( file ).next().contentEquals( null )
+    }
+
+    def "closing a line stream should close the file"() {
+        setup:
+            def file = tempFile( ( 1..100 ).join( '\n' ).getBytes( 'UTF-8' ) )
+            def lines = Stream.lines( file )
+            def mapped = lines.map { it.toString() }
+            def iter = new MappedLineIterator( file, UTF8 )
+        when:
+            def first = mapped.next()
+            mapped.close()
+            iter.next()
+            iter.close()
+            iter.close()
+        then:
+            first == '1'
+            !mapped.hasNext()
+            !lines.hasNext()
+            !iter.hasNext()
+            iter.skip( 5 ) == 0
+    }
+
+    def "mapped lines should reject charsets with wide line ends"() {
+        when:
+            Stream.lines( tempFile( 'a\nb'.getBytes( 'UTF-16' ) ), Charset.forName( 'UTF-16' ) )
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "line index should find every indexed line"() {
+        setup:
+            def lines = ( 0..<1000 ).collect { "line ${it} \u00e9".toString() }
+            def file = tempFile( lines.join( '\r\n' ).getBytes( 'UTF-8' ) )
+            def index = LineIndex.build( file, 64 )
+        expect:
+            index.lineCount == 1000
+            index.checkpoint( 200 ) == 192
+            index.checkpoint( 5000 ) == 960
+            [ 0, 1, 63, 64, 65, 500, 999, 1000, 2000 ].every { n ->
+                Stream.lines( index, UTF8 ).skip( n ).map { it.toString() }.collect() == lines.drop( n )
+            }
+            Stream.lines( index, UTF8, 130, 140 ).map { it.toString() }.collect() == lines[ 130..<140 ]
+            Stream.lines( index, UTF8, 990, -1 ).map { it.toString() }.collect() == lines[ 990..<1000 ]
+    }
+
+    def "line index skips by more than is left should not overflow"() {
+        setup:
+            def file = tempFile( ( 0..<200 ).join( '\n' ).getBytes( 'UTF-8' ) )
+            def index = LineIndex.build( file, 16 )
+            def iter = new MappedLineIterator( index, UTF8, 0, -1 )
+            def ranged = new MappedLineIterator( index, UTF8, 20, 40 )
+        when:
+            iter.next()
+            ranged.next()
+        then:
+            iter.skip( Long.MAX_VALUE ) == 199
+            !iter.hasNext()
+            ranged.skip( Long.MAX_VALUE - 1 ) == 19
+            !ranged.hasNext()
+            Stream.lines( index, UTF8 ).skip( 5 ).skip( Long.MAX_VALUE ).collect() == []
+    }
+
+    def "line index should split a file into balanced ranges"() {
+        setup:
+            def file = tempFile( ( 1..n ).join( '\n' ).getBytes( 'UTF-8' ) )
+            def index = LineIndex.build( file, 10 )
+            def parts = Stream.splitLines( index, UTF8, 4 )
+        expect:
+            parts.size() == count
+            parts.collectMany { part -> part.map { it.toString().toInteger() }.collect() } == ( 1..n ).toList()
+            index.split( 4 ) == bounds as long[]
+        where:
+            n    | count | bounds
+            1000 | 4     | [ 0, 250, 500, 750, 1000 ]
+            95   | 4     | [ 0, 20, 40, 70, 95 ]
+            15   | 2     | [ 0, 10, 15 ]
+    }
+
+    def "line index should be saved and rebuilt when out of date"() {
+        setup:
+            def file = tempFile( ( 1..100 ).join( '\n' ).getBytes( 'UTF-8' ) )
+            def sidecar = LineIndex.sidecarFor( file )
+            sidecar.deleteOnExit()
+        when:
+            def built = LineIndex.forFile( file, sidecar, 8 )
+            def loaded = LineIndex.load( file, sidecar )
+        then:
+            sidecar.isFile()
+            loaded.lineCount == 100
+            loaded.interval == 8
+            ( 0..96 ).step( 8 ).every { loaded.offset( it ) == built.offset( it ) }
+        when:
+            file.append( '\n101' )
+        then:
+            !loaded.isCurrent()
+            LineIndex.load( file, sidecar ) == null
+            LineIndex.forFile( file, sidecar, 8 ).lineCount == 101
+        when:
+            new MappedLineIterator( loaded, UTF8, 0, -1 )
+        then:
+            thrown IllegalArgumentException
+        when:
+            sidecar.bytes = [ 1, 2, 3 ] as byte[]
+        then:
+            LineIndex.load( file, sidecar ) == null
+            LineIndex.forFile( file, sidecar, 8 ).lineCount == 101
+            LineIndex.forFile( file, sidecar, 16 ).interval == 16
+    }
+
+    def "line index should be out of date after a rewrite of the same length"() {
+        setup:
+            def file = tempFile( ( 1..100 ).join( '\n' ).getBytes( 'UTF-8' ) )
+            file.lastModified = 1000000000000L
+            def index = LineIndex.build( file, 8 )
+        when:
+            file.bytes = ( 1..100 ).join( '\n' ).replace( '1', '9' ).getBytes( 'UTF-8' )
+            file.lastModified = 1000000060000L
+            new MappedLineIterator( index, UTF8, 0, -1 )
+        then:
+            file.length() == index.length
+            !index.isCurrent()
+            thrown IllegalArgumentException
+    }
+
+    private static final Charset UTF8 = Charset.forName( 'UTF-8' )
+
+    private File tempFile( byte[] content ) {
+        File file = File.createTempFile( 'mapped', '.txt' )
+        file.deleteOnExit()
+        file.bytes = content
+        file
+    }
+}
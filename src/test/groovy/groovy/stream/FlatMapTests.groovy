@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream
+
+import groovy.stream.functions.Emitter
+import groovy.stream.functions.Function
+import groovy.stream.functions.Function2
+
+class FlatMapTests extends spock.lang.Specification {
+    def "iterators should be read lazily"() {
+        setup:
+            def read = 0
+            def result = Stream.from( 1..3 )
+                               .flatMap { n -> ( 1..5 ).iterator().collect { read++ ; it }.iterator() }
+                               .take( 2 )
+                               .collect()
+            read = 0
+            def lazy = Stream.from( 1..3 )
+                             .flatMap { n -> Stream.from( 1..5 ).tap { read++ } }
+                             .take( 2 )
+                             .collect()
+
+        expect:
+            result == [ 1, 2 ]
+            lazy == [ 1, 2 ]
+            read == 2
+    }
+
+    def "nested expansions should keep their order"() {
+        expect:
+            Stream.from( 1..2 )
+                  .flatMap { a -> ( 1..2 ).collect { [ a, it ] } }
+                  .flatMap { pair -> [ pair.sum() ] * pair[ 1 ] }
+                  .filter { it > 2 }
+                  .collect() == [ 3, 3, 3, 4, 4 ]
+    }
+
+    def "null and empty results should be skipped"() {
+        expect:
+            Stream.from( 1..4 ).flatMap { it % 2 ? null : [ it ] }.collect() == [ 2, 4 ]
+            Stream.from( 1..4 ).flatMap { it % 2 ? [] : [ it ].iterator() }.collect() == [ 2, 4 ]
+    }
+
+    def "functions returning iterables and iterators should work"() {
+        setup:
+            def iterable = { n -> [ n ] * n } as Function
+            def iterator = { n -> Stream.from( 1..n ) } as Function
+
+        expect:
+            Stream.from( 1..3 ).flatMap( iterable ).collect() == [ 1, 2, 2, 3, 3, 3 ]
+            Stream.from( 1..3 ).flatMapIterator( iterator ).collect() == [ 1, 1, 2, 1, 2, 3 ]
+    }
+
+    def "pulling then draining should carry on from inside an expansion"() {
+        setup:
+            def stream = Stream.from( 1..3 ).flatMap { [ it ] * 2 }
+
+        expect:
+            stream.next() == 1
+            stream.toList() == [ 1, 2, 2, 3, 3 ]
+    }
+
+    def "emitted values should be pulled in order"() {
+        expect:
+            Stream.from( 1..3 )
+                  .flatMapEmit { n, emit -> n.times { emit( n ) } }
+                  .map { it * 10 }
+                  .collect() == [ 10, 20, 20, 30, 30, 30 ]
+    }
+
+    def "emitted values should be pushed straight downstream"() {
+        setup:
+            def events = []
+            Stream.from( 1..2 )
+                  .flatMapEmit { n, emit -> events << "in $n" ; emit( n ) ; emit( -n ) }
+                  .forEach { events << "out $it" }
+
+        expect:
+            events == [ 'in 1', 'out 1', 'out -1', 'in 2', 'out 2', 'out -2' ]
+    }
+
+    def "pushing emitted values should stop at a limit"() {
+        setup:
+            def emitted = 0
+            def list = Stream.from( 1..100 )
+                             .flatMapEmit { n, emit -> 10.times { emitted++ ; emit( n ) } }
+                             .take( 3 )
+                             .toList()
+
+        expect:
+            list == [ 1, 1, 1 ]
+            emitted == 10
+    }
+
+    def "emitting functions should work"() {
+        setup:
+            def body = { n, Emitter emit -> emit.call( n ) ; emit.call( n ) } as Function2
+
+        expect:
+            Stream.from( 1..2 ).flatMapEmit( body ).collect() == [ 1, 1, 2, 2 ]
+            Stream.from( 1..2 ).flatMapEmit( body ).toList() == [ 1, 1, 2, 2 ]
+    }
+
+    def "emitting should run on parallel workers"() {
+        expect:
+            Stream.from( 1..100 )
+                  .parallel( 4 )
+                  .flatMapEmit { n, emit -> emit( n ) ; emit( n ) }
+                  .collect() == ( 1..100 ).collectMany { [ it, it ] }
+    }
+
+    def "expansions after a completed take should be read to the end"() {
+        setup:
+            def pulled = []
+            def pull = stream()
+            while( pull.hasNext() ) {
+                pulled << pull.next()
+            }
+        expect:
+            pulled == [ 1, 1, 2, 2 ]
+            stream().toList() == [ 1, 1, 2, 2 ]
+            stream().collect() == [ 1, 1, 2, 2 ]
+        where:
+            stream << [ { Stream.from( 1..5 ).map { it }.take( 2 ).flatMap { [ it, it ] } },
+                        { Stream.from( 1..5 ).map { it }.take( 2 ).flatMapEmit { n, emit -> emit( n ) ; emit( n ) } },
+                        { Stream.from( 1..5 ).take( 2 ).flatMap { [ it ] }.flatMap { [ it, it ] } } ]
+    }
+
+    def "a take after an expansion should still stop reading the source"() {
+        setup:
+            def read = []
+        when:
+            def pushed = Stream.from( 1..5 ).tap { read << it }.flatMap { [ it, it ] }.take( 3 ).toList()
+        then:
+            pushed == [ 1, 1, 2 ]
+            read == [ 1, 2 ]
+    }
+}
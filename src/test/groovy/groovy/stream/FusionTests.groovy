@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream
+
+class FusionTests extends spock.lang.Specification {
+    def "mixed pipelines should behave as before"() {
+        setup:
+            def log = []
+            def stream = Stream.from( 1..10 )
+                               .tap { log << "in:$it" }
+                               .filter { it % 2 }
+                               .mapWithIndex { it, idx -> it * idx }
+                               .untilWithIndex { it, idx -> idx == 3 }
+                               .tapWithIndex { it, idx -> log << "out:$idx" }
+        when:
+            def result = stream.collect()
+        then:
+            result == [ 0, 3, 10 ]
+            log == [ 'in:1', 'out:0', 'in:2', 'in:3', 'out:1', 'in:4', 'in:5', 'out:2', 'in:6', 'in:7' ]
+    }
+
+    def "derived streams share the source"() {
+        setup:
+            def base = Stream.from( 1..6 ).map { it * 2 }
+            def odd  = base.filter { it % 4 }
+        expect:
+            odd.next() == 2
+            base.next() == 4
+            odd.collect() == [ 6, 10 ]
+    }
+
+    def "stages added after iteration starts wrap the running stream"() {
+        setup:
+            def base = Stream.from( 1..6 ).map { it * 2 }
+        when:
+            def first = base.next()
+            def rest = base.map { it + 1 }.collect()
+        then:
+            first == 2
+            rest == [ 5, 7, 9, 11, 13 ]
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream
+
+class InlineStreamsTests extends spock.lang.Specification {
+    def "inlined pipelines give the same result as the runtime"() {
+        expect:
+            loader( pipeline, true ).loadedClasses.size() == 1
+            compile( pipeline, true ).run() == compile( pipeline, false ).run()
+
+        where:
+            pipeline << [ 'Stream.from( 1..10 ).filter { it % 3 }.map { it * 2 }.collect()',
+                          'Stream.from( 1..10 ).mapWithIndex { it, idx -> it * idx }.filterWithIndex { it, idx -> idx % 2 }.toList()',
+                          'Stream.from( 1..10 ).skip( 2 ).take( 3 ).collect { it + 1 }',
+                          'Stream.from( 1..10 ).until { it > 4 }.map { it * it }.collect()',
+                          'Stream.from( 1..10 ).untilWithIndex { it, idx -> idx == 6 }.take( 4 ).collect()',
+                          'def seen = [] ; def r = Stream.from( 1..10 ).tapEveryWithIndex( 3 ) { it, idx -> seen << [ it, idx ] }.take( 8 ).collect() ; r + seen',
+                          'def seen = [] ; def n = Stream.from( 1..5 ).tap { seen << it }.tapWithIndex { it, idx -> seen << idx }.each { seen << -it } ; [ n ] + seen',
+                          'def seen = [] ; Stream.from( "a".."c" ).forEach { seen << it.toUpperCase() } ; seen',
+                          'def limit = 3 ; def r = Stream.from( [ 5, 1, 4, 2 ] ).filter { it > limit }.collect() ; r',
+                          'List r ; r = Stream.from( [ 1, 2 ] ).map { x -> [ x ] }.collect() ; r',
+                          'Stream.from( 1..10 ).take( 0 ).collect()' ]
+    }
+
+    def "inlined pipelines do not create closures"() {
+        when:
+            def loader = loader( 'Stream.from( 1..10 ).filter { it % 3 }.map { it * 2 }.take( 4 ).collect()', true )
+
+        then:
+            loader.loadedClasses*.name == [ 'Sample' ]
+            loader.loadedClasses[ 0 ].newInstance().run() == [ 2, 4, 8, 10 ]
+    }
+
+    def "take stops reading the source"() {
+        setup:
+            def sample = compile( 'def n = 0 ; def r = Stream.from( 1..10 ).tap { n++ }.take( 3 ).collect() ; [ r, n ]', true )
+
+        expect:
+            sample.run() == [ [ 1, 2, 3 ], 3 ]
+    }
+
+    def "closures which need their delegate are not inlined"() {
+        when:
+            def loader = loader( 'Stream.from( [ "a", "b" ] ).map { toUpperCase() }.collect()', true )
+
+        then:
+            loader.loadedClasses.size() > 1
+            loader.loadedClasses.find { it.name == 'Sample' }.newInstance().run() == [ 'A', 'B' ]
+    }
+
+    def "pipelines that cannot be inlined still run"() {
+        expect:
+            compile( pipeline, true ).run() == result
+
+        where:
+            pipeline                                                              | result
+            'Stream.from( 1..4 ).map { it * 2 }.collate( 2 ).collect()'            | [ [ 2, 4 ], [ 6, 8 ] ]
+            'def f = { it * 2 } ; Stream.from( 1..3 ).map( f ).collect()'         | [ 2, 4, 6 ]
+            'Stream.from( 1..3 ).map { Integer x -> x * 2 }.collect()'            | [ 2, 4, 6 ]
+            'Stream.from( 1..3 ).map { def y = it ; y * 2 }.collect()'            | [ 2, 4, 6 ]
+    }
+
+    def "annotated classes and methods"() {
+        setup:
+            def pipelines = new InlinedPipelines()
+
+        expect:
+            pipelines.evens( 1..6 ) == [ 20, 40, 60 ]
+            pipelines.scaled( [ 1, 2, 3 ] ) == [ 3, 6, 9 ]
+            pipelines.total( 1..4 ) == 10
+    }
+
+    def "annotated classes have no closure classes"() {
+        when:
+            InlineStreamsTests.classLoader.loadClass( 'groovy.stream.InlinedPipelines$_evens_closure1' )
+
+        then:
+            thrown( ClassNotFoundException )
+    }
+
+    private static loader( String pipeline, boolean inline ) {
+        def loader = new GroovyClassLoader( InlineStreamsTests.classLoader )
+        loader.parseClass( """import groovy.stream.*
+                             |class Sample {
+                             |  ${inline ? '@InlineStreams' : ''}
+                             |  def run() { $pipeline }
+                             |}""".stripMargin() )
+        loader
+    }
+
+    private static compile( String pipeline, boolean inline ) {
+        loader( pipeline, inline ).loadedClasses.find { it.name == 'Sample' }.newInstance()
+    }
+}
+
+@InlineStreams
+class InlinedPipelines {
+    int factor = 3
+
+    List evens( numbers ) {
+        Stream.from( numbers ).filter { it % 2 == 0 }.map { it * 10 }.collect()
+    }
+
+    List scaled( numbers ) {
+        return Stream.from( numbers ).map { it * factor }.toList()
+    }
+
+    int total( numbers ) {
+        int sum = 0
+        Stream.from( numbers ).forEach { sum += it }
+        sum
+    }
+}
@@ -111,4 +111,56 @@ class IteratorTests extends spock.lang.Specification {
         then:
             thrown(IllegalArgumentException)
     }
-}
\ No newline at end of file
+
+    def "Repeating a collection should read it again rather than caching it"() {
+        setup:
+            def list = [ 1, 2, 3 ]
+            def stream = Stream.from( list ).map { it * 2 }.repeat( 2 )
+
+        when:
+            def first = stream.take( 3 ).collect()
+            list[ 0 ] = 10
+
+        then:
+            first == [ 2, 4, 6 ]
+            stream.collect() == [ 20, 4, 6 ]
+    }
+
+    def "Repeating a collection should run the stages again on every pass"() {
+        setup:
+            def taps = 0
+            def every = 0
+            def stream = Stream.from( [ 1, 2, 3 ] ).tap { taps++ }.tapEvery( 3 ) { every++ }.repeat( 2, 1 )
+
+        expect:
+            stream.collect() == [ 1, 2, 3 ] * 2
+            taps == 6
+            every == 2
+    }
+
+    def "Repeating an iterator should run the stages once"() {
+        setup:
+            def taps = 0
+            def every = 0
+            def stream = Stream.from( [ 1, 2, 3 ].iterator() ).tap { taps++ }.tapEvery( 3 ) { every++ }.repeat( 2, 1 )
+
+        expect:
+            stream.collect() == [ 1, 2, 3 ] * 2
+            taps == 3
+            every == 1
+    }
+
+    def "Repeating a started stream should cache it"() {
+        setup:
+            def stream = Stream.from( [ 1, 2, 3 ] )
+            stream.next()
+
+        expect:
+            stream.repeat( 2 ).collect() == [ 2, 3, 2, 3 ]
+    }
+
+    def "Repeating an iterator with a memory limit should spill"() {
+        expect:
+            Stream.from( ( 1..50 ).iterator() ).repeat( 2, 5 ).collect() == ( 1..50 ) * 2
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream
+
+import groovy.stream.iterators.MapIterator
+import java.util.concurrent.Executors
+
+class ParallelTests extends spock.lang.Specification {
+    def "parallel streams keep source order"() {
+        setup:
+            def expected = ( 1..10000 ).findAll { it % 7 }.collect { it * 3 }
+        expect:
+            Stream.from( input ).parallel( 4 ).filter { it % 7 }.map { it * 3 }.collect() == expected
+
+        where:
+            input << [ 1..10000, ( 1..10000 ).toList(), ( 1..10000 ) as int[], ( 1..10000 ).iterator() ]
+    }
+
+    def "flatMap and tap run on the workers"() {
+        setup:
+            def tapped = Collections.synchronizedList( [] )
+        when:
+            def result = Stream.from( 1..200 ).parallel( 3 )
+                               .tap { tapped << it }
+                               .flatMap { [ it ] * ( it % 3 ) }
+                               .collect()
+        then:
+            result == ( 1..200 ).collectMany { [ it ] * ( it % 3 ) }
+            tapped.sort() == ( 1..200 ).toList()
+    }
+
+    def "closure delegates are set per worker"() {
+        expect:
+            Stream.from( ( 1..500 ).collect { [ a:it ] } ).parallel( 4 ).map { a * 2 }.collect() == ( 1..500 ).collect { it * 2 }
+    }
+
+    def "stateful stages run in order on the calling thread"() {
+        expect:
+            Stream.from( 1..1000 ).parallel( 4 )
+                  .map { it * 2 }
+                  .mapWithIndex { it, idx -> [ idx, it ] }
+                  .until { it[ 0 ] == 5 }
+                  .collect() == [ [ 0, 2 ], [ 1, 4 ], [ 2, 6 ], [ 3, 8 ], [ 4, 10 ] ]
+    }
+
+    def "exceptions reach the consumer"() {
+        when:
+            Stream.from( 1..100 ).parallel( 2 ).map { if( it == 50 ) throw new IllegalStateException( 'boom' ) ; it }.collect()
+        then:
+            IllegalStateException ex = thrown()
+            ex.message == 'boom'
+    }
+
+    def "supplied executors are left running"() {
+        setup:
+            def pool = Executors.newFixedThreadPool( 2 )
+        when:
+            def result = Stream.from( 1..10 ).parallel( pool ).map { it + 1 }.drainTo( [] )
+        then:
+            result == 2..11
+            !pool.isShutdown()
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "invalid thread counts are rejected"() {
+        when:
+            Stream.from( 1..10 ).parallel( 0 )
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "map combinations should be split into index ranges"() {
+        setup:
+            def map = [ a:1..30, b:1..30, c:[ 'x', 'y' ] ]
+            def expected = Stream.from( map ).filter { a % b == 0 }.map { "$a/$b/$c".toString() }.collect()
+        when:
+            def result = Stream.from( map ).parallel( 4 ).filter { a % b == 0 }.map { "$a/$b/$c".toString() }.collect()
+        then:
+            result == expected
+    }
+
+    def "map combinations too many for a list should be split into long index ranges"() {
+        setup:
+            def map = [ a:0..<65536, b:0..<65536 ]
+            def tail = { -> def iter = new MapIterator( map ) ; iter.skip( 65536L * 65536 - 5000 ) ; iter }
+            def expected = Stream.from( tail() ).filter { b % 3 == 0 }.map { "$a/$b".toString() }.collect()
+        expect:
+            tail().asList() == null
+            Stream.from( tail() ).parallel( 4 ).filter { b % 3 == 0 }.map { "$a/$b".toString() }.collect() == expected
+            Stream.from( tail() ).parallel( 4 ).map { b }.sum() == Stream.from( tail() ).map { b }.sum()
+    }
+
+    def "unordered parallel streams should return every result"() {
+        setup:
+            def expected = ( 1..500 ).collect { it * 3 }
+        when:
+            def result = Stream.from( 1..500 ).parallel( 4, false ).map { if( it % 7 == 0 ) sleep( 1 ) ; it * 3 }.collect()
+        then:
+            result.sort() == expected
+    }
+
+    def "reused map combinations should be copied for parallel chunks"() {
+        when:
+            def result = Stream.from( [ a:1..3, b:1..3 ], true ).parallel( 2 ).filter { a != b }.collect()
+        then:
+            result.collect { [ it.a, it.b ] } == [ [ 1, 2 ], [ 1, 3 ], [ 2, 1 ], [ 2, 3 ], [ 3, 1 ], [ 3, 2 ] ]
+    }
+
+    def "parallel streams stopped early should let go of their threads"() {
+        setup:
+            def before = poolThreads()
+        when:
+            20.times {
+                Stream.from( 1..100000 ).parallel( 4 ).map { it * 2 }.take( 3 ).collect()
+            }
+        then:
+            settles { poolThreads() <= before }
+    }
+
+    def "abandoned and closed parallel streams should let go of their threads"() {
+        setup:
+            def before = poolThreads()
+        when:
+            10.times {
+                def stream = Stream.from( 1..100000 ).parallel( 4 ).map { it * 2 }
+                stream.next()
+            }
+            def closed = Stream.from( ( 1..100000 ).iterator() ).parallel( 4 ).map { it * 2 }
+            closed.next()
+            closed.close()
+        then:
+            !closed.hasNext()
+            settles { poolThreads() <= before }
+    }
+
+    private static int poolThreads() {
+        Thread.allStackTraces.keySet().count { it.daemon && it.alive && it.name.startsWith( 'pool-' ) }
+    }
+
+    private static boolean settles( Closure<Boolean> condition ) {
+        long deadline = System.currentTimeMillis() + 10000
+        while( !condition() && System.currentTimeMillis() < deadline ) {
+            Thread.sleep( 50 )
+        }
+        condition()
+    }
+}
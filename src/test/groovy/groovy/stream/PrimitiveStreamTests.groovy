@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+class PrimitiveStreamTests extends spock.lang.Specification {
+    def "IntStream should filter, map and take without boxing stages"() {
+        setup:
+            int[] values = 1..20
+        when:
+            def result = IntStream.from( values )
+                                  .filter { it % 3 == 0 }
+                                  .map { it * 2 }
+                                  .take( 4 )
+                                  .boxed()
+                                  .collect()
+        then:
+            result == [ 6, 12, 18, 24 ]
+    }
+
+    def "IntStream should accept the primitive function interfaces"() {
+        setup:
+            def even = new groovy.stream.functions.IntPredicate() {
+                boolean call( int value ) { value % 2 == 0 }
+            }
+            def square = new groovy.stream.functions.IntUnaryFunction() {
+                int call( int value ) { value * value }
+            }
+        expect:
+            IntStream.range( 0, 8 ).filter( even ).map( square ).boxed().collect() == [ 0, 4, 16, 36 ]
+    }
+
+    def "nextInt should return the primitive values"() {
+        setup:
+            def stream = IntStream.range( 5, 8 )
+        when:
+            def result = []
+            while( stream.hasNext() ) {
+                result << stream.nextInt()
+            }
+        then:
+            result == [ 5, 6, 7 ]
+    }
+
+    def "until and skip should work on LongStream"() {
+        expect:
+            LongStream.range( 0L, 100L ).skip( 3 ).until { it > 6 }.boxed().collect() == [ 3L, 4L, 5L, 6L ]
+    }
+
+    def "DoubleStream should map values"() {
+        setup:
+            double[] values = [ 1.5, 2.5, 3.5 ]
+        expect:
+            DoubleStream.from( values ).map { it * 2 }.boxed().collect() == [ 3.0d, 5.0d, 7.0d ]
+    }
+
+    def "collate should produce primitive arrays"() {
+        setup:
+            int[] values = 1..7
+        when:
+            def result = IntStream.from( values ).collate( 3 ).collect()
+        then:
+            result*.class.unique() == [ int[] ]
+            result.collect { it as List } == [ [ 1, 2, 3 ], [ 4, 5, 6 ], [ 7 ] ]
+    }
+
+    def "collate should match Stream.collate for windows"() {
+        setup:
+            int[] values = 1..7
+        expect:
+            IntStream.from( values ).collate( size, step, keep ).collect { it as List } ==
+                Stream.from( 1..7 ).collate( size, step, keep ).collect()
+        where:
+            size | step | keep
+            3    | 1    | true
+            3    | 1    | false
+            3    | 2    | true
+            3    | 2    | false
+            4    | 4    | false
+    }
+
+    def "mapToInt should bridge from a Stream"() {
+        expect:
+            Stream.from( [ 'a', 'bb', 'ccc' ] ).mapToInt { it.length() }.map { it * 10 }.boxed().collect() == [ 10, 20, 30 ]
+            Stream.from( 1..3 ).mapToLong { it }.boxed().collect() == [ 1L, 2L, 3L ]
+            Stream.from( 1..3 ).mapToDouble { it / 2 }.boxed().collect() == [ 0.5d, 1.0d, 1.5d ]
+    }
+
+    def "mapToObj should return to a Stream"() {
+        expect:
+            IntStream.range( 0, 3 ).mapToObj { "v$it".toString() }.collect() == [ 'v0', 'v1', 'v2' ]
+    }
+
+    def "primitive streams should fill arrays"() {
+        expect:
+            IntStream.range( 0, 5000 ).toArray() as List == ( 0..<5000 ).toList()
+            IntStream.range( 0, 5000 ).filter { it % 2 }.toArray().length == 2500
+            LongStream.range( 5, 5 ).toArray().length == 0
+            LongStream.from( [ 1, 2, 3 ] as long[] ).skip( 1 ).toArray() == [ 2, 3 ] as long[]
+            DoubleStream.from( [ 1, 2, 3 ] as double[] ).map { it * 2 }.toArray() == [ 2, 4, 6 ] as double[]
+    }
+
+    def "writeTo should fill the buffer and leave the rest in the stream"() {
+        setup:
+            def stream = IntStream.range( 0, 10 )
+            def buffer = ByteBuffer.allocateDirect( 16 ).order( ByteOrder.LITTLE_ENDIAN )
+            def written = []
+        when:
+            while( stream.writeTo( buffer ) > 0 ) {
+                buffer.flip()
+                while( buffer.hasRemaining() ) {
+                    written << buffer.getInt()
+                }
+                buffer.clear()
+            }
+        then:
+            written == ( 0..9 ).toList()
+    }
+
+    def "writeTo should write longs and doubles"() {
+        setup:
+            def buffer = ByteBuffer.allocate( 48 )
+        when:
+            def longs = LongStream.range( 1, 4 ).writeTo( buffer )
+            def doubles = DoubleStream.from( [ 0.5, 1.5, 2.5, 3.5 ] as double[] ).writeTo( buffer )
+            buffer.flip()
+        then:
+            longs == 3
+            doubles == 3
+            [ buffer.getLong(), buffer.getLong(), buffer.getLong() ] == [ 1L, 2L, 3L ]
+            [ buffer.getDouble(), buffer.getDouble(), buffer.getDouble() ] == [ 0.5d, 1.5d, 2.5d ]
+    }
+}
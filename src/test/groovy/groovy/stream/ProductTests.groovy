@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream
+
+import groovy.stream.functions.Function
+import groovy.stream.functions.Predicate
+
+class ProductTests extends spock.lang.Specification {
+    def "fixed keys should match Stream.from( Map )"() {
+        expect:
+            Stream.product().key( 'a', 1..3 ).key( 'b', 'a'..'c' ).stream().collect() ==
+                Stream.from( a:1..3, b:'a'..'c' ).collect()
+    }
+
+    def "constraints should prune whole subtrees"() {
+        setup:
+            def checks = 0
+            def result = Stream.product()
+                               .key( 'a', 1..10 ).where { checks++ ; a == 2 }
+                               .key( 'b', 1..10 ).where { checks++ ; b > 8 }
+                               .stream()
+                               .collect()
+
+        expect:
+            result == [ [ a:2, b:9 ], [ a:2, b:10 ] ]
+            checks == 20
+    }
+
+    def "constraints can be attached to an earlier key"() {
+        expect:
+            Stream.product()
+                  .key( 'a', 1..3 )
+                  .key( 'b', 1..3 )
+                  .where( 'a' ) { a != 2 }
+                  .stream()
+                  .map { "$a$b".toString() }
+                  .collect() == [ '11', '12', '13', '31', '32', '33' ]
+    }
+
+    def "dependent keys should be computed from earlier values"() {
+        setup:
+            def calls = []
+            def result = Stream.product()
+                               .key( 'a', 1..3 )
+                               .key( 'b' ) { calls << it.a ; a..3 }
+                               .stream()
+                               .map { "$a$b".toString() }
+                               .collect()
+
+        expect:
+            result == [ '11', '12', '13', '22', '23', '33' ]
+            calls == [ 1, 2, 3 ]
+    }
+
+    def "dependent keys should not be computed under a failed constraint"() {
+        setup:
+            def calls = 0
+            def result = Stream.product()
+                               .key( 'a', 1..5 ).where { a > 3 }
+                               .key( 'b' ) { calls++ ; [ a * 10 ] }
+                               .stream()
+                               .collect()
+
+        expect:
+            result == [ [ a:4, b:40 ], [ a:5, b:50 ] ]
+            calls == 2
+    }
+
+    def "an empty dependent key should skip its prefix"() {
+        expect:
+            Stream.product()
+                  .key( 'a', 1..3 )
+                  .key( 'b' ) { a == 2 ? [] : [ a ] }
+                  .stream()
+                  .collect() == [ [ a:1, b:1 ], [ a:3, b:3 ] ]
+    }
+
+    def "functions and predicates should work"() {
+        setup:
+            def twice = { Map m -> [ m.a * 2 ] } as Function
+            def odd = { Map m -> m.a % 2 == 1 } as Predicate
+
+        expect:
+            Stream.product()
+                  .key( 'a', 1..4 ).where( odd )
+                  .key( 'b', twice )
+                  .stream()
+                  .collect() == [ [ a:1, b:2 ], [ a:3, b:6 ] ]
+    }
+
+    def "the first key may be endless"() {
+        expect:
+            Stream.product()
+                  .key( 'a', { Stream.from { 1 } } as Iterable )
+                  .key( 'b', 1..2 )
+                  .stream()
+                  .take( 3 )
+                  .collect() == [ [ a:1, b:1 ], [ a:1, b:2 ], [ a:1, b:1 ] ]
+    }
+
+    def "reused tuples should be the same object"() {
+        setup:
+            def result = Stream.product().key( 'a', 1..3 ).stream( true ).collect()
+
+        expect:
+            result.size() == 3
+            result.every { it.is( result[ 0 ] ) }
+    }
+
+    def "a builder should stream more than once"() {
+        setup:
+            def builder = Stream.product().key( 'a', 1..2 ).key( 'b' ) { [ a ] }
+
+        expect:
+            builder.stream().collect() == [ [ a:1, b:1 ], [ a:2, b:2 ] ]
+            builder.stream().collect() == [ [ a:1, b:1 ], [ a:2, b:2 ] ]
+    }
+
+    def "no keys should give one empty combination"() {
+        expect:
+            Stream.product().stream().collect() == [ [:] ]
+    }
+
+    def "a constraint with no key should throw IllegalStateException"() {
+        when:
+            Stream.product().where { true }
+        then:
+            IllegalStateException ex = thrown()
+    }
+
+    def "a constraint on an unknown key should throw IllegalArgumentException"() {
+        when:
+            Stream.product().key( 'a', 1..2 ).where( 'b' ) { true }
+        then:
+            IllegalArgumentException ex = thrown()
+    }
+
+    def "adding a key twice should throw IllegalArgumentException"() {
+        when:
+            Stream.product().key( 'a', 1..2 ).key( 'a', 1..2 )
+        then:
+            IllegalArgumentException ex = thrown()
+    }
+}
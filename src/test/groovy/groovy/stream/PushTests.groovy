@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream
+
+class PushTests extends spock.lang.Specification {
+    def "forEach should push every element"() {
+        setup:
+            def list = []
+        when:
+            Stream.from( 1..10 ).filter { it % 3 }.map { it * 2 }.forEach { list << it }
+        then:
+            list == [ 2, 4, 8, 10, 14, 16, 20 ]
+    }
+
+    def "each should return the number of elements"() {
+        setup:
+            def list = []
+        when:
+            def count = Stream.from( 'a'..'e' ).tap { list << it }.each { }
+        then:
+            count == 5
+            list == [ 'a', 'b', 'c', 'd', 'e' ]
+    }
+
+    def "until should stop pulling from the source"() {
+        setup:
+            def source = ( 1..10 ).iterator()
+        when:
+            def result = Stream.from( source ).map { it * 10 }.until { it > 30 }.drainTo( [] )
+        then:
+            result == [ 10, 20, 30 ]
+            source.next() == 5
+    }
+
+    def "take should stop pulling from the source"() {
+        setup:
+            def x = 0
+            def pulled = 0
+            def eternal = [ hasNext:{ true }, next:{ pulled++ ; x++ } ] as Iterator
+        when:
+            def result = Stream.from( eternal ).filter { it % 2 }.take( 3 ).drainTo( [] )
+        then:
+            result == [ 1, 3, 5 ]
+            pulled == 6
+    }
+
+    def "pushing should carry on from a partially iterated stream"() {
+        setup:
+            def stream = Stream.from( 1..5 ).map { it * 2 }
+        when:
+            def first = stream.next()
+            def hasMore = stream.hasNext()
+            def rest = stream.drainTo( [] )
+        then:
+            first == 2
+            hasMore
+            rest == [ 4, 6, 8, 10 ]
+            !stream.hasNext()
+    }
+
+    def "unfused streams can be drained"() {
+        expect:
+            Stream.from( 1..10 ).skip( 7 ).drainTo( [] ) == [ 8, 9, 10 ]
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream
+
+import static groovy.stream.iterators.SizedIterator.*
+
+class SizeTests extends spock.lang.Specification {
+    def "sources should report their exact size"() {
+        setup:
+            int[] array = 1..7
+        expect:
+            Stream.from( 1..10 ).estimateSize() == 10
+            Stream.from( [ 1, 2, 3 ] ).estimateSize() == 3
+            Stream.from( [ 1, 2, 3 ] as LinkedList ).estimateSize() == 3
+            Stream.from( array ).estimateSize() == 7
+            Stream.from( a:1..3, b:'a'..'d' ).estimateSize() == 12
+            Stream.from( a:1..3, b:'a'..'d' ).hasCharacteristics( SIZED )
+    }
+
+    def "unsized sources should report -1"() {
+        expect:
+            Stream.from( { 1 } ).estimateSize() == -1
+            Stream.from( ( 1..3 ).iterator() ).characteristics() == 0
+    }
+
+    def "sources should report sorted and distinct elements"() {
+        expect:
+            Stream.from( 1..5 ).hasCharacteristics( SIZED | SORTED | DISTINCT )
+            Stream.from( 5..1 ).characteristics() == ( SIZED | DISTINCT )
+            Stream.from( [ 3, 1, 2 ] as TreeSet ).hasCharacteristics( SORTED | DISTINCT )
+            Stream.from( [ 3, 1, 2 ] as HashSet ).characteristics() == ( SIZED | DISTINCT )
+            Stream.from( [ 3, 1, 2 ] ).characteristics() == SIZED
+    }
+
+    def "stages should update the size and characteristics"() {
+        expect:
+            stream.estimateSize() == size
+            stream.characteristics() == characteristics
+        where:
+            stream                                          | size | characteristics
+            Stream.from( 1..10 ).map { it * 2 }             | 10   | SIZED
+            Stream.from( 1..10 ).filter { it % 2 }          | 10   | SORTED + DISTINCT
+            Stream.from( 1..10 ).until { it > 4 }           | 10   | SORTED + DISTINCT
+            Stream.from( 1..10 ).tap { }                    | 10   | SIZED + SORTED + DISTINCT
+            Stream.from( 1..10 ).map { it }.take( 3 )       | 3    | SIZED
+            Stream.from( 1..2 ).map { it }.take( 3 )        | 2    | SIZED
+            Stream.from( 1..10 ).take( 3 )                  | 3    | SIZED + SORTED + DISTINCT
+            Stream.from( 1..10 ).skip( 3 )                  | 7    | SIZED + SORTED + DISTINCT
+            Stream.from( { 1 } ).map { it }.take( 4 )       | 4    | 0
+    }
+
+    def "size should count down during iteration"() {
+        setup:
+            def stream = Stream.from( 1..10 ).map { it * 2 }.take( 5 )
+        when:
+            stream.next()
+            stream.next()
+        then:
+            stream.estimateSize() == 3
+        when:
+            stream.hasNext()
+        then:
+            stream.estimateSize() == 3
+        when:
+            stream.collect()
+        then:
+            stream.estimateSize() == 0
+    }
+
+    def "map iterator size should count down"() {
+        setup:
+            def stream = Stream.from( a:1..2, b:1..3 )
+        when:
+            stream.next()
+            stream.hasNext()
+        then:
+            stream.estimateSize() == 5
+        when:
+            stream.collect()
+        then:
+            stream.estimateSize() == 0
+    }
+
+    def "toList should return the remaining elements"() {
+        expect:
+            Stream.from( 1..10 ).filter { it % 3 == 0 }.toList() == [ 3, 6, 9 ]
+            Stream.from( ( 1..3 ).iterator() ).toList() == [ 1, 2, 3 ]
+    }
+
+    def "toList with an expected size should return the remaining elements"() {
+        expect:
+            Stream.from( ( 1..50 ).iterator() ).toList( 4 ) == ( 1..50 ).toList()
+            Stream.from( 1..10 ).toList( 0 ) == ( 1..10 ).toList()
+        when:
+            Stream.from( 1..10 ).toList( -1 )
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "arrays should be filled in order whether or not the size is known"() {
+        setup:
+            def expected = ( 1..n ).toList()
+        expect:
+            Stream.from( source( n ) ).toArray() as List == expected
+            Stream.from( source( n ) ).toArray( Integer ) as List == expected
+            Stream.from( source( n ) ).toIntArray() as List == expected
+            Stream.from( source( n ) ).toLongArray() as List == expected*.longValue()
+            Stream.from( source( n ) ).toDoubleArray() as List == expected*.doubleValue()
+        where:
+            n     | source
+            1     | { ( 1..it ).toList() }
+            1     | { ( 1..it ).iterator() }
+            17    | { ( 1..it ).iterator() }
+            5000  | { ( 1..it ).iterator() }
+            5000  | { ( 1..it ).toList() }
+    }
+
+    def "toArray should fill a typed array"() {
+        when:
+            def sized = Stream.from( [ 'a', 'b' ] ).toArray( String )
+            def filtered = Stream.from( [ 'a', 'bb', 'c' ] ).filter { it.size() == 1 }.toArray( String )
+        then:
+            sized.class == String[]
+            sized == [ 'a', 'b' ] as String[]
+            filtered.class == String[]
+            filtered == [ 'a', 'c' ] as String[]
+            Stream.from( [] ).toArray().length == 0
+            Stream.from( [].iterator() ).toIntArray().length == 0
+        when:
+            Stream.from( [ 'a', 1 ] ).toArray( String )
+        then:
+            thrown ArrayStoreException
+    }
+
+    def "parallel streams should fill arrays in order"() {
+        expect:
+            Stream.from( 1..10000 ).parallel( 4 ).map { it * 2 }.toIntArray() as List == ( 1..10000 ).collect { it * 2 }
+    }
+
+    def "huge sized streams should not be allocated for before they are read"() {
+        when:
+            Stream.from( a:0..<65536, b:0..<65536 ).map { if( it.b == 3 ) throw new IllegalStateException( 'read' ) ; it }."$terminal"()
+        then:
+            IllegalStateException ex = thrown()
+            ex.message == 'read'
+        where:
+            terminal << [ 'toList', 'toArray' ]
+    }
+
+    def "sized streams larger than the presized capacity should still be gathered in order"() {
+        expect:
+            Stream.from( 0..<100000 ).toList() == ( 0..<100000 ).toList()
+            Stream.from( 0..<100000 ).toArray() as List == ( 0..<100000 ).toList()
+            Stream.from( 0..<100000 ).toIntArray() as List == ( 0..<100000 ).toList()
+    }
+}
@@ -40,4 +40,46 @@ class SkipTests extends spock.lang.Specification {
             1..10 | 10 | []
             1..10 | 11 | []
     }
-}
\ No newline at end of file
+
+    @spock.lang.Unroll( "Skipping #n elements from an array should yield #result" )
+    def "Test array skip"() {
+        setup:
+            int[] array = 1..5
+            def stream = Stream.from( array ).skip( n )
+
+        expect:
+            stream.collect() == result
+
+        where:
+            n  | result
+            0  | [ 1, 2, 3, 4, 5 ]
+            2  | [ 3, 4, 5 ]
+            5  | []
+            6  | []
+    }
+
+    def "skip on a random access list should not read the skipped elements"() {
+        setup:
+            def list = new CountingList( size: 1000000 )
+        when:
+            def result = Stream.from( list ).skip( 999998 ).collect()
+        then:
+            result == [ 999998, 999999 ]
+            list.reads == 2
+    }
+
+    def "skip on a reader should skip whole lines"() {
+        setup:
+            def reader = new BufferedReader( new StringReader( ( 1..10 ).join( '\n' ) ) )
+        expect:
+            Stream.from( reader ).skip( 7 ).collect() == [ '8', '9', '10' ]
+    }
+}
+
+class CountingList extends AbstractList<Integer> implements RandomAccess {
+    int size
+    int reads = 0
+
+    Integer get( int i ) { reads++ ; i }
+    int size() { size }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream
+
+class SlidingTests extends spock.lang.Specification {
+    def random = new Random( 42 )
+
+    def "slidingSum should match summing each window"() {
+        setup:
+            def values = ( 1..200 ).collect { random.nextInt( 1000 ) - 500 }
+        expect:
+            Stream.from( values ).slidingSum( size ).collect() == values.collate( size, 1, false )*.sum()
+        where:
+            size << [ 1, 2, 7, 50, 200 ]
+    }
+
+    def "slidingSum of doubles should be added up again every window size"() {
+        setup:
+            def values = ( 1..5000 ).collect { random.nextDouble() * 1e6 - 5e5 }
+            def expected = values.collate( 10, 1, false )*.sum()
+        when:
+            def result = Stream.from( values ).slidingSum( 10 ).collect()
+        then:
+            result.size() == expected.size()
+            ( 0..<result.size() ).step( 10 ).every { result[ it ] == expected[ it ] }
+            ( 0..<result.size() ).every { Math.abs( result[ it ] - expected[ it ] ) < 1e-6 }
+    }
+
+    def "slidingAverage should match averaging each window"() {
+        setup:
+            def values = ( 1..100 ).collect { random.nextInt( 100 ) }
+        expect:
+            Stream.from( values ).slidingAverage( 8 ).collect() == values.collate( 8, 1, false ).collect { it.sum() / it.size() }
+    }
+
+    def "slidingMin and slidingMax should match each window"() {
+        setup:
+            def values = ( 1..300 ).collect { random.nextInt( 20 ) }
+        expect:
+            Stream.from( values ).slidingMin( size ).collect() == values.collate( size, 1, false )*.min()
+            Stream.from( values ).slidingMax( size ).collect() == values.collate( size, 1, false )*.max()
+        where:
+            size << [ 1, 2, 5, 31, 300 ]
+    }
+
+    def "windows larger than the stream should return nothing"() {
+        expect:
+            Stream.from( 1..3 ).slidingSum( 4 ).collect() == []
+            Stream.from( 1..3 ).slidingMax( 4 ).collect() == []
+    }
+
+    def "window size must be positive"() {
+        when:
+            Stream.from( 1..3 ).slidingMin( 0 )
+        then:
+            thrown IllegalArgumentException
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream
+
+import groovy.stream.functions.*
+import java.util.concurrent.*
+
+class StreamPipelineTests extends spock.lang.Specification {
+    def "pipeline can be applied to many sources"() {
+        setup:
+            def pipeline = StreamPipeline.create().filter { it % 2 == 0 }.map { it * 10 }
+
+        expect:
+            pipeline.apply( 1..6 ).collect() == [ 20, 40, 60 ]
+            pipeline.apply( [ 7, 8 ] ).collect() == [ 80 ]
+            pipeline.apply( [ 10 ].iterator() ).collect() == [ 100 ]
+            pipeline.apply( Stream.from( 1..4 ).map { it + 1 } ).collect() == [ 20, 40 ]
+    }
+
+    def "each run starts with fresh state"() {
+        setup:
+            def pipeline = StreamPipeline.create().mapWithIndex { it, idx -> "$idx:$it" }.take( 2 )
+
+        expect:
+            pipeline.apply( 'a'..'e' ).collect() == [ '0:a', '1:b' ]
+            pipeline.apply( 'x'..'z' ).collect() == [ '0:x', '1:y' ]
+    }
+
+    def "adding steps leaves the original pipeline unchanged"() {
+        setup:
+            def base = StreamPipeline.create().map { it * 2 }
+            def more = base.filter { it > 4 }
+
+        expect:
+            base.apply( 1..4 ).collect() == [ 2, 4, 6, 8 ]
+            more.apply( 1..4 ).collect() == [ 6, 8 ]
+    }
+
+    def "template closures are never called"() {
+        setup:
+            def template = { it.toUpperCase() }
+            def pipeline = StreamPipeline.create().map( template )
+            def delegate = template.delegate
+
+        when:
+            def result = pipeline.apply( [ 'a', 'b' ] ).collect()
+
+        then:
+            result == [ 'A', 'B' ]
+            template.delegate.is( delegate )
+    }
+
+    def "pipeline is shared between threads"() {
+        setup:
+            def pipeline = StreamPipeline.create()
+                                         .mapWithIndex { it, idx -> it + idx }
+                                         .filter { it % 2 == 0 }
+            def pool = Executors.newFixedThreadPool( 4 )
+
+        when:
+            def futures = ( 1..16 ).collect { n ->
+                pool.submit( { pipeline.apply( 0..<1000 ).collect().size() } as Callable )
+            }
+            def sizes = futures*.get()
+
+        then:
+            sizes == [ 1000 ] * 16
+
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "java function steps"() {
+        setup:
+            def pipeline = StreamPipeline.<Integer>create()
+                                         .filter( { it > 1 } as Predicate )
+                                         .map( { it * 3 } as Function )
+                                         .flatMap( { [ it, it ] } as Function )
+                                         .untilWithIndex( { it, idx -> idx == 4 } as IndexedPredicate )
+
+        expect:
+            pipeline.apply( 1..5 ).collect() == [ 6, 6, 9, 9 ]
+            pipeline.apply( 2..3 ).collect() == [ 6, 6, 9, 9 ]
+    }
+
+    def "flatMapEmit and tap steps"() {
+        setup:
+            def seen = [].asSynchronized()
+            def pipeline = StreamPipeline.create()
+                                         .flatMapEmit { it, emit -> it.times { emit( it ) } }
+                                         .tapEveryWithIndex( 2 ) { it, idx -> seen << idx }
+
+        when:
+            def result = pipeline.apply( [ 1, 2 ] ).collect()
+
+        then:
+            result == [ 0, 0, 1 ]
+            seen == [ 1 ]
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream
+
+import groovy.stream.functions.*
+
+class TerminalTests extends spock.lang.Specification {
+    def "count reads every element"() {
+        expect:
+            Stream.from( 1..100 ).filter { it % 10 == 0 }.count() == 10
+            Stream.from( [] ).count() == 0
+            Stream.from( 1..1000 ).parallel( 4 ).map { it * 2 }.count() == 1000
+    }
+
+    def "count skips sized sources rather than reading them"() {
+        setup:
+            def product = Stream.from( a:1..100000, b:1..100000 )
+            def list = Stream.from( 1..10 )
+            list.next()
+            list.next()
+
+        expect:
+            product.count() == 10000000000L
+            !product.hasNext()
+            list.count() == 8
+            !list.hasNext()
+            Stream.from( [ 1, 2, 3 ] as Integer[] ).parallel( 2 ).count() == 3
+    }
+
+    def "reduce and fold"() {
+        expect:
+            Stream.from( 1..5 ).reduce { a, b -> a + b } == 15
+            Stream.from( [ 7 ] ).reduce { a, b -> a + b } == 7
+            Stream.from( [] ).reduce { a, b -> a + b } == null
+            Stream.from( 1..3 ).fold( [] ) { list, v -> list << v * 2 } == [ 2, 4, 6 ]
+            Stream.from( [] ).fold( 'empty' ) { a, b -> a + b } == 'empty'
+            Stream.from( 1..4 ).reduce( { a, b -> a * b } as Function2 ) == 24
+            Stream.from( 'a'..'c' ).fold( 0, { n, s -> n + s.size() } as Function2 ) == 3
+    }
+
+    def "sum keeps the element types"() {
+        expect:
+            Stream.from( input ).sum() == expected
+            Stream.from( input ).sum().class == type
+
+        where:
+            input                                   | expected               | type
+            1..4                                    | 10                     | Integer
+            [ Integer.MAX_VALUE, 1 ]                | Integer.MAX_VALUE + 1L | Long
+            [ 1, 2L ]                               | 3L                     | Long
+            [ 1, 0.5d ]                             | 1.5d                   | Double
+            [ 1, 0.5f ]                             | 1.5d                   | Double
+            [ 1, 0.25G, 2 ]                         | 3.25G                  | BigDecimal
+    }
+
+    def "sum of no elements is null as in Groovy"() {
+        expect:
+            [].sum() == null
+            Stream.from( [] ).sum() == null
+            Stream.from( [] ).parallel( 2 ).sum() == null
+            Stream.from( [ 1, 2 ] ).filter { it > 2 }.sum() == null
+    }
+
+    def "sum adds elements which are not numbers as Groovy would"() {
+        expect:
+            Stream.from( input ).sum() == input.sum()
+            Stream.from( input ).parallel( 2 ).sum() == input.sum()
+            Stream.from( input.iterator() ).parallel( 3 ).map { it }.sum() == input.sum()
+
+        where:
+            input << [
+                [ 'a', 'b' ],
+                [ [ 1 ], [ 2 ], [ 3, 4 ] ],
+                [ 1, 2, 'a', 3 ],
+                'a'..'j',
+            ]
+    }
+
+    def "average should not accept elements which are not numbers"() {
+        when:
+            Stream.from( [ 1, 'a' ] ).average()
+
+        then:
+            thrown( ClassCastException )
+    }
+
+    def "average"() {
+        expect:
+            Stream.from( 1..4 ).average() == 2.5d
+            Stream.from( [ 1, 2G ] ).average() == 1.5G
+            Stream.from( [] ).average() == null
+    }
+
+    def "min and max"() {
+        setup:
+            def words = [ 'bb', 'a', 'ccc', 'dd' ]
+
+        expect:
+            Stream.from( [ 3, 1, 4, 1, 5 ] ).min() == 1
+            Stream.from( [ 3, 1, 4, 1, 5 ] ).max() == 5
+            Stream.from( words ).min { it.size() } == 'a'
+            Stream.from( words ).max { it.size() } == 'ccc'
+            Stream.from( words ).max { a, b -> b <=> a } == 'a'
+            Stream.from( words ).min( String.CASE_INSENSITIVE_ORDER ) == 'a'
+            Stream.from( words ).max( { a, b -> a.size() <=> b.size() } as Comparator ) == 'ccc'
+            Stream.from( [ 'x', 'yy', 'zz' ] ).max { it.size() } == 'yy'
+            Stream.from( [] ).min() == null
+    }
+
+    def "min and max ignore nulls as Groovy does"() {
+        expect:
+            Stream.from( input ).min() == input.min()
+            Stream.from( input ).max() == input.max()
+            Stream.from( input ).parallel( 2 ).min() == input.min()
+            Stream.from( input ).parallel( 2 ).max() == input.max()
+
+        where:
+            input << [
+                [ null, 3, 1 ],
+                [ 3, null, 1 ],
+                [ 3, 1, null ],
+                [ null, null ],
+            ]
+    }
+
+    def "matching stops reading as soon as the answer is known"() {
+        setup:
+            def read = 0
+            def stream = Stream.from( 1..10 ).tap { read++ }
+
+        expect:
+            stream.anyMatch { it == 3 }
+            read == 3
+            !stream.allMatch { it < 6 }
+            read == 6
+            stream.findFirst { it > 7 } == 8
+            read == 8
+            stream.collect() == [ 9, 10 ]
+    }
+
+    def "matching with predicates"() {
+        setup:
+            def even = { it % 2 == 0 } as Predicate
+
+        expect:
+            Stream.from( [ 1, 3, 4 ] ).anyMatch( even )
+            !Stream.from( [ 1, 3, 5 ] ).anyMatch( even )
+            Stream.from( [ 2, 4 ] ).allMatch( even )
+            Stream.from( [] ).allMatch( even )
+            Stream.from( [ 1, 3, 4, 6 ] ).findFirst( even ) == 4
+            Stream.from( [ 1, 3 ] ).findFirst( even ) == null
+            !Stream.from( [] ).anyMatch { true }
+    }
+
+    def "findFirst reads one element"() {
+        setup:
+            def stream = Stream.from( 1..5 ).map { it * 10 }
+
+        expect:
+            stream.findFirst() == 10
+            stream.findFirst() == 20
+            Stream.from( [] ).findFirst() == null
+    }
+
+    def "primitive streams reduce without boxing"() {
+        expect:
+            IntStream.range( 1, 101 ).sum() == 5050
+            IntStream.from( [ Integer.MAX_VALUE, 1 ] as int[] ).sum() == Integer.MAX_VALUE + 1L
+            IntStream.range( 0, 10 ).count() == 10
+            IntStream.from( [ 4, 2, 9 ] as int[] ).min() == 2
+            IntStream.from( [ 4, 2, 9 ] as int[] ).max() == 9
+            IntStream.from( [ 1, 2 ] as int[] ).average() == 1.5d
+            IntStream.from( [] as int[] ).average() == null
+            IntStream.from( [] as int[] ).min() == null
+            IntStream.range( 0, 10 ).anyMatch { it == 5 }
+            !IntStream.range( 0, 10 ).allMatch { it < 5 }
+            IntStream.range( 3, 10 ).findFirst() == 3
+            LongStream.from( [ 1L, 5L, 3L ] as long[] ).max() == 5L
+            LongStream.from( [ 1L, 5L, 3L ] as long[] ).sum() == 9L
+            DoubleStream.from( [ 0.5d, 1.5d ] as double[] ).sum() == 2.0d
+            DoubleStream.from( [ 0.5d, 1.5d ] as double[] ).min() == 0.5d
+            DoubleStream.from( [ 0.5d, 1.5d ] as double[] ).allMatch( { it < 2 } as DoublePredicate )
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package groovy.stream.iterators
+
+class ArrayIteratorTests extends spock.lang.Specification {
+
+    String[] array = [ 'a', 'b', 'c', 'd' ]
+    ArrayIterator iter
+
+    def setup() {
+        iter = ArrayIterator.of( array )
+    }
+
+    def "collect should return values"() {
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 'a', 'b', 'c', 'd' ]
+    }
+
+    def "call to next with no hasNext should work"() {
+        expect:
+            iter.next() == 'a'
+            iter.hasNext() == true
+    }
+
+    def "remove should throw UnsupportedOperationException"() {
+        when:
+            iter.next()
+            iter.remove()
+        then:
+            thrown UnsupportedOperationException
+    }
+
+    def "Test NoSuchElementException"() {
+        when:
+            5.times { iter.next() }
+        then:
+            thrown NoSuchElementException
+    }
+
+    def "skip should move the index and report the remaining size"() {
+        expect:
+            iter.estimateSize() == 4
+            iter.skip( 3 ) == 3
+            iter.estimateSize() == 1
+            iter.next() == 'd'
+            iter.skip( 10 ) == 0
+            !iter.hasNext()
+    }
+
+    def "primitive arrays should be read in place"() {
+        setup:
+            int[] ints = [ 1, 2, 3 ]
+            def ints_iter = ArrayIterator.of( ints )
+        when:
+            ints[ 1 ] = 20
+        then:
+            ints_iter.collect() == [ 1, 20, 3 ]
+            ints_iter.asList() == [ 1, 20, 3 ]
+    }
+}
@@ -79,4 +79,43 @@ class BufferedReaderIteratorTest extends Specification {
         then:
             result == [ 'Line 1' ]
     }
-}
\ No newline at end of file
+
+    @Unroll( "skip #n lines of #input.inspect() should leave #result" )
+    def "skip should match readLine"() {
+        setup:
+            def iter = new BufferedReaderIterator( new BufferedReader( new StringReader( input ), 8 ) )
+        when:
+            def skipped = iter.skip( n )
+        then:
+            skipped == count
+            iter.collect() == result
+        where:
+            input                  | n  | count | result
+            'a\nb\nc'              | 1  | 1     | [ 'b', 'c' ]
+            'a\r\nb\r\nc'          | 2  | 2     | [ 'c' ]
+            'a\rb\r\n\nc\n'         | 2  | 2     | [ '', 'c' ]
+            'a\r\n'                | 1  | 1     | []
+            'abc'                  | 5  | 1     | []
+            'a\nb\n'               | 5  | 2     | []
+            '0123456789abcdef\r\nx' | 1  | 1     | [ 'x' ]
+            '0123456\r\nx\ny'       | 1  | 1     | [ 'x', 'y' ]
+    }
+
+    def "skip should count a line that has already been read ahead"() {
+        when:
+            iter.hasNext()
+            def skipped = iter.skip( 2 )
+        then:
+            skipped == 2
+            iter.collect() == [ 'Line 3' ]
+    }
+
+    def "skip should work across many buffers"() {
+        setup:
+            def input = ( 1..5000 ).collect { "Line $it" }.join( '\r\n' )
+            def iter = new BufferedReaderIterator( new BufferedReader( new StringReader( input ) ) )
+        expect:
+            iter.skip( 4997 ) == 4997
+            iter.collect() == [ 'Line 4998', 'Line 4999', 'Line 5000' ]
+    }
+}
@@ -88,4 +88,34 @@ class CollatingIteratorTests extends spock.lang.Specification {
         then:
             result == [ [ 1, null ] ]
     }
-}
\ No newline at end of file
+
+    def "check step larger than size"() {
+        when:
+            def iter = new CollatingIterator( ( 1..10 ).iterator(), 2, 3 )
+            def result = iter.collect()
+        then:
+            result == [ [ 1, 2 ], [ 4, 5 ], [ 7, 8 ], [ 10 ] ]
+    }
+
+    def "windows should stay the same after the buffer is reused"() {
+        when:
+            def result = new CollatingIterator( ( 1..1000 ).iterator(), 50, 7 ).collect()
+        then:
+            result == ( 1..1000 ).collate( 50, 7 )
+    }
+
+    def "windows should copy their elements when changed"() {
+        setup:
+            def overlapping = new CollatingIterator( [ 1, 2, 3, 4 ].iterator(), 3, 1 )
+        when:
+            def first = iter.next()
+            first << 3
+            def window = overlapping.next()
+            window[ 1 ] = 20
+        then:
+            first == [ 1, 2, 3 ]
+            iter.next() == [ null ]
+            window == [ 1, 20, 3 ]
+            overlapping.next() == [ 2, 3, 4 ]
+    }
+}
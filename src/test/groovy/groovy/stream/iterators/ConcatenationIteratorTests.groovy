@@ -54,4 +54,30 @@ class ConcatenationIteratorTests extends spock.lang.Specification {
         then:
             NoSuchElementException ex = thrown()
     }
-}
\ No newline at end of file
+
+    def "an iterable of iterators should be concatenated"() {
+        setup:
+            def all = new ConcatenationIterator( [ [].iterator(), [ 1 ].iterator(), [].iterator(), [ 2, 3 ].iterator() ] )
+
+        expect:
+            all.collect() == [ 1, 2, 3 ]
+    }
+
+    def "concatenating onto a concatenation should copy its queue"() {
+        setup:
+            def next = new ConcatenationIterator( iter, [ 5 ].iterator() )
+
+        expect:
+            next.collect() == [ 1, 2, null, 4, 5 ]
+            !iter.hasNext()
+    }
+
+    def "concatenating onto a concatenation should leave it as it was"() {
+        setup:
+            def next = new ConcatenationIterator( iter, [ 5 ].iterator() )
+
+        expect:
+            iter.collect() == [ 1, 2, null, 4 ]
+            next.collect() == [ 5 ]
+    }
+}
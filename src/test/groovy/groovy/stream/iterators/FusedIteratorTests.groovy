@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators
+
+import groovy.stream.stages.FilteringStage
+import groovy.stream.stages.TapStage
+import groovy.stream.stages.TransformingStage
+import groovy.stream.stages.UntilStage
+
+class FusedIteratorTests extends spock.lang.Specification {
+
+    def list = [ 1, 2, 3, 4, 5 ]
+    def tapped = []
+    FusedIterator iter
+
+    def setup() {
+        iter = new FusedIterator( list.iterator(),
+                                  new FilteringStage( { it % 2 }, false ),
+                                  new TransformingStage( { it * 10 }, false ),
+                                  new TapStage( 1, true, { obj, idx -> tapped << [ idx, obj ] } ) )
+    }
+
+    def "collect should return values"() {
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 10, 30, 50 ]
+            tapped == [ [ 0, 10 ], [ 1, 30 ], [ 2, 50 ] ]
+    }
+
+    def "trailing taps should only fire on next"() {
+        expect:
+            iter.hasNext() == true
+            tapped == []
+            iter.next() == 10
+            tapped == [ [ 0, 10 ] ]
+    }
+
+    def "until should stop the pipeline"() {
+        setup:
+            def source = list.iterator()
+            iter = new FusedIterator( source, new UntilStage( { it == 3 }, false ), new TransformingStage( { it * 2 }, false ) )
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 2, 4 ]
+            source.next() == 4
+            iter.hasNext() == false
+    }
+
+    def "no stages should return the source"() {
+        expect:
+            new FusedIterator( list.iterator() ).collect() == list
+    }
+
+    def "remove should throw UnsupportedOperationException"() {
+        when:
+            iter.remove()
+        then:
+            UnsupportedOperationException ex = thrown()
+    }
+
+    def "Test NoSuchElementException"() {
+        when:
+            def result = iter.collect()
+            iter.next()
+
+        then:
+            NoSuchElementException ex = thrown()
+    }
+}
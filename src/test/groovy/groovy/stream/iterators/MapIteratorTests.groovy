@@ -16,6 +16,8 @@
 
 package groovy.stream.iterators
 
+import groovy.stream.Stream
+
 class MapIteratorTests extends spock.lang.Specification {
     MapIterator iter
 
@@ -54,4 +56,154 @@ class MapIteratorTests extends spock.lang.Specification {
         then:
             NoSuchElementException ex = thrown()
     }
-}
\ No newline at end of file
+
+    def "inner iterables should only be iterated once"() {
+        setup:
+            def calls = 0
+            def inner = [ iterator:{ calls++ ; [ 1, 2 ].iterator() } ] as Iterable
+        when:
+            def result = new MapIterator( [ a:1..3, b:inner ] ).collect()
+        then:
+            result.size() == 6
+            calls == 1
+    }
+
+    def "an endless first iterable should be streamed"() {
+        setup:
+            def x = 0
+            def endless = [ iterator:{ [ hasNext:{ true }, next:{ x++ } ] as Iterator } ] as Iterable
+        when:
+            def result = new MapIterator( [ a:endless, b:[ 'x', 'y' ] ] ).take( 3 ).collect()
+        then:
+            result == [ [ a:0, b:'x' ], [ a:0, b:'y' ], [ a:1, b:'x' ] ]
+    }
+
+    def "combinations should be mutable maps"() {
+        when:
+            def all = Stream.from( a:1..2, b:3..4 ).map { it.c = it.a + it.b ; it }.collect()
+        then:
+            all == [ [ a:1, b:3, c:4 ], [ a:1, b:4, c:5 ], [ a:2, b:3, c:5 ], [ a:2, b:4, c:6 ] ]
+            iter.next() instanceof LinkedHashMap
+            iter.get( 1 ) instanceof LinkedHashMap
+            iter.asList()[ 2 ] instanceof LinkedHashMap
+    }
+
+    def "reused combinations should be read only maps"() {
+        setup:
+            def iter = new MapIterator( [ tim:1..3, alice:4..6 ], true )
+        when:
+            def first = iter.next()
+        then:
+            first instanceof Combination
+            first.keyAt( 1 ) == 'alice'
+            first.valueAt( 1 ) == 4
+            first.alice == 4
+            first.keySet() as List == [ 'tim', 'alice' ]
+        when:
+            first.put( 'tim', 2 )
+        then:
+            UnsupportedOperationException ex = thrown()
+    }
+
+    def "reused combinations should be updated in place"() {
+        setup:
+            def iter = new MapIterator( [ a:1..2, b:1..2 ], true )
+        when:
+            def first = iter.next()
+            def copy = new LinkedHashMap( first )
+            def second = iter.next()
+        then:
+            first.is( second )
+            copy == [ a:1, b:1 ]
+            second == [ a:1, b:2 ]
+    }
+
+    def "empty dimensions should give no combinations"() {
+        expect:
+            new MapIterator( [ a:1..2, b:[] ] ).collect() == []
+            new MapIterator( [ a:[], b:1..2 ] ).collect() == []
+    }
+
+    def "count and get should not need to iterate"() {
+        setup:
+            def all = new MapIterator( [ a:1..3, b:'a'..'d', c:[ true, false ] ] ).collect()
+            def indexed = new MapIterator( [ a:1..3, b:'a'..'d', c:[ true, false ] ] )
+        expect:
+            indexed.count() == 24
+            ( 0..<24 ).collect { indexed.get( it ) } == all
+            indexed.next() == all[ 0 ]
+    }
+
+    @spock.lang.Unroll( "skipping #n after reading #read should match iteration" )
+    def "skip should jump to the right combination"() {
+        setup:
+            def all = new MapIterator( [ a:1..3, b:1..4 ] ).collect()
+            def iter = new MapIterator( [ a:1..3, b:1..4 ] )
+        when:
+            def first = ( 0..<read ).collect { iter.next() }
+            if( lookahead ) iter.hasNext()
+            def skipped = iter.skip( n )
+        then:
+            first == all.take( read )
+            skipped == Math.min( n, 12 - read )
+            iter.collect() == all.drop( read + n )
+            iter.estimateSize() == 0
+        where:
+            read | n  | lookahead
+            0    | 5  | false
+            0    | 5  | true
+            3    | 4  | true
+            3    | 20 | false
+            11   | 1  | true
+    }
+
+    def "skip should iterate when the first iterable is not a collection"() {
+        setup:
+            def x = 0
+            def endless = [ iterator:{ [ hasNext:{ true }, next:{ x++ } ] as Iterator } ] as Iterable
+            def iter = new MapIterator( [ a:endless, b:[ 'x', 'y' ] ] )
+        when:
+            iter.skip( 5 )
+        then:
+            iter.count() == -1
+            iter.next() == [ a:2, b:'y' ]
+    }
+
+    def "get should check the index"() {
+        when:
+            iter.get( 9 )
+        then:
+            IndexOutOfBoundsException ex = thrown()
+    }
+
+    def "asList ranges should iterate from their first index"() {
+        setup:
+            def all = new MapIterator( [ a:1..4, b:1..5 ] ).collect()
+            def list = new MapIterator( [ a:1..4, b:1..5 ] ).asList()
+        expect:
+            list.size() == 20
+            list == all
+            list.subList( 7, 13 ).iterator().collect() == all[ 7..<13 ]
+            list.subList( 7, 13 ).subList( 2, 4 ) == all[ 9..<11 ]
+    }
+
+    def "range should reach combinations past the end of asList"() {
+        setup:
+            def huge = new MapIterator( [ a:0..<65536, b:0..<65536 ] )
+            huge.skip( 65536L * 65536 - 10 )
+        expect:
+            huge.asList() == null
+            huge.estimateSize() == 10
+            huge.range( 4, 7 )*.b == [ 65530, 65531, 65532 ]
+            huge.next() == [ a:65535, b:65526 ]
+            huge.range( 0, 2 )*.b == [ 65527, 65528 ]
+            huge.range( 0, 9 ).subList( 7, 9 ).iterator().collect()*.b == [ 65534, 65535 ]
+    }
+
+    def "range should check its bounds"() {
+        when:
+            iter.range( 2, 10 )
+        then:
+            IndexOutOfBoundsException ex = thrown()
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators
+
+import groovy.stream.stages.FilteringStage
+import groovy.stream.stages.FlatMapStage
+import groovy.stream.stages.Stage
+import groovy.stream.stages.TransformingStage
+
+class ParallelIteratorTests extends spock.lang.Specification {
+
+    def list = ( 1..20 ).toList()
+    ParallelIterator iter
+
+    def setup() {
+        Stage[] stages = [ new FilteringStage( { it % 2 }, false ), new TransformingStage( { it * 10 }, false ) ]
+        iter = new ParallelIterator( list.listIterator(), list, stages, null, 3 )
+    }
+
+    def "collect should return values"() {
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 10, 30, 50, 70, 90, 110, 130, 150, 170, 190 ]
+    }
+
+    def "splitting should start from the current list position"() {
+        setup:
+            def source = list.listIterator()
+            source.next()
+            source.next()
+            iter = new ParallelIterator( source, list, [] as Stage[], null, 2 )
+        expect:
+            iter.collect() == 3..20
+    }
+
+    def "iterators should be read in batches"() {
+        setup:
+            Stage[] stages = [ new FlatMapStage( { [ it, it ] }, false ) ]
+            iter = new ParallelIterator( ( 1..3000 ).iterator(), null, stages, null, 2 )
+        expect:
+            iter.collect() == ( 1..3000 ).collectMany { [ it, it ] }
+    }
+
+    def "call to next with no hasNext should work"() {
+        expect:
+            iter.next() == 10
+            iter.hasNext() == true
+    }
+
+    def "remove should throw UnsupportedOperationException"() {
+        when:
+            iter.remove()
+        then:
+            UnsupportedOperationException ex = thrown()
+    }
+
+    def "Test NoSuchElementException"() {
+        when:
+            def result = iter.collect()
+            iter.next()
+
+        then:
+            NoSuchElementException ex = thrown()
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators
+
+class PrefetchIteratorTests extends spock.lang.Specification {
+
+    def list = [ 1, 2, null, 4, 5 ]
+    PrefetchIterator iter
+
+    def setup() {
+        iter = new PrefetchIterator( list.iterator(), 2 )
+    }
+
+    def "collect should return values"() {
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 1, 2, null, 4, 5 ]
+    }
+
+    def "large sources should pass through a small buffer"() {
+        setup:
+            iter = new PrefetchIterator( ( 1..100000 ).iterator(), 3 )
+        expect:
+            iter.collect() == ( 1..100000 ).toList()
+    }
+
+    def "reading should run ahead of the consumer"() {
+        setup:
+            def read = 0
+            def source = [ hasNext:{ read < 10 }, next:{ ++read } ] as Iterator
+            iter = new PrefetchIterator( source, 4 )
+        when:
+            def first = iter.next()
+            sleep( 200 )
+        then:
+            first == 1
+            read == 6
+    }
+
+    def "exceptions should be thrown after the elements before them"() {
+        setup:
+            def count = 0
+            def source = [ hasNext:{ true }, next:{ if( ++count == 3 ) throw new IllegalStateException( 'boom' ) ; count } ] as Iterator
+            iter = new PrefetchIterator( source, 8 )
+        when:
+            def first = iter.next()
+            def second = iter.next()
+            iter.hasNext()
+        then:
+            first == 1
+            second == 2
+            IllegalStateException ex = thrown()
+            ex.message == 'boom'
+    }
+
+    def "capacity must be positive"() {
+        when:
+            new PrefetchIterator( list.iterator(), 0 )
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "call to next with no hasNext should work"() {
+        expect:
+            iter.next() == 1
+            iter.hasNext() == true
+    }
+
+    def "remove should throw UnsupportedOperationException"() {
+        when:
+            iter.remove()
+        then:
+            UnsupportedOperationException ex = thrown()
+    }
+
+    def "Test NoSuchElementException"() {
+        when:
+            def result = iter.collect()
+            iter.next()
+
+        then:
+            NoSuchElementException ex = thrown()
+    }
+
+    def "closing should stop the reading thread"() {
+        setup:
+            def before = producers()
+            iter = new PrefetchIterator( endless(), 4 )
+        when:
+            def first = iter.next()
+            iter.close()
+        then:
+            first == 1
+            !iter.hasNext()
+            settles { producers() <= before }
+    }
+
+    def "dropped iterators should stop their reading threads"() {
+        setup:
+            def before = producers()
+        when:
+            10.times { startAndDrop() }
+        then:
+            settles {
+                System.gc()
+                producers() <= before
+            }
+    }
+
+    private static Iterator endless() {
+        def count = 0
+        [ hasNext:{ true }, next:{ ++count } ] as Iterator
+    }
+
+    private static void startAndDrop() {
+        new PrefetchIterator( endless(), 16 ).next()
+    }
+
+    private static int producers() {
+        Thread.allStackTraces.keySet().count { it.alive && it.name == 'groovy-stream-prefetch' }
+    }
+
+    private static boolean settles( Closure<Boolean> condition ) {
+        long deadline = System.currentTimeMillis() + 10000
+        while( !condition() && System.currentTimeMillis() < deadline ) {
+            Thread.sleep( 50 )
+        }
+        condition()
+    }
+}
@@ -55,4 +55,53 @@ class RepeatingIteratorTests extends Specification {
         then:
             result == [1, 2, null, 1, 2, null, 1, 2, null, 1, 2, null, 1, 2, null, 1, 2, null, 1, 2]
     }
-}
\ No newline at end of file
+
+    def "Check empty endless repeat"() {
+        setup:
+            def iter = new RepeatingIterator([].iterator())
+        expect:
+            !iter.hasNext()
+    }
+
+    def "Restartable sources should be read again"() {
+        setup:
+            def source = new SkippableListIterator( [ 1, 2, 3 ] )
+            def iter = new RepeatingIterator( source, [] as groovy.stream.stages.Stage[], 3, -1 )
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 1, 2, 3 ] * 3
+    }
+
+    def "Stages should be copied for each pass"() {
+        setup:
+            def calls = 0
+            def stages = [ new groovy.stream.stages.TransformingStage( { calls++ ; it * 2 }, false ),
+                           new groovy.stream.stages.LimitStage( 2 ) ] as groovy.stream.stages.Stage[]
+            def iter = new RepeatingIterator( new SkippableListIterator( [ 1, 2, 3 ] ), stages, 2, -1 )
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 2, 4, 2, 4 ]
+            calls == 4
+    }
+
+    def "Streamed map products should be cached"() {
+        setup:
+            def source = new MapIterator( [ a:{ [ 1, 2 ].iterator() } as Iterable, b:[ 3 ] ] )
+            def iter = new RepeatingIterator( source, [] as groovy.stream.stages.Stage[], 2, -1 )
+        when:
+            def result = iter.collect()
+        then:
+            result == [ [ a:1, b:3 ], [ a:2, b:3 ] ] * 2
+    }
+
+    def "Cached elements should spill past the limit"() {
+        setup:
+            def iter = new RepeatingIterator( ( 1..100 ).iterator(), 3, 10 )
+        when:
+            def result = iter.collect()
+        then:
+            result == ( 1..100 ) * 3
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators
+
+import spock.lang.Specification
+
+class ReplayBufferTests extends Specification {
+    def "elements should be replayed in order"() {
+        setup:
+            def buffer = new ReplayBuffer()
+            ( 1..1000 ).each { buffer.add( it ) }
+            buffer.finish()
+
+        expect:
+            buffer.size() == 1000
+            buffer.spilled() == 0
+            buffer.collect() == ( 1..1000 ).toList()
+            buffer.collect() == ( 1..1000 ).toList()
+    }
+
+    def "elements past the limit should spill to disk"() {
+        setup:
+            def buffer = new ReplayBuffer( 100 )
+            ( 1..10000 ).each { buffer.add( "e$it".toString() ) }
+            buffer.finish()
+
+        expect:
+            buffer.spilled() == 9900
+            buffer.collect() == ( 1..10000 ).collect { "e$it".toString() }
+            buffer.collect().size() == 10000
+
+        cleanup:
+            buffer.close()
+    }
+
+    def "a limit of zero should spill everything"() {
+        setup:
+            def buffer = new ReplayBuffer( 0 )
+            [ 1, null, 3 ].each { buffer.add( it ) }
+            buffer.finish()
+
+        expect:
+            buffer.collect() == [ 1, null, 3 ]
+            buffer.spilled() == 3
+
+        cleanup:
+            buffer.close()
+    }
+
+    def "reading before finishing should throw IllegalStateException"() {
+        setup:
+            def buffer = new ReplayBuffer()
+            buffer.add( 1 )
+
+        when:
+            buffer.iterator()
+
+        then:
+            IllegalStateException ex = thrown()
+    }
+
+    def "adding after finishing should throw IllegalStateException"() {
+        setup:
+            def buffer = new ReplayBuffer()
+            buffer.finish()
+
+        when:
+            buffer.add( 1 )
+
+        then:
+            IllegalStateException ex = thrown()
+    }
+
+    def "Test NoSuchElementException"() {
+        setup:
+            def buffer = new ReplayBuffer()
+            buffer.add( 1 )
+            buffer.finish()
+            def iter = buffer.iterator()
+
+        when:
+            iter.next()
+            iter.next()
+
+        then:
+            NoSuchElementException ex = thrown()
+    }
+}
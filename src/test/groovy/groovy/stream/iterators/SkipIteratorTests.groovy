@@ -53,4 +53,14 @@ class SkipIteratorTests extends spock.lang.Specification {
         then:
             NoSuchElementException ex = thrown()
     }
+
+    def "skipping a list by more than is left should not overflow"() {
+        setup:
+            def source = new SkippableListIterator( list )
+            source.next()
+        expect:
+            source.skip( Long.MAX_VALUE ) == 4
+            !source.hasNext()
+            new SkipIterator( [ 1, 2, 3 ].iterator(), Long.MAX_VALUE ).collect() == []
+    }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovy.stream.iterators.groovy
+
+import groovy.stream.Stream
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class AsyncTransformingIteratorTests extends spock.lang.Specification {
+    def list = [ 1, 2, null, 4, 5 ]
+    AsyncTransformingIterator iter
+
+    def setup() {
+        iter = new AsyncTransformingIterator( list.iterator(), 2, null, { it == null ? 0 : it * 2 } )
+    }
+
+    def "collect should return values"() {
+        when:
+            def result = iter.collect()
+        then:
+            result == [ 2, 4, 0, 8, 10 ]
+    }
+
+    def "results should keep input order"() {
+        setup:
+            iter = new AsyncTransformingIterator( ( 1..20 ).iterator(), 8, null, { sleep( 5 * ( 20 - it ) ) ; it } )
+        expect:
+            iter.collect() == 1..20
+    }
+
+    def "calls should run concurrently"() {
+        setup:
+            def latch = new CountDownLatch( 4 )
+            iter = new AsyncTransformingIterator( ( 1..4 ).iterator(), 4, null, { latch.countDown() ; latch.await( 5, TimeUnit.SECONDS ) } )
+        expect:
+            iter.collect() == [ true, true, true, true ]
+    }
+
+    def "delegates should be set on each call"() {
+        setup:
+            iter = new AsyncTransformingIterator( ( 1..50 ).collect { [ a:it ] }.iterator(), 5, null, { a + 1 } )
+        expect:
+            iter.collect() == 2..51
+    }
+
+    def "supplied executors should be used and left running"() {
+        setup:
+            def pool = Executors.newSingleThreadExecutor()
+            iter = new AsyncTransformingIterator( list.iterator(), 3, pool, { Thread.currentThread().name } )
+        when:
+            def names = iter.collect().unique()
+        then:
+            names.size() == 1
+            !pool.isShutdown()
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "futures should be awaited in order"() {
+        setup:
+            def pool = Executors.newFixedThreadPool( 3 )
+            def futures = new FutureTransformingIterator( ( 1..6 ).iterator(), 3, { n -> pool.submit( { sleep( 10 * ( 6 - n ) ) ; n * n } as Callable ) } )
+        when:
+            def result = futures.collect()
+        then:
+            result == [ 1, 4, 9, 16, 25, 36 ]
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "exceptions should reach the consumer"() {
+        setup:
+            iter = new AsyncTransformingIterator( ( 1..10 ).iterator(), 3, null, { if( it == 4 ) throw new IllegalStateException( 'boom' ) ; it } )
+        when:
+            iter.collect()
+        then:
+            IllegalStateException ex = thrown()
+            ex.message == 'boom'
+    }
+
+    def "call to next with no hasNext should work"() {
+        expect:
+            iter.next() == 2
+            iter.hasNext() == true
+    }
+
+    def "remove should throw UnsupportedOperationException"() {
+        when:
+            iter.remove()
+        then:
+            UnsupportedOperationException ex = thrown()
+    }
+
+    def "Test NoSuchElementException"() {
+        when:
+            def result = iter.collect()
+            iter.next()
+
+        then:
+            NoSuchElementException ex = thrown()
+    }
+
+    def "streams stopped early should let go of their threads"() {
+        setup:
+            def before = poolThreads()
+        when:
+            10.times {
+                Stream.from( 1..1000 ).mapAsync( 4 ) { it * 2 }.take( 3 ).collect()
+            }
+        then:
+            settles { poolThreads() <= before }
+    }
+
+    def "closing should cancel calls in flight"() {
+        setup:
+            def started = new CountDownLatch( 2 )
+            def interrupted = new CountDownLatch( 2 )
+            iter = new AsyncTransformingIterator( ( 1..10 ).iterator(), 2, null, {
+                started.countDown()
+                try {
+                    Thread.sleep( 60000 )
+                }
+                catch( InterruptedException ex ) {
+                    interrupted.countDown()
+                }
+                it
+            } )
+            def reader = Thread.start { try { iter.hasNext() } catch( ignored ) {} }
+        when:
+            started.await( 5, TimeUnit.SECONDS )
+            iter.close()
+        then:
+            interrupted.await( 5, TimeUnit.SECONDS )
+            !iter.hasNext()
+        cleanup:
+            reader.join( 5000 )
+    }
+
+    private static int poolThreads() {
+        Thread.allStackTraces.keySet().count { it.daemon && it.alive && it.name.startsWith( 'pool-' ) }
+    }
+
+    private static boolean settles( Closure<Boolean> condition ) {
+        long deadline = System.currentTimeMillis() + 10000
+        while( !condition() && System.currentTimeMillis() < deadline ) {
+            Thread.sleep( 50 )
+        }
+        condition()
+    }
+}
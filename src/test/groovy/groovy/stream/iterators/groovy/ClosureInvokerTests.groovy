@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package groovy.stream.iterators.groovy
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ClosureInvokerTests extends Specification {
+    @Unroll
+    def "#description closures should be called directly: #direct"() {
+        expect:
+            ClosureInvoker.of( closure, arity ).isDirect() == direct
+
+        where:
+            description    | closure                           | arity | direct
+            'implicit'     | { it * 2 }                        | 1     | true
+            'one param'    | { a -> a * 2 }                    | 1     | true
+            'two params'   | { a, b -> a + b }                 | 2     | true
+            'typed'        | { Integer a -> a * 2 }            | 1     | false
+            'wrong arity'  | { a, b -> a + b }                 | 1     | false
+            'curried'      | { a, b -> a + b }.curry( 1 )      | 1     | false
+            'method'       | 'abc'.&concat                     | 1     | false
+    }
+
+    def "direct calls should give the same results"() {
+        setup:
+            def one = ClosureInvoker.of( { it * 2 }, 1 )
+            def two = ClosureInvoker.of( { a, b -> a + b }, 2 )
+            def three = ClosureInvoker.of( { a, b, c -> a + b + c }, 3 )
+
+        expect:
+            one.call( 4 ) == 8
+            two.call( 'a', 'b' ) == 'ab'
+            three.call( 1, 2, 3 ) == 6
+    }
+
+    def "fallback calls should coerce as Groovy does"() {
+        setup:
+            def spread = ClosureInvoker.of( { a, b -> a + b }, 1 )
+            def curried = ClosureInvoker.of( { a, b -> a + b }.curry( 1 ), 1 )
+
+        expect:
+            spread.call( [ 2, 3 ] ) == 5
+            curried.call( 2 ) == 3
+    }
+
+    def "the delegate should still be used"() {
+        setup:
+            def closure = { a * 2 }
+            def invoker = ClosureInvoker.of( closure, 1 )
+            closure.delegate = [ a:21 ]
+
+        expect:
+            invoker.isDirect()
+            invoker.call( null ) == 42
+    }
+
+    def "exceptions should be thrown unwrapped"() {
+        setup:
+            def invoker = ClosureInvoker.of( { throw new IOException( 'boom' ) }, 1 )
+
+        when:
+            invoker.call( 1 )
+
+        then:
+            IOException ex = thrown()
+            ex.message == 'boom'
+    }
+
+    def "a null closure should give a null invoker"() {
+        expect:
+            ClosureInvoker.of( null, 1 ) == null
+    }
+}
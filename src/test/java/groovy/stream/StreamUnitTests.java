@@ -208,4 +208,24 @@ public class StreamUnitTests {
 
         assertEquals( collectIterator( s ), Arrays.asList( 2, 3, 3, 4, 4, 4 ) );
     }
+
+    @Test
+    public void testForEachStream() {
+        final List<Integer> pushed = new ArrayList<Integer>() ;
+        stream.filter( new Predicate<Integer>() {
+            @Override
+            public boolean call( Integer value ) {
+                return value % 2 == 0 ;
+            }
+        } ).forEach( new Function<Integer, Void>() {
+            @Override
+            public Void call( Integer value ) {
+                pushed.add( value ) ;
+                return null ;
+            }
+        } ) ;
+
+        assertEquals( pushed, Arrays.asList( 2, 4 ) );
+        assertFalse( stream.hasNext() ) ;
+    }
  }